@@ -0,0 +1,68 @@
+package hr.fer.zemris.java.custom.collections.bench;
+
+import java.util.Random;
+
+/**
+ * Describes which positions of a collection an indexed benchmark operation
+ * touches.
+ *
+ * @author labramusic
+ *
+ */
+public enum AccessPattern {
+
+	/**
+	 * Positions 0, 1, 2, ... wrapping around at the end of the collection.
+	 */
+	SEQUENTIAL,
+
+	/**
+	 * Uniformly distributed random positions.
+	 */
+	RANDOM,
+
+	/**
+	 * Always the first position.
+	 */
+	HEAD,
+
+	/**
+	 * Always the last position.
+	 */
+	TAIL;
+
+	/**
+	 * Precomputes positions between 0 and bound - 1 following this pattern, so
+	 * that generating them is not part of the measured time. The number of
+	 * positions is a power of two, so callers can wrap around by masking.
+	 *
+	 * @param bound
+	 *            exclusive upper bound of generated positions
+	 * @param count
+	 *            number of positions to generate, must be a power of two
+	 * @param random
+	 *            source of random positions
+	 * @return array of positions
+	 */
+	public int[] positions(int bound, int count, Random random) {
+		int[] positions = new int[count];
+		for (int i = 0; i < count; ++i) {
+			switch (this) {
+			case SEQUENTIAL:
+				positions[i] = i % bound;
+				break;
+			case RANDOM:
+				positions[i] = random.nextInt(bound);
+				break;
+			case HEAD:
+				positions[i] = 0;
+				break;
+			case TAIL:
+				positions[i] = bound - 1;
+				break;
+			}
+		}
+		return positions;
+	}
+
+}
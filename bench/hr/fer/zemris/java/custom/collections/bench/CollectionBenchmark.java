@@ -0,0 +1,569 @@
+package hr.fer.zemris.java.custom.collections.bench;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import hr.fer.zemris.java.custom.collections.Collection;
+import hr.fer.zemris.java.custom.collections.ObjectStack;
+
+/**
+ * Measures the average time of a single operation on every collection
+ * implementation and on ObjectStack. Every combination of subject, element
+ * type, collection size, operation and access pattern is measured separately
+ * and printed as one row of the report.
+ * <p>
+ * Supported options, all optional:
+ * <ul>
+ * <li>-sizes 100,1000 - collection sizes (default 1e2 to 1e7)</li>
+ * <li>-types INTEGER,STRING - element types (default all)</li>
+ * <li>-subjects ArrayIndexedCollection - subject names (default all)</li>
+ * <li>-operations GET,INDEX_OF - operations (default all)</li>
+ * <li>-warmup 3 - number of discarded iterations</li>
+ * <li>-iterations 5 - number of measured iterations</li>
+ * <li>-time 100 - minimum duration of an iteration in milliseconds</li>
+ * </ul>
+ * Each reported time is the median of the measured iterations. Destructive
+ * operations are measured in batches and the collection is rebuilt from scratch
+ * between batches, outside of the measured time.
+ *
+ * @author labramusic
+ *
+ */
+public class CollectionBenchmark {
+
+	/**
+	 * Name under which ObjectStack is reported.
+	 */
+	private static final String STACK = "ObjectStack";
+
+	/**
+	 * Number of precomputed random positions, must be a power of two.
+	 */
+	private static final int POSITIONS = 1 << 16;
+
+	/**
+	 * Operations which can be measured.
+	 */
+	enum Operation {
+		/** Appending with add. */
+		ADD(true, false),
+		/** Inserting at a position. */
+		INSERT(true, true),
+		/** Retrieving the element at an index. */
+		GET(false, true),
+		/** Searching for the index of an element. */
+		INDEX_OF(false, true),
+		/** Removing an element by value. */
+		REMOVE_OBJECT(true, true),
+		/** Removing an element by index. */
+		REMOVE_INDEX(true, true),
+		/** Copying the whole collection into an empty one with addAll. */
+		ADD_ALL(false, false),
+		/** Pushing an element on ObjectStack and popping it back. */
+		PUSH_POP(false, false);
+
+		/**
+		 * True if the operation changes the contents of the collection.
+		 */
+		final boolean destructive;
+
+		/**
+		 * True if the operation depends on an access pattern.
+		 */
+		final boolean indexed;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param destructive
+		 *            true if the operation changes the collection
+		 * @param indexed
+		 *            true if the operation depends on an access pattern
+		 */
+		Operation(boolean destructive, boolean indexed) {
+			this.destructive = destructive;
+			this.indexed = indexed;
+		}
+	}
+
+	/**
+	 * Sizes measured by default.
+	 */
+	private int[] sizes = { 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000 };
+
+	/**
+	 * Element types measured.
+	 */
+	private List<ElementType> types = new ArrayList<>(Arrays.asList(ElementType.values()));
+
+	/**
+	 * Subject names measured, null for all.
+	 */
+	private List<String> subjects;
+
+	/**
+	 * Operations measured.
+	 */
+	private List<Operation> operations = new ArrayList<>(Arrays.asList(Operation.values()));
+
+	/**
+	 * Number of discarded warmup iterations.
+	 */
+	private int warmup = 3;
+
+	/**
+	 * Number of measured iterations.
+	 */
+	private int iterations = 5;
+
+	/**
+	 * Minimum duration of an iteration in nanoseconds.
+	 */
+	private long iterationNanos = 100_000_000L;
+
+	/**
+	 * Accumulates results of the measured operations so that they cannot be
+	 * eliminated as dead code.
+	 */
+	private long sink;
+
+	/**
+	 * Source of random positions, seeded so that runs are comparable.
+	 */
+	private final Random random = new Random(42);
+
+	/**
+	 * The main method.
+	 *
+	 * @param args
+	 *            options described in the class documentation
+	 */
+	public static void main(String[] args) {
+		CollectionBenchmark benchmark = new CollectionBenchmark();
+		benchmark.parse(args);
+		benchmark.run();
+	}
+
+	/**
+	 * Parses the command line options.
+	 *
+	 * @param args
+	 *            command line options
+	 */
+	private void parse(String[] args) {
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			String[] values = args[i + 1].split(",");
+			switch (args[i]) {
+			case "-sizes":
+				sizes = new int[values.length];
+				for (int j = 0; j < values.length; ++j) {
+					sizes[j] = (int) Double.parseDouble(values[j]);
+				}
+				break;
+			case "-types":
+				types.clear();
+				for (String value : values) {
+					types.add(ElementType.valueOf(value));
+				}
+				break;
+			case "-subjects":
+				subjects = Arrays.asList(values);
+				break;
+			case "-operations":
+				operations.clear();
+				for (String value : values) {
+					operations.add(Operation.valueOf(value));
+				}
+				break;
+			case "-warmup":
+				warmup = Integer.parseInt(values[0]);
+				break;
+			case "-iterations":
+				iterations = Integer.parseInt(values[0]);
+				break;
+			case "-time":
+				iterationNanos = Long.parseLong(values[0]) * 1_000_000L;
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option " + args[i] + ".");
+			}
+		}
+	}
+
+	/**
+	 * Runs all configured measurements and prints the report.
+	 */
+	private void run() {
+		System.out.printf("# java %s, %s %s, %d cpus%n", System.getProperty("java.version"),
+				System.getProperty("os.name"), System.getProperty("os.arch"),
+				Runtime.getRuntime().availableProcessors());
+		System.out.printf("%-36s %-8s %10s %-14s %-10s %14s%n", "subject", "type", "size", "operation", "pattern",
+				"ns/op");
+
+		for (int size : sizes) {
+			for (ElementType type : types) {
+				Object[] values = new Object[size];
+				for (int i = 0; i < size; ++i) {
+					values[i] = type.element(i);
+				}
+				for (Subject subject : Subject.ALL) {
+					if (subjects == null || subjects.contains(subject.getName())) {
+						measureSubject(subject, type, values);
+					}
+				}
+				if (operations.contains(Operation.PUSH_POP) && (subjects == null || subjects.contains(STACK))) {
+					ObjectStack stack = new ObjectStack();
+					for (Object value : values) {
+						stack.push(value);
+					}
+					report(STACK, type, size, Operation.PUSH_POP, null,
+							measure(new StackWorkload(stack, values[0]), null, Integer.MAX_VALUE));
+				}
+			}
+		}
+		System.out.println("# checksum " + sink);
+	}
+
+	/**
+	 * Measures all operations of a single subject.
+	 *
+	 * @param subject
+	 *            measured subject
+	 * @param type
+	 *            type of elements
+	 * @param values
+	 *            elements the collection is filled with
+	 */
+	private void measureSubject(Subject subject, ElementType type, Object[] values) {
+		int size = values.length;
+		Collection c = subject.create();
+		fill(c, values);
+		int[] permutation = null;
+
+		for (Operation operation : operations) {
+			if (operation == Operation.PUSH_POP) {
+				continue;
+			}
+			for (AccessPattern pattern : operation.indexed ? AccessPattern.values() : new AccessPattern[] { null }) {
+				if (operation == Operation.REMOVE_OBJECT && pattern == AccessPattern.SEQUENTIAL) {
+					// after removing the head, sequential removal degenerates to head removal
+					continue;
+				}
+				if (operation == Operation.REMOVE_OBJECT && pattern == AccessPattern.RANDOM && permutation == null) {
+					permutation = permutation(size);
+				}
+				int[] positions = pattern == AccessPattern.RANDOM ? AccessPattern.RANDOM.positions(size + 1, POSITIONS, random)
+						: null;
+				Workload workload = new CollectionWorkload(subject, c, values, operation, pattern, positions,
+						permutation);
+				double nanos = measure(workload, operation.destructive ? values : null, size);
+				report(subject.getName(), type, size, operation, pattern, nanos);
+			}
+			if (operation.destructive) {
+				fill(c, values);
+			}
+		}
+	}
+
+	/**
+	 * Measures the average duration of a single operation of the workload.
+	 *
+	 * @param workload
+	 *            measured workload
+	 * @param values
+	 *            elements the collection is rebuilt from before each batch, or
+	 *            null if the workload does not change the collection
+	 * @param maxBatch
+	 *            maximum number of operations in one batch
+	 * @return median duration of a single operation in nanoseconds
+	 */
+	private double measure(Workload workload, Object[] values, int maxBatch) {
+		int batch = 1;
+		while (true) {
+			workload.reset(values);
+			long start = System.nanoTime();
+			sink += workload.run(batch);
+			long elapsed = System.nanoTime() - start;
+			if (elapsed >= iterationNanos / 16 || batch >= maxBatch || batch >= POSITIONS) {
+				break;
+			}
+			batch = Math.min(2 * batch, maxBatch);
+		}
+
+		double[] results = new double[iterations];
+		for (int i = 0; i < warmup + iterations; ++i) {
+			long timed = 0;
+			long ops = 0;
+			while (timed < iterationNanos) {
+				workload.reset(values);
+				long start = System.nanoTime();
+				sink += workload.run(batch);
+				timed += System.nanoTime() - start;
+				ops += batch;
+			}
+			if (i >= warmup) {
+				results[i - warmup] = (double) timed / ops;
+			}
+		}
+		Arrays.sort(results);
+		return results[iterations / 2];
+	}
+
+	/**
+	 * Prints one row of the report.
+	 *
+	 * @param subject
+	 *            name of the subject
+	 * @param type
+	 *            type of elements
+	 * @param size
+	 *            size of the collection
+	 * @param operation
+	 *            measured operation
+	 * @param pattern
+	 *            access pattern or null
+	 * @param nanos
+	 *            duration of an operation in nanoseconds
+	 */
+	private static void report(String subject, ElementType type, int size, Operation operation,
+			AccessPattern pattern, double nanos) {
+		System.out.printf("%-36s %-8s %10d %-14s %-10s %14.1f%n", subject, type, size, operation,
+				pattern == null ? "-" : pattern, nanos);
+	}
+
+	/**
+	 * Clears the collection and adds all of the given values to it.
+	 *
+	 * @param c
+	 *            collection to be filled
+	 * @param values
+	 *            values to be added
+	 */
+	private static void fill(Collection c, Object[] values) {
+		c.clear();
+		for (Object value : values) {
+			c.add(value);
+		}
+	}
+
+	/**
+	 * Returns a random permutation of numbers 0 to n - 1.
+	 *
+	 * @param n
+	 *            length of the permutation
+	 * @return random permutation
+	 */
+	private int[] permutation(int n) {
+		int[] permutation = new int[n];
+		for (int i = 0; i < n; ++i) {
+			permutation[i] = i;
+		}
+		for (int i = n - 1; i > 0; --i) {
+			int j = random.nextInt(i + 1);
+			int temp = permutation[i];
+			permutation[i] = permutation[j];
+			permutation[j] = temp;
+		}
+		return permutation;
+	}
+
+	/**
+	 * Work performed in a single measured batch.
+	 *
+	 * @author labramusic
+	 *
+	 */
+	private static abstract class Workload {
+
+		/**
+		 * Prepares the workload for the next batch.
+		 *
+		 * @param values
+		 *            elements the collection should be rebuilt from, or null if
+		 *            nothing has to be rebuilt
+		 */
+		void reset(Object[] values) {
+		}
+
+		/**
+		 * Performs the given number of operations.
+		 *
+		 * @param count
+		 *            number of operations
+		 * @return value depending on the results of the operations
+		 */
+		abstract long run(int count);
+	}
+
+	/**
+	 * Workload performing one operation on a collection.
+	 *
+	 * @author labramusic
+	 *
+	 */
+	private static class CollectionWorkload extends Workload {
+
+		/** Measured subject. */
+		private final Subject subject;
+		/** Collection the operations are performed on. */
+		private final Collection c;
+		/** Elements of the collection in their original order. */
+		private final Object[] values;
+		/** Performed operation. */
+		private final Operation operation;
+		/** Access pattern or null. */
+		private final AccessPattern pattern;
+		/** Precomputed random positions, or null. */
+		private final int[] positions;
+		/** Random permutation of element ordinals, or null. */
+		private final int[] permutation;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param subject
+		 *            measured subject
+		 * @param c
+		 *            collection the operations are performed on
+		 * @param values
+		 *            elements of the collection in their original order
+		 * @param operation
+		 *            performed operation
+		 * @param pattern
+		 *            access pattern or null
+		 * @param positions
+		 *            precomputed random positions or null
+		 * @param permutation
+		 *            random permutation of element ordinals or null
+		 */
+		CollectionWorkload(Subject subject, Collection c, Object[] values, Operation operation,
+				AccessPattern pattern, int[] positions, int[] permutation) {
+			this.subject = subject;
+			this.c = c;
+			this.values = values;
+			this.operation = operation;
+			this.pattern = pattern;
+			this.positions = positions;
+			this.permutation = permutation;
+		}
+
+		@Override
+		void reset(Object[] values) {
+			if (values != null) {
+				fill(c, values);
+			}
+		}
+
+		/**
+		 * Returns the position accessed by the j-th operation.
+		 *
+		 * @param j
+		 *            ordinal of the operation in the batch
+		 * @param bound
+		 *            number of valid positions
+		 * @return accessed position
+		 */
+		private int position(int j, int bound) {
+			switch (pattern) {
+			case SEQUENTIAL:
+				return j % bound;
+			case RANDOM:
+				return positions[j & (POSITIONS - 1)] % bound;
+			case HEAD:
+				return 0;
+			default:
+				return bound - 1;
+			}
+		}
+
+		@Override
+		long run(int count) {
+			long result = 0;
+			int size = values.length;
+			Object value = values[0];
+			switch (operation) {
+			case ADD:
+				for (int j = 0; j < count; ++j) {
+					c.add(value);
+				}
+				return c.size();
+			case INSERT:
+				for (int j = 0; j < count; ++j) {
+					subject.insert(c, value, position(j, size + j + 1));
+				}
+				return c.size();
+			case GET:
+				for (int j = 0; j < count; ++j) {
+					result += subject.get(c, position(j, size)).hashCode();
+				}
+				return result;
+			case INDEX_OF:
+				for (int j = 0; j < count; ++j) {
+					result += subject.indexOf(c, values[position(j, size)]);
+				}
+				return result;
+			case REMOVE_OBJECT:
+				for (int j = 0; j < count; ++j) {
+					int ordinal = pattern == AccessPattern.HEAD ? j
+							: pattern == AccessPattern.TAIL ? size - 1 - j : permutation[j];
+					result += c.remove(values[ordinal]) ? 1 : 0;
+				}
+				return result;
+			case REMOVE_INDEX:
+				for (int j = 0; j < count; ++j) {
+					subject.remove(c, position(j, size - j));
+				}
+				return c.size();
+			case ADD_ALL:
+				for (int j = 0; j < count; ++j) {
+					Collection copy = subject.create();
+					copy.addAll(c);
+					result += copy.size();
+				}
+				return result;
+			default:
+				throw new UnsupportedOperationException(operation.toString());
+			}
+		}
+	}
+
+	/**
+	 * Workload which pushes an element on a stack and pops it back.
+	 *
+	 * @author labramusic
+	 *
+	 */
+	private static class StackWorkload extends Workload {
+
+		/** Measured stack. */
+		private final ObjectStack stack;
+		/** Pushed element. */
+		private final Object value;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param stack
+		 *            measured stack
+		 * @param value
+		 *            pushed element
+		 */
+		StackWorkload(ObjectStack stack, Object value) {
+			this.stack = stack;
+			this.value = value;
+		}
+
+		@Override
+		long run(int count) {
+			long result = 0;
+			for (int j = 0; j < count; ++j) {
+				stack.push(value);
+				result += stack.pop().hashCode();
+			}
+			return result;
+		}
+	}
+
+}
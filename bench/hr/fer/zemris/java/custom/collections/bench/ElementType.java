@@ -0,0 +1,55 @@
+package hr.fer.zemris.java.custom.collections.bench;
+
+import hr.fer.zemris.java.tecaj.hw2.ComplexNumber;
+
+/**
+ * Type of elements stored in benchmarked collections. Element types differ in
+ * the cost of equals and in how much memory they occupy, which influences
+ * searching and traversal.
+ *
+ * @author labramusic
+ *
+ */
+public enum ElementType {
+
+	/**
+	 * Boxed integers.
+	 */
+	INTEGER {
+		@Override
+		public Object element(int i) {
+			return Integer.valueOf(i);
+		}
+	},
+
+	/**
+	 * Short strings which share a common prefix.
+	 */
+	STRING {
+		@Override
+		public Object element(int i) {
+			return "element" + i;
+		}
+	},
+
+	/**
+	 * Complex numbers.
+	 */
+	COMPLEX {
+		@Override
+		public Object element(int i) {
+			return new ComplexNumber(i, -i);
+		}
+	};
+
+	/**
+	 * Creates the i-th element of this type. Elements created for different
+	 * values of i are never equal.
+	 *
+	 * @param i
+	 *            ordinal of the element
+	 * @return new element
+	 */
+	public abstract Object element(int i);
+
+}
@@ -0,0 +1,300 @@
+package hr.fer.zemris.java.custom.collections.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import hr.fer.zemris.java.custom.collections.BoundedObjectQueue;
+import hr.fer.zemris.java.custom.collections.MpmcObjectQueue;
+import hr.fer.zemris.java.custom.collections.ObjectQueue;
+import hr.fer.zemris.java.custom.collections.SpscObjectQueue;
+
+/**
+ * Measures how many values per second producer threads hand over to consumer
+ * threads through a shared queue. ObjectQueue guarded by synchronized blocks is
+ * the baseline, compared with SpscObjectQueue, which is measured only with one
+ * producer and one consumer, and MpmcObjectQueue. Values are offered and
+ * drained in batches of the given size, a batch of 1 uses offer and poll.
+ * <p>
+ * Supported options, all optional:
+ * <ul>
+ * <li>-threads 1,2,4 - numbers of producers, each with its own consumer
+ * (default 1, 2 and 4)</li>
+ * <li>-batch 1,64 - batch sizes (default 1 and 64)</li>
+ * <li>-capacity 1024 - capacity of the bounded queues</li>
+ * <li>-warmup 1 - number of discarded iterations</li>
+ * <li>-iterations 3 - number of measured iterations</li>
+ * <li>-time 500 - duration of an iteration in milliseconds</li>
+ * </ul>
+ * Each reported throughput is the median of the measured iterations, in
+ * millions of values per second over all consumers.
+ *
+ * @author labramusic
+ *
+ */
+public class QueueThroughputBenchmark {
+
+	/**
+	 * Names of the measured queues.
+	 */
+	private static final String[] QUEUES = { "synchronized ObjectQueue", "SpscObjectQueue", "MpmcObjectQueue" };
+
+	/**
+	 * Numbers of producers measured.
+	 */
+	private int[] threads = { 1, 2, 4 };
+
+	/**
+	 * Batch sizes measured.
+	 */
+	private int[] batches = { 1, 64 };
+
+	/**
+	 * Capacity of the bounded queues.
+	 */
+	private int capacity = 1024;
+
+	/**
+	 * Number of discarded warmup iterations.
+	 */
+	private int warmup = 1;
+
+	/**
+	 * Number of measured iterations.
+	 */
+	private int iterations = 3;
+
+	/**
+	 * Duration of an iteration in milliseconds.
+	 */
+	private long millis = 500;
+
+	/**
+	 * The main method.
+	 *
+	 * @param args
+	 *            options described in the class documentation
+	 * @throws InterruptedException
+	 *             if the main thread is interrupted while waiting
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		QueueThroughputBenchmark benchmark = new QueueThroughputBenchmark();
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			switch (args[i]) {
+			case "-threads":
+				benchmark.threads = parseInts(args[i + 1]);
+				break;
+			case "-batch":
+				benchmark.batches = parseInts(args[i + 1]);
+				break;
+			case "-capacity":
+				benchmark.capacity = Integer.parseInt(args[i + 1]);
+				break;
+			case "-warmup":
+				benchmark.warmup = Integer.parseInt(args[i + 1]);
+				break;
+			case "-iterations":
+				benchmark.iterations = Integer.parseInt(args[i + 1]);
+				break;
+			case "-time":
+				benchmark.millis = Long.parseLong(args[i + 1]);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option " + args[i] + ".");
+			}
+		}
+		benchmark.run();
+	}
+
+	/**
+	 * Parses a comma separated list of ints.
+	 *
+	 * @param list
+	 *            comma separated list
+	 * @return parsed values
+	 */
+	private static int[] parseInts(String list) {
+		String[] values = list.split(",");
+		int[] result = new int[values.length];
+		for (int j = 0; j < values.length; ++j) {
+			result[j] = Integer.parseInt(values[j]);
+		}
+		return result;
+	}
+
+	/**
+	 * Runs all measurements and prints the report.
+	 *
+	 * @throws InterruptedException
+	 *             if the main thread is interrupted while waiting
+	 */
+	private void run() throws InterruptedException {
+		System.out.printf("# java %s, %d cpus, capacity %d%n", System.getProperty("java.version"),
+				Runtime.getRuntime().availableProcessors(), capacity);
+		System.out.printf("%-36s %8s %8s %14s%n", "queue", "threads", "batch", "Mvalues/s");
+		for (int threadCount : threads) {
+			for (int batch : batches) {
+				for (String name : QUEUES) {
+					if (name.equals(QUEUES[1]) && threadCount != 1) {
+						continue;
+					}
+					double[] results = new double[iterations];
+					for (int i = 0; i < warmup + iterations; ++i) {
+						double result = measure(create(name), threadCount, batch);
+						if (i >= warmup) {
+							results[i - warmup] = result;
+						}
+					}
+					Arrays.sort(results);
+					System.out.printf("%-36s %8d %8d %14.2f%n", name, threadCount, batch, results[iterations / 2]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates the queue with the given name. The synchronized ObjectQueue is
+	 * adapted to the bounded queue interface, with the same capacity.
+	 *
+	 * @param name
+	 *            name of the queue
+	 * @return new queue
+	 */
+	private BoundedObjectQueue create(String name) {
+		if (name.equals(QUEUES[1])) {
+			return new SpscObjectQueue(capacity);
+		}
+		if (name.equals(QUEUES[2])) {
+			return new MpmcObjectQueue(capacity);
+		}
+		final ObjectQueue queue = new ObjectQueue(capacity);
+		return new BoundedObjectQueue() {
+			@Override
+			public int capacity() {
+				return capacity;
+			}
+
+			@Override
+			public synchronized int size() {
+				return queue.size();
+			}
+
+			@Override
+			public synchronized boolean offer(Object value) {
+				if (queue.size() == capacity) {
+					return false;
+				}
+				queue.enqueue(value);
+				return true;
+			}
+
+			@Override
+			public synchronized Object poll() {
+				return queue.isEmpty() ? null : queue.dequeue();
+			}
+
+			@Override
+			public synchronized int offerAll(Object[] values, int offset, int count) {
+				int added = Math.min(count, capacity - queue.size());
+				for (int i = 0; i < added; ++i) {
+					queue.enqueue(values[offset + i]);
+				}
+				return added;
+			}
+
+			@Override
+			public synchronized int drainTo(Object[] target, int offset, int max) {
+				return queue.drainTo(target, offset, max);
+			}
+		};
+	}
+
+	/**
+	 * Lets the given number of producer and consumer pairs use the queue for
+	 * the duration of an iteration.
+	 *
+	 * @param queue
+	 *            shared queue
+	 * @param threadCount
+	 *            number of producers and of consumers
+	 * @param batch
+	 *            number of values offered or drained at once
+	 * @return throughput in millions of values per second
+	 * @throws InterruptedException
+	 *             if the main thread is interrupted while waiting
+	 */
+	private double measure(final BoundedObjectQueue queue, int threadCount, final int batch)
+			throws InterruptedException {
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicLong transferred = new AtomicLong();
+		final long[] deadline = new long[1];
+		Thread[] workers = new Thread[2 * threadCount];
+		for (int i = 0; i < threadCount; ++i) {
+			final Integer value = i;
+			workers[2 * i] = new Thread() {
+				@Override
+				public void run() {
+					Object[] values = new Object[batch];
+					Arrays.fill(values, value);
+					if (!await(start)) {
+						return;
+					}
+					long end = deadline[0];
+					while (System.nanoTime() < end) {
+						int offered = batch == 1 ? (queue.offer(value) ? 1 : 0) : queue.offerAll(values, 0, batch);
+						if (offered == 0) {
+							Thread.yield();
+						}
+					}
+				}
+			};
+			workers[2 * i + 1] = new Thread() {
+				@Override
+				public void run() {
+					Object[] values = new Object[batch];
+					if (!await(start)) {
+						return;
+					}
+					long count = 0;
+					long end = deadline[0];
+					while (System.nanoTime() < end) {
+						int drained = batch == 1 ? (queue.poll() != null ? 1 : 0) : queue.drainTo(values, 0, batch);
+						if (drained == 0) {
+							Thread.yield();
+						}
+						count += drained;
+					}
+					transferred.addAndGet(count);
+				}
+			};
+		}
+		for (Thread worker : workers) {
+			worker.start();
+		}
+		long begin = System.nanoTime();
+		deadline[0] = begin + millis * 1_000_000L;
+		start.countDown();
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		long elapsed = System.nanoTime() - begin;
+		return transferred.get() * 1e3 / elapsed;
+	}
+
+	/**
+	 * Waits for the start signal.
+	 *
+	 * @param start
+	 *            latch released when the measurement starts
+	 * @return true if the signal was received, false if interrupted
+	 */
+	private static boolean await(CountDownLatch start) {
+		try {
+			start.await();
+			return true;
+		} catch (InterruptedException e) {
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,229 @@
+package hr.fer.zemris.java.custom.collections.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import hr.fer.zemris.java.custom.collections.ConcurrentObjectStack;
+import hr.fer.zemris.java.custom.collections.ObjectStack;
+
+/**
+ * Measures the throughput of stacks shared by several threads, each of which
+ * repeatedly pushes a value and pops a value. ObjectStack guarded by
+ * synchronized blocks is the baseline, compared with ConcurrentObjectStack
+ * with and without the elimination array.
+ * <p>
+ * Supported options, all optional:
+ * <ul>
+ * <li>-threads 1,2,4 - numbers of threads (default 1, 2, 4, 8 and 16)</li>
+ * <li>-warmup 1 - number of discarded iterations</li>
+ * <li>-iterations 3 - number of measured iterations</li>
+ * <li>-time 500 - duration of an iteration in milliseconds</li>
+ * </ul>
+ * Each reported throughput is the median of the measured iterations, in
+ * millions of push and pop pairs per second over all threads.
+ *
+ * @author labramusic
+ *
+ */
+public class StackThroughputBenchmark {
+
+	/**
+	 * A stack shared by the measured threads.
+	 */
+	private static abstract class SharedStack {
+
+		/**
+		 * Pushes the value.
+		 *
+		 * @param value
+		 *            value to be pushed
+		 */
+		abstract void push(Object value);
+
+		/**
+		 * Pops a value.
+		 *
+		 * @return popped value
+		 */
+		abstract Object pop();
+	}
+
+	/**
+	 * Names of the measured stacks.
+	 */
+	private static final String[] STACKS = { "synchronized ObjectStack", "ConcurrentObjectStack",
+			"ConcurrentObjectStack+elimination" };
+
+	/**
+	 * Numbers of threads measured.
+	 */
+	private int[] threads = { 1, 2, 4, 8, 16 };
+
+	/**
+	 * Number of discarded warmup iterations.
+	 */
+	private int warmup = 1;
+
+	/**
+	 * Number of measured iterations.
+	 */
+	private int iterations = 3;
+
+	/**
+	 * Duration of an iteration in milliseconds.
+	 */
+	private long millis = 500;
+
+	/**
+	 * The main method.
+	 *
+	 * @param args
+	 *            options described in the class documentation
+	 * @throws InterruptedException
+	 *             if the main thread is interrupted while waiting
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		StackThroughputBenchmark benchmark = new StackThroughputBenchmark();
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			switch (args[i]) {
+			case "-threads":
+				String[] values = args[i + 1].split(",");
+				benchmark.threads = new int[values.length];
+				for (int j = 0; j < values.length; ++j) {
+					benchmark.threads[j] = Integer.parseInt(values[j]);
+				}
+				break;
+			case "-warmup":
+				benchmark.warmup = Integer.parseInt(args[i + 1]);
+				break;
+			case "-iterations":
+				benchmark.iterations = Integer.parseInt(args[i + 1]);
+				break;
+			case "-time":
+				benchmark.millis = Long.parseLong(args[i + 1]);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option " + args[i] + ".");
+			}
+		}
+		benchmark.run();
+	}
+
+	/**
+	 * Runs all measurements and prints the report.
+	 *
+	 * @throws InterruptedException
+	 *             if the main thread is interrupted while waiting
+	 */
+	private void run() throws InterruptedException {
+		System.out.printf("# java %s, %d cpus%n", System.getProperty("java.version"),
+				Runtime.getRuntime().availableProcessors());
+		System.out.printf("%-36s %8s %14s%n", "stack", "threads", "Mops/s");
+		for (int threadCount : threads) {
+			for (String name : STACKS) {
+				double[] results = new double[iterations];
+				for (int i = 0; i < warmup + iterations; ++i) {
+					double result = measure(create(name), threadCount);
+					if (i >= warmup) {
+						results[i - warmup] = result;
+					}
+				}
+				Arrays.sort(results);
+				System.out.printf("%-36s %8d %14.2f%n", name, threadCount, results[iterations / 2]);
+			}
+		}
+	}
+
+	/**
+	 * Creates the stack with the given name.
+	 *
+	 * @param name
+	 *            name of the stack
+	 * @return new stack
+	 */
+	private static SharedStack create(String name) {
+		if (name.equals(STACKS[0])) {
+			final ObjectStack stack = new ObjectStack();
+			return new SharedStack() {
+				@Override
+				void push(Object value) {
+					synchronized (stack) {
+						stack.push(value);
+					}
+				}
+
+				@Override
+				Object pop() {
+					synchronized (stack) {
+						return stack.pop();
+					}
+				}
+			};
+		}
+		final ConcurrentObjectStack stack = new ConcurrentObjectStack(name.equals(STACKS[2]));
+		return new SharedStack() {
+			@Override
+			void push(Object value) {
+				stack.push(value);
+			}
+
+			@Override
+			Object pop() {
+				return stack.pop();
+			}
+		};
+	}
+
+	/**
+	 * Lets the given number of threads push and pop on the stack for the
+	 * duration of an iteration.
+	 *
+	 * @param stack
+	 *            shared stack
+	 * @param threadCount
+	 *            number of threads
+	 * @return throughput in millions of push and pop pairs per second
+	 * @throws InterruptedException
+	 *             if the main thread is interrupted while waiting
+	 */
+	private double measure(final SharedStack stack, int threadCount) throws InterruptedException {
+		final CountDownLatch start = new CountDownLatch(1);
+		final AtomicLong operations = new AtomicLong();
+		final long[] deadline = new long[1];
+		Thread[] workers = new Thread[threadCount];
+		for (int i = 0; i < threadCount; ++i) {
+			final Integer value = i;
+			workers[i] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					long count = 0;
+					long end = deadline[0];
+					do {
+						for (int j = 0; j < 1024; ++j) {
+							stack.push(value);
+							stack.pop();
+						}
+						count += 1024;
+					} while (System.nanoTime() < end);
+					operations.addAndGet(count);
+				}
+			};
+			workers[i].start();
+		}
+		long begin = System.nanoTime();
+		deadline[0] = begin + millis * 1_000_000L;
+		start.countDown();
+		for (Thread worker : workers) {
+			worker.join();
+		}
+		long elapsed = System.nanoTime() - begin;
+		return operations.get() * 1e3 / elapsed;
+	}
+
+}
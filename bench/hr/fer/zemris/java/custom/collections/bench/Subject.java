@@ -0,0 +1,346 @@
+package hr.fer.zemris.java.custom.collections.bench;
+
+import java.util.Comparator;
+
+import hr.fer.zemris.java.custom.collections.ArrayDequeIndexedCollection;
+import hr.fer.zemris.java.custom.collections.ArrayIndexedCollection;
+import hr.fer.zemris.java.custom.collections.Collection;
+import hr.fer.zemris.java.custom.collections.LinkedListIndexedCollection;
+import hr.fer.zemris.java.custom.collections.SortedArrayIndexedCollection;
+import hr.fer.zemris.java.custom.collections.TreeIndexedCollection;
+import hr.fer.zemris.java.custom.collections.UnrolledLinkedListIndexedCollection;
+import hr.fer.zemris.java.tecaj.hw2.ComplexNumber;
+
+/**
+ * Adapter through which the benchmark drives one collection implementation.
+ * Indexed operations are not part of the general {@link Collection} contract,
+ * so every implementation provides its own subject.
+ *
+ * @author labramusic
+ *
+ */
+public abstract class Subject {
+
+	/**
+	 * Order of the benchmarked elements for sorted subjects. Complex numbers
+	 * have no natural order, so they are ordered by the real and then the
+	 * imaginary part.
+	 */
+	@SuppressWarnings("unchecked")
+	private static final Comparator<Object> ELEMENT_ORDER = (first, second) -> {
+		if (first instanceof ComplexNumber) {
+			ComplexNumber a = (ComplexNumber) first;
+			ComplexNumber b = (ComplexNumber) second;
+			int result = Double.compare(a.getReal(), b.getReal());
+			return result != 0 ? result : Double.compare(a.getImaginary(), b.getImaginary());
+		}
+		return ((Comparable<Object>) first).compareTo(second);
+	};
+
+	/**
+	 * Subject for {@link ArrayIndexedCollection}.
+	 */
+	public static final Subject ARRAY = new ArraySubject("ArrayIndexedCollection", false);
+
+	/**
+	 * Subject for {@link ArrayIndexedCollection} with the hash index enabled.
+	 */
+	public static final Subject ARRAY_HASH_INDEXED = new ArraySubject("ArrayIndexedCollection+hash", true);
+
+	/**
+	 * Subject for {@link LinkedListIndexedCollection}.
+	 */
+	public static final Subject LINKED_LIST = new Subject("LinkedListIndexedCollection") {
+
+		@Override
+		public Collection create() {
+			return new LinkedListIndexedCollection();
+		}
+
+		@Override
+		public Object get(Collection c, int index) {
+			return ((LinkedListIndexedCollection) c).get(index);
+		}
+
+		@Override
+		public void insert(Collection c, Object value, int position) {
+			((LinkedListIndexedCollection) c).insert(value, position);
+		}
+
+		@Override
+		public void remove(Collection c, int index) {
+			((LinkedListIndexedCollection) c).remove(index);
+		}
+
+		@Override
+		public int indexOf(Collection c, Object value) {
+			return ((LinkedListIndexedCollection) c).indexOf(value);
+		}
+	};
+
+	/**
+	 * Subject for {@link ArrayDequeIndexedCollection}.
+	 */
+	public static final Subject ARRAY_DEQUE = new Subject("ArrayDequeIndexedCollection") {
+
+		@Override
+		public Collection create() {
+			return new ArrayDequeIndexedCollection();
+		}
+
+		@Override
+		public Object get(Collection c, int index) {
+			return ((ArrayDequeIndexedCollection) c).get(index);
+		}
+
+		@Override
+		public void insert(Collection c, Object value, int position) {
+			((ArrayDequeIndexedCollection) c).insert(value, position);
+		}
+
+		@Override
+		public void remove(Collection c, int index) {
+			((ArrayDequeIndexedCollection) c).remove(index);
+		}
+
+		@Override
+		public int indexOf(Collection c, Object value) {
+			return ((ArrayDequeIndexedCollection) c).indexOf(value);
+		}
+	};
+
+	/**
+	 * Subject for {@link UnrolledLinkedListIndexedCollection}.
+	 */
+	public static final Subject UNROLLED_LINKED_LIST = new Subject("UnrolledLinkedListIndexedCollection") {
+
+		@Override
+		public Collection create() {
+			return new UnrolledLinkedListIndexedCollection();
+		}
+
+		@Override
+		public Object get(Collection c, int index) {
+			return ((UnrolledLinkedListIndexedCollection) c).get(index);
+		}
+
+		@Override
+		public void insert(Collection c, Object value, int position) {
+			((UnrolledLinkedListIndexedCollection) c).insert(value, position);
+		}
+
+		@Override
+		public void remove(Collection c, int index) {
+			((UnrolledLinkedListIndexedCollection) c).remove(index);
+		}
+
+		@Override
+		public int indexOf(Collection c, Object value) {
+			return ((UnrolledLinkedListIndexedCollection) c).indexOf(value);
+		}
+	};
+
+	/**
+	 * Subject for {@link TreeIndexedCollection}.
+	 */
+	public static final Subject TREE = new Subject("TreeIndexedCollection") {
+
+		@Override
+		public Collection create() {
+			return new TreeIndexedCollection();
+		}
+
+		@Override
+		public Object get(Collection c, int index) {
+			return ((TreeIndexedCollection) c).get(index);
+		}
+
+		@Override
+		public void insert(Collection c, Object value, int position) {
+			((TreeIndexedCollection) c).insert(value, position);
+		}
+
+		@Override
+		public void remove(Collection c, int index) {
+			((TreeIndexedCollection) c).remove(index);
+		}
+
+		@Override
+		public int indexOf(Collection c, Object value) {
+			return ((TreeIndexedCollection) c).indexOf(value);
+		}
+	};
+
+	/**
+	 * All subjects known to the benchmark.
+	 */
+	/**
+	 * Subject for {@link SortedArrayIndexedCollection}. Values are inserted at
+	 * the place given by their order instead of the requested position.
+	 */
+	public static final Subject SORTED_ARRAY = new Subject("SortedArrayIndexedCollection") {
+
+		@Override
+		public Collection create() {
+			return new SortedArrayIndexedCollection(ELEMENT_ORDER);
+		}
+
+		@Override
+		public Object get(Collection c, int index) {
+			return ((SortedArrayIndexedCollection) c).get(index);
+		}
+
+		@Override
+		public void insert(Collection c, Object value, int position) {
+			c.add(value);
+		}
+
+		@Override
+		public void remove(Collection c, int index) {
+			((SortedArrayIndexedCollection) c).remove(index);
+		}
+
+		@Override
+		public int indexOf(Collection c, Object value) {
+			return ((SortedArrayIndexedCollection) c).indexOf(value);
+		}
+	};
+
+	public static final Subject[] ALL = { ARRAY, ARRAY_HASH_INDEXED, ARRAY_DEQUE, LINKED_LIST, UNROLLED_LINKED_LIST, TREE,
+			SORTED_ARRAY };
+
+	/**
+	 * Name under which the subject is reported.
+	 */
+	private final String name;
+
+	/**
+	 * Constructor which sets the reported name of the subject.
+	 *
+	 * @param name
+	 *            reported name
+	 */
+	protected Subject(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Returns the reported name of the subject.
+	 *
+	 * @return reported name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Creates a new empty collection.
+	 *
+	 * @return empty collection
+	 */
+	public abstract Collection create();
+
+	/**
+	 * Returns the element of the given collection at the given index.
+	 *
+	 * @param c
+	 *            collection created by this subject
+	 * @param index
+	 *            index of the element
+	 * @return element at the given index
+	 */
+	public abstract Object get(Collection c, int index);
+
+	/**
+	 * Inserts the value in the given collection at the given position.
+	 *
+	 * @param c
+	 *            collection created by this subject
+	 * @param value
+	 *            value to be inserted
+	 * @param position
+	 *            insertion position
+	 */
+	public abstract void insert(Collection c, Object value, int position);
+
+	/**
+	 * Removes the element of the given collection at the given index.
+	 *
+	 * @param c
+	 *            collection created by this subject
+	 * @param index
+	 *            index of the element
+	 */
+	public abstract void remove(Collection c, int index);
+
+	/**
+	 * Returns the index of the first occurrence of the value in the given
+	 * collection or -1.
+	 *
+	 * @param c
+	 *            collection created by this subject
+	 * @param value
+	 *            value being looked for
+	 * @return index of the value or -1
+	 */
+	public abstract int indexOf(Collection c, Object value);
+
+	/**
+	 * Subject for {@link ArrayIndexedCollection}, optionally with the hash
+	 * index enabled.
+	 *
+	 * @author labramusic
+	 *
+	 */
+	private static class ArraySubject extends Subject {
+
+		/**
+		 * True if created collections have the hash index enabled.
+		 */
+		private final boolean hashIndexed;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param name
+		 *            reported name
+		 * @param hashIndexed
+		 *            true if created collections should have the hash index
+		 *            enabled
+		 */
+		ArraySubject(String name, boolean hashIndexed) {
+			super(name);
+			this.hashIndexed = hashIndexed;
+		}
+
+		@Override
+		public Collection create() {
+			ArrayIndexedCollection c = new ArrayIndexedCollection();
+			if (hashIndexed) {
+				c.enableHashIndex();
+			}
+			return c;
+		}
+
+		@Override
+		public Object get(Collection c, int index) {
+			return ((ArrayIndexedCollection) c).get(index);
+		}
+
+		@Override
+		public void insert(Collection c, Object value, int position) {
+			((ArrayIndexedCollection) c).insert(value, position);
+		}
+
+		@Override
+		public void remove(Collection c, int index) {
+			((ArrayIndexedCollection) c).remove(index);
+		}
+
+		@Override
+		public int indexOf(Collection c, Object value) {
+			return ((ArrayIndexedCollection) c).indexOf(value);
+		}
+	}
+
+}
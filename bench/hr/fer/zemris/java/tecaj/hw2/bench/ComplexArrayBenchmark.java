@@ -0,0 +1,248 @@
+package hr.fer.zemris.java.tecaj.hw2.bench;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import hr.fer.zemris.java.tecaj.hw2.ComplexArray;
+import hr.fer.zemris.java.tecaj.hw2.ComplexNumber;
+
+/**
+ * Measures the element-wise throughput of the bulk operations of ComplexArray
+ * and compares add and mul with the same loops over arrays of ComplexNumber
+ * objects. Throughput is reported in millions of elements and in gigabytes of
+ * memory traffic per second, counting 16 bytes for every element read or
+ * written (conjugate touches only the imaginary parts), so it can be compared
+ * with the memory bandwidth of the machine.
+ * <p>
+ * Supported options, all optional:
+ * <ul>
+ * <li>-sizes 1000,1000000 - array lengths (default 1e3, 1e5 and 1e7)</li>
+ * <li>-warmup 3 - number of discarded iterations</li>
+ * <li>-iterations 5 - number of measured iterations</li>
+ * <li>-time 200 - minimum duration of an iteration in milliseconds</li>
+ * </ul>
+ * Each reported throughput is the median of the measured iterations.
+ *
+ * @author labramusic
+ *
+ */
+public class ComplexArrayBenchmark {
+
+	/**
+	 * An operation over the measured arrays.
+	 */
+	private static abstract class Kernel {
+
+		/**
+		 * Name of the operation.
+		 */
+		final String name;
+
+		/**
+		 * Number of elements read or written per element of the result.
+		 */
+		final int accesses;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param name
+		 *            name of the operation
+		 * @param accesses
+		 *            number of elements read or written per element
+		 */
+		Kernel(String name, int accesses) {
+			this.name = name;
+			this.accesses = accesses;
+		}
+
+		/**
+		 * Runs the operation once over the whole arrays.
+		 *
+		 * @return value which keeps the result alive
+		 */
+		abstract double run();
+	}
+
+	/**
+	 * Array lengths measured.
+	 */
+	private int[] sizes = { 1_000, 100_000, 10_000_000 };
+
+	/**
+	 * Number of discarded warmup iterations.
+	 */
+	private int warmup = 3;
+
+	/**
+	 * Number of measured iterations.
+	 */
+	private int iterations = 5;
+
+	/**
+	 * Minimum duration of an iteration in milliseconds.
+	 */
+	private long millis = 200;
+
+	/**
+	 * The main method.
+	 *
+	 * @param args
+	 *            options described in the class documentation
+	 */
+	public static void main(String[] args) {
+		ComplexArrayBenchmark benchmark = new ComplexArrayBenchmark();
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			switch (args[i]) {
+			case "-sizes":
+				String[] values = args[i + 1].split(",");
+				benchmark.sizes = new int[values.length];
+				for (int j = 0; j < values.length; ++j) {
+					benchmark.sizes[j] = (int) Double.parseDouble(values[j]);
+				}
+				break;
+			case "-warmup":
+				benchmark.warmup = Integer.parseInt(args[i + 1]);
+				break;
+			case "-iterations":
+				benchmark.iterations = Integer.parseInt(args[i + 1]);
+				break;
+			case "-time":
+				benchmark.millis = Long.parseLong(args[i + 1]);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option " + args[i] + ".");
+			}
+		}
+		benchmark.run();
+	}
+
+	/**
+	 * Runs all measurements and prints the report.
+	 */
+	private void run() {
+		System.out.printf("# java %s%n", System.getProperty("java.version"));
+		System.out.printf("%-24s %10s %12s %10s%n", "kernel", "length", "Melements/s", "GB/s");
+		for (int size : sizes) {
+			for (Kernel kernel : kernels(size)) {
+				double[] results = new double[iterations];
+				for (int i = 0; i < warmup + iterations; ++i) {
+					double result = measure(kernel, size);
+					if (i >= warmup) {
+						results[i - warmup] = result;
+					}
+				}
+				Arrays.sort(results);
+				double elements = results[iterations / 2];
+				System.out.printf("%-24s %10d %12.1f %10.2f%n", kernel.name, size, elements / 1e6,
+						elements * kernel.accesses * 16 / 1e9);
+			}
+		}
+	}
+
+	/**
+	 * Creates the measured operations over arrays of the given length.
+	 *
+	 * @param size
+	 *            array length
+	 * @return measured operations
+	 */
+	private static Kernel[] kernels(int size) {
+		Random random = new Random(size);
+		double[] re = new double[size];
+		double[] im = new double[size];
+		double[] cos = new double[size];
+		double[] sin = new double[size];
+		for (int i = 0; i < size; ++i) {
+			re[i] = random.nextDouble();
+			im[i] = random.nextDouble();
+			double angle = 2 * Math.PI * random.nextDouble();
+			cos[i] = Math.cos(angle);
+			sin[i] = Math.sin(angle);
+		}
+		final ComplexArray a = new ComplexArray(re, im);
+		final ComplexArray b = new ComplexArray(im, re);
+		// factors of magnitude one, so repeated multiplication neither
+		// overflows nor underflows
+		final ComplexArray rotations = new ComplexArray(cos, sin);
+		final double[] magnitudes = new double[size];
+		final ComplexNumber[] x = a.toComplexNumbers();
+		final ComplexNumber[] y = b.toComplexNumbers();
+		final ComplexNumber[] z = rotations.toComplexNumbers();
+		final ComplexNumber unit = new ComplexNumber(0.6, 0.8);
+		return new Kernel[] { new Kernel("ComplexArray.add", 3) {
+			@Override
+			double run() {
+				return a.add(b).getReal(0);
+			}
+		}, new Kernel("ComplexArray.mul", 3) {
+			@Override
+			double run() {
+				return a.mul(rotations).getReal(0);
+			}
+		}, new Kernel("ComplexArray.scale", 2) {
+			@Override
+			double run() {
+				return a.scale(unit).getReal(0);
+			}
+		}, new Kernel("ComplexArray.conjugate", 1) {
+			@Override
+			double run() {
+				return a.conjugate().getReal(0);
+			}
+		}, new Kernel("ComplexArray.magnitude", 2) {
+			@Override
+			double run() {
+				return a.magnitude(magnitudes)[0];
+			}
+		}, new Kernel("ComplexArray.dot", 2) {
+			@Override
+			double run() {
+				return a.dot(b).getReal();
+			}
+		}, new Kernel("ComplexNumber[].add", 3) {
+			@Override
+			double run() {
+				for (int i = 0; i < x.length; ++i) {
+					x[i] = x[i].add(y[i]);
+				}
+				return x[0].getReal();
+			}
+		}, new Kernel("ComplexNumber[].mul", 3) {
+			@Override
+			double run() {
+				for (int i = 0; i < x.length; ++i) {
+					x[i] = x[i].mul(z[i]);
+				}
+				return x[0].getReal();
+			}
+		} };
+	}
+
+	/**
+	 * Runs the kernel repeatedly for at least the duration of an iteration.
+	 *
+	 * @param kernel
+	 *            measured operation
+	 * @param size
+	 *            array length
+	 * @return throughput in elements per second
+	 */
+	private double measure(Kernel kernel, int size) {
+		long runs = 0;
+		double sink = 0;
+		long begin = System.nanoTime();
+		long end = begin + millis * 1_000_000L;
+		long now;
+		do {
+			sink += kernel.run();
+			++runs;
+			now = System.nanoTime();
+		} while (now < end);
+		if (sink == 42) {
+			System.out.print("");
+		}
+		return (double) runs * size * 1e9 / (now - begin);
+	}
+
+}
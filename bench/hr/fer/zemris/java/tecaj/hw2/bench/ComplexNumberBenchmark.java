@@ -0,0 +1,298 @@
+package hr.fer.zemris.java.tecaj.hw2.bench;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import hr.fer.zemris.java.tecaj.hw2.ComplexAccumulator;
+import hr.fer.zemris.java.tecaj.hw2.ComplexNumber;
+
+/**
+ * Measures the average time of single operations on ComplexNumber. The
+ * rectangular mul and div are compared with the polar formulas used before,
+ * which go through the magnitude, the angle and fromMagnitudeAndAngle. The
+ * hand-written parse is compared with the regular expression parser used
+ * before.
+ * <p>
+ * Supported options, all optional:
+ * <ul>
+ * <li>-warmup 3 - number of discarded iterations</li>
+ * <li>-iterations 5 - number of measured iterations</li>
+ * <li>-time 200 - minimum duration of an iteration in milliseconds</li>
+ * </ul>
+ * Each reported time is the median of the measured iterations.
+ *
+ * @author labramusic
+ *
+ */
+public class ComplexNumberBenchmark {
+
+	/**
+	 * Number of operands an operation is applied to in a single run.
+	 */
+	private static final int OPERANDS = 1024;
+
+	/**
+	 * A measured operation.
+	 */
+	private static abstract class Operation {
+
+		/**
+		 * Name of the operation.
+		 */
+		final String name;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param name
+		 *            name of the operation
+		 */
+		Operation(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Applies the operation to every operand once.
+		 *
+		 * @return value which keeps the results alive
+		 */
+		abstract double run();
+	}
+
+	/**
+	 * Number of discarded warmup iterations.
+	 */
+	private int warmup = 3;
+
+	/**
+	 * Number of measured iterations.
+	 */
+	private int iterations = 5;
+
+	/**
+	 * Minimum duration of an iteration in milliseconds.
+	 */
+	private long millis = 200;
+
+	/**
+	 * The main method.
+	 *
+	 * @param args
+	 *            options described in the class documentation
+	 */
+	public static void main(String[] args) {
+		ComplexNumberBenchmark benchmark = new ComplexNumberBenchmark();
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			switch (args[i]) {
+			case "-warmup":
+				benchmark.warmup = Integer.parseInt(args[i + 1]);
+				break;
+			case "-iterations":
+				benchmark.iterations = Integer.parseInt(args[i + 1]);
+				break;
+			case "-time":
+				benchmark.millis = Long.parseLong(args[i + 1]);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option " + args[i] + ".");
+			}
+		}
+		benchmark.run();
+	}
+
+	/**
+	 * Runs all measurements and prints the report.
+	 */
+	private void run() {
+		System.out.printf("# java %s%n", System.getProperty("java.version"));
+		System.out.printf("%-32s %12s%n", "operation", "ns/op");
+		for (Operation operation : operations()) {
+			double[] results = new double[iterations];
+			for (int i = 0; i < warmup + iterations; ++i) {
+				double result = measure(operation);
+				if (i >= warmup) {
+					results[i - warmup] = result;
+				}
+			}
+			Arrays.sort(results);
+			System.out.printf("%-32s %12.1f%n", operation.name, results[iterations / 2]);
+		}
+	}
+
+	/**
+	 * Creates the measured operations.
+	 *
+	 * @return measured operations
+	 */
+	private static Operation[] operations() {
+		Random random = new Random(4);
+		final ComplexNumber[] values = new ComplexNumber[OPERANDS];
+		final String[] strings = new String[OPERANDS];
+		for (int i = 0; i < values.length; ++i) {
+			values[i] = new ComplexNumber(2 * random.nextDouble() - 1, 2 * random.nextDouble() - 1);
+			strings[i] = randomString(random);
+		}
+		final ComplexAccumulator sink = new ComplexAccumulator();
+		return new Operation[] { new Operation("mul+div rectangular") {
+			@Override
+			double run() {
+				double sink = 0;
+				for (int i = 1; i < values.length; ++i) {
+					sink += values[i].mul(values[i - 1]).div(values[i]).getReal();
+				}
+				return sink;
+			}
+		}, new Operation("mul+div polar") {
+			@Override
+			double run() {
+				double sink = 0;
+				for (int i = 1; i < values.length; ++i) {
+					sink += polarDiv(polarMul(values[i], values[i - 1]), values[i]).getReal();
+				}
+				return sink;
+			}
+		}, new Operation("power(7)") {
+			@Override
+			double run() {
+				double sink = 0;
+				for (int i = 0; i < values.length; ++i) {
+					sink += values[i].power(7).getReal();
+				}
+				return sink;
+			}
+		}, new Operation("parse") {
+			@Override
+			double run() {
+				double sink = 0;
+				for (String string : strings) {
+					sink += ComplexNumber.parse(string).getReal();
+				}
+				return sink;
+			}
+		}, new Operation("parse into accumulator") {
+			@Override
+			double run() {
+				double sum = 0;
+				for (String string : strings) {
+					sum += ComplexNumber.parse(string, 0, string.length(), sink).getReal();
+				}
+				return sum;
+			}
+		}, new Operation("parse regex") {
+			@Override
+			double run() {
+				double sink = 0;
+				for (String string : strings) {
+					sink += parseWithRegex(string).getReal();
+				}
+				return sink;
+			}
+		} };
+	}
+
+	/**
+	 * Creates a random string of one of the forms accepted by parse, such as
+	 * "-2.718", "0.5i", "i" or "3.141-2.718i".
+	 *
+	 * @param random
+	 *            source of randomness
+	 * @return string representation of a complex number
+	 */
+	private static String randomString(Random random) {
+		String real = (random.nextBoolean() ? "-" : "") + random.nextInt(100) + "." + random.nextInt(1000);
+		String imaginary = random.nextInt(4) == 0 ? "" : random.nextInt(100) + "." + random.nextInt(1000);
+		switch (random.nextInt(3)) {
+		case 0:
+			return real;
+		case 1:
+			return imaginary + "i";
+		default:
+			return real + (random.nextBoolean() ? "+" : "-") + imaginary + "i";
+		}
+	}
+
+	/**
+	 * Parses the string with the regular expression parser ComplexNumber used
+	 * before its hand-written scanner, copied here as the baseline.
+	 *
+	 * @param s
+	 *            string representation of the complex number
+	 * @return complex number parsed from the given string
+	 */
+	private static ComplexNumber parseWithRegex(String s) {
+		Pattern pattern = Pattern.compile("(-?\\d*\\.?\\d+) ?(([+-] ?(\\d*\\.?\\d+)?)i)|"
+				+ "(-?\\d*\\.?\\d+)|((-?(\\d*\\.?\\d+)?)i)");
+		Matcher matcher = pattern.matcher(s);
+		if (!matcher.matches()) {
+			throw new IllegalArgumentException();
+		}
+		double real = 0;
+		double imaginary = 0;
+		if (matcher.group(1) != null) {
+			real = Double.parseDouble(matcher.group(1));
+		} else if (matcher.group(5) != null) {
+			real = Double.parseDouble(matcher.group(5));
+		}
+		if (matcher.group(2) != null) {
+			String expression = matcher.group(3).replaceAll(" ", "");
+			imaginary = expression.equals("+") ? 1 : expression.equals("-") ? -1 : Double.parseDouble(expression);
+		} else if (matcher.group(6) != null) {
+			String expression = matcher.group(7);
+			imaginary = expression.isEmpty() ? 1 : expression.equals("-") ? -1 : Double.parseDouble(expression);
+		}
+		return new ComplexNumber(real, imaginary);
+	}
+
+	/**
+	 * Multiplies two complex numbers by the polar formula used before.
+	 *
+	 * @param a
+	 *            first factor
+	 * @param b
+	 *            second factor
+	 * @return product
+	 */
+	private static ComplexNumber polarMul(ComplexNumber a, ComplexNumber b) {
+		return ComplexNumber.fromMagnitudeAndAngle(a.getMagnitude() * b.getMagnitude(), a.getAngle() + b.getAngle());
+	}
+
+	/**
+	 * Divides two complex numbers by the polar formula used before.
+	 *
+	 * @param a
+	 *            dividend
+	 * @param b
+	 *            divisor
+	 * @return quotient
+	 */
+	private static ComplexNumber polarDiv(ComplexNumber a, ComplexNumber b) {
+		return ComplexNumber.fromMagnitudeAndAngle(a.getMagnitude() / b.getMagnitude(), a.getAngle() - b.getAngle());
+	}
+
+	/**
+	 * Runs the operation repeatedly for at least the duration of an iteration.
+	 *
+	 * @param operation
+	 *            measured operation
+	 * @return average time of a single operation in nanoseconds
+	 */
+	private double measure(Operation operation) {
+		long runs = 0;
+		double sink = 0;
+		long begin = System.nanoTime();
+		long end = begin + millis * 1_000_000L;
+		long now;
+		do {
+			sink += operation.run();
+			++runs;
+			now = System.nanoTime();
+		} while (now < end);
+		if (sink == 42) {
+			System.out.print("");
+		}
+		return (now - begin) / ((double) runs * OPERANDS);
+	}
+
+}
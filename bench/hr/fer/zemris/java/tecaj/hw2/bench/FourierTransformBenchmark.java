@@ -0,0 +1,245 @@
+package hr.fer.zemris.java.tecaj.hw2.bench;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import hr.fer.zemris.java.tecaj.hw2.ComplexAccumulator;
+import hr.fer.zemris.java.tecaj.hw2.ComplexArray;
+import hr.fer.zemris.java.tecaj.hw2.ComplexNumber;
+import hr.fer.zemris.java.tecaj.hw2.FourierTransform;
+
+/**
+ * Measures the average time of a forward transform by FourierTransform, on
+ * split and on interleaved parts, and compares it with a naive O(n^2) DFT
+ * over ComplexNumber objects with precomputed roots of 1, as written by hand
+ * before, and with the same DFT summed in a ComplexAccumulator. The naive DFT
+ * is measured only up to a length of 4096, since it takes too long above that.
+ * <p>
+ * Supported options, all optional:
+ * <ul>
+ * <li>-sizes 1024,1000 - transform lengths (default 256, 1000, 4096, 65536
+ * and 1048576)</li>
+ * <li>-warmup 3 - number of discarded iterations</li>
+ * <li>-iterations 5 - number of measured iterations</li>
+ * <li>-time 200 - minimum duration of an iteration in milliseconds</li>
+ * </ul>
+ * Each reported time is the median of the measured iterations.
+ *
+ * @author labramusic
+ *
+ */
+public class FourierTransformBenchmark {
+
+	/**
+	 * Maximum length measured with the naive DFT.
+	 */
+	private static final int MAX_NAIVE_LENGTH = 4096;
+
+	/**
+	 * A measured transform.
+	 */
+	private static abstract class Subject {
+
+		/**
+		 * Name of the transform.
+		 */
+		final String name;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param name
+		 *            name of the transform
+		 */
+		Subject(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Transforms the values once.
+		 *
+		 * @return value which keeps the result alive
+		 */
+		abstract double run();
+	}
+
+	/**
+	 * Transform lengths measured.
+	 */
+	private int[] sizes = { 256, 1000, 4096, 65536, 1 << 20 };
+
+	/**
+	 * Number of discarded warmup iterations.
+	 */
+	private int warmup = 3;
+
+	/**
+	 * Number of measured iterations.
+	 */
+	private int iterations = 5;
+
+	/**
+	 * Minimum duration of an iteration in milliseconds.
+	 */
+	private long millis = 200;
+
+	/**
+	 * The main method.
+	 *
+	 * @param args
+	 *            options described in the class documentation
+	 */
+	public static void main(String[] args) {
+		FourierTransformBenchmark benchmark = new FourierTransformBenchmark();
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			switch (args[i]) {
+			case "-sizes":
+				String[] values = args[i + 1].split(",");
+				benchmark.sizes = new int[values.length];
+				for (int j = 0; j < values.length; ++j) {
+					benchmark.sizes[j] = (int) Double.parseDouble(values[j]);
+				}
+				break;
+			case "-warmup":
+				benchmark.warmup = Integer.parseInt(args[i + 1]);
+				break;
+			case "-iterations":
+				benchmark.iterations = Integer.parseInt(args[i + 1]);
+				break;
+			case "-time":
+				benchmark.millis = Long.parseLong(args[i + 1]);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option " + args[i] + ".");
+			}
+		}
+		benchmark.run();
+	}
+
+	/**
+	 * Runs all measurements and prints the report.
+	 */
+	private void run() {
+		System.out.printf("# java %s, %d cpus%n", System.getProperty("java.version"),
+				Runtime.getRuntime().availableProcessors());
+		System.out.printf("%-28s %10s %14s%n", "transform", "length", "us/transform");
+		for (int size : sizes) {
+			for (Subject subject : subjects(size)) {
+				double[] results = new double[iterations];
+				for (int i = 0; i < warmup + iterations; ++i) {
+					double result = measure(subject);
+					if (i >= warmup) {
+						results[i - warmup] = result;
+					}
+				}
+				Arrays.sort(results);
+				System.out.printf("%-28s %10d %14.2f%n", subject.name, size, results[iterations / 2] / 1e3);
+			}
+		}
+	}
+
+	/**
+	 * Creates the measured transforms of the given length.
+	 *
+	 * @param size
+	 *            transform length
+	 * @return measured transforms
+	 */
+	private static Subject[] subjects(final int size) {
+		Random random = new Random(size);
+		final double[] re = new double[size];
+		final double[] im = new double[size];
+		final double[] data = new double[2 * size];
+		for (int i = 0; i < size; ++i) {
+			re[i] = data[2 * i] = random.nextDouble();
+			im[i] = data[2 * i + 1] = random.nextDouble();
+		}
+		final ComplexNumber[] values = new ComplexArray(re, im).toComplexNumbers();
+		final ComplexNumber[] roots = new ComplexNumber(1, 0).root(size);
+		// the transforms run in place, so the forward one is followed by the
+		// inverse one to keep the values from growing
+		Subject split = new Subject("FourierTransform split") {
+			@Override
+			double run() {
+				FourierTransform.forward(re, im);
+				FourierTransform.inverse(re, im);
+				return re[0];
+			}
+		};
+		Subject interleaved = new Subject("FourierTransform interleaved") {
+			@Override
+			double run() {
+				FourierTransform.forward(data);
+				FourierTransform.inverse(data);
+				return data[0];
+			}
+		};
+		if (size > MAX_NAIVE_LENGTH) {
+			return new Subject[] { split, interleaved };
+		}
+		Subject naive = new Subject("naive DFT") {
+			@Override
+			double run() {
+				ComplexNumber[] result = new ComplexNumber[size];
+				for (int k = 0; k < size; ++k) {
+					ComplexNumber sum = new ComplexNumber(0, 0);
+					for (int j = 0; j < size; ++j) {
+						// e^(-2 Pi i j k / n) is the conjugate of a root of 1
+						ComplexNumber root = roots[(int) ((long) j * k % size)];
+						ComplexNumber twiddle = new ComplexNumber(root.getReal(), -root.getImaginary());
+						sum = sum.add(values[j].mul(twiddle));
+					}
+					result[k] = sum;
+				}
+				return result[0].getReal();
+			}
+		};
+		Subject accumulated = new Subject("naive DFT accumulator") {
+			@Override
+			double run() {
+				ComplexAccumulator sum = new ComplexAccumulator();
+				double[] resultRe = new double[size];
+				double[] resultIm = new double[size];
+				for (int k = 0; k < size; ++k) {
+					sum.clear();
+					for (int j = 0; j < size; ++j) {
+						ComplexNumber root = roots[(int) ((long) j * k % size)];
+						sum.fma(re[j], im[j], root.getReal(), -root.getImaginary());
+					}
+					resultRe[k] = sum.getReal();
+					resultIm[k] = sum.getImaginary();
+				}
+				return resultRe[0] + resultIm[0];
+			}
+		};
+		return new Subject[] { naive, accumulated, split, interleaved };
+	}
+
+	/**
+	 * Runs the transform repeatedly for at least the duration of an
+	 * iteration. A run of the FourierTransform subjects is a forward and an
+	 * inverse transform, so their time is halved.
+	 *
+	 * @param subject
+	 *            measured transform
+	 * @return average time of a transform in nanoseconds
+	 */
+	private double measure(Subject subject) {
+		long runs = 0;
+		double sink = 0;
+		long begin = System.nanoTime();
+		long end = begin + millis * 1_000_000L;
+		long now;
+		do {
+			sink += subject.run();
+			++runs;
+			now = System.nanoTime();
+		} while (now < end);
+		if (sink == 42) {
+			System.out.print("");
+		}
+		double transforms = subject.name.startsWith("naive") ? runs : 2 * runs;
+		return (now - begin) / transforms;
+	}
+
+}
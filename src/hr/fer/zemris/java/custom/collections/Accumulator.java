@@ -0,0 +1,33 @@
+package hr.fer.zemris.java.custom.collections;
+
+/**
+ * A processor which accumulates a result from the objects it processes, used
+ * for parallel reduction of a collection. Every worker thread processes its
+ * part of the collection with its own empty accumulator, created by
+ * {@link #createEmpty()}, and the partial results are then merged with
+ * {@link #combine(Accumulator)}.
+ * 
+ * @author labramusic
+ *
+ */
+public abstract class Accumulator extends Processor {
+
+	/**
+	 * Creates a new accumulator of the same kind which has not processed any
+	 * object yet.
+	 * 
+	 * @return new empty accumulator
+	 */
+	public abstract Accumulator createEmpty();
+
+	/**
+	 * Merges the result of the given accumulator into this one. The given
+	 * accumulator was created by createEmpty and processed objects which
+	 * follow all objects processed by this accumulator.
+	 * 
+	 * @param other
+	 *            accumulator whose result is merged into this one
+	 */
+	public abstract void combine(Accumulator other);
+
+}
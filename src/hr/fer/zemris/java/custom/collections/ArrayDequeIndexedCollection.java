@@ -0,0 +1,464 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+
+/**
+ * Implementation of a resizable array-backed collection of objects which
+ * stores its elements in a circular buffer. Unlike ArrayIndexedCollection,
+ * elements can be added and removed at both ends in amortized constant time,
+ * while the element at any index is still retrieved in constant time. Insertion
+ * and removal at other positions shift the elements toward whichever end of
+ * the collection is nearer, so at most half of the elements are moved. The
+ * general contract of this collection is that it allows duplicate elements and
+ * doesn't allow storage of null references.
+ *
+ * @author labramusic
+ *
+ */
+public class ArrayDequeIndexedCollection extends Collection {
+
+	/**
+	 * The default initial capacity.
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Number of elements currently stored in the collection.
+	 */
+	private int size;
+
+	/**
+	 * Index of the first element in the elements array.
+	 */
+	private int head;
+
+	/**
+	 * The circular buffer used as storage of elements. Its length is always a
+	 * power of two, so that indexes can be wrapped around by masking.
+	 */
+	private Object[] elements;
+
+	/**
+	 * Default constructor which creates an instance with capacity set to 16.
+	 */
+	public ArrayDequeIndexedCollection() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor which preallocates the elements array so that it can hold at
+	 * least the given number of elements. The capacity is rounded up to a power
+	 * of two. Throws IllegalArgumentException if the given capacity is less
+	 * than 1.
+	 *
+	 * @param initialCapacity
+	 *            initial array capacity
+	 */
+	public ArrayDequeIndexedCollection(int initialCapacity) {
+		if (initialCapacity < 1) {
+			throw new IllegalArgumentException("Capacity must be at least 1.");
+		}
+		elements = new Object[powerOfTwo(initialCapacity)];
+	}
+
+	/**
+	 * Constructor which accepts a reference to some other collection the
+	 * elements of which are copied into this newly constructed collection.
+	 *
+	 * @param other
+	 *            collection to be copied from
+	 */
+	public ArrayDequeIndexedCollection(Collection other) {
+		this(Math.max(other.size(), DEFAULT_CAPACITY));
+		addAll(other);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Adds the object at the end of the collection. Throws
+	 * IllegalArgumentException if a null value is attempted to be added.
+	 */
+	@Override
+	public void add(Object value) {
+		addLast(value);
+	}
+
+	/**
+	 * Adds the object at the beginning of the collection, so that it gets index
+	 * 0. Throws IllegalArgumentException if a null value is attempted to be
+	 * added.
+	 *
+	 * @param value
+	 *            object to be added
+	 */
+	public void addFirst(Object value) {
+		if (value == null) {
+			throw new IllegalArgumentException();
+		}
+		if (size == elements.length) {
+			grow(size + 1);
+		}
+		head = (head - 1) & (elements.length - 1);
+		elements[head] = value;
+		++size;
+	}
+
+	/**
+	 * Adds the object at the end of the collection. Throws
+	 * IllegalArgumentException if a null value is attempted to be added.
+	 *
+	 * @param value
+	 *            object to be added
+	 */
+	public void addLast(Object value) {
+		if (value == null) {
+			throw new IllegalArgumentException();
+		}
+		if (size == elements.length) {
+			grow(size + 1);
+		}
+		elements[slot(size)] = value;
+		++size;
+	}
+
+	/**
+	 * Removes the first element of the collection and returns it. Throws
+	 * IndexOutOfBoundsException if the collection is empty.
+	 *
+	 * @return removed element
+	 */
+	public Object removeFirst() {
+		if (size == 0) {
+			throw new IndexOutOfBoundsException();
+		}
+		Object value = elements[head];
+		elements[head] = null;
+		head = (head + 1) & (elements.length - 1);
+		--size;
+		return value;
+	}
+
+	/**
+	 * Removes the last element of the collection and returns it. Throws
+	 * IndexOutOfBoundsException if the collection is empty.
+	 *
+	 * @return removed element
+	 */
+	public Object removeLast() {
+		if (size == 0) {
+			throw new IndexOutOfBoundsException();
+		}
+		int last = slot(size - 1);
+		Object value = elements[last];
+		elements[last] = null;
+		--size;
+		return value;
+	}
+
+	@Override
+	public boolean contains(Object value) {
+		return indexOf(value) != -1;
+	}
+
+	@Override
+	public boolean remove(Object value) {
+		int index = indexOf(value);
+		if (index == -1) {
+			return false;
+		}
+		remove(index);
+		return true;
+	}
+
+	/**
+	 * Removes the element at the given index. Elements between the removed one
+	 * and the nearer end of the collection are shifted one place toward it.
+	 * Throws IndexOutOfBoundsException if the given index is not between 0 and
+	 * size - 1.
+	 *
+	 * @param index
+	 *            index of element to be removed
+	 */
+	public void remove(int index) {
+		if (index < 0 || index > size - 1) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (index < size / 2) {
+			move(0, 1, index);
+			elements[head] = null;
+			head = slot(1);
+		} else {
+			move(index + 1, index, size - index - 1);
+			elements[slot(size - 1)] = null;
+		}
+		--size;
+	}
+
+	@Override
+	public Object[] toArray() {
+		Object[] array = new Object[size];
+		copyTo(array);
+		return array;
+	}
+
+	@Override
+	public void forEach(Processor processor) {
+		int mask = elements.length - 1;
+		for (int i = 0; i < size; ++i) {
+			processor.process(elements[(head + i) & mask]);
+		}
+	}
+
+	/**
+	 * Returns a spliterator over the elements in the circular buffer. It splits
+	 * its range of indexes in halves, so parallel streams get balanced parts.
+	 */
+	@Override
+	public Spliterator<Object> spliterator() {
+		return new DequeSpliterator(0, size);
+	}
+
+	/**
+	 * Adds all elements from the given collection. The elements array is
+	 * reallocated at most once, and elements of another
+	 * ArrayDequeIndexedCollection are copied directly between the buffers.
+	 */
+	@Override
+	public void addAll(Collection other) {
+		int otherSize = other.size();
+		if (size + otherSize > elements.length) {
+			grow(size + otherSize);
+		}
+		if (other instanceof ArrayDequeIndexedCollection) {
+			ArrayDequeIndexedCollection deque = (ArrayDequeIndexedCollection) other;
+			for (int i = 0; i < otherSize; ++i) {
+				elements[slot(size + i)] = deque.elements[deque.slot(i)];
+			}
+			size += otherSize;
+		} else {
+			super.addAll(other);
+		}
+	}
+
+	/**
+	 * Removes all elements accepted by the given tester in a single pass. The
+	 * remaining elements are moved at most once each.
+	 */
+	@Override
+	public boolean removeIf(Tester tester) {
+		int mask = elements.length - 1;
+		int kept = 0;
+		for (int i = 0; i < size; ++i) {
+			Object value = elements[(head + i) & mask];
+			if (!tester.test(value)) {
+				elements[(head + kept++) & mask] = value;
+			}
+		}
+		if (kept == size) {
+			return false;
+		}
+		for (int i = kept; i < size; ++i) {
+			elements[(head + i) & mask] = null;
+		}
+		size = kept;
+		return true;
+	}
+
+	/**
+	 * Returns the object that is stored at the given index. Valid indexes are 0
+	 * to size-1. Throws IndexOutOfBoundsException if index is invalid.
+	 *
+	 * @param index
+	 *            index of desired element
+	 * @return element at given index
+	 */
+	public Object get(int index) {
+		if (index < 0 || index > size - 1) {
+			throw new IndexOutOfBoundsException();
+		}
+		return elements[slot(index)];
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(elements, null);
+		head = 0;
+		size = 0;
+	}
+
+	/**
+	 * Inserts (does not overwrite) the given value at the given position.
+	 * Elements between the position and the nearer end of the collection are
+	 * shifted one place toward it, so that an empty place is created at
+	 * position. The legal positions are 0 to size. IndexOutOfBoundsException
+	 * is thrown if position is invalid. If the given value is null,
+	 * IllegalArgumentException is thrown.
+	 *
+	 * @param value
+	 *            object to be inserted
+	 * @param position
+	 *            position in which value should be inserted
+	 */
+	public void insert(Object value, int position) {
+		if (value == null) {
+			throw new IllegalArgumentException();
+		}
+		if (position < 0 || position > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (size == elements.length) {
+			grow(size + 1);
+		}
+		if (position < size / 2) {
+			head = slot(-1);
+			move(1, 0, position);
+		} else {
+			move(position, position + 1, size - position);
+		}
+		elements[slot(position)] = value;
+		++size;
+	}
+
+	/**
+	 * Searches the collection and returns the index of the first occurrence of
+	 * the given value or -1 if the value is not found.
+	 *
+	 * @param value
+	 *            object the index of which is being looked for
+	 * @return index of the object being searched for
+	 */
+	public int indexOf(Object value) {
+		int mask = elements.length - 1;
+		for (int i = 0; i < size; ++i) {
+			if (elements[(head + i) & mask].equals(value)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the index in the elements array at which the element with the
+	 * given index is stored.
+	 *
+	 * @param index
+	 *            index of an element
+	 * @return index in the elements array
+	 */
+	private int slot(int index) {
+		return (head + index) & (elements.length - 1);
+	}
+
+	/**
+	 * Moves the given number of consecutive elements starting at index from so
+	 * that they start at index to. The source and destination ranges may
+	 * overlap. The elements are copied with System.arraycopy in at most three
+	 * chunks, split where either range wraps around the end of the array.
+	 *
+	 * @param from
+	 *            index of the first moved element
+	 * @param to
+	 *            index the first element is moved to
+	 * @param count
+	 *            number of moved elements
+	 */
+	private void move(int from, int to, int count) {
+		int capacity = elements.length;
+		if (to < from) {
+			while (count > 0) {
+				int source = slot(from);
+				int destination = slot(to);
+				int n = Math.min(count, Math.min(capacity - source, capacity - destination));
+				System.arraycopy(elements, source, elements, destination, n);
+				from += n;
+				to += n;
+				count -= n;
+			}
+		} else {
+			// copy from the end, so that overlapping elements are not overwritten
+			while (count > 0) {
+				int source = slot(from + count - 1);
+				int destination = slot(to + count - 1);
+				int n = Math.min(count, Math.min(source + 1, destination + 1));
+				System.arraycopy(elements, source - n + 1, elements, destination - n + 1, n);
+				count -= n;
+			}
+		}
+	}
+
+	/**
+	 * Copies all elements in order to the beginning of the given array, with
+	 * at most two array copies.
+	 *
+	 * @param array
+	 *            destination array, at least as long as the collection
+	 */
+	private void copyTo(Object[] array) {
+		int firstPart = Math.min(size, elements.length - head);
+		System.arraycopy(elements, head, array, 0, firstPart);
+		System.arraycopy(elements, 0, array, firstPart, size - firstPart);
+	}
+
+	/**
+	 * Reallocates the elements array so that it can hold at least the given
+	 * number of elements. The elements are unwrapped, so that the first one is
+	 * stored at index 0 of the new array.
+	 *
+	 * @param minCapacity
+	 *            required capacity
+	 */
+	private void grow(int minCapacity) {
+		Object[] array = new Object[powerOfTwo(Math.max(2 * elements.length, minCapacity))];
+		copyTo(array);
+		elements = array;
+		head = 0;
+	}
+
+	/**
+	 * Returns the smallest power of two which is greater than or equal to the
+	 * given number.
+	 *
+	 * @param n
+	 *            a positive number
+	 * @return smallest power of two not less than n
+	 */
+	private static int powerOfTwo(int n) {
+		return n == 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+	}
+
+	/**
+	 * Spliterator over a range of indexes of the circular buffer.
+	 *
+	 * @author labramusic
+	 *
+	 */
+	private class DequeSpliterator extends RangeSpliterator {
+
+		/**
+		 * Constructor.
+		 *
+		 * @param index
+		 *            index of the first element, inclusive
+		 * @param fence
+		 *            index after the last element, exclusive
+		 */
+		DequeSpliterator(int index, int fence) {
+			super(index, fence);
+		}
+
+		@Override
+		Object element(int index) {
+			return elements[slot(index)];
+		}
+
+		@Override
+		RangeSpliterator slice(int index, int fence) {
+			return new DequeSpliterator(index, fence);
+		}
+	}
+}
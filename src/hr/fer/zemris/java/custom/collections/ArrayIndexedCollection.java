@@ -1,5 +1,12 @@
 package hr.fer.zemris.java.custom.collections;
 
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
 /**
  * Implementation of a resizable array-backed collection of objects. The general
  * contract of this collection is that it allows duplicate elements and doesn't
@@ -14,6 +21,11 @@ public class ArrayIndexedCollection extends Collection {
 	 * The default initial capacity.
 	 */
 	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Smallest number of elements processed by a single parallel task.
+	 */
+	private static final int MIN_PARALLEL_GRAIN = 1024;
 	
 	/**
 	 * Number of elements currently stored in the collection.
@@ -30,6 +42,28 @@ public class ArrayIndexedCollection extends Collection {
 	 */
 	private Object[] elements;
 
+	/**
+	 * Optional hash index of the elements, null if it is not enabled.
+	 */
+	private HashIndex hashIndex;
+
+	/**
+	 * Strategy which decides the new capacity when the elements array is full.
+	 */
+	private GrowthStrategy growthStrategy = GrowthStrategy.DOUBLING;
+
+	/**
+	 * Capacity below which the elements array is never shrunk on removal, 0 if
+	 * shrinking is disabled.
+	 */
+	private int shrinkFloor;
+
+	/**
+	 * Counters of the work done by this collection, null unless
+	 * instrumentation is enabled.
+	 */
+	private CollectionMetrics metrics;
+
 	/**
 	 * Default constructor which creates an instance with capacity set to 16.
 	 */
@@ -68,7 +102,9 @@ public class ArrayIndexedCollection extends Collection {
 	/**
 	 * Constructor which accepts a reference to some other collection the
 	 * elements of which are copied into this newly constructed collection. The
-	 * other argument is the desired capacity of the new collection. Throws
+	 * other argument is the desired capacity of the new collection. If the
+	 * other collection is larger, the capacity is set to its size, so the
+	 * elements are copied without any reallocation. Throws
 	 * IllegalArgumentException if the given capacity is less than 1.
 	 * 
 	 * @param other
@@ -77,7 +113,7 @@ public class ArrayIndexedCollection extends Collection {
 	 *            desired capacity
 	 */
 	public ArrayIndexedCollection(Collection other, int initialCapacity) {
-		this(initialCapacity);
+		this(initialCapacity < 1 ? initialCapacity : Math.max(initialCapacity, other.size()));
 		addAll(other);
 	}
 
@@ -88,8 +124,10 @@ public class ArrayIndexedCollection extends Collection {
 
 	/**
 	 * Adds the object to the first empty place, at the end of the array. If the
-	 * elements array is full, it is reallocated by doubling its size. Throws
-	 * IllegalArgumentException if a null value is attempted to be added.
+	 * elements array is full, it is reallocated with the capacity decided by
+	 * the growth strategy, which doubles it unless another strategy is set.
+	 * Throws IllegalArgumentException if a null value is attempted to be
+	 * added.
 	 */
 	@Override
 	public void add(Object value) {
@@ -97,36 +135,27 @@ public class ArrayIndexedCollection extends Collection {
 			throw new IllegalArgumentException();
 		}
 		if (size == capacity) {
-			capacity = 2 * capacity;
-			ArrayIndexedCollection array = new ArrayIndexedCollection(this, capacity);
-			elements = array.elements;
+			grow(size + 1);
 		}
 		elements[size++] = value;
+		if (hashIndex != null) {
+			hashIndex.added(value, size - 1);
+		}
 	}
 
 	@Override
 	public boolean contains(Object value) {
-		for (int i = 0; i < size; ++i) {
-			if (elements[i].equals(value))
-				return true;
-		}
-		return false;
+		return indexOf(value) != -1;
 	}
 
 	@Override
 	public boolean remove(Object value) {
-		for (int i = 0; i < size; ++i) {
-			if (elements[i].equals(value)) {
-				elements[i] = null;
-				for (int j = i; j < size - 1; ++j) {
-					elements[j] = elements[j + 1];
-				}
-				--size;
-				elements[size] = null;
-				return true;
-			}
+		int index = indexOf(value);
+		if (index == -1) {
+			return false;
 		}
-		return false;
+		remove(index);
+		return true;
 	}
 
 	/**
@@ -142,17 +171,20 @@ public class ArrayIndexedCollection extends Collection {
 		if (index < 0 || index > size - 1) {
 			throw new IndexOutOfBoundsException();
 		}
-		elements[index] = null;
-		for (int i = index; i < size - 1; ++i) {
-			elements[i] = elements[i + 1];
+		if (hashIndex != null) {
+			hashIndex.removed(elements[index], index);
+		}
+		if (metrics != null) {
+			metrics.removed(size - index - 1);
 		}
-		--size;
+		System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+		elements[--size] = null;
+		shrinkIfSparse();
 	}
 
 	@Override
 	public Object[] toArray() {
-		ArrayIndexedCollection array = new ArrayIndexedCollection(this, size);
-		return array.elements;
+		return Arrays.copyOf(elements, size);
 	}
 
 	@Override
@@ -162,6 +194,120 @@ public class ArrayIndexedCollection extends Collection {
 		}
 	}
 
+	/**
+	 * Returns a spliterator over the used part of the elements array. It
+	 * splits its range in halves, so parallel streams get balanced parts.
+	 */
+	@Override
+	public Spliterator<Object> spliterator() {
+		return Spliterators.spliterator(elements, 0, size, SPLITERATOR_CHARACTERISTICS);
+	}
+
+	/**
+	 * Calls the process method of the given processor for each element of this
+	 * collection, processing disjoint ranges of the elements array in parallel
+	 * on the common ForkJoinPool. The range size adapts to the size of the
+	 * collection and the parallelism of the pool, so that each worker gets a
+	 * few ranges to balance the load, and small collections are processed
+	 * sequentially. The processor is called from several threads at once and in
+	 * no particular order, so it must be thread-safe. The collection must not
+	 * be modified while it is being processed.
+	 * 
+	 * @param processor
+	 *            thread-safe processor instance
+	 */
+	public void parallelForEach(Processor processor) {
+		int grain = parallelGrain();
+		if (size <= grain) {
+			forEach(processor);
+			return;
+		}
+		ForkJoinPool.commonPool().invoke(new ForEachTask(elements, 0, size, grain, processor));
+	}
+
+	/**
+	 * Reduces the elements of this collection in parallel. Disjoint ranges of
+	 * the elements array are processed on the common ForkJoinPool, each by its
+	 * own accumulator created by createEmpty of the given accumulator, so the
+	 * accumulators need no synchronization. Partial results of neighbouring
+	 * ranges are combined in order, and the final result is combined into the
+	 * given accumulator, which is returned. The collection must not be modified
+	 * while it is being processed.
+	 * 
+	 * @param accumulator
+	 *            accumulator which receives the result
+	 * @return the given accumulator
+	 */
+	public Accumulator parallelReduce(Accumulator accumulator) {
+		int grain = parallelGrain();
+		if (size <= grain) {
+			forEach(accumulator);
+			return accumulator;
+		}
+		accumulator.combine(ForkJoinPool.commonPool().invoke(new ReduceTask(elements, 0, size, grain, accumulator)));
+		return accumulator;
+	}
+
+	/**
+	 * Adds all elements from the given collection. The elements array is
+	 * reallocated at most once. Elements of another ArrayIndexedCollection are
+	 * copied with a single array copy, while elements of other collections are
+	 * stored directly into the elements array.
+	 */
+	@Override
+	public void addAll(Collection other) {
+		int otherSize = other.size();
+		if (size + otherSize > capacity) {
+			grow(size + otherSize);
+		}
+		int start = size;
+		if (other instanceof ArrayIndexedCollection) {
+			System.arraycopy(((ArrayIndexedCollection) other).elements, 0, elements, size, otherSize);
+			size += otherSize;
+		} else {
+			class StoringProcessor extends Processor {
+				@Override
+				public void process(Object value) {
+					if (size == capacity) {
+						grow(size + 1);
+					}
+					elements[size++] = value;
+				}
+			}
+			other.forEach(new StoringProcessor());
+		}
+		if (hashIndex != null) {
+			for (int i = start; i < size; ++i) {
+				hashIndex.added(elements[i], i);
+			}
+		}
+	}
+
+	/**
+	 * Removes all elements accepted by the given tester in a single pass. The
+	 * remaining elements are moved back at most once each.
+	 */
+	@Override
+	public boolean removeIf(Tester tester) {
+		int kept = 0;
+		for (int i = 0; i < size; ++i) {
+			Object value = elements[i];
+			if (!tester.test(value)) {
+				elements[kept++] = value;
+			}
+		}
+		if (kept == size) {
+			return false;
+		}
+		Arrays.fill(elements, kept, size, null);
+		size = kept;
+		if (hashIndex != null) {
+			hashIndex = new HashIndex(elements, size);
+		}
+		shrinkIfSparse();
+		return true;
+	}
+
 	/**
 	 * Returns the object that is stored in the backing array at position index.
 	 * Valid indexes are 0 to size-1. Throws IndexOutOfBoundsException if index
@@ -178,10 +324,18 @@ public class ArrayIndexedCollection extends Collection {
 		return elements[index];
 	}
 
+	/**
+	 * Removes all elements by clearing the references in place. The elements
+	 * array is kept, so no memory is allocated, and trimToSize can be called
+	 * afterwards to release it.
+	 */
 	@Override
 	public void clear() {
-		elements = new Object[capacity];
+		Arrays.fill(elements, 0, size, null);
 		size = 0;
+		if (hashIndex != null) {
+			hashIndex.clear();
+		}
 	}
 
 	/**
@@ -205,31 +359,466 @@ public class ArrayIndexedCollection extends Collection {
 			throw new IndexOutOfBoundsException();
 		}
 		if (size == capacity) {
-			capacity = 2 * capacity;
-			ArrayIndexedCollection array = new ArrayIndexedCollection(this, capacity);
-			elements = array.elements;
-		}
-		for (int i = size; i > position; --i) {
-			elements[i] = elements[i - 1];
+			grow(size + 1);
 		}
+		System.arraycopy(elements, position, elements, position + 1, size - position);
 		elements[position] = value;
 		++size;
+		if (hashIndex != null) {
+			hashIndex.inserted(value, position);
+		}
 	}
 
 	/**
 	 * Searches the collection and returns the index of the first occurrence of
-	 * the given value or -1 if the value is not found.
+	 * the given value or -1 if the value is not found. Only searches which scan
+	 * the array are counted by the metrics, lookups in the hash index are not.
 	 * 
 	 * @param value
 	 *            object the index of which is being looked for
 	 * @return index of the object being searched for
 	 */
 	public int indexOf(Object value) {
-		for (int i = 0; i < size; ++i) {
-			if (elements[i].equals(value))
-				return i;
+		if (hashIndex != null) {
+			return hashIndex.indexOf(value, elements);
+		}
+		int i = 0;
+		while (i < size && !elements[i].equals(value)) {
+			++i;
+		}
+		if (metrics != null) {
+			metrics.searched(i < size ? i + 1 : size);
+		}
+		return i < size ? i : -1;
+	}
+
+	/**
+	 * Enables the hash index of this collection, which maps elements to the
+	 * positions they are stored at. While the index is enabled, contains and
+	 * indexOf take O(1) expected time instead of scanning the whole array, at
+	 * the cost of 16 to 32 additional bytes per element. remove(Object) finds
+	 * the element just as fast, but like remove(int) and insert it still
+	 * shifts the following elements and renumbers the index in time
+	 * proportional to the size of the collection. Adding and removing the
+	 * last element stay O(1). Elements must not change their hash code while
+	 * they are stored in an indexed collection. Enabling an already enabled
+	 * index has no effect.
+	 */
+	public void enableHashIndex() {
+		if (hashIndex == null) {
+			hashIndex = new HashIndex(elements, size);
+		}
+	}
+
+	/**
+	 * Disables the hash index of this collection and releases its memory.
+	 */
+	public void disableHashIndex() {
+		hashIndex = null;
+	}
+
+	/**
+	 * Checks if the hash index of this collection is enabled.
+	 * 
+	 * @return true if the hash index is enabled, false otherwise
+	 */
+	public boolean isHashIndexEnabled() {
+		return hashIndex != null;
+	}
+
+	/**
+	 * Enables instrumentation of this collection with zeroed counters. While
+	 * instrumentation is disabled, the hot paths only check a single field.
+	 * Enabling already enabled instrumentation has no effect.
+	 */
+	public void enableMetrics() {
+		if (metrics == null) {
+			metrics = new CollectionMetrics();
+		}
+	}
+
+	/**
+	 * Disables instrumentation of this collection and discards its counters.
+	 */
+	public void disableMetrics() {
+		metrics = null;
+	}
+
+	/**
+	 * Returns a snapshot of the counters of this collection, or null if
+	 * instrumentation is disabled.
+	 * 
+	 * @return snapshot of the counters or null
+	 */
+	public CollectionMetrics getMetrics() {
+		return metrics == null ? null : metrics.snapshot();
+	}
+
+	/**
+	 * Returns the current capacity, the number of elements the collection can
+	 * hold without reallocating its elements array.
+	 * 
+	 * @return current capacity
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Makes sure the collection can hold at least the given number of
+	 * elements without reallocating the elements array. If the capacity is
+	 * smaller, the array is reallocated once, following the growth strategy.
+	 * 
+	 * @param minCapacity
+	 *            required capacity
+	 */
+	public void ensureCapacity(int minCapacity) {
+		if (minCapacity > capacity) {
+			grow(minCapacity);
+		}
+	}
+
+	/**
+	 * Reallocates the elements array so that its capacity equals the number of
+	 * elements, or 1 if the collection is empty.
+	 */
+	public void trimToSize() {
+		int newCapacity = Math.max(size, 1);
+		if (newCapacity < capacity) {
+			resize(newCapacity);
+		}
+	}
+
+	/**
+	 * Sets the strategy which decides the new capacity when the elements array
+	 * is full. The default strategy doubles the capacity. Throws
+	 * IllegalArgumentException if the given strategy is null.
+	 * 
+	 * @param growthStrategy
+	 *            new growth strategy
+	 */
+	public void setGrowthStrategy(GrowthStrategy growthStrategy) {
+		if (growthStrategy == null) {
+			throw new IllegalArgumentException();
+		}
+		this.growthStrategy = growthStrategy;
+	}
+
+	/**
+	 * Enables shrinking of the elements array on removal. Once removals leave
+	 * the array less than a quarter full, its capacity is halved until it is
+	 * at least a quarter full again, but never below the given floor. Since a
+	 * halved array is still half empty, a collection whose size swings around
+	 * a boundary is not reallocated on every addition and removal. Throws
+	 * IllegalArgumentException if the floor is less than 1.
+	 * 
+	 * @param floor
+	 *            capacity below which the array is never shrunk
+	 */
+	public void enableShrinking(int floor) {
+		if (floor < 1) {
+			throw new IllegalArgumentException("Floor must be at least 1.");
+		}
+		shrinkFloor = floor;
+	}
+
+	/**
+	 * Disables shrinking of the elements array on removal.
+	 */
+	public void disableShrinking() {
+		shrinkFloor = 0;
+	}
+
+	/**
+	 * Reallocates the elements array so that it can hold at least the given
+	 * number of elements, with the capacity decided by the growth strategy.
+	 * 
+	 * @param minCapacity
+	 *            required capacity
+	 */
+	private void grow(int minCapacity) {
+		resize(growthStrategy.newCapacity(capacity, minCapacity));
+	}
+
+	/**
+	 * If shrinking is enabled, halves the capacity while the elements array
+	 * would be less than a quarter full, but not below the shrink floor.
+	 */
+	private void shrinkIfSparse() {
+		if (shrinkFloor == 0) {
+			return;
+		}
+		int newCapacity = capacity;
+		while (newCapacity > shrinkFloor && size < newCapacity / 4) {
+			newCapacity = Math.max(newCapacity / 2, shrinkFloor);
+		}
+		if (newCapacity < capacity) {
+			resize(newCapacity);
+		}
+	}
+
+	/**
+	 * Reallocates the elements array with the given capacity, which is at
+	 * least the number of elements.
+	 * 
+	 * @param newCapacity
+	 *            new capacity
+	 */
+	private void resize(int newCapacity) {
+		if (metrics != null) {
+			metrics.resized(Math.min(capacity, newCapacity));
+		}
+		capacity = newCapacity;
+		elements = Arrays.copyOf(elements, capacity);
+	}
+
+	/**
+	 * Adds the given range of the array at the end of the collection with a
+	 * single array copy, reallocating the elements array at most once. Throws
+	 * IllegalArgumentException if the range contains null, in which case
+	 * nothing is added.
+	 * 
+	 * @param values
+	 *            array of values to be added
+	 * @param from
+	 *            index of the first added value
+	 * @param count
+	 *            number of added values
+	 */
+	void addArray(Object[] values, int from, int count) {
+		for (int i = from; i < from + count; ++i) {
+			if (values[i] == null) {
+				throw new IllegalArgumentException();
+			}
+		}
+		if (size + count > capacity) {
+			grow(size + count);
+		}
+		System.arraycopy(values, from, elements, size, count);
+		int start = size;
+		size += count;
+		if (hashIndex != null) {
+			for (int i = start; i < size; ++i) {
+				hashIndex.added(elements[i], i);
+			}
+		}
+	}
+
+	/**
+	 * Removes the last element and returns it. The collection must not be
+	 * empty.
+	 * 
+	 * @return removed element
+	 */
+	Object removeLast() {
+		Object value = elements[--size];
+		if (hashIndex != null) {
+			hashIndex.removed(value, size);
+		}
+		if (metrics != null) {
+			metrics.removedLast(1);
+		}
+		elements[size] = null;
+		shrinkIfSparse();
+		return value;
+	}
+
+	/**
+	 * Removes the given number of last elements, copying them in order into
+	 * the array starting at the given offset. The collection must hold at
+	 * least count elements. The elements leave the hash index from the last
+	 * one, so none of the remaining positions has to be renumbered.
+	 * 
+	 * @param target
+	 *            array the removed elements are copied into
+	 * @param offset
+	 *            index in the target array of the first copied element
+	 * @param count
+	 *            number of removed elements
+	 */
+	void removeLast(Object[] target, int offset, int count) {
+		int start = size - count;
+		System.arraycopy(elements, start, target, offset, count);
+		if (hashIndex != null) {
+			for (int i = size - 1; i >= start; --i) {
+				hashIndex.removed(elements[i], i);
+			}
+		}
+		if (metrics != null) {
+			metrics.removedLast(count);
+		}
+		Arrays.fill(elements, start, size, null);
+		size = start;
+		shrinkIfSparse();
+	}
+
+	/**
+	 * Returns the number of elements below which a range is processed by a
+	 * single parallel task. Ranges are sized so that every worker of the pool
+	 * gets about four of them, but never less than MIN_PARALLEL_GRAIN elements.
+	 * 
+	 * @return maximum number of elements processed by a single task
+	 */
+	private int parallelGrain() {
+		int parallelism = ForkJoinPool.getCommonPoolParallelism();
+		if (parallelism < 2) {
+			return Integer.MAX_VALUE;
+		}
+		return Math.max(MIN_PARALLEL_GRAIN, size / (4 * parallelism));
+	}
+
+	/**
+	 * Task which calls a processor for a range of elements, splitting the
+	 * range in halves until it is small enough.
+	 * 
+	 * @author labramusic
+	 *
+	 */
+	private static class ForEachTask extends RecursiveAction {
+
+		/**
+		 * Default serial version UID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Processed array.
+		 */
+		private final Object[] elements;
+
+		/**
+		 * Index of the first element of the range, inclusive.
+		 */
+		private final int from;
+
+		/**
+		 * Index of the last element of the range, exclusive.
+		 */
+		private final int to;
+
+		/**
+		 * Maximum number of elements processed without splitting.
+		 */
+		private final int grain;
+
+		/**
+		 * Processor called for each element.
+		 */
+		private final Processor processor;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param elements
+		 *            processed array
+		 * @param from
+		 *            index of the first element, inclusive
+		 * @param to
+		 *            index of the last element, exclusive
+		 * @param grain
+		 *            maximum number of elements processed without splitting
+		 * @param processor
+		 *            processor called for each element
+		 */
+		ForEachTask(Object[] elements, int from, int to, int grain, Processor processor) {
+			this.elements = elements;
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+			this.processor = processor;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= grain) {
+				for (int i = from; i < to; ++i) {
+					processor.process(elements[i]);
+				}
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new ForEachTask(elements, from, middle, grain, processor),
+					new ForEachTask(elements, middle, to, grain, processor));
+		}
+	}
+
+	/**
+	 * Task which accumulates a range of elements into a new accumulator,
+	 * splitting the range in halves until it is small enough.
+	 * 
+	 * @author labramusic
+	 *
+	 */
+	private static class ReduceTask extends RecursiveTask<Accumulator> {
+
+		/**
+		 * Default serial version UID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Processed array.
+		 */
+		private final Object[] elements;
+
+		/**
+		 * Index of the first element of the range, inclusive.
+		 */
+		private final int from;
+
+		/**
+		 * Index of the last element of the range, exclusive.
+		 */
+		private final int to;
+
+		/**
+		 * Maximum number of elements processed without splitting.
+		 */
+		private final int grain;
+
+		/**
+		 * Accumulator used to create empty accumulators.
+		 */
+		private final Accumulator prototype;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param elements
+		 *            processed array
+		 * @param from
+		 *            index of the first element, inclusive
+		 * @param to
+		 *            index of the last element, exclusive
+		 * @param grain
+		 *            maximum number of elements processed without splitting
+		 * @param prototype
+		 *            accumulator used to create empty accumulators
+		 */
+		ReduceTask(Object[] elements, int from, int to, int grain, Accumulator prototype) {
+			this.elements = elements;
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+			this.prototype = prototype;
+		}
+
+		@Override
+		protected Accumulator compute() {
+			if (to - from <= grain) {
+				Accumulator accumulator = prototype.createEmpty();
+				for (int i = from; i < to; ++i) {
+					accumulator.process(elements[i]);
+				}
+				return accumulator;
+			}
+			int middle = (from + to) >>> 1;
+			ReduceTask right = new ReduceTask(elements, middle, to, grain, prototype);
+			right.fork();
+			Accumulator left = new ReduceTask(elements, from, middle, grain, prototype).compute();
+			left.combine(right.join());
+			return left;
 		}
-		return -1;
 	}
 
 }
@@ -0,0 +1,150 @@
+package hr.fer.zemris.java.custom.collections;
+
+/**
+ * A first-in first-out queue of objects with a fixed capacity which can be
+ * shared between threads without locks. Offering to a full queue and polling
+ * from an empty one fail immediately instead of waiting, so the calling thread
+ * decides whether to retry, back off or do other work. The batch operations
+ * offerAll and drainTo move many values with a single update of the shared
+ * indexes, which is where the throughput of a pipeline comes from.
+ * <p>
+ * The indexes written by producers and consumers are kept in separate cache
+ * lines, so producers and consumers do not slow each other down by
+ * invalidating each other's caches.
+ *
+ * @author labramusic
+ *
+ */
+public abstract class BoundedObjectQueue {
+
+	/**
+	 * Number of longs in a cache line and the padding on each side of an
+	 * index. Cache lines are 64 bytes on most processors, and two lines are
+	 * padded because adjacent lines are often prefetched together.
+	 */
+	static final int PADDING = 16;
+
+	/**
+	 * Returns the number of values the queue can hold.
+	 *
+	 * @return capacity of the queue
+	 */
+	public abstract int capacity();
+
+	/**
+	 * Returns the number of values in the queue. Other threads may be
+	 * modifying the queue, so the result is only an estimate.
+	 *
+	 * @return number of values in queue
+	 */
+	public abstract int size();
+
+	/**
+	 * Checks if queue contains any values. Other threads may be modifying the
+	 * queue, so the result is only an estimate.
+	 *
+	 * @return true if queue contains no values, false otherwise
+	 */
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Adds the given value at the end of the queue, unless the queue is full.
+	 * Throws IllegalArgumentException if a null value is attempted to be
+	 * added.
+	 *
+	 * @param value
+	 *            value to be added
+	 * @return true if the value was added, false if the queue was full
+	 */
+	public abstract boolean offer(Object value);
+
+	/**
+	 * Removes the first value of the queue and returns it.
+	 *
+	 * @return value at the front of the queue, or null if the queue was empty
+	 */
+	public abstract Object poll();
+
+	/**
+	 * Adds values from the given range of the array at the end of the queue,
+	 * in the order of the array, until the range is exhausted or the queue is
+	 * full. Throws IllegalArgumentException if the range contains null or does
+	 * not fit into the array.
+	 *
+	 * @param values
+	 *            array of values to be added
+	 * @param offset
+	 *            index in the array of the first value
+	 * @param count
+	 *            number of values in the range
+	 * @return number of added values, from the start of the range
+	 */
+	public abstract int offerAll(Object[] values, int offset, int count);
+
+	/**
+	 * Removes at most max values from the front of the queue and stores them
+	 * in order into the given array, starting at the given offset. Throws
+	 * IllegalArgumentException if the values would not fit into the array.
+	 *
+	 * @param target
+	 *            array the values are stored into
+	 * @param offset
+	 *            index in the array of the first value
+	 * @param max
+	 *            maximum number of removed values
+	 * @return number of removed values
+	 */
+	public abstract int drainTo(Object[] target, int offset, int max);
+
+	/**
+	 * Throws IllegalArgumentException if the range does not fit into the
+	 * array or contains null.
+	 *
+	 * @param values
+	 *            array of values
+	 * @param offset
+	 *            index of the first value of the range
+	 * @param count
+	 *            number of values in the range
+	 */
+	static void checkValues(Object[] values, int offset, int count) {
+		checkRange(values, offset, count);
+		for (int i = offset; i < offset + count; ++i) {
+			if (values[i] == null) {
+				throw new IllegalArgumentException();
+			}
+		}
+	}
+
+	/**
+	 * Throws IllegalArgumentException if the range does not fit into the
+	 * array.
+	 *
+	 * @param array
+	 *            array
+	 * @param offset
+	 *            index of the first place of the range
+	 * @param count
+	 *            number of places in the range
+	 */
+	static void checkRange(Object[] array, int offset, int count) {
+		if (array == null || offset < 0 || count < 0 || offset > array.length - count) {
+			throw new IllegalArgumentException();
+		}
+	}
+
+	/**
+	 * Returns the smallest power of two which is greater than or equal to the
+	 * given number.
+	 *
+	 * @param n
+	 *            a positive number
+	 * @return smallest power of two not less than n
+	 */
+	static int powerOfTwo(int n) {
+		return n == 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+	}
+
+}
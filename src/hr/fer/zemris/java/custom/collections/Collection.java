@@ -1,5 +1,11 @@
 package hr.fer.zemris.java.custom.collections;
 
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * Represents a general collection of objects. Has the functionality of adding
  * and removing elements, giving general information about its contents, as well
@@ -10,6 +16,14 @@ package hr.fer.zemris.java.custom.collections;
  */
 public class Collection {
 
+	/**
+	 * Characteristics of the spliterators of all collections. Elements are
+	 * ordered, never null, and the exact number of elements is known before
+	 * traversal, also for every part a spliterator is split into.
+	 */
+	public static final int SPLITERATOR_CHARACTERISTICS = Spliterator.ORDERED | Spliterator.NONNULL
+			| Spliterator.SIZED | Spliterator.SUBSIZED;
+
 	/**
 	 * Default constructor which creates a new collection.
 	 */
@@ -119,4 +133,121 @@ public class Collection {
 
 	}
 
+	/**
+	 * Removes all elements of this collection which are accepted by the given
+	 * tester. The general implementation removes the accepted elements one by
+	 * one, while implementations should override it to remove all of them in a
+	 * single pass.
+	 * 
+	 * @param tester
+	 *            tester which accepts the elements to be removed
+	 * @return true if any element was removed
+	 */
+	public boolean removeIf(Tester tester) {
+		boolean removed = false;
+		for (Object value : toArray()) {
+			if (tester.test(value)) {
+				remove(value);
+				removed = true;
+			}
+		}
+		return removed;
+	}
+
+	/**
+	 * Removes all elements of this collection which are contained in the given
+	 * collection, as determined by its contains method. The other collection
+	 * remains unchanged.
+	 * 
+	 * @param other
+	 *            collection of elements to be removed
+	 * @return true if any element was removed
+	 */
+	public boolean removeAll(Collection other) {
+		class ContainedTester extends Tester {
+			@Override
+			public boolean test(Object value) {
+				return other.contains(value);
+			}
+		}
+		return removeIf(new ContainedTester());
+	}
+
+	/**
+	 * Removes all elements of this collection which are not contained in the
+	 * given collection, as determined by its contains method. The other
+	 * collection remains unchanged.
+	 * 
+	 * @param other
+	 *            collection of elements to be kept
+	 * @return true if any element was removed
+	 */
+	public boolean retainAll(Collection other) {
+		class NotContainedTester extends Tester {
+			@Override
+			public boolean test(Object value) {
+				return !other.contains(value);
+			}
+		}
+		return removeIf(new NotContainedTester());
+	}
+
+	/**
+	 * Returns a spliterator over the elements of this collection, in order.
+	 * The general implementation traverses a copy made by toArray, while
+	 * implementations should override it to traverse their own storage. The
+	 * spliterator reports SPLITERATOR_CHARACTERISTICS and the collection must
+	 * not be modified while it is being traversed.
+	 * 
+	 * @return spliterator over the elements
+	 */
+	public Spliterator<Object> spliterator() {
+		return Spliterators.spliterator(toArray(), SPLITERATOR_CHARACTERISTICS);
+	}
+
+	/**
+	 * Returns a sequential stream of the elements of this collection.
+	 * 
+	 * @return sequential stream of the elements
+	 */
+	public Stream<Object> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * Returns a parallel stream of the elements of this collection.
+	 * 
+	 * @return parallel stream of the elements
+	 */
+	public Stream<Object> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+
+	/**
+	 * Copies the elements of the given collection into a new array through
+	 * its forEach method, so that also collections which do not override
+	 * toArray can be copied. The array is allocated by the size of the
+	 * collection and grown only if forEach passes more elements.
+	 * 
+	 * @param collection
+	 *            collection whose elements are copied
+	 * @return array holding exactly the elements of the collection
+	 */
+	static Object[] copyElements(Collection collection) {
+		class CopyingProcessor extends Processor {
+			Object[] array = new Object[collection.size()];
+			int count;
+
+			@Override
+			public void process(Object value) {
+				if (count == array.length) {
+					array = Arrays.copyOf(array, GrowthStrategy.DOUBLING.newCapacity(array.length, count + 1));
+				}
+				array[count++] = value;
+			}
+		}
+		CopyingProcessor copier = new CopyingProcessor();
+		collection.forEach(copier);
+		return copier.count == copier.array.length ? copier.array : Arrays.copyOf(copier.array, copier.count);
+	}
 }
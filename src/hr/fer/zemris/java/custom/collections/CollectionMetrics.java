@@ -0,0 +1,216 @@
+package hr.fer.zemris.java.custom.collections;
+
+/**
+ * Counters of the work done by the hot paths of a collection, collected only
+ * while instrumentation of the collection is enabled. Collections update their
+ * live counters as they work, and hand out copies made by {@link #snapshot()},
+ * so a snapshot never changes after it is taken. Counters are not
+ * synchronized: like the collections themselves, they must be read by the
+ * thread which uses the collection, or with external synchronization.
+ * <p>
+ * The toString method formats all counters on a single line of name=value
+ * pairs, suitable for logging or scraping.
+ *
+ * @author labramusic
+ *
+ */
+public class CollectionMetrics {
+
+	/**
+	 * Number of reallocations of the backing array.
+	 */
+	private long resizes;
+
+	/**
+	 * Number of references copied by reallocations of the backing array.
+	 */
+	private long copiedReferences;
+
+	/**
+	 * Number of linear searches by contains, indexOf and remove(Object).
+	 */
+	private long searches;
+
+	/**
+	 * Number of equals calls made by linear searches.
+	 */
+	private long equalsCalls;
+
+	/**
+	 * Number of indexed operations which walked the nodes of a list.
+	 */
+	private long nodeWalks;
+
+	/**
+	 * Number of nodes walked by indexed operations.
+	 */
+	private long walkedNodes;
+
+	/**
+	 * Number of removals by index.
+	 */
+	private long indexedRemovals;
+
+	/**
+	 * Number of elements shifted by removals by index.
+	 */
+	private long shiftedElements;
+
+	/**
+	 * Records a reallocation of the backing array.
+	 *
+	 * @param copied
+	 *            number of references copied into the new array
+	 */
+	void resized(long copied) {
+		++resizes;
+		copiedReferences += copied;
+	}
+
+	/**
+	 * Records a linear search.
+	 *
+	 * @param comparisons
+	 *            number of equals calls made by the search
+	 */
+	void searched(long comparisons) {
+		++searches;
+		equalsCalls += comparisons;
+	}
+
+	/**
+	 * Records an indexed operation which walked the nodes of a list.
+	 *
+	 * @param nodes
+	 *            number of nodes walked
+	 */
+	void walked(long nodes) {
+		++nodeWalks;
+		walkedNodes += nodes;
+	}
+
+	/**
+	 * Records a removal by index.
+	 *
+	 * @param shifted
+	 *            number of elements shifted to fill the gap
+	 */
+	void removed(long shifted) {
+		++indexedRemovals;
+		shiftedElements += shifted;
+	}
+
+	/**
+	 * Records removals of the given number of last elements, which shift no
+	 * other elements.
+	 *
+	 * @param count
+	 *            number of removed elements
+	 */
+	void removedLast(long count) {
+		indexedRemovals += count;
+	}
+
+	/**
+	 * Returns the number of reallocations of the backing array.
+	 *
+	 * @return number of reallocations
+	 */
+	public long getResizes() {
+		return resizes;
+	}
+
+	/**
+	 * Returns the number of references copied by reallocations of the backing
+	 * array. The number of bytes copied is this number multiplied by the size
+	 * of a reference, which is 4 bytes with compressed references and 8 bytes
+	 * otherwise.
+	 *
+	 * @return number of copied references
+	 */
+	public long getCopiedReferences() {
+		return copiedReferences;
+	}
+
+	/**
+	 * Returns the number of linear searches by contains, indexOf and
+	 * remove(Object).
+	 *
+	 * @return number of searches
+	 */
+	public long getSearches() {
+		return searches;
+	}
+
+	/**
+	 * Returns the number of equals calls made by linear searches.
+	 *
+	 * @return number of equals calls
+	 */
+	public long getEqualsCalls() {
+		return equalsCalls;
+	}
+
+	/**
+	 * Returns the number of indexed operations which walked the nodes of a
+	 * list.
+	 *
+	 * @return number of walks
+	 */
+	public long getNodeWalks() {
+		return nodeWalks;
+	}
+
+	/**
+	 * Returns the number of nodes walked by indexed operations.
+	 *
+	 * @return number of walked nodes
+	 */
+	public long getWalkedNodes() {
+		return walkedNodes;
+	}
+
+	/**
+	 * Returns the number of removals by index.
+	 *
+	 * @return number of removals by index
+	 */
+	public long getIndexedRemovals() {
+		return indexedRemovals;
+	}
+
+	/**
+	 * Returns the number of elements shifted by removals by index.
+	 *
+	 * @return number of shifted elements
+	 */
+	public long getShiftedElements() {
+		return shiftedElements;
+	}
+
+	/**
+	 * Returns a copy of the current values of the counters.
+	 *
+	 * @return snapshot of the counters
+	 */
+	public CollectionMetrics snapshot() {
+		CollectionMetrics snapshot = new CollectionMetrics();
+		snapshot.resizes = resizes;
+		snapshot.copiedReferences = copiedReferences;
+		snapshot.searches = searches;
+		snapshot.equalsCalls = equalsCalls;
+		snapshot.nodeWalks = nodeWalks;
+		snapshot.walkedNodes = walkedNodes;
+		snapshot.indexedRemovals = indexedRemovals;
+		snapshot.shiftedElements = shiftedElements;
+		return snapshot;
+	}
+
+	@Override
+	public String toString() {
+		return "resizes=" + resizes + " copiedReferences=" + copiedReferences + " searches=" + searches
+				+ " equalsCalls=" + equalsCalls + " nodeWalks=" + nodeWalks + " walkedNodes=" + walkedNodes
+				+ " indexedRemovals=" + indexedRemovals + " shiftedElements=" + shiftedElements;
+	}
+
+}
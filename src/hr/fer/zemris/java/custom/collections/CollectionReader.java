@@ -0,0 +1,185 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads elements written by CollectionWriter from an input stream. The stream
+ * is read a chunk at a time into a buffer which grows to the size of the
+ * largest chunk, so any number of elements is read in bounded memory and
+ * passed to a processor or added to a collection as they are decoded.
+ *
+ * @author labramusic
+ *
+ */
+public class CollectionReader implements Closeable {
+
+	/**
+	 * Stream the chunks are read from.
+	 */
+	private final InputStream in;
+
+	/**
+	 * Codec of the elements.
+	 */
+	private final ElementCodec codec;
+
+	/**
+	 * Buffer holding the chunk being decoded.
+	 */
+	private ByteBuffer buffer;
+
+	/**
+	 * Number of elements of the current chunk which are not decoded yet.
+	 */
+	private int remaining;
+
+	/**
+	 * True once the end of the stream has been read.
+	 */
+	private boolean finished;
+
+	/**
+	 * Constructor which reads and checks the magic number of the stream.
+	 *
+	 * @param in
+	 *            stream the chunks are read from
+	 * @param codec
+	 *            codec of the elements, the same the stream was written with
+	 * @throws IOException
+	 *             if reading fails or the stream was not written by
+	 *             CollectionWriter
+	 */
+	public CollectionReader(InputStream in, ElementCodec codec) throws IOException {
+		if (in == null || codec == null) {
+			throw new IllegalArgumentException();
+		}
+		this.in = in;
+		this.codec = codec;
+		buffer = ByteBuffer.allocate(CollectionWriter.CHUNK_HEADER_SIZE);
+		readFully(Integer.BYTES);
+		if (buffer.getInt() != CollectionWriter.MAGIC) {
+			throw new IOException("Stream was not written by CollectionWriter.");
+		}
+	}
+
+	/**
+	 * Returns true if there are more elements to be read.
+	 *
+	 * @return true if next will return an element
+	 * @throws IOException
+	 *             if reading the next chunk fails
+	 */
+	public boolean hasNext() throws IOException {
+		while (remaining == 0 && !finished) {
+			readChunk();
+		}
+		return remaining > 0;
+	}
+
+	/**
+	 * Reads and returns the next element. Throws EOFException if the end of
+	 * the stream has been reached.
+	 *
+	 * @return next element
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	public Object next() throws IOException {
+		if (!hasNext()) {
+			throw new EOFException("No more elements.");
+		}
+		--remaining;
+		return codec.decode(buffer);
+	}
+
+	/**
+	 * Reads all remaining elements and calls the process method of the given
+	 * processor for each of them, in the order they were written.
+	 *
+	 * @param processor
+	 *            processor instance with the processing method to be called
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	public void forEach(Processor processor) throws IOException {
+		while (hasNext()) {
+			for (; remaining > 0; --remaining) {
+				processor.process(codec.decode(buffer));
+			}
+		}
+	}
+
+	/**
+	 * Reads all remaining elements and adds them to the given collection, in
+	 * the order they were written.
+	 *
+	 * @param collection
+	 *            collection the elements are added to
+	 * @throws IOException
+	 *             if reading fails
+	 */
+	public void readAll(Collection collection) throws IOException {
+		while (hasNext()) {
+			for (; remaining > 0; --remaining) {
+				collection.add(codec.decode(buffer));
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	/**
+	 * Reads the header and the contents of the next chunk. A chunk of zero
+	 * elements marks the end of the stream.
+	 *
+	 * @throws IOException
+	 *             if reading fails or the chunk is malformed
+	 */
+	private void readChunk() throws IOException {
+		readFully(CollectionWriter.CHUNK_HEADER_SIZE);
+		int count = buffer.getInt();
+		int length = buffer.getInt();
+		if (count < 0 || length < 0) {
+			throw new IOException("Malformed chunk header.");
+		}
+		if (count == 0) {
+			finished = true;
+			return;
+		}
+		if (buffer.capacity() < length) {
+			buffer = ByteBuffer.allocate(length);
+		}
+		readFully(length);
+		remaining = count;
+	}
+
+	/**
+	 * Reads exactly the given number of bytes into the start of the buffer and
+	 * limits the buffer to them.
+	 *
+	 * @param length
+	 *            number of bytes to be read
+	 * @throws IOException
+	 *             if reading fails or the stream ends too early
+	 */
+	private void readFully(int length) throws IOException {
+		byte[] array = buffer.array();
+		for (int done = 0; done < length;) {
+			int n = in.read(array, done, length - done);
+			if (n < 0) {
+				throw new EOFException("Stream ended in the middle of a chunk.");
+			}
+			done += n;
+		}
+		buffer.clear();
+		buffer.limit(length);
+	}
+
+}
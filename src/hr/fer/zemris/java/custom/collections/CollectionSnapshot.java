@@ -0,0 +1,257 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes collections into binary snapshot files and restores them. A snapshot
+ * starts with a header of four big-endian ints: the magic number, the byte
+ * order of the records (1 for little-endian, 0 for big-endian), the size of a
+ * record and the number of records. The records follow, encoded by a
+ * RecordCodec in the native byte order of the machine which wrote them.
+ * <p>
+ * Restoring maps the file into memory instead of reading it through a stream.
+ * A snapshot can be restored into an ArrayIndexedCollection, decoding every
+ * record once; into an OffHeapIndexedCollection, copying all records with a
+ * single bulk copy when the byte order matches; or served lazily by a
+ * read-only MappedIndexedCollection, which decodes records only when they are
+ * accessed.
+ *
+ * @author labramusic
+ *
+ */
+public final class CollectionSnapshot {
+
+	/**
+	 * Magic number at the start of every snapshot, "CSNP" in ASCII.
+	 */
+	private static final int MAGIC = 0x43534E50;
+
+	/**
+	 * Number of bytes of the header.
+	 */
+	private static final int HEADER_SIZE = 4 * Integer.BYTES;
+
+	/**
+	 * Number of bytes encoded before they are written to the file.
+	 */
+	private static final int WRITE_CHUNK = 1 << 16;
+
+	/**
+	 * Private constructor, the class offers only static methods.
+	 */
+	private CollectionSnapshot() {
+	}
+
+	/**
+	 * Writes a snapshot of the given collection into the given file, replacing
+	 * its contents. Elements are encoded by the given codec a chunk at a time,
+	 * while the records of an OffHeapIndexedCollection using the same codec
+	 * are written directly from its buffer. The file is forced to the storage
+	 * device before this method returns.
+	 *
+	 * @param collection
+	 *            collection to be written
+	 * @param codec
+	 *            codec of the elements
+	 * @param file
+	 *            path of the snapshot file
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public static void write(Collection collection, final RecordCodec codec, Path file) throws IOException {
+		if (collection == null || codec == null || file == null) {
+			throw new IllegalArgumentException();
+		}
+		try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC);
+			header.putInt(ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? 1 : 0);
+			header.putInt(codec.recordSize());
+			header.putInt(collection.size());
+			header.flip();
+			writeFully(channel, header);
+
+			if (collection instanceof OffHeapIndexedCollection
+					&& ((OffHeapIndexedCollection) collection).codec() == codec) {
+				writeFully(channel, ((OffHeapIndexedCollection) collection).records());
+			} else {
+				final int recordSize = codec.recordSize();
+				final ByteBuffer chunk = ByteBuffer
+						.allocateDirect(Math.max(1, WRITE_CHUNK / recordSize) * recordSize)
+						.order(ByteOrder.nativeOrder());
+				class EncodingProcessor extends Processor {
+					@Override
+					public void process(Object value) {
+						if (chunk.remaining() < recordSize) {
+							flush(channel, chunk);
+						}
+						codec.write(chunk, chunk.position(), value);
+						chunk.position(chunk.position() + recordSize);
+					}
+				}
+				try {
+					collection.forEach(new EncodingProcessor());
+					flush(channel, chunk);
+				} catch (UncheckedIOException e) {
+					throw e.getCause();
+				} finally {
+					OffHeapIndexedCollection.release(chunk);
+				}
+			}
+			channel.force(false);
+		}
+	}
+
+	/**
+	 * Restores the snapshot in the given file into a new
+	 * ArrayIndexedCollection. The file is mapped into memory and every record
+	 * is decoded once into an elements array allocated with the exact size.
+	 *
+	 * @param file
+	 *            path of the snapshot file
+	 * @param codec
+	 *            codec of the elements
+	 * @return restored collection
+	 * @throws IOException
+	 *             if the file cannot be read or is not a valid snapshot
+	 */
+	public static ArrayIndexedCollection restore(Path file, RecordCodec codec) throws IOException {
+		MappedIndexedCollection view = map(file, codec);
+		try {
+			return new ArrayIndexedCollection(view, 1);
+		} finally {
+			view.free();
+		}
+	}
+
+	/**
+	 * Restores the snapshot in the given file into a new
+	 * OffHeapIndexedCollection. If the snapshot was written in the native byte
+	 * order, the records are copied from the mapped file into the buffer of
+	 * the collection in bulk, without decoding them. Otherwise every record is
+	 * decoded and encoded again.
+	 *
+	 * @param file
+	 *            path of the snapshot file
+	 * @param codec
+	 *            codec of the elements
+	 * @return restored collection
+	 * @throws IOException
+	 *             if the file cannot be read or is not a valid snapshot
+	 */
+	public static OffHeapIndexedCollection restoreOffHeap(Path file, RecordCodec codec) throws IOException {
+		MappedIndexedCollection view = map(file, codec);
+		try {
+			OffHeapIndexedCollection collection = new OffHeapIndexedCollection(codec, Math.max(1, view.size()));
+			if (view.order() == ByteOrder.nativeOrder()) {
+				for (MappedByteBuffer segment : view.segments()) {
+					collection.appendRecords(segment.duplicate());
+				}
+			} else {
+				collection.addAll(view);
+			}
+			return collection;
+		} finally {
+			view.free();
+		}
+	}
+
+	/**
+	 * Maps the snapshot in the given file into memory and returns a read-only
+	 * view of it. Only the header is read by this method, so mapping takes
+	 * constant time regardless of the size of the file. The file is closed,
+	 * but the mapping stays valid until the view is freed or collected.
+	 *
+	 * @param file
+	 *            path of the snapshot file
+	 * @param codec
+	 *            codec of the elements
+	 * @return read-only view of the snapshot
+	 * @throws IOException
+	 *             if the file cannot be read or is not a valid snapshot
+	 */
+	public static MappedIndexedCollection map(Path file, RecordCodec codec) throws IOException {
+		if (file == null || codec == null) {
+			throw new IllegalArgumentException();
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining()) {
+				if (channel.read(header) < 0) {
+					throw new IOException("File is too short to be a snapshot: " + file);
+				}
+			}
+			header.flip();
+			if (header.getInt() != MAGIC) {
+				throw new IOException("File is not a snapshot: " + file);
+			}
+			ByteOrder order = header.getInt() == 1 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+			int recordSize = header.getInt();
+			int size = header.getInt();
+			if (recordSize != codec.recordSize()) {
+				throw new IOException("Snapshot has records of " + recordSize + " bytes, codec expects "
+						+ codec.recordSize() + ".");
+			}
+			if (size < 0 || channel.size() != HEADER_SIZE + (long) size * recordSize) {
+				throw new IOException("Snapshot is truncated or corrupted: " + file);
+			}
+
+			int segmentRecords = Integer.MAX_VALUE / recordSize;
+			int segmentCount = size == 0 ? 0 : (size - 1) / segmentRecords + 1;
+			MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+			for (int i = 0; i < segmentCount; ++i) {
+				long first = (long) i * segmentRecords;
+				long records = Math.min(segmentRecords, size - first);
+				segments[i] = channel.map(MapMode.READ_ONLY, HEADER_SIZE + first * recordSize, records * recordSize);
+				segments[i].order(order);
+			}
+			return new MappedIndexedCollection(codec, size, segmentRecords, segments);
+		}
+	}
+
+	/**
+	 * Writes the encoded records of the chunk into the channel and clears the
+	 * chunk. Exceptions are wrapped, since the method is called from a
+	 * processor.
+	 *
+	 * @param channel
+	 *            channel of the snapshot file
+	 * @param chunk
+	 *            buffer holding encoded records up to its position
+	 */
+	private static void flush(FileChannel channel, ByteBuffer chunk) {
+		chunk.flip();
+		try {
+			writeFully(channel, chunk);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		chunk.clear();
+	}
+
+	/**
+	 * Writes all remaining bytes of the buffer into the channel.
+	 *
+	 * @param channel
+	 *            channel of the snapshot file
+	 * @param buffer
+	 *            buffer to be written
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+}
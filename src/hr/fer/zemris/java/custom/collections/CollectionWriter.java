@@ -0,0 +1,218 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes elements of collections into an output stream in a compact binary
+ * form, encoded by an ElementCodec. Elements are encoded into a buffer of
+ * fixed size, which is written out as a chunk whenever it is full, so a
+ * collection of any size is written in bounded memory, straight from its
+ * forEach method. The stream is read by CollectionReader.
+ * <p>
+ * The stream starts with a magic number, followed by chunks. Each chunk starts
+ * with two ints: the number of elements and the number of bytes of the chunk.
+ * Closing the writer ends the stream with a chunk of zero elements.
+ *
+ * @author labramusic
+ *
+ */
+public class CollectionWriter implements Closeable {
+
+	/**
+	 * Magic number at the start of every stream, "CSTR" in ASCII.
+	 */
+	static final int MAGIC = 0x43535452;
+
+	/**
+	 * Number of bytes of the header of a chunk.
+	 */
+	static final int CHUNK_HEADER_SIZE = 2 * Integer.BYTES;
+
+	/**
+	 * The default number of bytes of a chunk.
+	 */
+	private static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+	/**
+	 * Stream the chunks are written into.
+	 */
+	private final OutputStream out;
+
+	/**
+	 * Codec of the elements.
+	 */
+	private final ElementCodec codec;
+
+	/**
+	 * Buffer holding the chunk being filled, including its header.
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * Number of elements in the chunk being filled.
+	 */
+	private int count;
+
+	/**
+	 * True once the writer is closed.
+	 */
+	private boolean closed;
+
+	/**
+	 * Constructor which creates a writer with chunks of 64 KB.
+	 *
+	 * @param out
+	 *            stream the chunks are written into
+	 * @param codec
+	 *            codec of the elements
+	 * @throws IOException
+	 *             if writing the magic number fails
+	 */
+	public CollectionWriter(OutputStream out, ElementCodec codec) throws IOException {
+		this(out, codec, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Constructor which creates a writer with chunks of the given size. A chunk
+	 * always holds at least one element, even if the given size is smaller.
+	 *
+	 * @param out
+	 *            stream the chunks are written into
+	 * @param codec
+	 *            codec of the elements
+	 * @param chunkSize
+	 *            number of bytes of a chunk, at least 1
+	 * @throws IOException
+	 *             if writing the magic number fails
+	 */
+	public CollectionWriter(OutputStream out, ElementCodec codec, int chunkSize) throws IOException {
+		if (out == null || codec == null) {
+			throw new IllegalArgumentException();
+		}
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Chunk size must be at least 1.");
+		}
+		this.out = out;
+		this.codec = codec;
+		buffer = ByteBuffer.allocate(CHUNK_HEADER_SIZE + Math.max(chunkSize, codec.maxSize()));
+		buffer.putInt(MAGIC);
+		out.write(buffer.array(), 0, buffer.position());
+		buffer.clear();
+		buffer.position(CHUNK_HEADER_SIZE);
+	}
+
+	/**
+	 * Writes a single element. Throws IllegalArgumentException if the value is
+	 * null.
+	 *
+	 * @param value
+	 *            element to be written
+	 * @throws IOException
+	 *             if writing a full chunk fails
+	 */
+	public void write(Object value) throws IOException {
+		if (value == null) {
+			throw new IllegalArgumentException();
+		}
+		ensureOpen();
+		if (buffer.remaining() < codec.maxSize()) {
+			flushChunk();
+		}
+		codec.encode(buffer, value);
+		++count;
+	}
+
+	/**
+	 * Writes all elements of the given collection in the order of its forEach
+	 * method, without copying them into an array.
+	 *
+	 * @param collection
+	 *            collection whose elements are written
+	 * @throws IOException
+	 *             if writing a chunk fails
+	 */
+	public void writeAll(Collection collection) throws IOException {
+		ensureOpen();
+		class WritingProcessor extends Processor {
+			@Override
+			public void process(Object value) {
+				try {
+					write(value);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+		}
+		try {
+			collection.forEach(new WritingProcessor());
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Writes the chunk being filled, if it holds any element, and flushes the
+	 * underlying stream.
+	 *
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	public void flush() throws IOException {
+		ensureOpen();
+		if (count > 0) {
+			flushChunk();
+		}
+		out.flush();
+	}
+
+	/**
+	 * Writes the remaining elements and the end of the stream, and closes the
+	 * underlying stream. Calling this method more than once has no effect.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			if (count > 0) {
+				flushChunk();
+			}
+			// a chunk of zero elements ends the stream
+			flushChunk();
+		} finally {
+			closed = true;
+			out.close();
+		}
+	}
+
+	/**
+	 * Writes the header and the elements of the chunk being filled and starts
+	 * a new chunk.
+	 *
+	 * @throws IOException
+	 *             if writing fails
+	 */
+	private void flushChunk() throws IOException {
+		int length = buffer.position();
+		buffer.putInt(0, count);
+		buffer.putInt(Integer.BYTES, length - CHUNK_HEADER_SIZE);
+		out.write(buffer.array(), 0, length);
+		buffer.position(CHUNK_HEADER_SIZE);
+		count = 0;
+	}
+
+	/**
+	 * Throws IllegalStateException if the writer has been closed.
+	 */
+	private void ensureOpen() {
+		if (closed) {
+			throw new IllegalStateException("Writer has been closed.");
+		}
+	}
+
+}
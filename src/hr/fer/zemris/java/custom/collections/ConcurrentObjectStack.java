@@ -0,0 +1,225 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Implementation of a thread-safe stack which doesn't use locks. The stack is
+ * a singly linked list whose top is replaced by compare-and-set (a Treiber
+ * stack). Every push allocates a new node and nodes are never reused, so a node
+ * cannot be popped and pushed again while another thread still holds a
+ * reference to it, which makes the stack safe from the ABA problem.
+ * <p>
+ * Optionally, threads which fail to replace the top under contention try to
+ * meet a thread performing the opposite operation in an elimination array. A
+ * push and a pop which meet there cancel out without touching the top of the
+ * stack.
+ *
+ * @author labramusic
+ *
+ */
+public class ConcurrentObjectStack {
+
+	/**
+	 * A node of the linked list.
+	 *
+	 * @author labramusic
+	 *
+	 */
+	private static class StackNode {
+
+		/**
+		 * Value stored in the node.
+		 */
+		final Object value;
+
+		/**
+		 * Node below this one.
+		 */
+		StackNode next;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param value
+		 *            value stored in the node
+		 */
+		StackNode(Object value) {
+			this.value = value;
+		}
+	}
+
+	/**
+	 * Number of slots of the elimination array.
+	 */
+	private static final int ELIMINATION_SLOTS = 8;
+
+	/**
+	 * Number of spins a pushing thread waits in the elimination array for a
+	 * popping thread.
+	 */
+	private static final int ELIMINATION_SPINS = 64;
+
+	/**
+	 * Top of the stack, holding null if the stack is empty.
+	 */
+	private final AtomicReference<StackNode> top = new AtomicReference<>();
+
+	/**
+	 * Slots in which pushing threads offer their nodes to popping threads, null
+	 * if elimination is disabled.
+	 */
+	private final AtomicReferenceArray<StackNode> elimination;
+
+	/**
+	 * Default constructor which creates an empty stack without elimination.
+	 */
+	public ConcurrentObjectStack() {
+		this(false);
+	}
+
+	/**
+	 * Constructor which creates an empty stack, optionally with an elimination
+	 * array. Elimination pays off when many threads push and pop at the same
+	 * time.
+	 *
+	 * @param elimination
+	 *            true if the elimination array should be used
+	 */
+	public ConcurrentObjectStack(boolean elimination) {
+		this.elimination = elimination ? new AtomicReferenceArray<StackNode>(ELIMINATION_SLOTS) : null;
+	}
+
+	/**
+	 * Checks if stack contains any elements, returns true if empty.
+	 *
+	 * @return true if stack contains no elements, false otherwise
+	 */
+	public boolean isEmpty() {
+		return top.get() == null;
+	}
+
+	/**
+	 * Returns the number of objects currently on this stack. The stack is
+	 * traversed, so this takes linear time and the result may already be out
+	 * of date if other threads are modifying the stack.
+	 *
+	 * @return number of objects on stack
+	 */
+	public int size() {
+		int size = 0;
+		for (StackNode node = top.get(); node != null; node = node.next) {
+			++size;
+		}
+		return size;
+	}
+
+	/**
+	 * Pushes the given value on the stack. Throws IllegalArgumentException if a
+	 * null value is attempted to be added.
+	 *
+	 * @param value
+	 *            object to be pushed on the stack
+	 */
+	public void push(Object value) {
+		if (value == null) {
+			throw new IllegalArgumentException();
+		}
+		StackNode node = new StackNode(value);
+		while (true) {
+			StackNode oldTop = top.get();
+			node.next = oldTop;
+			if (top.compareAndSet(oldTop, node)) {
+				return;
+			}
+			if (elimination != null && eliminatePush(node)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Removes the last value pushed on the stack and returns it. Throws
+	 * EmptyStackException if the stack is empty when this method is called.
+	 *
+	 * @return value at the top of the stack
+	 */
+	public Object pop() {
+		while (true) {
+			StackNode oldTop = top.get();
+			if (oldTop == null) {
+				throw new EmptyStackException();
+			}
+			if (top.compareAndSet(oldTop, oldTop.next)) {
+				return oldTop.value;
+			}
+			if (elimination != null) {
+				StackNode node = eliminatePop();
+				if (node != null) {
+					return node.value;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns last element placed on stack without removing it from the stack.
+	 * Throws EmptyStackException if the stack is empty when this method is
+	 * called.
+	 *
+	 * @return value at the top of the stack
+	 */
+	public Object peek() {
+		StackNode node = top.get();
+		if (node == null) {
+			throw new EmptyStackException();
+		}
+		return node.value;
+	}
+
+	/**
+	 * Removes all elements from the stack.
+	 */
+	public void clear() {
+		top.set(null);
+	}
+
+	/**
+	 * Offers the node to a popping thread through a random slot of the
+	 * elimination array and waits for a while.
+	 *
+	 * @param node
+	 *            node being pushed
+	 * @return true if a popping thread took the node
+	 */
+	private boolean eliminatePush(StackNode node) {
+		int slot = ThreadLocalRandom.current().nextInt(ELIMINATION_SLOTS);
+		if (!elimination.compareAndSet(slot, null, node)) {
+			return false;
+		}
+		for (int i = 0; i < ELIMINATION_SPINS; ++i) {
+			if (elimination.get(slot) != node) {
+				return true;
+			}
+		}
+		// withdraw the offer, unless a popping thread takes it first
+		return !elimination.compareAndSet(slot, node, null);
+	}
+
+	/**
+	 * Tries to take a node offered by a pushing thread from a random slot of
+	 * the elimination array.
+	 *
+	 * @return taken node, or null if there was none
+	 */
+	private StackNode eliminatePop() {
+		int slot = ThreadLocalRandom.current().nextInt(ELIMINATION_SLOTS);
+		StackNode node = elimination.get(slot);
+		if (node != null && elimination.compareAndSet(slot, node, null)) {
+			return node;
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,195 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of a stack of double values. Offers the same operations as
+ * ObjectStack, but stores the values in a double array, so no value is ever
+ * boxed and pushing and popping allocate nothing once the array is large
+ * enough.
+ *
+ * @author labramusic
+ *
+ */
+public class DoubleStack {
+
+	/**
+	 * The default initial capacity.
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Number of values on the stack.
+	 */
+	private int size;
+
+	/**
+	 * Values on the stack, from the bottom at index 0 to the top at index
+	 * size - 1. Its length is the current capacity.
+	 */
+	private double[] elements;
+
+	/**
+	 * Default constructor which creates an empty stack with capacity set to 16.
+	 */
+	public DoubleStack() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor which creates an empty stack with the given capacity. Throws
+	 * IllegalArgumentException if the given capacity is less than 1.
+	 *
+	 * @param initialCapacity
+	 *            initial array capacity
+	 */
+	public DoubleStack(int initialCapacity) {
+		if (initialCapacity < 1) {
+			throw new IllegalArgumentException("Capacity must be at least 1.");
+		}
+		elements = new double[initialCapacity];
+	}
+
+	/**
+	 * Checks if stack contains any values, returns true if empty.
+	 *
+	 * @return true if stack contains no values, false otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the number of values currently on this stack.
+	 *
+	 * @return number of values on stack
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Pushes the given value on the stack.
+	 *
+	 * @param value
+	 *            value to be pushed on the stack
+	 */
+	public void push(double value) {
+		if (size == elements.length) {
+			grow(size + 1);
+		}
+		elements[size++] = value;
+	}
+
+	/**
+	 * Removes the last value pushed on the stack and returns it. Throws
+	 * EmptyStackException if the stack is empty when this method is called.
+	 *
+	 * @return value at the top of the stack
+	 */
+	public double pop() {
+		if (size == 0) {
+			throw new EmptyStackException();
+		}
+		return elements[--size];
+	}
+
+	/**
+	 * Returns last value placed on stack without removing it from the stack.
+	 * Throws EmptyStackException if the stack is empty when this method is
+	 * called.
+	 *
+	 * @return value at the top of the stack
+	 */
+	public double peek() {
+		if (size == 0) {
+			throw new EmptyStackException();
+		}
+		return elements[size - 1];
+	}
+
+	/**
+	 * Returns the value the given number of places below the top of the stack
+	 * without removing it, so peek(0) is the same as peek(). Throws
+	 * EmptyStackException if the stack holds n or fewer values, and
+	 * IllegalArgumentException if n is negative.
+	 *
+	 * @param n
+	 *            number of places below the top
+	 * @return value n places below the top of the stack
+	 */
+	public double peek(int n) {
+		if (n < 0) {
+			throw new IllegalArgumentException("Depth must not be negative.");
+		}
+		if (n >= size) {
+			throw new EmptyStackException();
+		}
+		return elements[size - 1 - n];
+	}
+
+	/**
+	 * Pushes all values of the given array on the stack, in the order of the
+	 * array, so its last value ends up on the top. The values are copied with
+	 * a single array copy. Throws IllegalArgumentException if the array is
+	 * null.
+	 *
+	 * @param values
+	 *            values to be pushed
+	 */
+	public void pushAll(double[] values) {
+		if (values == null) {
+			throw new IllegalArgumentException();
+		}
+		if (size + values.length > elements.length) {
+			grow(size + values.length);
+		}
+		System.arraycopy(values, 0, elements, size, values.length);
+		size += values.length;
+	}
+
+	/**
+	 * Pops n values from the stack into the first n places of the given array
+	 * with a single array copy. The values keep the order in which they were
+	 * pushed, so the former top of the stack is stored at index n - 1. Throws
+	 * EmptyStackException if the stack holds fewer than n values, in which case
+	 * nothing is popped, and IllegalArgumentException if the array is null or
+	 * n is negative or greater than its length.
+	 *
+	 * @param target
+	 *            array the values are stored into
+	 * @param n
+	 *            number of popped values
+	 */
+	public void popInto(double[] target, int n) {
+		if (target == null || n < 0 || n > target.length) {
+			throw new IllegalArgumentException();
+		}
+		if (n > size) {
+			throw new EmptyStackException();
+		}
+		size -= n;
+		System.arraycopy(elements, size, target, 0, n);
+	}
+
+	/**
+	 * Removes all values from the stack. The array is kept, there is nothing
+	 * to release since it holds no references.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Reallocates the array so that it can hold at least the given number of
+	 * values. The capacity is doubled, or set to the required number of values
+	 * if doubling is not enough.
+	 *
+	 * @param minCapacity
+	 *            required capacity
+	 */
+	private void grow(int minCapacity) {
+		elements = Arrays.copyOf(elements, GrowthStrategy.DOUBLING.newCapacity(elements.length, minCapacity));
+	}
+
+}
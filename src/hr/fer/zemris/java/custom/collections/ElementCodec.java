@@ -0,0 +1,189 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes objects into a byte stream and decodes them back, used by
+ * CollectionWriter and CollectionReader to move collections between processes.
+ * Unlike RecordCodec, encodings may have variable width, as long as no value
+ * takes more than {@link #maxSize()} bytes. Values are written and read with
+ * the relative methods of the buffer, which always has at least maxSize bytes
+ * remaining when a value is encoded.
+ *
+ * @author labramusic
+ *
+ */
+public abstract class ElementCodec {
+
+	/**
+	 * Codec for Integer objects, always 4 bytes.
+	 */
+	public static final ElementCodec INTEGER = new ElementCodec(Integer.BYTES) {
+
+		@Override
+		public void encode(ByteBuffer buffer, Object value) {
+			buffer.putInt((Integer) value);
+		}
+
+		@Override
+		public Object decode(ByteBuffer buffer) {
+			return buffer.getInt();
+		}
+	};
+
+	/**
+	 * Codec for Integer objects as zigzag varints, 1 to 5 bytes. Values of
+	 * small magnitude, positive or negative, take the fewest bytes.
+	 */
+	public static final ElementCodec VARINT = new ElementCodec(5) {
+
+		@Override
+		public void encode(ByteBuffer buffer, Object value) {
+			int n = (Integer) value;
+			writeVarLong(buffer, ((n << 1) ^ (n >> 31)) & 0xFFFFFFFFL);
+		}
+
+		@Override
+		public Object decode(ByteBuffer buffer) {
+			int n = (int) readVarLong(buffer);
+			return (n >>> 1) ^ -(n & 1);
+		}
+	};
+
+	/**
+	 * Codec for Long objects, always 8 bytes.
+	 */
+	public static final ElementCodec LONG = new ElementCodec(Long.BYTES) {
+
+		@Override
+		public void encode(ByteBuffer buffer, Object value) {
+			buffer.putLong((Long) value);
+		}
+
+		@Override
+		public Object decode(ByteBuffer buffer) {
+			return buffer.getLong();
+		}
+	};
+
+	/**
+	 * Codec for Long objects as zigzag varints, 1 to 10 bytes. Values of small
+	 * magnitude, positive or negative, take the fewest bytes.
+	 */
+	public static final ElementCodec VARLONG = new ElementCodec(10) {
+
+		@Override
+		public void encode(ByteBuffer buffer, Object value) {
+			long n = (Long) value;
+			writeVarLong(buffer, (n << 1) ^ (n >> 63));
+		}
+
+		@Override
+		public Object decode(ByteBuffer buffer) {
+			long n = readVarLong(buffer);
+			return (n >>> 1) ^ -(n & 1);
+		}
+	};
+
+	/**
+	 * Codec for Double objects, always 8 bytes.
+	 */
+	public static final ElementCodec DOUBLE = new ElementCodec(Double.BYTES) {
+
+		@Override
+		public void encode(ByteBuffer buffer, Object value) {
+			buffer.putDouble((Double) value);
+		}
+
+		@Override
+		public Object decode(ByteBuffer buffer) {
+			return buffer.getDouble();
+		}
+	};
+
+	/**
+	 * Maximum number of bytes of an encoded value.
+	 */
+	private final int maxSize;
+
+	/**
+	 * Constructor which sets the maximum size of an encoded value.
+	 *
+	 * @param maxSize
+	 *            maximum number of bytes of an encoded value, at least 1
+	 */
+	protected ElementCodec(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("Maximum size must be at least 1.");
+		}
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Returns the maximum number of bytes of an encoded value.
+	 *
+	 * @return maximum size of an encoded value
+	 */
+	public final int maxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Encodes the value at the position of the buffer and advances the
+	 * position past it.
+	 *
+	 * @param buffer
+	 *            buffer with at least maxSize bytes remaining
+	 * @param value
+	 *            value to be encoded, never null
+	 */
+	public abstract void encode(ByteBuffer buffer, Object value);
+
+	/**
+	 * Decodes a new object at the position of the buffer and advances the
+	 * position past it.
+	 *
+	 * @param buffer
+	 *            buffer holding the encoded value
+	 * @return decoded object
+	 */
+	public abstract Object decode(ByteBuffer buffer);
+
+	/**
+	 * Writes the value as an unsigned varint: seven bits per byte, least
+	 * significant first, with the high bit set on all bytes but the last.
+	 *
+	 * @param buffer
+	 *            destination buffer
+	 * @param value
+	 *            value interpreted as unsigned
+	 */
+	protected static void writeVarLong(ByteBuffer buffer, long value) {
+		while ((value & ~0x7FL) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Reads an unsigned varint written by writeVarLong. Throws
+	 * IllegalArgumentException if the varint is longer than 10 bytes.
+	 *
+	 * @param buffer
+	 *            source buffer
+	 * @return read value
+	 */
+	protected static long readVarLong(ByteBuffer buffer) {
+		long value = 0;
+		for (int shift = 0; shift < Long.SIZE; shift += 7) {
+			byte b = buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Malformed varint.");
+	}
+
+}
@@ -0,0 +1,34 @@
+package hr.fer.zemris.java.custom.collections;
+
+/**
+ * Exception thrown in case of trying to dequeue from an empty queue.
+ * 
+ * @author labramusic
+ *
+ */
+public class EmptyQueueException extends RuntimeException {
+
+	/**
+	 * Default serial version UID.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * Default constructor which creates a new EmptyQueueException.
+	 */
+	public EmptyQueueException() {
+
+	}
+
+	/**
+	 * Constructor which creates a new EmptyQueueException with the given
+	 * message.
+	 * 
+	 * @param message
+	 *            error message.
+	 */
+	public EmptyQueueException(String message) {
+		super(message);
+	}
+
+}
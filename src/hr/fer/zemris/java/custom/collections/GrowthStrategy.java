@@ -0,0 +1,124 @@
+package hr.fer.zemris.java.custom.collections;
+
+/**
+ * Decides the new capacity of an array-backed collection whose array is full.
+ * Strategies are stateless, so a single instance can be shared by any number
+ * of collections.
+ *
+ * @author labramusic
+ *
+ */
+public abstract class GrowthStrategy {
+
+	/**
+	 * Largest capacity of an array which the virtual machine can reliably
+	 * allocate.
+	 */
+	public static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+	/**
+	 * Strategy which doubles the capacity.
+	 */
+	public static final GrowthStrategy DOUBLING = factor(2);
+
+	/**
+	 * Returns a strategy which multiplies the capacity by the given factor.
+	 * Larger factors reallocate less often, smaller ones waste less memory.
+	 * Throws IllegalArgumentException if the factor is not greater than 1.
+	 *
+	 * @param factor
+	 *            factor the capacity is multiplied by
+	 * @return multiplying strategy
+	 */
+	public static GrowthStrategy factor(final double factor) {
+		if (!(factor > 1)) {
+			throw new IllegalArgumentException("Factor must be greater than 1.");
+		}
+		return new GrowthStrategy() {
+			@Override
+			protected long grow(int capacity) {
+				return (long) Math.ceil(capacity * factor);
+			}
+		};
+	}
+
+	/**
+	 * Returns a strategy which adds the given number of places to the
+	 * capacity. Every element is then copied O(n / increment) times, but no
+	 * more than increment places are ever unused. Throws
+	 * IllegalArgumentException if the increment is less than 1.
+	 *
+	 * @param increment
+	 *            number of places added to the capacity
+	 * @return additive strategy
+	 */
+	public static GrowthStrategy additive(final int increment) {
+		if (increment < 1) {
+			throw new IllegalArgumentException("Increment must be at least 1.");
+		}
+		return new GrowthStrategy() {
+			@Override
+			protected long grow(int capacity) {
+				return (long) capacity + increment;
+			}
+		};
+	}
+
+	/**
+	 * Returns a strategy which multiplies the capacity by the given factor,
+	 * but never adds more than maxIncrement places at once. Small collections
+	 * grow geometrically, while large ones grow by bounded steps. Throws
+	 * IllegalArgumentException if the factor is not greater than 1 or the
+	 * increment is less than 1.
+	 *
+	 * @param factor
+	 *            factor the capacity is multiplied by
+	 * @param maxIncrement
+	 *            largest number of places added at once
+	 * @return capped multiplying strategy
+	 */
+	public static GrowthStrategy capped(final double factor, final int maxIncrement) {
+		if (!(factor > 1)) {
+			throw new IllegalArgumentException("Factor must be greater than 1.");
+		}
+		if (maxIncrement < 1) {
+			throw new IllegalArgumentException("Increment must be at least 1.");
+		}
+		return new GrowthStrategy() {
+			@Override
+			protected long grow(int capacity) {
+				return Math.min((long) Math.ceil(capacity * factor), (long) capacity + maxIncrement);
+			}
+		};
+	}
+
+	/**
+	 * Returns the new capacity of a full array. The result is at least
+	 * minCapacity and at most MAX_CAPACITY. Throws OutOfMemoryError if
+	 * minCapacity is greater than MAX_CAPACITY.
+	 *
+	 * @param capacity
+	 *            current capacity, at least 1
+	 * @param minCapacity
+	 *            required capacity, greater than the current one
+	 * @return new capacity
+	 */
+	public final int newCapacity(int capacity, int minCapacity) {
+		if (minCapacity < 0 || minCapacity > MAX_CAPACITY) {
+			throw new OutOfMemoryError("Required array size too large.");
+		}
+		long grown = grow(capacity);
+		return (int) Math.max(minCapacity, Math.min(grown, MAX_CAPACITY));
+	}
+
+	/**
+	 * Returns the capacity the given capacity grows to, before it is adjusted
+	 * to the required and maximum capacity.
+	 *
+	 * @param capacity
+	 *            current capacity, at least 1
+	 * @return grown capacity
+	 */
+	protected abstract long grow(int capacity);
+
+}
@@ -0,0 +1,269 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.Arrays;
+
+/**
+ * Secondary index of an array-backed collection which maps elements to the
+ * positions they are stored at. The index is an open-addressing hash table with
+ * linear probing and one slot per stored element, so duplicates occupy one slot
+ * each and always lie in the same probe sequence. Every slot remembers the
+ * position of its element and the element's hash code.
+ * <p>
+ * The table is kept at most half full, so lookups take O(1) expected time plus
+ * the number of duplicates of the looked up element. Its capacity is between
+ * two and four times the number of elements, which amounts to 16 to 32 bytes
+ * per element. Inserting or removing at an arbitrary position renumbers all
+ * stored positions in one linear pass over the table, while adding or
+ * removing the last element takes O(1) expected time.
+ *
+ * @author labramusic
+ *
+ */
+class HashIndex {
+
+	/**
+	 * Position stored in empty slots.
+	 */
+	private static final int EMPTY = -1;
+
+	/**
+	 * Smallest capacity of the table.
+	 */
+	private static final int MIN_CAPACITY = 16;
+
+	/**
+	 * Positions of elements, EMPTY in free slots.
+	 */
+	private int[] positions;
+
+	/**
+	 * Hash codes of elements in occupied slots.
+	 */
+	private int[] hashes;
+
+	/**
+	 * Number of occupied slots.
+	 */
+	private int count;
+
+	/**
+	 * Constructor which indexes the first size elements of the given array.
+	 *
+	 * @param elements
+	 *            array of indexed elements
+	 * @param size
+	 *            number of elements in the array
+	 */
+	HashIndex(Object[] elements, int size) {
+		allocate(capacityFor(size));
+		for (int i = 0; i < size; ++i) {
+			put(elements[i].hashCode(), i);
+		}
+		count = size;
+	}
+
+	/**
+	 * Records that the element at the given position has been added after all
+	 * other elements.
+	 *
+	 * @param value
+	 *            added element
+	 * @param position
+	 *            position of the added element
+	 */
+	void added(Object value, int position) {
+		ensureCapacity();
+		put(value.hashCode(), position);
+		++count;
+	}
+
+	/**
+	 * Records that the element has been inserted at the given position, and
+	 * that all elements at that position and at greater positions have been
+	 * shifted one place toward the end.
+	 *
+	 * @param value
+	 *            inserted element
+	 * @param position
+	 *            position of the inserted element
+	 */
+	void inserted(Object value, int position) {
+		int[] positions = this.positions;
+		for (int i = 0; i < positions.length; ++i) {
+			if (positions[i] >= position) {
+				++positions[i];
+			}
+		}
+		added(value, position);
+	}
+
+	/**
+	 * Records that the element at the given position has been removed, and that
+	 * all elements after it have been shifted one place backwards. Removing the
+	 * last element shifts nothing, so only its slot is freed; any other
+	 * position renumbers the stored positions in a pass over the table.
+	 *
+	 * @param value
+	 *            removed element
+	 * @param position
+	 *            position of the removed element
+	 */
+	void removed(Object value, int position) {
+		int hash = value.hashCode();
+		int mask = positions.length - 1;
+		int slot = home(hash, mask);
+		while (positions[slot] != position) {
+			slot = (slot + 1) & mask;
+		}
+		delete(slot);
+		--count;
+		if (position == count) {
+			return;
+		}
+
+		int[] positions = this.positions;
+		for (int i = 0; i < positions.length; ++i) {
+			if (positions[i] > position) {
+				--positions[i];
+			}
+		}
+	}
+
+	/**
+	 * Returns the lowest position at which an element equal to the given value
+	 * is stored, or -1 if there is no such element.
+	 *
+	 * @param value
+	 *            value being looked for
+	 * @param elements
+	 *            array of indexed elements
+	 * @return lowest position of the value or -1
+	 */
+	int indexOf(Object value, Object[] elements) {
+		if (value == null) {
+			return -1;
+		}
+		int hash = value.hashCode();
+		int mask = positions.length - 1;
+		int index = -1;
+		for (int slot = home(hash, mask); positions[slot] != EMPTY; slot = (slot + 1) & mask) {
+			int position = positions[slot];
+			if (hashes[slot] == hash && (index == -1 || position < index) && elements[position].equals(value)) {
+				index = position;
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Removes all positions from the index.
+	 */
+	void clear() {
+		allocate(MIN_CAPACITY);
+		count = 0;
+	}
+
+	/**
+	 * Stores the position into the first free slot of its probe sequence.
+	 *
+	 * @param hash
+	 *            hash code of the element
+	 * @param position
+	 *            position of the element
+	 */
+	private void put(int hash, int position) {
+		int mask = positions.length - 1;
+		int slot = home(hash, mask);
+		while (positions[slot] != EMPTY) {
+			slot = (slot + 1) & mask;
+		}
+		positions[slot] = position;
+		hashes[slot] = hash;
+	}
+
+	/**
+	 * Frees the given slot and moves the following slots of the cluster back,
+	 * so that no probe sequence is interrupted by the freed slot.
+	 *
+	 * @param slot
+	 *            slot to be freed
+	 */
+	private void delete(int slot) {
+		int mask = positions.length - 1;
+		int free = slot;
+		for (int next = (free + 1) & mask; positions[next] != EMPTY; next = (next + 1) & mask) {
+			int home = home(hashes[next], mask);
+			// the entry may move only if its home is not between the free slot and itself
+			boolean movable = free <= next ? (home <= free || home > next) : (home <= free && home > next);
+			if (movable) {
+				positions[free] = positions[next];
+				hashes[free] = hashes[next];
+				free = next;
+			}
+		}
+		positions[free] = EMPTY;
+	}
+
+	/**
+	 * Doubles the table if adding one more position would make it more than
+	 * half full.
+	 */
+	private void ensureCapacity() {
+		if (2 * (count + 1) <= positions.length) {
+			return;
+		}
+		int[] oldPositions = positions;
+		int[] oldHashes = hashes;
+		allocate(2 * oldPositions.length);
+		for (int i = 0; i < oldPositions.length; ++i) {
+			if (oldPositions[i] != EMPTY) {
+				put(oldHashes[i], oldPositions[i]);
+			}
+		}
+	}
+
+	/**
+	 * Allocates an empty table of the given capacity.
+	 *
+	 * @param capacity
+	 *            capacity of the table, a power of two
+	 */
+	private void allocate(int capacity) {
+		positions = new int[capacity];
+		hashes = new int[capacity];
+		Arrays.fill(positions, EMPTY);
+	}
+
+	/**
+	 * Returns the smallest power of two capacity which keeps the table at most
+	 * half full when storing the given number of elements.
+	 *
+	 * @param size
+	 *            number of elements
+	 * @return table capacity
+	 */
+	private static int capacityFor(int size) {
+		int capacity = MIN_CAPACITY;
+		while (capacity < 2 * size) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	/**
+	 * Returns the first slot of the probe sequence of the given hash code.
+	 * Bits of the hash code are mixed first, since many hash codes (for example
+	 * those of small integers) differ only in their lowest bits.
+	 *
+	 * @param hash
+	 *            hash code of an element
+	 * @param mask
+	 *            table capacity minus one
+	 * @return home slot
+	 */
+	private static int home(int hash, int mask) {
+		int h = hash * 0x9E3779B9;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+}
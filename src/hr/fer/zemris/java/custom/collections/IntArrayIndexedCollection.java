@@ -0,0 +1,281 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Implementation of a resizable array-backed collection of int values. Offers
+ * the same operations as ArrayIndexedCollection, but stores the values in an
+ * int array, so no value is ever boxed. The collection allows duplicate
+ * elements.
+ *
+ * @author labramusic
+ *
+ */
+public class IntArrayIndexedCollection {
+
+	/**
+	 * The default initial capacity.
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Number of elements currently stored in the collection.
+	 */
+	private int size;
+
+	/**
+	 * An array of values used as storage of elements. Its length is the
+	 * current capacity.
+	 */
+	private int[] elements;
+
+	/**
+	 * Default constructor which creates an instance with capacity set to 16.
+	 */
+	public IntArrayIndexedCollection() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor which sets the capacity to the given value and preallocates
+	 * the elements array of the same size. Throws IllegalArgumentException if
+	 * the given capacity is less than 1.
+	 *
+	 * @param initialCapacity
+	 *            initial array capacity
+	 */
+	public IntArrayIndexedCollection(int initialCapacity) {
+		if (initialCapacity < 1) {
+			throw new IllegalArgumentException("Capacity must be at least 1.");
+		}
+		elements = new int[initialCapacity];
+	}
+
+	/**
+	 * Constructor which accepts a reference to some other collection the
+	 * elements of which are copied into this newly constructed collection.
+	 *
+	 * @param other
+	 *            collection to be copied from
+	 */
+	public IntArrayIndexedCollection(IntArrayIndexedCollection other) {
+		this(Math.max(other.size, DEFAULT_CAPACITY));
+		addAll(other);
+	}
+
+	/**
+	 * Returns the number of currently stored values in this collection.
+	 *
+	 * @return number of currently stored values
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if collection contains any elements, returns true if empty.
+	 *
+	 * @return true if collection contains no elements, false otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Adds the value to the first empty place, at the end of the array. If the
+	 * elements array is full, it is reallocated by doubling its size.
+	 *
+	 * @param value
+	 *            value to be added
+	 */
+	public void add(int value) {
+		if (size == elements.length) {
+			elements = Arrays.copyOf(elements, 2 * size);
+		}
+		elements[size++] = value;
+	}
+
+	/**
+	 * Adds all values from the given collection with a single array copy. The
+	 * other collection remains unchanged.
+	 *
+	 * @param other
+	 *            collection to add values from
+	 */
+	public void addAll(IntArrayIndexedCollection other) {
+		int otherSize = other.size;
+		if (size + otherSize > elements.length) {
+			elements = Arrays.copyOf(elements, Math.max(2 * elements.length, size + otherSize));
+		}
+		System.arraycopy(other.elements, 0, elements, size, otherSize);
+		size += otherSize;
+	}
+
+	/**
+	 * Returns true only if the collection contains the given value.
+	 *
+	 * @param value
+	 *            value being looked for
+	 * @return true only if collection contains the given value
+	 */
+	public boolean contains(int value) {
+		return indexOf(value) != -1;
+	}
+
+	/**
+	 * Removes the first occurrence of the given value and shifts the elements
+	 * after it one place backwards.
+	 *
+	 * @param value
+	 *            value to be removed
+	 * @return true only if collection contained the given value
+	 */
+	public boolean removeValue(int value) {
+		int index = indexOf(value);
+		if (index == -1) {
+			return false;
+		}
+		remove(index);
+		return true;
+	}
+
+	/**
+	 * Removes the element in the elements array at the given index and shifts
+	 * the elements after it one place backwards. Throws
+	 * IndexOutOfBoundsException if the given index is not between 0 and size -
+	 * 1.
+	 *
+	 * @param index
+	 *            index of element to be removed
+	 */
+	public void remove(int index) {
+		if (index < 0 || index > size - 1) {
+			throw new IndexOutOfBoundsException();
+		}
+		System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+		--size;
+	}
+
+	/**
+	 * Allocates new array with size equals to the size of this collection,
+	 * fills it with collection content and returns the array.
+	 *
+	 * @return array with elements of the collection
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(elements, size);
+	}
+
+	/**
+	 * Calls the process method of the given processor instance for each element
+	 * of this collection.
+	 *
+	 * @param processor
+	 *            processor instance with the processing method to be called
+	 */
+	public void forEach(IntProcessor processor) {
+		for (int i = 0; i < size; ++i) {
+			processor.process(elements[i]);
+		}
+	}
+
+	/**
+	 * Returns a spliterator over the used part of the backing array, which
+	 * passes the values unboxed. It splits its range in halves, so parallel
+	 * streams get balanced parts. The collection must not be modified while it
+	 * is being traversed.
+	 *
+	 * @return spliterator over the values
+	 */
+	public Spliterator.OfInt spliterator() {
+		return Spliterators.spliterator(elements, 0, size, Spliterator.ORDERED);
+	}
+
+	/**
+	 * Returns a sequential stream of the values of this collection.
+	 *
+	 * @return sequential stream of the values
+	 */
+	public IntStream stream() {
+		return StreamSupport.intStream(spliterator(), false);
+	}
+
+	/**
+	 * Returns a parallel stream of the values of this collection.
+	 *
+	 * @return parallel stream of the values
+	 */
+	public IntStream parallelStream() {
+		return StreamSupport.intStream(spliterator(), true);
+	}
+
+	/**
+	 * Returns the value that is stored in the backing array at position index.
+	 * Valid indexes are 0 to size-1. Throws IndexOutOfBoundsException if index
+	 * is invalid.
+	 *
+	 * @param index
+	 *            index of desired element
+	 * @return element at given index
+	 */
+	public int get(int index) {
+		if (index < 0 || index > size - 1) {
+			throw new IndexOutOfBoundsException();
+		}
+		return elements[index];
+	}
+
+	/**
+	 * Removes all elements from this collection. The backing array is kept,
+	 * there is nothing to release since it holds no references.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Inserts (does not overwrite) the given value at the given position in
+	 * array. Elements at position and at greater positions are shifted one
+	 * place toward the end. The legal positions are 0 to size.
+	 * IndexOutOfBoundsException is thrown if position is invalid.
+	 *
+	 * @param value
+	 *            value to be inserted
+	 * @param position
+	 *            position in which value should be inserted
+	 */
+	public void insert(int value, int position) {
+		if (position < 0 || position > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (size == elements.length) {
+			elements = Arrays.copyOf(elements, 2 * size);
+		}
+		System.arraycopy(elements, position, elements, position + 1, size - position);
+		elements[position] = value;
+		++size;
+	}
+
+	/**
+	 * Searches the collection and returns the index of the first occurrence of
+	 * the given value or -1 if the value is not found.
+	 *
+	 * @param value
+	 *            value the index of which is being looked for
+	 * @return index of the value being searched for
+	 */
+	public int indexOf(int value) {
+		int[] elements = this.elements;
+		for (int i = 0, n = size; i < n; ++i) {
+			if (elements[i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+}
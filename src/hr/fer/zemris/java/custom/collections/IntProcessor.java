@@ -0,0 +1,23 @@
+package hr.fer.zemris.java.custom.collections;
+
+/**
+ * An empty processor class which should be used to perform a certain action on
+ * the given int value in its instances. Used by IntArrayIndexedCollection so
+ * that values are never boxed.
+ * 
+ * @author labramusic
+ *
+ */
+public class IntProcessor {
+
+	/**
+	 * Performs an undefined action on the given value.
+	 * 
+	 * @param value
+	 *            value to be processed
+	 */
+	public void process(int value) {
+
+	}
+
+}
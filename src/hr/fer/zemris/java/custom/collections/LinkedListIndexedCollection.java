@@ -1,9 +1,22 @@
 package hr.fer.zemris.java.custom.collections;
 
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
 /**
  * Implementation of a linked list-backed collection of objects. The general
  * contract of this collection is that it allows duplicate elements and doesn't
  * allow storage of null references.
+ * <p>
+ * The list remembers the node accessed by the last indexed operation (the
+ * finger), and indexed operations walk from whichever of the first node, the
+ * last node or the finger is closest to the wanted index. Looping over the
+ * indexes in order therefore takes linear time in total. For modifications
+ * during such a loop, {@link #cursor(int)} returns a cursor which inserts and
+ * removes at its position in constant time.
  * 
  * @author labramusic
  *
@@ -50,6 +63,28 @@ public class LinkedListIndexedCollection extends Collection {
 	 */
 	private ListNode last;
 
+	/**
+	 * Node accessed by the last indexed operation, or null if unknown.
+	 */
+	private ListNode finger;
+
+	/**
+	 * Index of the finger node.
+	 */
+	private int fingerIndex;
+
+	/**
+	 * Number of structural modifications of the list, used by cursors to
+	 * detect modifications made through other means.
+	 */
+	private int modCount;
+
+	/**
+	 * Counters of the work done by this collection, null unless
+	 * instrumentation is enabled.
+	 */
+	private CollectionMetrics metrics;
+
 	/**
 	 * Default constructor which creates an empty list.
 	 */
@@ -94,39 +129,30 @@ public class LinkedListIndexedCollection extends Collection {
 		}
 		last = node;
 		++size;
+		++modCount;
 	}
 
 	@Override
 	public boolean contains(Object value) {
-		for (ListNode node = first; node != null; node = node.next) {
-			if (node.data.equals(value)) {
-				return true;
-			}
-		}
-		return false;
+		return indexOf(value) != -1;
 	}
 
 	@Override
 	public boolean remove(Object value) {
-		for (ListNode node = first; node != null; node = node.next) {
-			if (node.data.equals(value)) {
-
-				if (first != node) {
-					node.prev.next = node.next;
-				} else {
-					first = node.next;
-				}
-				if (last != node) {
-					node.next.prev = node.prev;
-				} else {
-					last = node.prev;
-				}
-				node = null;
-				--size;
-				return true;
-			}
+		int i = 0;
+		ListNode node = first;
+		while (node != null && !node.data.equals(value)) {
+			node = node.next;
+			++i;
+		}
+		if (metrics != null) {
+			metrics.searched(node != null ? i + 1 : size);
 		}
-		return false;
+		if (node == null) {
+			return false;
+		}
+		unlink(node);
+		return true;
 	}
 
 	/**
@@ -141,25 +167,12 @@ public class LinkedListIndexedCollection extends Collection {
 		if (index < 0 || index > size - 1) {
 			throw new IndexOutOfBoundsException();
 		}
-		ListNode node = first;
-		for (int i = 0; i < size; ++i, node = node.next) {
-			if (i == index) {
-				break;
-			}
+		ListNode node = node(index);
+		unlink(node);
+		if (node.next != null) {
+			finger = node.next;
+			fingerIndex = index;
 		}
-
-		if (first != node) {
-			node.prev.next = node.next;
-		} else {
-			first = node.next;
-		}
-		if (last != node) {
-			node.next.prev = node.prev;
-		} else {
-			last = node.prev;
-		}
-		node = null;
-		--size;
 	}
 
 	@Override
@@ -179,12 +192,92 @@ public class LinkedListIndexedCollection extends Collection {
 		}
 	}
 
+	/**
+	 * Returns a spliterator which walks the nodes of the list. A linked list
+	 * cannot be split in the middle, so splitting copies a batch of elements
+	 * from the front into an array.
+	 */
+	@Override
+	public Spliterator<Object> spliterator() {
+		return new ListSpliterator();
+	}
+
+	/**
+	 * Adds all elements from the given collection. Copies of the elements are
+	 * first linked into a separate chain of nodes, which is then spliced onto
+	 * the end of this list at once. Nodes of another
+	 * LinkedListIndexedCollection are walked directly, elements of other
+	 * collections are passed by their forEach method. Throws
+	 * IllegalArgumentException if the given collection is null.
+	 */
+	@Override
+	public void addAll(Collection other) {
+		if (other == null) {
+			throw new IllegalArgumentException();
+		}
+		class ChainingProcessor extends Processor {
+			ListNode tail;
+			int added;
+
+			@Override
+			public void process(Object value) {
+				ListNode copy = new ListNode();
+				copy.data = value;
+				copy.prev = tail;
+				tail.next = copy;
+				tail = copy;
+				++added;
+			}
+		}
+		ListNode head = new ListNode();
+		ChainingProcessor chainer = new ChainingProcessor();
+		chainer.tail = head;
+		if (other instanceof LinkedListIndexedCollection) {
+			LinkedListIndexedCollection list = (LinkedListIndexedCollection) other;
+			for (ListNode node = list.first; node != null; node = node.next) {
+				chainer.process(node.data);
+			}
+		} else {
+			other.forEach(chainer);
+		}
+		ListNode tail = chainer.tail;
+		int added = chainer.added;
+		if (added == 0) {
+			return;
+		}
+
+		ListNode chain = head.next;
+		chain.prev = last;
+		if (first == null) {
+			first = chain;
+		} else {
+			last.next = chain;
+		}
+		last = tail;
+		size += added;
+		++modCount;
+	}
+
+	/**
+	 * Removes all elements accepted by the given tester in a single pass over
+	 * the list.
+	 */
+	@Override
+	public boolean removeIf(Tester tester) {
+		int oldSize = size;
+		for (ListNode node = first; node != null; node = node.next) {
+			if (tester.test(node.data)) {
+				unlink(node);
+			}
+		}
+		return size != oldSize;
+	}
+
 	/**
 	 * Returns the object that is stored in the linked list at position index.
 	 * Valid indexes are 0 to size-1. IndexOutOfBoundsException is thrown if
-	 * index is invalid. The method searches only half of the elements,
-	 * depending if the given index is lower or higher than half the size of the
-	 * list.
+	 * index is invalid. The method walks from the first node, the last node or
+	 * the finger, whichever is closest to the index.
 	 * 
 	 * @param index
 	 *            index of element to be retrieved
@@ -194,37 +287,21 @@ public class LinkedListIndexedCollection extends Collection {
 		if (index < 0 || index > size - 1) {
 			throw new IndexOutOfBoundsException();
 		}
-		ListNode node;
-		int half = size / 2;
-		if (index < half) {
-			node = first;
-			for (int i = 0; i < half; ++i, node = node.next) {
-				if (index == i) {
-					break;
-				}
-			}
-		} else {
-			node = last;
-			for (int i = size - 1; i >= half; --i, node = node.prev) {
-				if (index == i) {
-					break;
-				}
-			}
-		}
-		
-		return node.data;
+		return node(index).data;
 	}
 
 	@Override
 	public void clear() {
-		first = last = null;
+		first = last = finger = null;
 		size = 0;
+		++modCount;
 	}
 
 	/**
 	 * Inserts (does not overwrite) the given value at the given position in the
 	 * linked list. Elements starting from this position are shifted backwards
-	 * for one position. The legal positions are 0 to size.
+	 * for one position. The node at the position is found in the same way as
+	 * by get. The legal positions are 0 to size.
 	 * IndexOutOfBoundsException is thrown if position is invalid. If the given
 	 * value is null, IllegalArgumentException is thrown.
 	 * 
@@ -240,55 +317,386 @@ public class LinkedListIndexedCollection extends Collection {
 		if (position < 0 || position > size) {
 			throw new IndexOutOfBoundsException();
 		}
-		ListNode tempNode = first;
+		ListNode successor = position == size ? null : node(position);
+		finger = linkBefore(value, successor);
+		fingerIndex = position;
+	}
+
+	/**
+	 * Searches the collection and returns the index of the first occurrence of
+	 * the given value or -1 if the value is not found.
+	 * 
+	 * @param value
+	 *            object the index of which is being looked for
+	 * @return index of the object being searched for
+	 */
+	public int indexOf(Object value) {
+		int i = 0;
+		ListNode node = first;
+		while (node != null && !node.data.equals(value)) {
+			node = node.next;
+			++i;
+		}
+		if (metrics != null) {
+			metrics.searched(node != null ? i + 1 : size);
+		}
+		return node != null ? i : -1;
+	}
+
+	/**
+	 * Removes the given node from the list. The next reference of the node is
+	 * left intact, so a traversal can continue past it.
+	 * 
+	 * @param node
+	 *            node to be removed
+	 */
+	private void unlink(ListNode node) {
+		if (first != node) {
+			node.prev.next = node.next;
+		} else {
+			first = node.next;
+		}
+		if (last != node) {
+			node.next.prev = node.prev;
+		} else {
+			last = node.prev;
+		}
+		--size;
+		++modCount;
+		finger = null;
+	}
+
+	/**
+	 * Enables instrumentation of this collection with zeroed counters. While
+	 * instrumentation is disabled, the hot paths only check a single field.
+	 * Enabling already enabled instrumentation has no effect.
+	 */
+	public void enableMetrics() {
+		if (metrics == null) {
+			metrics = new CollectionMetrics();
+		}
+	}
+
+	/**
+	 * Disables instrumentation of this collection and discards its counters.
+	 */
+	public void disableMetrics() {
+		metrics = null;
+	}
+
+	/**
+	 * Returns a snapshot of the counters of this collection, or null if
+	 * instrumentation is disabled.
+	 * 
+	 * @return snapshot of the counters or null
+	 */
+	public CollectionMetrics getMetrics() {
+		return metrics == null ? null : metrics.snapshot();
+	}
+
+	/**
+	 * Returns a cursor positioned before the element at the given index. The
+	 * legal indexes are 0 to size, where size places the cursor after the last
+	 * element. IndexOutOfBoundsException is thrown if index is invalid.
+	 * 
+	 * @param index
+	 *            index of the element returned by the first call of next
+	 * @return cursor over this list
+	 */
+	public Cursor cursor(int index) {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		return new Cursor(index);
+	}
+
+	/**
+	 * Returns the node at the given valid index. The walk starts from the first
+	 * node, the last node or the finger, whichever is closest, and the found
+	 * node becomes the new finger.
+	 * 
+	 * @param index
+	 *            index of the node
+	 * @return node at the given index
+	 */
+	private ListNode node(int index) {
+		ListNode node;
+		int i;
+		if (index < size - 1 - index) {
+			node = first;
+			i = 0;
+		} else {
+			node = last;
+			i = size - 1;
+		}
+		if (finger != null && Math.abs(index - fingerIndex) < Math.abs(index - i)) {
+			node = finger;
+			i = fingerIndex;
+		}
+		if (metrics != null) {
+			metrics.walked(Math.abs(index - i));
+		}
+		for (; i < index; ++i) {
+			node = node.next;
+		}
+		for (; i > index; --i) {
+			node = node.prev;
+		}
+		finger = node;
+		fingerIndex = index;
+		return node;
+	}
+
+	/**
+	 * Links a new node holding the given value before the given node, or at
+	 * the end of the list if the given node is null. Linking before a node
+	 * shifts the indexes of the following nodes, so the finger is dropped, as
+	 * its index may no longer be valid.
+	 * 
+	 * @param value
+	 *            value of the new node
+	 * @param successor
+	 *            node which should follow the new node, or null
+	 * @return the new node
+	 */
+	private ListNode linkBefore(Object value, ListNode successor) {
 		ListNode newNode = new ListNode();
-		newNode.prev = null;
-		newNode.next = null;
 		newNode.data = value;
+		newNode.next = successor;
+		newNode.prev = successor == null ? last : successor.prev;
+		if (newNode.prev == null) {
+			first = newNode;
+		} else {
+			newNode.prev.next = newNode;
+		}
+		if (successor == null) {
+			last = newNode;
+		} else {
+			successor.prev = newNode;
+			finger = null;
+		}
+		++size;
+		++modCount;
+		return newNode;
+	}
+
+	/**
+	 * A bidirectional cursor over the list. The cursor always lies between two
+	 * elements, or before the first or after the last element. Moving the
+	 * cursor by one element and inserting or removing at its position take
+	 * constant time. If the list is structurally modified other than through
+	 * the cursor itself, the cursor throws ConcurrentModificationException.
+	 * 
+	 * @author labramusic
+	 *
+	 */
+	public class Cursor {
+
+		/**
+		 * Node returned by the next call of next, null at the end of the list.
+		 */
+		private ListNode next;
+
+		/**
+		 * Index of the element returned by the next call of next.
+		 */
+		private int nextIndex;
+
+		/**
+		 * Node returned by the last call of next or previous, null if it was
+		 * removed or nothing has been returned yet.
+		 */
+		private ListNode lastReturned;
+
+		/**
+		 * Modification count of the list this cursor is consistent with.
+		 */
+		private int expectedModCount = modCount;
+
+		/**
+		 * Constructor which positions the cursor before the element at the
+		 * given valid index.
+		 * 
+		 * @param index
+		 *            index of the element after the cursor
+		 */
+		private Cursor(int index) {
+			next = index == size ? null : node(index);
+			nextIndex = index;
+		}
+
+		/**
+		 * Checks if there is an element after the cursor.
+		 * 
+		 * @return true if next would return an element
+		 */
+		public boolean hasNext() {
+			return nextIndex < size;
+		}
+
+		/**
+		 * Checks if there is an element before the cursor.
+		 * 
+		 * @return true if previous would return an element
+		 */
+		public boolean hasPrevious() {
+			return nextIndex > 0;
+		}
+
+		/**
+		 * Returns the index of the element after the cursor, which equals the
+		 * size of the list if the cursor is at its end.
+		 * 
+		 * @return index of the element after the cursor
+		 */
+		public int nextIndex() {
+			return nextIndex;
+		}
 
-		for (int i = 0; i <= size; ++i, tempNode = tempNode.next) {
-			if (i == position) {
-				break;
+		/**
+		 * Returns the element after the cursor and moves the cursor past it.
+		 * Throws NoSuchElementException if the cursor is at the end of the
+		 * list.
+		 * 
+		 * @return element after the cursor
+		 */
+		public Object next() {
+			checkModCount();
+			if (!hasNext()) {
+				throw new NoSuchElementException();
 			}
+			lastReturned = next;
+			next = next.next;
+			++nextIndex;
+			return lastReturned.data;
 		}
 
-		if (first == null) {
-			first = last = newNode;
-		} else {
+		/**
+		 * Returns the element before the cursor and moves the cursor before it.
+		 * Throws NoSuchElementException if the cursor is at the beginning of
+		 * the list.
+		 * 
+		 * @return element before the cursor
+		 */
+		public Object previous() {
+			checkModCount();
+			if (!hasPrevious()) {
+				throw new NoSuchElementException();
+			}
+			next = next == null ? last : next.prev;
+			lastReturned = next;
+			--nextIndex;
+			return lastReturned.data;
+		}
 
-			if (position == 0) {
-				newNode.next = first;
-				first.prev = newNode;
-				first = newNode;
-			} else if (position == size) {
-				newNode.prev = last;
-				last.next = newNode;
-				last = newNode;
+		/**
+		 * Inserts the value at the position of the cursor, so that it is
+		 * returned by a following call of previous. Throws
+		 * IllegalArgumentException if the value is null.
+		 * 
+		 * @param value
+		 *            value to be inserted
+		 */
+		public void insert(Object value) {
+			if (value == null) {
+				throw new IllegalArgumentException();
+			}
+			checkModCount();
+			linkBefore(value, next);
+			++nextIndex;
+			lastReturned = null;
+			expectedModCount = modCount;
+		}
+
+		/**
+		 * Removes the element returned by the last call of next or previous.
+		 * Throws IllegalStateException if no element has been returned since
+		 * the cursor was created or since the last call of insert or remove.
+		 */
+		public void remove() {
+			checkModCount();
+			if (lastReturned == null) {
+				throw new IllegalStateException();
+			}
+			if (next == lastReturned) {
+				next = lastReturned.next;
 			} else {
-				newNode.prev = tempNode.prev;
-				newNode.next = tempNode;
-				tempNode.prev.next = newNode;
-				tempNode.prev = newNode;
+				--nextIndex;
+			}
+			unlink(lastReturned);
+			lastReturned = null;
+			expectedModCount = modCount;
+		}
+
+		/**
+		 * Replaces the element returned by the last call of next or previous.
+		 * Throws IllegalStateException if there is no such element, and
+		 * IllegalArgumentException if the value is null.
+		 * 
+		 * @param value
+		 *            new value of the element
+		 */
+		public void set(Object value) {
+			if (value == null) {
+				throw new IllegalArgumentException();
+			}
+			checkModCount();
+			if (lastReturned == null) {
+				throw new IllegalStateException();
+			}
+			lastReturned.data = value;
+		}
+
+		/**
+		 * Throws ConcurrentModificationException if the list has been modified
+		 * other than through this cursor.
+		 */
+		private void checkModCount() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
 			}
 		}
-		++size;
 	}
 
 	/**
-	 * Searches the collection and returns the index of the first occurrence of
-	 * the given value or -1 if the value is not found.
-	 * 
-	 * @param value
-	 *            object the index of which is being looked for
-	 * @return index of the object being searched for
+	 * Spliterator which walks the nodes of the list. Splitting is inherited
+	 * from AbstractSpliterator, which copies batches of growing size into
+	 * arrays.
+	 *
+	 * @author labramusic
+	 *
 	 */
-	public int indexOf(Object value) {
-		ListNode node = first;
-		for (int i = 0; i < size; ++i, node = node.next) {
-			if (node.data.equals(value))
-				return i;
+	private class ListSpliterator extends Spliterators.AbstractSpliterator<Object> {
+
+		/**
+		 * Node holding the next element, null at the end of the list.
+		 */
+		private ListNode next = first;
+
+		/**
+		 * Constructor.
+		 */
+		ListSpliterator() {
+			super(size, SPLITERATOR_CHARACTERISTICS);
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Object> action) {
+			if (next == null) {
+				return false;
+			}
+			Object value = next.data;
+			next = next.next;
+			action.accept(value);
+			return true;
 		}
-		return -1;
-	}
 
+		@Override
+		public void forEachRemaining(Consumer<? super Object> action) {
+			for (ListNode node = next; node != null; node = node.next) {
+				action.accept(node.data);
+			}
+			next = null;
+		}
+	}
 }
@@ -0,0 +1,23 @@
+package hr.fer.zemris.java.custom.collections;
+
+/**
+ * An empty processor class which should be used to perform a certain action on
+ * the given long value in its instances. Used by LongArrayIndexedCollection so
+ * that values are never boxed.
+ * 
+ * @author labramusic
+ *
+ */
+public class LongProcessor {
+
+	/**
+	 * Performs an undefined action on the given value.
+	 * 
+	 * @param value
+	 *            value to be processed
+	 */
+	public void process(long value) {
+
+	}
+
+}
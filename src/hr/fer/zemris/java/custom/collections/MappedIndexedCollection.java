@@ -0,0 +1,330 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.util.Spliterator;
+
+/**
+ * Read-only collection backed by the records of a memory-mapped snapshot file,
+ * created by {@link CollectionSnapshot#map(java.nio.file.Path, RecordCodec)}.
+ * Nothing is read when the view is created: the operating system pages the
+ * file in as records are accessed, and every access decodes a new object with
+ * the codec of the snapshot. A single mapping cannot exceed 2 GB, so larger
+ * files are mapped as several segments.
+ * <p>
+ * Methods which modify the collection throw UnsupportedOperationException.
+ * Elements are compared by their records, as in OffHeapIndexedCollection. The
+ * mapping is released by calling {@link #free()}, after which the view can no
+ * longer be used. The view can be read by several threads at once.
+ *
+ * @author labramusic
+ *
+ */
+public class MappedIndexedCollection extends Collection {
+
+	/**
+	 * Codec of the elements.
+	 */
+	private final RecordCodec codec;
+
+	/**
+	 * Number of bytes of a single record.
+	 */
+	private final int recordSize;
+
+	/**
+	 * Number of records in the view.
+	 */
+	private final int size;
+
+	/**
+	 * Number of records in every segment but the last one.
+	 */
+	private final int segmentRecords;
+
+	/**
+	 * Mapped segments of the file, null once the view is freed.
+	 */
+	private MappedByteBuffer[] segments;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param codec
+	 *            codec of the elements
+	 * @param size
+	 *            number of records
+	 * @param segmentRecords
+	 *            number of records in every segment but the last one
+	 * @param segments
+	 *            mapped segments of the file, in the byte order of the records
+	 */
+	MappedIndexedCollection(RecordCodec codec, int size, int segmentRecords, MappedByteBuffer[] segments) {
+		this.codec = codec;
+		this.recordSize = codec.recordSize();
+		this.size = size;
+		this.segmentRecords = segmentRecords;
+		this.segments = segments;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Throws UnsupportedOperationException, since the view is read-only.
+	 */
+	@Override
+	public void add(Object value) {
+		throw new UnsupportedOperationException("Mapped collection is read-only.");
+	}
+
+	@Override
+	public boolean contains(Object value) {
+		return indexOf(value) != -1;
+	}
+
+	/**
+	 * Throws UnsupportedOperationException, since the view is read-only.
+	 */
+	@Override
+	public boolean remove(Object value) {
+		throw new UnsupportedOperationException("Mapped collection is read-only.");
+	}
+
+	@Override
+	public Object[] toArray() {
+		ensureOpen();
+		Object[] array = new Object[size];
+		for (int i = 0; i < size; ++i) {
+			array[i] = read(i);
+		}
+		return array;
+	}
+
+	/**
+	 * Calls the process method of the given processor for each element,
+	 * decoding a new object for every element.
+	 */
+	@Override
+	public void forEach(Processor processor) {
+		ensureOpen();
+		for (int i = 0; i < size; ++i) {
+			processor.process(read(i));
+		}
+	}
+
+	/**
+	 * Calls the process method of the given processor for each element. Every
+	 * element is decoded into the given flyweight, so the processor must not
+	 * keep a reference to the object it receives. The codec must support
+	 * decoding into an existing object.
+	 *
+	 * @param processor
+	 *            processor instance with the processing method to be called
+	 * @param flyweight
+	 *            mutable object the elements are decoded into
+	 */
+	public void forEach(Processor processor, Object flyweight) {
+		ensureOpen();
+		for (int i = 0; i < size; ++i) {
+			codec.readInto(segments[i / segmentRecords], (i % segmentRecords) * recordSize, flyweight);
+			processor.process(flyweight);
+		}
+	}
+
+	/**
+	 * Returns a spliterator which decodes a new object for every element. It
+	 * splits its range of indexes in halves, so parallel streams get balanced
+	 * parts.
+	 */
+	@Override
+	public Spliterator<Object> spliterator() {
+		ensureOpen();
+		return new MappedSpliterator(0, size);
+	}
+
+	/**
+	 * Throws UnsupportedOperationException, since the view is read-only.
+	 */
+	@Override
+	public void addAll(Collection other) {
+		throw new UnsupportedOperationException("Mapped collection is read-only.");
+	}
+
+	/**
+	 * Throws UnsupportedOperationException, since the view is read-only.
+	 */
+	@Override
+	public void clear() {
+		throw new UnsupportedOperationException("Mapped collection is read-only.");
+	}
+
+	/**
+	 * Throws UnsupportedOperationException, since the view is read-only.
+	 */
+	@Override
+	public boolean removeIf(Tester tester) {
+		throw new UnsupportedOperationException("Mapped collection is read-only.");
+	}
+
+	/**
+	 * Decodes and returns the element at the given index. Valid indexes are 0
+	 * to size-1. Throws IndexOutOfBoundsException if index is invalid.
+	 *
+	 * @param index
+	 *            index of desired element
+	 * @return element at given index
+	 */
+	public Object get(int index) {
+		ensureOpen();
+		if (index < 0 || index > size - 1) {
+			throw new IndexOutOfBoundsException();
+		}
+		return read(index);
+	}
+
+	/**
+	 * Decodes the element at the given index into the given flyweight and
+	 * returns it. Valid indexes are 0 to size-1. Throws
+	 * IndexOutOfBoundsException if index is invalid.
+	 *
+	 * @param index
+	 *            index of desired element
+	 * @param flyweight
+	 *            mutable object the element is decoded into
+	 * @return the flyweight
+	 */
+	public Object get(int index, Object flyweight) {
+		ensureOpen();
+		if (index < 0 || index > size - 1) {
+			throw new IndexOutOfBoundsException();
+		}
+		codec.readInto(segments[index / segmentRecords], (index % segmentRecords) * recordSize, flyweight);
+		return flyweight;
+	}
+
+	/**
+	 * Encodes the given value and searches the records for the first one with
+	 * the same bytes. Returns the index of that record, or -1 if the value is
+	 * not found or cannot be encoded by the codec.
+	 *
+	 * @param value
+	 *            object the index of which is being looked for
+	 * @return index of the object being searched for
+	 */
+	public int indexOf(Object value) {
+		ensureOpen();
+		if (value == null || size == 0) {
+			return -1;
+		}
+		ByteBuffer key = ByteBuffer.allocate(recordSize).order(segments[0].order());
+		try {
+			codec.write(key, 0, value);
+		} catch (ClassCastException e) {
+			return -1;
+		}
+		for (int i = 0; i < size; ++i) {
+			ByteBuffer segment = segments[i / segmentRecords];
+			int offset = (i % segmentRecords) * recordSize;
+			int j = 0;
+			while (j < recordSize && segment.get(offset + j) == key.get(j)) {
+				++j;
+			}
+			if (j == recordSize) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the byte order of the records of the snapshot.
+	 *
+	 * @return byte order of the records
+	 */
+	public ByteOrder order() {
+		ensureOpen();
+		return segments.length == 0 ? ByteOrder.nativeOrder() : segments[0].order();
+	}
+
+	/**
+	 * Releases the mapping immediately instead of waiting for the garbage
+	 * collector. Any further use of the view throws IllegalStateException.
+	 * Calling this method more than once has no effect.
+	 */
+	public void free() {
+		if (segments == null) {
+			return;
+		}
+		for (MappedByteBuffer segment : segments) {
+			OffHeapIndexedCollection.release(segment);
+		}
+		segments = null;
+	}
+
+	/**
+	 * Returns the mapped segments of the file. Used to copy the records in
+	 * bulk.
+	 *
+	 * @return mapped segments
+	 */
+	MappedByteBuffer[] segments() {
+		ensureOpen();
+		return segments;
+	}
+
+	/**
+	 * Decodes the record at the given index, which must be valid.
+	 *
+	 * @param index
+	 *            index of the record
+	 * @return decoded element
+	 */
+	private Object read(int index) {
+		return codec.read(segments[index / segmentRecords], (index % segmentRecords) * recordSize);
+	}
+
+	/**
+	 * Throws IllegalStateException if the view has been freed.
+	 */
+	private void ensureOpen() {
+		if (segments == null) {
+			throw new IllegalStateException("Collection has been freed.");
+		}
+	}
+
+	/**
+	 * Spliterator over a range of records of the mapped segments.
+	 *
+	 * @author labramusic
+	 *
+	 */
+	private class MappedSpliterator extends RangeSpliterator {
+
+		/**
+		 * Constructor.
+		 *
+		 * @param index
+		 *            index of the first element, inclusive
+		 * @param fence
+		 *            index after the last element, exclusive
+		 */
+		MappedSpliterator(int index, int fence) {
+			super(index, fence);
+		}
+
+		@Override
+		Object element(int index) {
+			return read(index);
+		}
+
+		@Override
+		RangeSpliterator slice(int index, int fence) {
+			return new MappedSpliterator(index, fence);
+		}
+	}
+
+}
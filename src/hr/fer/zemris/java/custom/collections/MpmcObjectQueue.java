@@ -0,0 +1,193 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for any number of producer and consumer threads.
+ * Every slot of the buffer carries a sequence number which tells whether the
+ * slot is free for the producer of a given lap around the buffer or holds a
+ * value for the consumer of that lap. A thread claims slots by advancing the
+ * tail or head index with compare-and-set, and hands the slot over to the
+ * other side by an ordered write of its sequence number, so producers and
+ * consumers contend only with their own side.
+ * <p>
+ * The batch operations first find how many consecutive slots are ready, then
+ * claim all of them with a single compare-and-set.
+ *
+ * @author labramusic
+ *
+ */
+public class MpmcObjectQueue extends BoundedObjectQueue {
+
+	/**
+	 * Index of the tail in the indexes array, advanced by producers.
+	 */
+	private static final int TAIL = PADDING;
+
+	/**
+	 * Index of the head in the indexes array, advanced by consumers.
+	 */
+	private static final int HEAD = 3 * PADDING;
+
+	/**
+	 * The circular buffer of values, its length a power of two.
+	 */
+	private final AtomicReferenceArray<Object> buffer;
+
+	/**
+	 * Sequence numbers of the slots. A slot at position p of the tail is free
+	 * when its sequence is p, and holds a value for position p of the head
+	 * when its sequence is p + 1.
+	 */
+	private final AtomicLongArray sequences;
+
+	/**
+	 * Mask which wraps an index around the buffer.
+	 */
+	private final int mask;
+
+	/**
+	 * Counts of claimed slots of producers and consumers, padded apart.
+	 */
+	private final AtomicLongArray indexes = new AtomicLongArray(4 * PADDING);
+
+	/**
+	 * Constructor which creates an empty queue which can hold at least the
+	 * given number of values. The capacity is rounded up to a power of two,
+	 * and is at least 2. Throws IllegalArgumentException if the given capacity
+	 * is less than 1 or greater than 2^30.
+	 *
+	 * @param capacity
+	 *            minimum capacity of the queue
+	 */
+	public MpmcObjectQueue(int capacity) {
+		if (capacity < 1 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("Capacity must be between 1 and 2^30.");
+		}
+		// a single slot could not tell a full queue from an empty one
+		int length = powerOfTwo(Math.max(2, capacity));
+		buffer = new AtomicReferenceArray<>(length);
+		sequences = new AtomicLongArray(length);
+		for (int i = 0; i < length; ++i) {
+			sequences.set(i, i);
+		}
+		mask = length - 1;
+	}
+
+	@Override
+	public int capacity() {
+		return buffer.length();
+	}
+
+	@Override
+	public int size() {
+		long head = indexes.get(HEAD);
+		long tail = indexes.get(TAIL);
+		return (int) Math.max(0, Math.min(tail - head, buffer.length()));
+	}
+
+	@Override
+	public boolean offer(Object value) {
+		if (value == null) {
+			throw new IllegalArgumentException();
+		}
+		while (true) {
+			long tail = indexes.get(TAIL);
+			int slot = (int) tail & mask;
+			long difference = sequences.get(slot) - tail;
+			if (difference == 0) {
+				if (indexes.compareAndSet(TAIL, tail, tail + 1)) {
+					buffer.lazySet(slot, value);
+					sequences.lazySet(slot, tail + 1);
+					return true;
+				}
+			} else if (difference < 0) {
+				return false;
+			}
+		}
+	}
+
+	@Override
+	public Object poll() {
+		while (true) {
+			long head = indexes.get(HEAD);
+			int slot = (int) head & mask;
+			long difference = sequences.get(slot) - (head + 1);
+			if (difference == 0) {
+				if (indexes.compareAndSet(HEAD, head, head + 1)) {
+					Object value = buffer.get(slot);
+					buffer.lazySet(slot, null);
+					sequences.lazySet(slot, head + buffer.length());
+					return value;
+				}
+			} else if (difference < 0) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Adds values from the given range of the array, claiming all free slots
+	 * they need with a single compare-and-set.
+	 */
+	@Override
+	public int offerAll(Object[] values, int offset, int count) {
+		checkValues(values, offset, count);
+		while (true) {
+			long tail = indexes.get(TAIL);
+			int ready = 0;
+			while (ready < count && sequences.get((int) (tail + ready) & mask) == tail + ready) {
+				++ready;
+			}
+			if (ready == 0) {
+				if (count == 0 || sequences.get((int) tail & mask) < tail) {
+					return 0;
+				}
+				// another producer claimed the slot, retry from the new tail
+				continue;
+			}
+			if (indexes.compareAndSet(TAIL, tail, tail + ready)) {
+				for (int i = 0; i < ready; ++i) {
+					int slot = (int) (tail + i) & mask;
+					buffer.lazySet(slot, values[offset + i]);
+					sequences.lazySet(slot, tail + i + 1);
+				}
+				return ready;
+			}
+		}
+	}
+
+	/**
+	 * Removes values, claiming all slots holding them with a single
+	 * compare-and-set.
+	 */
+	@Override
+	public int drainTo(Object[] target, int offset, int max) {
+		checkRange(target, offset, max);
+		while (true) {
+			long head = indexes.get(HEAD);
+			int ready = 0;
+			while (ready < max && sequences.get((int) (head + ready) & mask) == head + ready + 1) {
+				++ready;
+			}
+			if (ready == 0) {
+				if (max == 0 || sequences.get((int) head & mask) < head + 1) {
+					return 0;
+				}
+				// another consumer claimed the slot, retry from the new head
+				continue;
+			}
+			if (indexes.compareAndSet(HEAD, head, head + ready)) {
+				for (int i = 0; i < ready; ++i) {
+					int slot = (int) (head + i) & mask;
+					target[offset + i] = buffer.get(slot);
+					buffer.lazySet(slot, null);
+					sequences.lazySet(slot, head + i + buffer.length());
+				}
+				return ready;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,224 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.Arrays;
+
+/**
+ * Implementation of a first-in first-out queue of objects, the counterpart of
+ * ObjectStack. Values are stored in a circular buffer whose length is a power
+ * of two, so enqueueing and dequeueing take amortized constant time, unlike
+ * removing the first element of an ArrayIndexedCollection. The queue is not
+ * thread-safe; SpscObjectQueue and MpmcObjectQueue are bounded variants which
+ * can be shared between threads.
+ *
+ * @author labramusic
+ *
+ */
+public class ObjectQueue {
+
+	/**
+	 * The default initial capacity.
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Number of values in the queue.
+	 */
+	private int size;
+
+	/**
+	 * Index of the first value in the elements array.
+	 */
+	private int head;
+
+	/**
+	 * The circular buffer used as storage of values. Its length is always a
+	 * power of two, so that indexes can be wrapped around by masking.
+	 */
+	private Object[] elements;
+
+	/**
+	 * Default constructor which creates an empty queue with capacity set to 16.
+	 */
+	public ObjectQueue() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor which creates an empty queue which can hold at least the
+	 * given number of values before growing. The capacity is rounded up to a
+	 * power of two. Throws IllegalArgumentException if the given capacity is
+	 * less than 1.
+	 *
+	 * @param initialCapacity
+	 *            initial array capacity
+	 */
+	public ObjectQueue(int initialCapacity) {
+		if (initialCapacity < 1) {
+			throw new IllegalArgumentException("Capacity must be at least 1.");
+		}
+		elements = new Object[BoundedObjectQueue.powerOfTwo(initialCapacity)];
+	}
+
+	/**
+	 * Checks if queue contains any values, returns true if empty.
+	 *
+	 * @return true if queue contains no values, false otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the number of values currently in this queue.
+	 *
+	 * @return number of values in queue
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Adds the given value at the end of the queue. Throws
+	 * IllegalArgumentException if a null value is attempted to be added.
+	 *
+	 * @param value
+	 *            value to be added
+	 */
+	public void enqueue(Object value) {
+		if (value == null) {
+			throw new IllegalArgumentException();
+		}
+		if (size == elements.length) {
+			grow(size + 1);
+		}
+		elements[(head + size) & (elements.length - 1)] = value;
+		++size;
+	}
+
+	/**
+	 * Removes the first value of the queue and returns it. Throws
+	 * EmptyQueueException if the queue is empty when this method is called.
+	 *
+	 * @return value at the front of the queue
+	 */
+	public Object dequeue() {
+		if (size == 0) {
+			throw new EmptyQueueException();
+		}
+		Object value = elements[head];
+		elements[head] = null;
+		head = (head + 1) & (elements.length - 1);
+		--size;
+		return value;
+	}
+
+	/**
+	 * Returns the first value of the queue without removing it. Throws
+	 * EmptyQueueException if the queue is empty when this method is called.
+	 *
+	 * @return value at the front of the queue
+	 */
+	public Object peek() {
+		if (size == 0) {
+			throw new EmptyQueueException();
+		}
+		return elements[head];
+	}
+
+	/**
+	 * Adds all values of the given array at the end of the queue, in the order
+	 * of the array. The values are copied with at most two array copies, split
+	 * where the buffer wraps around. Throws IllegalArgumentException if the
+	 * array or any of its values is null, in which case nothing is added.
+	 *
+	 * @param values
+	 *            values to be added
+	 */
+	public void enqueueAll(Object[] values) {
+		if (values == null) {
+			throw new IllegalArgumentException();
+		}
+		for (Object value : values) {
+			if (value == null) {
+				throw new IllegalArgumentException();
+			}
+		}
+		if (size + values.length > elements.length) {
+			grow(size + values.length);
+		}
+		int tail = (head + size) & (elements.length - 1);
+		int first = Math.min(values.length, elements.length - tail);
+		System.arraycopy(values, 0, elements, tail, first);
+		System.arraycopy(values, first, elements, 0, values.length - first);
+		size += values.length;
+	}
+
+	/**
+	 * Removes at most max values from the front of the queue and stores them
+	 * in order into the given array, starting at the given offset. The values
+	 * are copied with at most two array copies. Throws
+	 * IllegalArgumentException if the values would not fit into the array.
+	 *
+	 * @param target
+	 *            array the values are stored into
+	 * @param offset
+	 *            index in the array of the first value
+	 * @param max
+	 *            maximum number of removed values
+	 * @return number of removed values
+	 */
+	public int drainTo(Object[] target, int offset, int max) {
+		if (target == null || offset < 0 || max < 0 || offset + max > target.length) {
+			throw new IllegalArgumentException();
+		}
+		int count = Math.min(max, size);
+		int first = Math.min(count, elements.length - head);
+		System.arraycopy(elements, head, target, offset, first);
+		System.arraycopy(elements, 0, target, offset + first, count - first);
+		clearRange(head, count);
+		head = (head + count) & (elements.length - 1);
+		size -= count;
+		return count;
+	}
+
+	/**
+	 * Removes all values from the queue.
+	 */
+	public void clear() {
+		clearRange(head, size);
+		head = 0;
+		size = 0;
+	}
+
+	/**
+	 * Clears the references in the given number of slots of the circular
+	 * buffer starting at the given slot.
+	 *
+	 * @param from
+	 *            first cleared slot
+	 * @param count
+	 *            number of cleared slots
+	 */
+	private void clearRange(int from, int count) {
+		int first = Math.min(count, elements.length - from);
+		Arrays.fill(elements, from, from + first, null);
+		Arrays.fill(elements, 0, count - first, null);
+	}
+
+	/**
+	 * Reallocates the buffer so that it can hold at least the given number of
+	 * values, moving the first value to the start of the new buffer.
+	 *
+	 * @param minCapacity
+	 *            required capacity
+	 */
+	private void grow(int minCapacity) {
+		Object[] array = new Object[BoundedObjectQueue.powerOfTwo(Math.max(2 * elements.length, minCapacity))];
+		int first = Math.min(size, elements.length - head);
+		System.arraycopy(elements, head, array, 0, first);
+		System.arraycopy(elements, 0, array, first, size - first);
+		elements = array;
+		head = 0;
+	}
+
+}
@@ -50,13 +50,10 @@ public class ObjectStack {
 	 * @return value at the top of the stack
 	 */
 	public Object pop() {
-		int size = size();
-		if (isEmpty()) {
+		if (array.isEmpty()) {
 			throw new EmptyStackException();
 		}
-		Object value = array.get(size - 1);
-		array.remove(size - 1);
-		return value;
+		return array.removeLast();
 	}
 
 	/**
@@ -74,6 +71,93 @@ public class ObjectStack {
 		return array.get(size - 1);
 	}
 
+	/**
+	 * Returns the value the given number of places below the top of the stack
+	 * without removing it, so peek(0) is the same as peek(). Throws
+	 * EmptyStackException if the stack holds n or fewer values, and
+	 * IllegalArgumentException if n is negative.
+	 * 
+	 * @param n
+	 *            number of places below the top
+	 * @return value n places below the top of the stack
+	 */
+	public Object peek(int n) {
+		if (n < 0) {
+			throw new IllegalArgumentException("Depth must not be negative.");
+		}
+		int size = array.size();
+		if (n >= size) {
+			throw new EmptyStackException();
+		}
+		return array.get(size - 1 - n);
+	}
+
+	/**
+	 * Pushes all values of the given array on the stack, in the order of the
+	 * array, so its last value ends up on the top. The values are copied with
+	 * a single array copy. Throws IllegalArgumentException if the array or any
+	 * of its values is null, in which case nothing is pushed.
+	 * 
+	 * @param values
+	 *            values to be pushed
+	 */
+	public void pushAll(Object[] values) {
+		if (values == null) {
+			throw new IllegalArgumentException();
+		}
+		array.addArray(values, 0, values.length);
+	}
+
+	/**
+	 * Pops n values from the stack into the first n places of the given array
+	 * with a single array copy. The values keep the order in which they were
+	 * pushed, so the former top of the stack is stored at index n - 1, and
+	 * pushAll of the array would push them back in the same order. Throws
+	 * EmptyStackException if the stack holds fewer than n values, in which case
+	 * nothing is popped, and IllegalArgumentException if n is negative or
+	 * greater than the length of the array.
+	 * 
+	 * @param target
+	 *            array the values are stored into
+	 * @param n
+	 *            number of popped values
+	 */
+	public void popInto(Object[] target, int n) {
+		if (target == null || n < 0 || n > target.length) {
+			throw new IllegalArgumentException();
+		}
+		if (n > array.size()) {
+			throw new EmptyStackException();
+		}
+		array.removeLast(target, 0, n);
+	}
+
+	/**
+	 * Enables instrumentation of the internal storage of this stack. Pushing
+	 * is counted as adding to the storage and popping as removing from its
+	 * end, which shifts no elements.
+	 */
+	public void enableMetrics() {
+		array.enableMetrics();
+	}
+
+	/**
+	 * Disables instrumentation of the internal storage of this stack.
+	 */
+	public void disableMetrics() {
+		array.disableMetrics();
+	}
+
+	/**
+	 * Returns a snapshot of the counters of the internal storage of this
+	 * stack, or null if instrumentation is disabled.
+	 * 
+	 * @return snapshot of the counters or null
+	 */
+	public CollectionMetrics getMetrics() {
+		return array.getMetrics();
+	}
+
 	/**
 	 * Removes all elements from the stack.
 	 */
@@ -0,0 +1,587 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Spliterator;
+
+/**
+ * Implementation of a resizable collection which stores its elements as
+ * fixed-width binary records in a direct byte buffer, outside of the Java heap.
+ * Elements are encoded and decoded by the given RecordCodec, so the garbage
+ * collector never has to trace them, no matter how many there are. The
+ * collection offers the same indexed operations as ArrayIndexedCollection.
+ * <p>
+ * Elements are compared by their records, so a value is found only if it is
+ * encoded into exactly the same bytes as a stored element. Methods which
+ * return elements decode a new object every time, while the variants of get
+ * and forEach which accept a flyweight decode into a single reused object
+ * instead. The memory of the collection is released by calling
+ * {@link #free()}, after which the collection can no longer be used. The
+ * records of a collection cannot take more than 2 GB.
+ *
+ * @author labramusic
+ *
+ */
+public class OffHeapIndexedCollection extends Collection {
+
+	/**
+	 * The default initial capacity.
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Size of the buffer used for moving records.
+	 */
+	private static final int MOVE_CHUNK = 8192;
+
+	/**
+	 * Codec of the elements.
+	 */
+	private final RecordCodec codec;
+
+	/**
+	 * Number of bytes of a single record.
+	 */
+	private final int recordSize;
+
+	/**
+	 * Number of elements currently stored in the collection.
+	 */
+	private int size;
+
+	/**
+	 * Number of records the buffer can hold.
+	 */
+	private int capacity;
+
+	/**
+	 * Direct buffer holding the records, null once the collection is freed.
+	 */
+	private ByteBuffer buffer;
+
+	/**
+	 * View of the buffer used for relative bulk transfers.
+	 */
+	private ByteBuffer view;
+
+	/**
+	 * Record of the value being searched for.
+	 */
+	private final ByteBuffer key;
+
+	/**
+	 * Temporary storage for moving records.
+	 */
+	private final byte[] chunk;
+
+	/**
+	 * Constructor which creates an instance with capacity set to 16 records.
+	 *
+	 * @param codec
+	 *            codec of the elements
+	 */
+	public OffHeapIndexedCollection(RecordCodec codec) {
+		this(codec, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor which allocates a buffer for the given number of records.
+	 * Throws IllegalArgumentException if the given capacity is less than 1.
+	 *
+	 * @param codec
+	 *            codec of the elements
+	 * @param initialCapacity
+	 *            initial number of records
+	 */
+	public OffHeapIndexedCollection(RecordCodec codec, int initialCapacity) {
+		if (initialCapacity < 1) {
+			throw new IllegalArgumentException("Capacity must be at least 1.");
+		}
+		this.codec = codec;
+		recordSize = codec.recordSize();
+		key = ByteBuffer.allocate(recordSize).order(ByteOrder.nativeOrder());
+		chunk = new byte[Math.max(MOVE_CHUNK, recordSize)];
+		allocate(initialCapacity);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Encodes the object into a record at the end of the buffer. If the buffer
+	 * is full, it is reallocated by doubling its size. Throws
+	 * IllegalArgumentException if a null value is attempted to be added.
+	 */
+	@Override
+	public void add(Object value) {
+		if (value == null) {
+			throw new IllegalArgumentException();
+		}
+		ensureOpen();
+		if (size == capacity) {
+			grow(size + 1);
+		}
+		codec.write(buffer, size * recordSize, value);
+		++size;
+	}
+
+	@Override
+	public boolean contains(Object value) {
+		return indexOf(value) != -1;
+	}
+
+	@Override
+	public boolean remove(Object value) {
+		int index = indexOf(value);
+		if (index == -1) {
+			return false;
+		}
+		remove(index);
+		return true;
+	}
+
+	/**
+	 * Removes the record at the given index and moves the records after it one
+	 * place backwards. Throws IndexOutOfBoundsException if the given index is
+	 * not between 0 and size - 1.
+	 *
+	 * @param index
+	 *            index of element to be removed
+	 */
+	public void remove(int index) {
+		ensureOpen();
+		if (index < 0 || index > size - 1) {
+			throw new IndexOutOfBoundsException();
+		}
+		move((index + 1) * recordSize, index * recordSize, (size - index - 1) * recordSize);
+		--size;
+	}
+
+	@Override
+	public Object[] toArray() {
+		ensureOpen();
+		Object[] array = new Object[size];
+		for (int i = 0; i < size; ++i) {
+			array[i] = codec.read(buffer, i * recordSize);
+		}
+		return array;
+	}
+
+	/**
+	 * Calls the process method of the given processor for each element,
+	 * decoding a new object for every element.
+	 */
+	@Override
+	public void forEach(Processor processor) {
+		ensureOpen();
+		for (int i = 0; i < size; ++i) {
+			processor.process(codec.read(buffer, i * recordSize));
+		}
+	}
+
+	/**
+	 * Returns a spliterator which decodes a new object for every element. It
+	 * splits its range of indexes in halves, so parallel streams get balanced
+	 * parts.
+	 */
+	@Override
+	public Spliterator<Object> spliterator() {
+		ensureOpen();
+		return new RecordSpliterator(0, size);
+	}
+
+	/**
+	 * Calls the process method of the given processor for each element. Every
+	 * element is decoded into the given flyweight, so the processor must not
+	 * keep a reference to the object it receives. The codec must support
+	 * decoding into an existing object.
+	 *
+	 * @param processor
+	 *            processor instance with the processing method to be called
+	 * @param flyweight
+	 *            mutable object the elements are decoded into
+	 */
+	public void forEach(Processor processor, Object flyweight) {
+		ensureOpen();
+		for (int i = 0; i < size; ++i) {
+			codec.readInto(buffer, i * recordSize, flyweight);
+			processor.process(flyweight);
+		}
+	}
+
+	/**
+	 * Adds all elements from the given collection. The buffer is reallocated at
+	 * most once.
+	 */
+	@Override
+	public void addAll(Collection other) {
+		ensureOpen();
+		int otherSize = other.size();
+		if (size + otherSize > capacity) {
+			grow(size + otherSize);
+		}
+		if (other == this) {
+			move(0, size * recordSize, size * recordSize);
+			size += otherSize;
+		} else {
+			super.addAll(other);
+		}
+	}
+
+	/**
+	 * Removes all elements accepted by the given tester in a single pass. The
+	 * remaining records are moved back at most once each.
+	 */
+	@Override
+	public boolean removeIf(Tester tester) {
+		ensureOpen();
+		int kept = 0;
+		for (int i = 0; i < size; ++i) {
+			if (!tester.test(codec.read(buffer, i * recordSize))) {
+				if (kept != i) {
+					move(i * recordSize, kept * recordSize, recordSize);
+				}
+				++kept;
+			}
+		}
+		boolean removed = kept != size;
+		size = kept;
+		return removed;
+	}
+
+	/**
+	 * Decodes and returns the element at the given index. Valid indexes are 0
+	 * to size-1. Throws IndexOutOfBoundsException if index is invalid.
+	 *
+	 * @param index
+	 *            index of desired element
+	 * @return element at given index
+	 */
+	public Object get(int index) {
+		ensureOpen();
+		if (index < 0 || index > size - 1) {
+			throw new IndexOutOfBoundsException();
+		}
+		return codec.read(buffer, index * recordSize);
+	}
+
+	/**
+	 * Decodes the element at the given index into the given flyweight and
+	 * returns it. Valid indexes are 0 to size-1. Throws
+	 * IndexOutOfBoundsException if index is invalid.
+	 *
+	 * @param index
+	 *            index of desired element
+	 * @param flyweight
+	 *            mutable object the element is decoded into
+	 * @return the flyweight
+	 */
+	public Object get(int index, Object flyweight) {
+		ensureOpen();
+		if (index < 0 || index > size - 1) {
+			throw new IndexOutOfBoundsException();
+		}
+		codec.readInto(buffer, index * recordSize, flyweight);
+		return flyweight;
+	}
+
+	/**
+	 * Removes all elements. The buffer is kept and its records are simply
+	 * overwritten by later additions.
+	 */
+	@Override
+	public void clear() {
+		ensureOpen();
+		size = 0;
+	}
+
+	/**
+	 * Inserts (does not overwrite) the given value at the given position.
+	 * Records at position and at greater positions are moved one place toward
+	 * the end. The legal positions are 0 to size. IndexOutOfBoundsException is
+	 * thrown if position is invalid. If the given value is null,
+	 * IllegalArgumentException is thrown.
+	 *
+	 * @param value
+	 *            object to be inserted
+	 * @param position
+	 *            position in which value should be inserted
+	 */
+	public void insert(Object value, int position) {
+		if (value == null) {
+			throw new IllegalArgumentException();
+		}
+		ensureOpen();
+		if (position < 0 || position > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (size == capacity) {
+			grow(size + 1);
+		}
+		move(position * recordSize, (position + 1) * recordSize, (size - position) * recordSize);
+		codec.write(buffer, position * recordSize, value);
+		++size;
+	}
+
+	/**
+	 * Searches the collection and returns the index of the first element whose
+	 * record equals the record of the given value, or -1 if there is no such
+	 * element or the value cannot be encoded by the codec.
+	 *
+	 * @param value
+	 *            object the index of which is being looked for
+	 * @return index of the object being searched for
+	 */
+	public int indexOf(Object value) {
+		ensureOpen();
+		if (value == null) {
+			return -1;
+		}
+		try {
+			codec.write(key, 0, value);
+		} catch (ClassCastException e) {
+			return -1;
+		}
+		for (int i = 0, offset = 0; i < size; ++i, offset += recordSize) {
+			if (matchesKey(offset)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Releases the memory of the collection. Any later call of a method other
+	 * than size, isEmpty and free throws IllegalStateException.
+	 */
+	public void free() {
+		if (buffer != null) {
+			release(buffer);
+			buffer = view = null;
+			size = capacity = 0;
+		}
+	}
+
+	/**
+	 * Returns the codec of the elements.
+	 *
+	 * @return codec of the elements
+	 */
+	RecordCodec codec() {
+		return codec;
+	}
+
+	/**
+	 * Returns a read-only view of the records of this collection, in native
+	 * byte order, positioned at the first record and limited after the last
+	 * one. Used to write snapshots of the collection in bulk.
+	 *
+	 * @return view of the records
+	 */
+	ByteBuffer records() {
+		ensureOpen();
+		ByteBuffer records = buffer.asReadOnlyBuffer().order(ByteOrder.nativeOrder());
+		records.limit(size * recordSize);
+		return records;
+	}
+
+	/**
+	 * Appends the remaining records of the given buffer at the end of this
+	 * collection with a single bulk copy. The records must be encoded by the
+	 * codec of this collection in native byte order.
+	 *
+	 * @param records
+	 *            buffer holding whole records between its position and limit
+	 */
+	void appendRecords(ByteBuffer records) {
+		ensureOpen();
+		int count = records.remaining() / recordSize;
+		if ((long) size + count > capacity) {
+			grow((int) Math.min((long) size + count, Integer.MAX_VALUE));
+		}
+		ByteBuffer target = buffer.duplicate();
+		target.position(size * recordSize);
+		target.put(records);
+		size += count;
+	}
+
+	/**
+	 * Checks the record at the given offset against the key, a long at a time.
+	 *
+	 * @param offset
+	 *            offset of the record
+	 * @return true if the record equals the key
+	 */
+	private boolean matchesKey(int offset) {
+		int i = 0;
+		for (; i + Long.BYTES <= recordSize; i += Long.BYTES) {
+			if (buffer.getLong(offset + i) != key.getLong(i)) {
+				return false;
+			}
+		}
+		for (; i < recordSize; ++i) {
+			if (buffer.get(offset + i) != key.get(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Moves the given number of bytes of the buffer between possibly
+	 * overlapping ranges, through the chunk array.
+	 *
+	 * @param from
+	 *            offset of the first moved byte
+	 * @param to
+	 *            offset the first byte is moved to
+	 * @param length
+	 *            number of moved bytes
+	 */
+	private void move(int from, int to, int length) {
+		if (to < from) {
+			for (int done = 0; done < length;) {
+				int n = Math.min(chunk.length, length - done);
+				transfer(from + done, to + done, n);
+				done += n;
+			}
+		} else {
+			// move from the end, so that overlapping bytes are not overwritten
+			for (int remaining = length; remaining > 0;) {
+				int n = Math.min(chunk.length, remaining);
+				remaining -= n;
+				transfer(from + remaining, to + remaining, n);
+			}
+		}
+	}
+
+	/**
+	 * Copies at most one chunk of bytes of the buffer.
+	 *
+	 * @param from
+	 *            offset of the first copied byte
+	 * @param to
+	 *            offset the first byte is copied to
+	 * @param length
+	 *            number of bytes, at most the length of the chunk array
+	 */
+	private void transfer(int from, int to, int length) {
+		view.position(from);
+		view.get(chunk, 0, length);
+		view.position(to);
+		view.put(chunk, 0, length);
+	}
+
+	/**
+	 * Allocates a new buffer for the given number of records and copies the
+	 * existing records into it.
+	 *
+	 * @param records
+	 *            number of records of the new buffer
+	 */
+	private void allocate(int records) {
+		if ((long) records * recordSize > Integer.MAX_VALUE) {
+			throw new IllegalStateException("Records of the collection cannot take more than 2 GB.");
+		}
+		ByteBuffer newBuffer = ByteBuffer.allocateDirect(records * recordSize).order(ByteOrder.nativeOrder());
+		if (buffer != null) {
+			ByteBuffer source = buffer.duplicate();
+			source.limit(size * recordSize);
+			newBuffer.duplicate().put(source);
+			release(buffer);
+		}
+		buffer = newBuffer;
+		view = newBuffer.duplicate();
+		capacity = records;
+	}
+
+	/**
+	 * Reallocates the buffer so that it can hold at least the given number of
+	 * records. The capacity is doubled, or set to the required number of
+	 * records if doubling is not enough.
+	 *
+	 * @param minCapacity
+	 *            required number of records
+	 */
+	private void grow(int minCapacity) {
+		long doubled = Math.min(2L * capacity, Integer.MAX_VALUE / recordSize);
+		allocate((int) Math.max(doubled, minCapacity));
+	}
+
+	/**
+	 * Throws IllegalStateException if the collection has been freed.
+	 */
+	private void ensureOpen() {
+		if (buffer == null) {
+			throw new IllegalStateException("Collection has been freed.");
+		}
+	}
+
+	/**
+	 * Releases the memory of a direct buffer immediately instead of waiting
+	 * for the garbage collector. The buffer must not be used afterwards.
+	 * Releasing is attempted through sun.misc.Unsafe.invokeCleaner on Java 9
+	 * and newer and through the cleaner of the buffer on Java 8. If neither is
+	 * accessible, the memory is released when the buffer is collected.
+	 *
+	 * @param buffer
+	 *            direct buffer to be released
+	 */
+	static void release(ByteBuffer buffer) {
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			invokeCleaner.invoke(theUnsafe.get(null), buffer);
+			return;
+		} catch (ReflectiveOperationException | RuntimeException ignorable) {
+			// not Java 9 or newer, try the cleaner of the buffer
+		}
+		try {
+			Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+			cleanerMethod.setAccessible(true);
+			Object cleaner = cleanerMethod.invoke(buffer);
+			cleaner.getClass().getMethod("clean").invoke(cleaner);
+		} catch (ReflectiveOperationException | RuntimeException ignorable) {
+			// left to the garbage collector
+		}
+	}
+
+	/**
+	 * Spliterator over a range of records of the buffer. Records are decoded
+	 * with absolute get methods, so spliterators of several threads can share
+	 * the buffer.
+	 *
+	 * @author labramusic
+	 *
+	 */
+	private class RecordSpliterator extends RangeSpliterator {
+
+		/**
+		 * Constructor.
+		 *
+		 * @param index
+		 *            index of the first element, inclusive
+		 * @param fence
+		 *            index after the last element, exclusive
+		 */
+		RecordSpliterator(int index, int fence) {
+			super(index, fence);
+		}
+
+		@Override
+		Object element(int index) {
+			return codec.read(buffer, index * recordSize);
+		}
+
+		@Override
+		RangeSpliterator slice(int index, int fence) {
+			return new RecordSpliterator(index, fence);
+		}
+	}
+}
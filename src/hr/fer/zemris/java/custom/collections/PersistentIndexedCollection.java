@@ -0,0 +1,822 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Implementation of an immutable indexed collection of objects whose
+ * modifying methods return new versions of the collection instead of changing
+ * it. The elements are stored in the leaves of a trie in which every node has
+ * up to 32 children, so the path to an element is at most log32 n nodes long
+ * and retrieving an element takes practically constant time. A new version
+ * copies only the nodes on the path to the changed element and shares all
+ * other nodes with the old version. The last up to 32 elements are kept in a
+ * separate tail array, so adding at the end mostly copies just the tail.
+ * <p>
+ * Since a version never changes, a reference to it is a stable snapshot which
+ * can be read by any number of threads without copying or synchronization.
+ * For bulk construction, {@link #builder()} returns a mutable builder which
+ * changes nodes it created in place and turns into a new version in constant
+ * time. The general contract of this collection is that it allows duplicate
+ * elements and doesn't allow storage of null references.
+ *
+ * @author labramusic
+ *
+ */
+public class PersistentIndexedCollection {
+
+	/**
+	 * Number of bits of an index consumed by a level of the trie.
+	 */
+	private static final int BITS = 5;
+
+	/**
+	 * Number of children of a node.
+	 */
+	private static final int WIDTH = 1 << BITS;
+
+	/**
+	 * Mask which extracts the index of a child from the bits of a level.
+	 */
+	private static final int MASK = WIDTH - 1;
+
+	/**
+	 * A node of the trie, holding either children or elements.
+	 *
+	 * @author labramusic
+	 *
+	 */
+	private static class TrieNode {
+
+		/**
+		 * Builder which may change this node in place, null if the node
+		 * belongs only to persistent versions.
+		 */
+		final Object owner;
+
+		/**
+		 * Children of an inner node or elements of a leaf.
+		 */
+		final Object[] array;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param owner
+		 *            builder which may change the node, or null
+		 * @param array
+		 *            children or elements of the node
+		 */
+		TrieNode(Object owner, Object[] array) {
+			this.owner = owner;
+			this.array = array;
+		}
+	}
+
+	/**
+	 * Root of the empty trie.
+	 */
+	private static final TrieNode EMPTY_NODE = new TrieNode(null, new Object[WIDTH]);
+
+	/**
+	 * Number of elements in the collection.
+	 */
+	private final int size;
+
+	/**
+	 * Number of index bits below the root level.
+	 */
+	private final int shift;
+
+	/**
+	 * Root of the trie holding all elements before the tail.
+	 */
+	private final TrieNode root;
+
+	/**
+	 * Last elements of the collection, at most 32 of them.
+	 */
+	private final Object[] tail;
+
+	/**
+	 * Default constructor which creates an empty collection.
+	 */
+	public PersistentIndexedCollection() {
+		this(0, BITS, EMPTY_NODE, new Object[0]);
+	}
+
+	/**
+	 * Constructor which accepts a reference to some other collection the
+	 * elements of which are copied into this newly constructed collection,
+	 * through a builder.
+	 *
+	 * @param other
+	 *            collection to be copied from
+	 */
+	public PersistentIndexedCollection(Collection other) {
+		this(build(other));
+	}
+
+	/**
+	 * Constructor which shares the whole structure of the given version.
+	 *
+	 * @param version
+	 *            version to be shared
+	 */
+	private PersistentIndexedCollection(PersistentIndexedCollection version) {
+		this(version.size, version.shift, version.root, version.tail);
+	}
+
+	/**
+	 * Constructor which sets all fields.
+	 *
+	 * @param size
+	 *            number of elements
+	 * @param shift
+	 *            number of index bits below the root level
+	 * @param root
+	 *            root of the trie
+	 * @param tail
+	 *            last elements
+	 */
+	private PersistentIndexedCollection(int size, int shift, TrieNode root, Object[] tail) {
+		this.size = size;
+		this.shift = shift;
+		this.root = root;
+		this.tail = tail;
+	}
+
+	/**
+	 * Returns the number of elements in this collection.
+	 *
+	 * @return number of elements
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if collection contains any elements, returns true if empty.
+	 *
+	 * @return true if collection contains no elements, false otherwise
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Returns the element at the given index in O(log32 n) time. Valid
+	 * indexes are 0 to size-1. Throws IndexOutOfBoundsException if index is
+	 * invalid.
+	 *
+	 * @param index
+	 *            index of desired element
+	 * @return element at given index
+	 */
+	public Object get(int index) {
+		if (index < 0 || index > size - 1) {
+			throw new IndexOutOfBoundsException();
+		}
+		return leafFor(index)[index & MASK];
+	}
+
+	/**
+	 * Returns a new version with the given value added at the end. Only the
+	 * tail is copied, and once in 32 additions also the path to the new leaf.
+	 * Throws IllegalArgumentException if a null value is attempted to be added.
+	 *
+	 * @param value
+	 *            object to be added
+	 * @return new version of the collection
+	 */
+	public PersistentIndexedCollection add(Object value) {
+		if (value == null) {
+			throw new IllegalArgumentException();
+		}
+		if (size - tailOffset(size) < WIDTH) {
+			Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+			newTail[tail.length] = value;
+			return new PersistentIndexedCollection(size + 1, shift, root, newTail);
+		}
+		TrieNode tailNode = new TrieNode(null, tail);
+		TrieNode newRoot;
+		int newShift = shift;
+		if ((size >>> BITS) > (1 << shift)) {
+			// the trie is full, add a level above the root
+			newRoot = new TrieNode(null, new Object[WIDTH]);
+			newRoot.array[0] = root;
+			newRoot.array[1] = newPath(null, shift, tailNode);
+			newShift += BITS;
+		} else {
+			newRoot = pushTail(null, size, shift, root, tailNode);
+		}
+		return new PersistentIndexedCollection(size + 1, newShift, newRoot, new Object[] { value });
+	}
+
+	/**
+	 * Returns a new version with the element at the given index replaced by
+	 * the given value. Only the path to the element is copied. Throws
+	 * IndexOutOfBoundsException if the index is not between 0 and size - 1,
+	 * and IllegalArgumentException if the value is null.
+	 *
+	 * @param index
+	 *            index of the replaced element
+	 * @param value
+	 *            new value of the element
+	 * @return new version of the collection
+	 */
+	public PersistentIndexedCollection set(int index, Object value) {
+		if (value == null) {
+			throw new IllegalArgumentException();
+		}
+		if (index < 0 || index > size - 1) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (index >= tailOffset(size)) {
+			Object[] newTail = tail.clone();
+			newTail[index & MASK] = value;
+			return new PersistentIndexedCollection(size, shift, root, newTail);
+		}
+		return new PersistentIndexedCollection(size, shift, assoc(null, shift, root, index, value), tail);
+	}
+
+	/**
+	 * Returns a new version with the given value inserted at the given
+	 * position. Elements at position and at greater positions get their index
+	 * increased by one. Inserting at the end is the same as add, while
+	 * inserting elsewhere rebuilds the collection in O(n) time. The legal
+	 * positions are 0 to size. IndexOutOfBoundsException is thrown if position
+	 * is invalid. If the given value is null, IllegalArgumentException is
+	 * thrown.
+	 *
+	 * @param value
+	 *            object to be inserted
+	 * @param position
+	 *            position in which value should be inserted
+	 * @return new version of the collection
+	 */
+	public PersistentIndexedCollection insert(Object value, int position) {
+		if (value == null) {
+			throw new IllegalArgumentException();
+		}
+		if (position < 0 || position > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (position == size) {
+			return add(value);
+		}
+		Builder builder = new PersistentIndexedCollection().builder();
+		for (int i = 0; i < position; ++i) {
+			builder.add(get(i));
+		}
+		builder.add(value);
+		for (int i = position; i < size; ++i) {
+			builder.add(get(i));
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Returns a new version without the element at the given index. Removing
+	 * the last element copies at most the path to the last leaf, while
+	 * removing elsewhere rebuilds the collection in O(n) time. Throws
+	 * IndexOutOfBoundsException if the given index is not between 0 and size -
+	 * 1.
+	 *
+	 * @param index
+	 *            index of element to be removed
+	 * @return new version of the collection
+	 */
+	public PersistentIndexedCollection remove(int index) {
+		if (index < 0 || index > size - 1) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (index == size - 1) {
+			return removeLast();
+		}
+		Builder builder = new PersistentIndexedCollection().builder();
+		for (int i = 0; i < size; ++i) {
+			if (i != index) {
+				builder.add(get(i));
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Returns true only if the collection contains the given value, as
+	 * determined by the method equals.
+	 *
+	 * @param value
+	 *            object being looked for
+	 * @return true only if collection contains given value
+	 */
+	public boolean contains(Object value) {
+		return indexOf(value) != -1;
+	}
+
+	/**
+	 * Searches the collection and returns the index of the first occurrence of
+	 * the given value or -1 if the value is not found. The elements are
+	 * scanned a leaf at a time.
+	 *
+	 * @param value
+	 *            object the index of which is being looked for
+	 * @return index of the object being searched for
+	 */
+	public int indexOf(Object value) {
+		for (int start = 0; start < size; start += WIDTH) {
+			Object[] leaf = leafFor(start);
+			for (int i = 0, n = Math.min(WIDTH, size - start); i < n; ++i) {
+				if (leaf[i].equals(value)) {
+					return start + i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Allocates new array with size equals to the size of this collection,
+	 * fills it with collection content and returns the array. The elements
+	 * are copied a leaf at a time.
+	 *
+	 * @return array with elements of the collection
+	 */
+	public Object[] toArray() {
+		Object[] array = new Object[size];
+		for (int start = 0; start < size; start += WIDTH) {
+			System.arraycopy(leafFor(start), 0, array, start, Math.min(WIDTH, size - start));
+		}
+		return array;
+	}
+
+	/**
+	 * Calls the process method of the given processor instance for each element
+	 * of this collection.
+	 *
+	 * @param processor
+	 *            processor instance with the processing method to be called
+	 */
+	public void forEach(Processor processor) {
+		for (int start = 0; start < size; start += WIDTH) {
+			Object[] leaf = leafFor(start);
+			for (int i = 0, n = Math.min(WIDTH, size - start); i < n; ++i) {
+				processor.process(leaf[i]);
+			}
+		}
+	}
+
+	/**
+	 * Returns a spliterator over the elements of this version. It splits its
+	 * range of indexes in halves, so parallel streams get balanced parts, and
+	 * the version never changes, so it can be traversed while newer versions
+	 * are being created.
+	 *
+	 * @return spliterator over the elements
+	 */
+	public Spliterator<Object> spliterator() {
+		return new TrieSpliterator(0, size);
+	}
+
+	/**
+	 * Returns a sequential stream of the elements of this collection.
+	 *
+	 * @return sequential stream of the elements
+	 */
+	public Stream<Object> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * Returns a parallel stream of the elements of this collection.
+	 *
+	 * @return parallel stream of the elements
+	 */
+	public Stream<Object> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+
+	/**
+	 * Returns a mutable builder which starts with the elements of this version,
+	 * in constant time. This version is not affected by the builder.
+	 *
+	 * @return new builder
+	 */
+	public Builder builder() {
+		return new Builder(this);
+	}
+
+	/**
+	 * Returns a new version without the last element.
+	 *
+	 * @return new version of the collection
+	 */
+	private PersistentIndexedCollection removeLast() {
+		if (size == 1) {
+			return new PersistentIndexedCollection();
+		}
+		if (size - tailOffset(size) > 1) {
+			return new PersistentIndexedCollection(size - 1, shift, root, Arrays.copyOf(tail, tail.length - 1));
+		}
+		// the tail becomes empty, so the last leaf of the trie becomes the tail
+		Object[] newTail = leafFor(size - 2);
+		TrieNode newRoot = popTail(shift, root);
+		int newShift = shift;
+		if (newRoot == null) {
+			newRoot = EMPTY_NODE;
+		}
+		if (shift > BITS && newRoot.array[1] == null) {
+			newRoot = (TrieNode) newRoot.array[0];
+			newShift -= BITS;
+		}
+		return new PersistentIndexedCollection(size - 1, newShift, newRoot, newTail);
+	}
+
+	/**
+	 * Returns a copy of the given node without the last leaf of the trie.
+	 *
+	 * @param level
+	 *            number of index bits below the node
+	 * @param node
+	 *            node on the path to the last leaf
+	 * @return copy of the node, or null if it would have no children
+	 */
+	private TrieNode popTail(int level, TrieNode node) {
+		int child = ((size - 2) >>> level) & MASK;
+		if (level > BITS) {
+			TrieNode newChild = popTail(level - BITS, (TrieNode) node.array[child]);
+			if (newChild == null && child == 0) {
+				return null;
+			}
+			TrieNode copy = new TrieNode(null, node.array.clone());
+			copy.array[child] = newChild;
+			return copy;
+		}
+		if (child == 0) {
+			return null;
+		}
+		TrieNode copy = new TrieNode(null, node.array.clone());
+		copy.array[child] = null;
+		return copy;
+	}
+
+	/**
+	 * Returns the leaf array holding the element at the given valid index.
+	 *
+	 * @param index
+	 *            index of an element
+	 * @return tail or leaf holding the element
+	 */
+	private Object[] leafFor(int index) {
+		return index >= tailOffset(size) ? tail : leafFor(root, shift, index);
+	}
+
+	/**
+	 * Walks from the given node down to the leaf holding the element at the
+	 * given index.
+	 *
+	 * @param node
+	 *            root of the trie
+	 * @param shift
+	 *            number of index bits below the root
+	 * @param index
+	 *            index of an element in the trie
+	 * @return leaf holding the element
+	 */
+	private static Object[] leafFor(TrieNode node, int shift, int index) {
+		for (int level = shift; level > 0; level -= BITS) {
+			node = (TrieNode) node.array[(index >>> level) & MASK];
+		}
+		return node.array;
+	}
+
+	/**
+	 * Returns the index of the first element in the tail of a collection of
+	 * the given size.
+	 *
+	 * @param size
+	 *            number of elements
+	 * @return number of elements in the trie
+	 */
+	private static int tailOffset(int size) {
+		return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+	}
+
+	/**
+	 * Returns the node if it may be changed by the given owner, or a copy of
+	 * it owned by the owner.
+	 *
+	 * @param owner
+	 *            builder which changes nodes, or null for persistent versions
+	 * @param node
+	 *            node to be changed
+	 * @return node which may be changed in place
+	 */
+	private static TrieNode editable(Object owner, TrieNode node) {
+		if (owner != null && node.owner == owner) {
+			return node;
+		}
+		return new TrieNode(owner, node.array.clone());
+	}
+
+	/**
+	 * Creates a chain of nodes from the given level down to the given leaf.
+	 *
+	 * @param owner
+	 *            owner of the new nodes, or null
+	 * @param level
+	 *            number of index bits below the top node of the chain
+	 * @param leaf
+	 *            leaf at the bottom of the chain
+	 * @return top node of the chain
+	 */
+	private static TrieNode newPath(Object owner, int level, TrieNode leaf) {
+		if (level == 0) {
+			return leaf;
+		}
+		TrieNode node = new TrieNode(owner, new Object[WIDTH]);
+		node.array[0] = newPath(owner, level - BITS, leaf);
+		return node;
+	}
+
+	/**
+	 * Adds the full tail of a collection of the given size as the next leaf
+	 * of the trie below the given node.
+	 *
+	 * @param owner
+	 *            owner of the changed nodes, or null
+	 * @param size
+	 *            number of elements including the full tail
+	 * @param level
+	 *            number of index bits below the node
+	 * @param parent
+	 *            node on the path to the new leaf
+	 * @param tailNode
+	 *            leaf made of the tail
+	 * @return changed node
+	 */
+	private static TrieNode pushTail(Object owner, int size, int level, TrieNode parent, TrieNode tailNode) {
+		TrieNode node = editable(owner, parent);
+		int child = ((size - 1) >>> level) & MASK;
+		TrieNode inserted;
+		if (level == BITS) {
+			inserted = tailNode;
+		} else {
+			TrieNode existing = (TrieNode) node.array[child];
+			inserted = existing != null ? pushTail(owner, size, level - BITS, existing, tailNode)
+					: newPath(owner, level - BITS, tailNode);
+		}
+		node.array[child] = inserted;
+		return node;
+	}
+
+	/**
+	 * Replaces the element at the given index below the given node.
+	 *
+	 * @param owner
+	 *            owner of the changed nodes, or null
+	 * @param level
+	 *            number of index bits below the node
+	 * @param node
+	 *            node on the path to the element
+	 * @param index
+	 *            index of the element
+	 * @param value
+	 *            new value of the element
+	 * @return changed node
+	 */
+	private static TrieNode assoc(Object owner, int level, TrieNode node, int index, Object value) {
+		TrieNode copy = editable(owner, node);
+		if (level == 0) {
+			copy.array[index & MASK] = value;
+		} else {
+			int child = (index >>> level) & MASK;
+			copy.array[child] = assoc(owner, level - BITS, (TrieNode) node.array[child], index, value);
+		}
+		return copy;
+	}
+
+	/**
+	 * Copies all elements of the given collection into a new version through
+	 * a builder.
+	 *
+	 * @param other
+	 *            collection to be copied from
+	 * @return new version holding the elements
+	 */
+	private static PersistentIndexedCollection build(Collection other) {
+		final Builder builder = new PersistentIndexedCollection().builder();
+		class AddingProcessor extends Processor {
+			@Override
+			public void process(Object value) {
+				builder.add(value);
+			}
+		}
+		other.forEach(new AddingProcessor());
+		return builder.build();
+	}
+
+	/**
+	 * Mutable builder of a new version of the collection. The builder changes
+	 * the tail and the nodes it created in place, and copies a node shared
+	 * with a persistent version only the first time it changes it, so adding
+	 * n elements allocates about n / 32 small arrays. Calling
+	 * {@link #build()} returns the new version in constant time, after which
+	 * the builder can no longer be used. A builder is not thread-safe.
+	 *
+	 * @author labramusic
+	 *
+	 */
+	public static class Builder {
+
+		/**
+		 * Identity of this builder stored in the nodes it may change, null
+		 * once the version is built.
+		 */
+		private Object owner = new Object();
+
+		/**
+		 * Number of elements.
+		 */
+		private int size;
+
+		/**
+		 * Number of index bits below the root level.
+		 */
+		private int shift;
+
+		/**
+		 * Root of the trie.
+		 */
+		private TrieNode root;
+
+		/**
+		 * Last elements, in an array of 32 places.
+		 */
+		private Object[] tail;
+
+		/**
+		 * Constructor which starts with the elements of the given version.
+		 *
+		 * @param version
+		 *            version the builder starts with
+		 */
+		private Builder(PersistentIndexedCollection version) {
+			size = version.size;
+			shift = version.shift;
+			root = version.root;
+			tail = Arrays.copyOf(version.tail, WIDTH);
+		}
+
+		/**
+		 * Returns the number of elements.
+		 *
+		 * @return number of elements
+		 */
+		public int size() {
+			ensureEditable();
+			return size;
+		}
+
+		/**
+		 * Returns the element at the given index. Valid indexes are 0 to
+		 * size-1. Throws IndexOutOfBoundsException if index is invalid.
+		 *
+		 * @param index
+		 *            index of desired element
+		 * @return element at given index
+		 */
+		public Object get(int index) {
+			ensureEditable();
+			if (index < 0 || index > size - 1) {
+				throw new IndexOutOfBoundsException();
+			}
+			Object[] leaf = index >= tailOffset(size) ? tail : leafFor(root, shift, index);
+			return leaf[index & MASK];
+		}
+
+		/**
+		 * Adds the given value at the end. Throws IllegalArgumentException if
+		 * a null value is attempted to be added.
+		 *
+		 * @param value
+		 *            object to be added
+		 * @return this builder
+		 */
+		public Builder add(Object value) {
+			ensureEditable();
+			if (value == null) {
+				throw new IllegalArgumentException();
+			}
+			if (size - tailOffset(size) < WIDTH) {
+				tail[size & MASK] = value;
+				++size;
+				return this;
+			}
+			TrieNode tailNode = new TrieNode(owner, tail);
+			tail = new Object[WIDTH];
+			tail[0] = value;
+			if ((size >>> BITS) > (1 << shift)) {
+				TrieNode newRoot = new TrieNode(owner, new Object[WIDTH]);
+				newRoot.array[0] = root;
+				newRoot.array[1] = newPath(owner, shift, tailNode);
+				root = newRoot;
+				shift += BITS;
+			} else {
+				root = pushTail(owner, size, shift, root, tailNode);
+			}
+			++size;
+			return this;
+		}
+
+		/**
+		 * Replaces the element at the given index by the given value. Throws
+		 * IndexOutOfBoundsException if the index is not between 0 and size -
+		 * 1, and IllegalArgumentException if the value is null.
+		 *
+		 * @param index
+		 *            index of the replaced element
+		 * @param value
+		 *            new value of the element
+		 * @return this builder
+		 */
+		public Builder set(int index, Object value) {
+			ensureEditable();
+			if (value == null) {
+				throw new IllegalArgumentException();
+			}
+			if (index < 0 || index > size - 1) {
+				throw new IndexOutOfBoundsException();
+			}
+			if (index >= tailOffset(size)) {
+				tail[index & MASK] = value;
+			} else {
+				root = assoc(owner, shift, root, index, value);
+			}
+			return this;
+		}
+
+		/**
+		 * Returns the built version in constant time. The builder can no
+		 * longer be used afterwards, so the nodes it changed in place become
+		 * immutable.
+		 *
+		 * @return new version of the collection
+		 */
+		public PersistentIndexedCollection build() {
+			ensureEditable();
+			owner = null;
+			return new PersistentIndexedCollection(size, shift, root,
+					Arrays.copyOf(tail, size - tailOffset(size)));
+		}
+
+		/**
+		 * Throws IllegalStateException if the version has already been built.
+		 */
+		private void ensureEditable() {
+			if (owner == null) {
+				throw new IllegalStateException("Builder has already built its version.");
+			}
+		}
+	}
+
+	/**
+	 * Spliterator over a range of indexes of the collection.
+	 *
+	 * @author labramusic
+	 *
+	 */
+	private class TrieSpliterator extends RangeSpliterator {
+
+		/**
+		 * Constructor.
+		 *
+		 * @param index
+		 *            index of the first element, inclusive
+		 * @param fence
+		 *            index after the last element, exclusive
+		 */
+		TrieSpliterator(int index, int fence) {
+			super(index, fence);
+		}
+
+		@Override
+		Object element(int index) {
+			return leafFor(index)[index & MASK];
+		}
+
+		@Override
+		RangeSpliterator slice(int index, int fence) {
+			return new TrieSpliterator(index, fence);
+		}
+
+		@Override
+		public int characteristics() {
+			return super.characteristics() | Spliterator.IMMUTABLE;
+		}
+	}
+
+}
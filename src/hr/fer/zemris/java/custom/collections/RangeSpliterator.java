@@ -0,0 +1,97 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over a range of indexes of a collection whose elements are
+ * retrieved by index in constant time. Splitting halves the range, so parallel
+ * streams get balanced parts.
+ *
+ * @author labramusic
+ *
+ */
+abstract class RangeSpliterator implements Spliterator<Object> {
+
+	/**
+	 * Index of the next element, inclusive.
+	 */
+	private int index;
+
+	/**
+	 * Index after the last element, exclusive.
+	 */
+	private final int fence;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param index
+	 *            index of the first element, inclusive
+	 * @param fence
+	 *            index after the last element, exclusive
+	 */
+	RangeSpliterator(int index, int fence) {
+		this.index = index;
+		this.fence = fence;
+	}
+
+	/**
+	 * Returns the element at the given index.
+	 *
+	 * @param index
+	 *            index of the element
+	 * @return element at the given index
+	 */
+	abstract Object element(int index);
+
+	/**
+	 * Creates a spliterator of the same collection over the given range.
+	 *
+	 * @param index
+	 *            index of the first element, inclusive
+	 * @param fence
+	 *            index after the last element, exclusive
+	 * @return new spliterator
+	 */
+	abstract RangeSpliterator slice(int index, int fence);
+
+	@Override
+	public boolean tryAdvance(Consumer<? super Object> action) {
+		if (index >= fence) {
+			return false;
+		}
+		action.accept(element(index++));
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super Object> action) {
+		for (int i = index; i < fence; ++i) {
+			action.accept(element(i));
+		}
+		index = fence;
+	}
+
+	@Override
+	public Spliterator<Object> trySplit() {
+		int middle = (index + fence) >>> 1;
+		if (middle <= index) {
+			return null;
+		}
+		Spliterator<Object> prefix = slice(index, middle);
+		index = middle;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return fence - index;
+	}
+
+	@Override
+	public int characteristics() {
+		return Collection.SPLITERATOR_CHARACTERISTICS;
+	}
+
+}
@@ -0,0 +1,140 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes objects into fixed-width binary records and decodes them back. Used
+ * by OffHeapIndexedCollection to store its elements outside of the heap.
+ * Encoding must be canonical: two objects must be encoded into the same bytes
+ * exactly when they are equal, since the collection searches for elements by
+ * comparing their records.
+ *
+ * @author labramusic
+ *
+ */
+public abstract class RecordCodec {
+
+	/**
+	 * Codec for Integer objects, 4 bytes per record.
+	 */
+	public static final RecordCodec INTEGER = new RecordCodec(Integer.BYTES) {
+
+		@Override
+		public void write(ByteBuffer buffer, int offset, Object value) {
+			buffer.putInt(offset, (Integer) value);
+		}
+
+		@Override
+		public Object read(ByteBuffer buffer, int offset) {
+			return buffer.getInt(offset);
+		}
+	};
+
+	/**
+	 * Codec for Long objects, 8 bytes per record.
+	 */
+	public static final RecordCodec LONG = new RecordCodec(Long.BYTES) {
+
+		@Override
+		public void write(ByteBuffer buffer, int offset, Object value) {
+			buffer.putLong(offset, (Long) value);
+		}
+
+		@Override
+		public Object read(ByteBuffer buffer, int offset) {
+			return buffer.getLong(offset);
+		}
+	};
+
+	/**
+	 * Codec for Double objects, 8 bytes per record. Values are stored as the
+	 * bits returned by Double.doubleToLongBits, so that equality of records
+	 * matches Double.equals.
+	 */
+	public static final RecordCodec DOUBLE = new RecordCodec(Double.BYTES) {
+
+		@Override
+		public void write(ByteBuffer buffer, int offset, Object value) {
+			buffer.putLong(offset, Double.doubleToLongBits((Double) value));
+		}
+
+		@Override
+		public Object read(ByteBuffer buffer, int offset) {
+			return Double.longBitsToDouble(buffer.getLong(offset));
+		}
+	};
+
+	/**
+	 * Number of bytes of a single record.
+	 */
+	private final int recordSize;
+
+	/**
+	 * Constructor which sets the size of records.
+	 *
+	 * @param recordSize
+	 *            number of bytes of a single record, at least 1
+	 */
+	protected RecordCodec(int recordSize) {
+		if (recordSize < 1) {
+			throw new IllegalArgumentException("Record size must be at least 1.");
+		}
+		this.recordSize = recordSize;
+	}
+
+	/**
+	 * Returns the number of bytes of a single record.
+	 *
+	 * @return size of a record in bytes
+	 */
+	public final int recordSize() {
+		return recordSize;
+	}
+
+	/**
+	 * Encodes the value into the record starting at the given offset of the
+	 * buffer. Absolute put methods of the buffer should be used, so that its
+	 * position is left unchanged.
+	 *
+	 * @param buffer
+	 *            buffer holding the record
+	 * @param offset
+	 *            offset of the first byte of the record
+	 * @param value
+	 *            value to be encoded, never null
+	 */
+	public abstract void write(ByteBuffer buffer, int offset, Object value);
+
+	/**
+	 * Decodes a new object from the record starting at the given offset of the
+	 * buffer.
+	 *
+	 * @param buffer
+	 *            buffer holding the record
+	 * @param offset
+	 *            offset of the first byte of the record
+	 * @return decoded object
+	 */
+	public abstract Object read(ByteBuffer buffer, int offset);
+
+	/**
+	 * Decodes the record starting at the given offset of the buffer into an
+	 * existing mutable object, which allows traversing a collection without
+	 * allocating an object per element. The codecs of immutable types, such as
+	 * INTEGER, LONG and DOUBLE, have nothing to decode into, so the default
+	 * implementation throws UnsupportedOperationException. Codecs with a
+	 * mutable counterpart override it, for example ComplexNumberRecordCodec,
+	 * which decodes into a ComplexAccumulator.
+	 *
+	 * @param buffer
+	 *            buffer holding the record
+	 * @param offset
+	 *            offset of the first byte of the record
+	 * @param target
+	 *            object the record is decoded into
+	 */
+	public void readInto(ByteBuffer buffer, int offset, Object target) {
+		throw new UnsupportedOperationException();
+	}
+
+}
@@ -0,0 +1,335 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * Implementation of a resizable array-backed collection which keeps its
+ * elements sorted by a comparator. Elements are stored like in
+ * ArrayIndexedCollection, but contains, indexOf and remove(Object) find them by
+ * binary search in O(log n) time, and addAll sorts the added elements and
+ * merges them into the array in a single linear pass. Elements are compared
+ * only by the comparator, so it should be consistent with equals. The general
+ * contract of this collection is that it allows duplicate elements, which are
+ * kept in the order they were added, and doesn't allow storage of null
+ * references.
+ *
+ * @author labramusic
+ *
+ */
+public class SortedArrayIndexedCollection extends Collection {
+
+	/**
+	 * The default initial capacity.
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Comparator which orders the elements.
+	 */
+	private final Comparator<Object> comparator;
+
+	/**
+	 * Number of elements currently stored in the collection.
+	 */
+	private int size;
+
+	/**
+	 * An array of object references used as storage of elements, sorted in
+	 * slots 0 to size - 1.
+	 */
+	private Object[] elements;
+
+	/**
+	 * Constructor which creates an empty collection ordering its elements by
+	 * their natural ordering. The elements must implement Comparable.
+	 */
+	public SortedArrayIndexedCollection() {
+		this(null);
+	}
+
+	/**
+	 * Constructor which creates an empty collection ordering its elements by
+	 * the given comparator, or by their natural ordering if the comparator is
+	 * null.
+	 *
+	 * @param comparator
+	 *            comparator of the elements or null
+	 */
+	public SortedArrayIndexedCollection(Comparator<?> comparator) {
+		this(comparator, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor which creates an empty collection with the given capacity,
+	 * ordering its elements by the given comparator, or by their natural
+	 * ordering if the comparator is null. Throws IllegalArgumentException if
+	 * the given capacity is less than 1.
+	 *
+	 * @param comparator
+	 *            comparator of the elements or null
+	 * @param initialCapacity
+	 *            initial array capacity
+	 */
+	@SuppressWarnings("unchecked")
+	public SortedArrayIndexedCollection(Comparator<?> comparator, int initialCapacity) {
+		if (initialCapacity < 1) {
+			throw new IllegalArgumentException("Capacity must be at least 1.");
+		}
+		if (comparator == null) {
+			comparator = Comparator.naturalOrder();
+		}
+		this.comparator = (Comparator<Object>) comparator;
+		elements = new Object[initialCapacity];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Adds the object at its place in the sorted order, after all elements
+	 * equal to it. The place is found by binary search, while the elements
+	 * after it are shifted one place toward the end. Throws
+	 * IllegalArgumentException if a null value is attempted to be added.
+	 */
+	@Override
+	public void add(Object value) {
+		if (value == null) {
+			throw new IllegalArgumentException();
+		}
+		int position = insertionPoint(value);
+		if (size == elements.length) {
+			grow(size + 1);
+		}
+		System.arraycopy(elements, position, elements, position + 1, size - position);
+		elements[position] = value;
+		++size;
+	}
+
+	@Override
+	public boolean contains(Object value) {
+		return indexOf(value) != -1;
+	}
+
+	@Override
+	public boolean remove(Object value) {
+		int index = indexOf(value);
+		if (index == -1) {
+			return false;
+		}
+		remove(index);
+		return true;
+	}
+
+	/**
+	 * Removes the element at the given index and shifts the elements after it
+	 * one place backwards. Throws IndexOutOfBoundsException if the given index
+	 * is not between 0 and size - 1.
+	 *
+	 * @param index
+	 *            index of element to be removed
+	 */
+	public void remove(int index) {
+		if (index < 0 || index > size - 1) {
+			throw new IndexOutOfBoundsException();
+		}
+		System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+		elements[--size] = null;
+	}
+
+	@Override
+	public Object[] toArray() {
+		return Arrays.copyOf(elements, size);
+	}
+
+	@Override
+	public void forEach(Processor processor) {
+		for (int i = 0; i < size; ++i) {
+			processor.process(elements[i]);
+		}
+	}
+
+	@Override
+	public Spliterator<Object> spliterator() {
+		return Spliterators.spliterator(elements, 0, size, SPLITERATOR_CHARACTERISTICS);
+	}
+
+	/**
+	 * Adds all elements from the given collection. The added elements are
+	 * copied into an array by the forEach method of the other collection and
+	 * sorted, and the sorted run is then merged with the elements of this
+	 * collection from the back of the elements array, so every element is
+	 * moved at most once. Throws IllegalArgumentException if the other
+	 * collection is null or contains null.
+	 */
+	@Override
+	public void addAll(Collection other) {
+		if (other == null) {
+			throw new IllegalArgumentException();
+		}
+		Object[] batch = copyElements(other);
+		for (Object value : batch) {
+			if (value == null) {
+				throw new IllegalArgumentException();
+			}
+		}
+		Arrays.sort(batch, comparator);
+		if (size + batch.length > elements.length) {
+			grow(size + batch.length);
+		}
+		int i = size - 1;
+		int j = batch.length - 1;
+		int k = size + batch.length - 1;
+		while (j >= 0) {
+			// equal elements of the batch are placed after the existing ones
+			if (i >= 0 && comparator.compare(elements[i], batch[j]) > 0) {
+				elements[k--] = elements[i--];
+			} else {
+				elements[k--] = batch[j--];
+			}
+		}
+		size += batch.length;
+	}
+
+	/**
+	 * Removes all elements accepted by the given tester in a single pass. The
+	 * remaining elements stay sorted.
+	 */
+	@Override
+	public boolean removeIf(Tester tester) {
+		int kept = 0;
+		for (int i = 0; i < size; ++i) {
+			Object value = elements[i];
+			if (!tester.test(value)) {
+				elements[kept++] = value;
+			}
+		}
+		if (kept == size) {
+			return false;
+		}
+		Arrays.fill(elements, kept, size, null);
+		size = kept;
+		return true;
+	}
+
+	/**
+	 * Returns the object that is stored at the given index, the element with
+	 * exactly index smaller elements. Valid indexes are 0 to size-1. Throws
+	 * IndexOutOfBoundsException if index is invalid.
+	 *
+	 * @param index
+	 *            index of desired element
+	 * @return element at given index
+	 */
+	public Object get(int index) {
+		if (index < 0 || index > size - 1) {
+			throw new IndexOutOfBoundsException();
+		}
+		return elements[index];
+	}
+
+	/**
+	 * Removes all elements by clearing the references in place.
+	 */
+	@Override
+	public void clear() {
+		Arrays.fill(elements, 0, size, null);
+		size = 0;
+	}
+
+	/**
+	 * Returns the index of the first element equal to the given value by the
+	 * comparator, or -1 if there is none. The element is found by binary
+	 * search in O(log n) time. A value which the comparator cannot compare
+	 * with the elements is not contained in the collection, so -1 is returned
+	 * when the comparator throws ClassCastException.
+	 *
+	 * @param value
+	 *            object the index of which is being looked for
+	 * @return index of the object being searched for
+	 */
+	public int indexOf(Object value) {
+		if (value == null) {
+			return -1;
+		}
+		try {
+			int index = lowerBound(value);
+			return index < size && comparator.compare(elements[index], value) == 0 ? index : -1;
+		} catch (ClassCastException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Returns the index at which the given value would be added, the number of
+	 * elements smaller than or equal to it. Throws IllegalArgumentException if
+	 * the value is null.
+	 *
+	 * @param value
+	 *            value whose place is looked for
+	 * @return insertion point of the value
+	 */
+	public int insertionPoint(Object value) {
+		if (value == null) {
+			throw new IllegalArgumentException();
+		}
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (comparator.compare(elements[middle], value) <= 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the comparator which orders the elements.
+	 *
+	 * @return comparator of the elements
+	 */
+	public Comparator<Object> comparator() {
+		return comparator;
+	}
+
+	/**
+	 * Returns the index of the first element not smaller than the given value.
+	 *
+	 * @param value
+	 *            value whose place is looked for
+	 * @return number of elements smaller than the value
+	 */
+	private int lowerBound(Object value) {
+		int low = 0;
+		int high = size;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (comparator.compare(elements[middle], value) < 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Reallocates the elements array so that it can hold at least the given
+	 * number of elements. The capacity is doubled, or set to the required
+	 * number of elements if doubling is not enough.
+	 *
+	 * @param minCapacity
+	 *            required capacity
+	 */
+	private void grow(int minCapacity) {
+		elements = Arrays.copyOf(elements, GrowthStrategy.DOUBLING.newCapacity(elements.length, minCapacity));
+	}
+
+}
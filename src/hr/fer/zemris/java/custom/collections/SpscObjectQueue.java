@@ -0,0 +1,180 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for a single producer thread and a single consumer
+ * thread. At most one thread may offer and at most one thread may poll at any
+ * time, while the two may run concurrently. Since each index has a single
+ * writer, neither side ever needs compare-and-set: a value is stored into the
+ * buffer and then published by an ordered write of the tail index, and a
+ * consumer frees its slot by an ordered write of the head index.
+ * <p>
+ * Each side also keeps a private copy of the other side's index and reads the
+ * shared one only when its copy says the queue is full or empty, so in the
+ * steady state the producer and consumer touch each other's cache lines once
+ * per buffer length instead of once per value.
+ *
+ * @author labramusic
+ *
+ */
+public class SpscObjectQueue extends BoundedObjectQueue {
+
+	/**
+	 * Index of the tail in the indexes array, written by the producer.
+	 */
+	private static final int TAIL = PADDING;
+
+	/**
+	 * Index of the head in the indexes array, written by the consumer.
+	 */
+	private static final int HEAD = 3 * PADDING;
+
+	/**
+	 * Index of the producer's copy of the head in the caches array.
+	 */
+	private static final int HEAD_CACHE = PADDING;
+
+	/**
+	 * Index of the consumer's copy of the tail in the caches array.
+	 */
+	private static final int TAIL_CACHE = 3 * PADDING;
+
+	/**
+	 * The circular buffer of values, its length a power of two.
+	 */
+	private final AtomicReferenceArray<Object> buffer;
+
+	/**
+	 * Mask which wraps an index around the buffer.
+	 */
+	private final int mask;
+
+	/**
+	 * Counts of offered and polled values, padded apart.
+	 */
+	private final AtomicLongArray indexes = new AtomicLongArray(4 * PADDING);
+
+	/**
+	 * Private copies of the other side's index, padded apart.
+	 */
+	private final long[] caches = new long[4 * PADDING];
+
+	/**
+	 * Constructor which creates an empty queue which can hold at least the
+	 * given number of values. The capacity is rounded up to a power of two.
+	 * Throws IllegalArgumentException if the given capacity is less than 1 or
+	 * greater than 2^30.
+	 *
+	 * @param capacity
+	 *            minimum capacity of the queue
+	 */
+	public SpscObjectQueue(int capacity) {
+		if (capacity < 1 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("Capacity must be between 1 and 2^30.");
+		}
+		buffer = new AtomicReferenceArray<>(powerOfTwo(capacity));
+		mask = buffer.length() - 1;
+	}
+
+	@Override
+	public int capacity() {
+		return buffer.length();
+	}
+
+	@Override
+	public int size() {
+		long head = indexes.get(HEAD);
+		long tail = indexes.get(TAIL);
+		return (int) Math.max(0, Math.min(tail - head, buffer.length()));
+	}
+
+	@Override
+	public boolean offer(Object value) {
+		if (value == null) {
+			throw new IllegalArgumentException();
+		}
+		return offerAll(value, null, 0, 1) == 1;
+	}
+
+	@Override
+	public Object poll() {
+		long head = indexes.get(HEAD);
+		if (head >= caches[TAIL_CACHE]) {
+			caches[TAIL_CACHE] = indexes.get(TAIL);
+			if (head >= caches[TAIL_CACHE]) {
+				return null;
+			}
+		}
+		int slot = (int) head & mask;
+		Object value = buffer.get(slot);
+		buffer.lazySet(slot, null);
+		indexes.lazySet(HEAD, head + 1);
+		return value;
+	}
+
+	/**
+	 * Adds values from the given range of the array with a single publication
+	 * of the tail index.
+	 */
+	@Override
+	public int offerAll(Object[] values, int offset, int count) {
+		checkValues(values, offset, count);
+		return offerAll(null, values, offset, count);
+	}
+
+	/**
+	 * Removes values with a single update of the head index.
+	 */
+	@Override
+	public int drainTo(Object[] target, int offset, int max) {
+		checkRange(target, offset, max);
+		long head = indexes.get(HEAD);
+		if (head + max > caches[TAIL_CACHE]) {
+			caches[TAIL_CACHE] = indexes.get(TAIL);
+		}
+		int count = (int) Math.min(max, caches[TAIL_CACHE] - head);
+		for (int i = 0; i < count; ++i) {
+			int slot = (int) (head + i) & mask;
+			target[offset + i] = buffer.get(slot);
+			buffer.lazySet(slot, null);
+		}
+		if (count > 0) {
+			indexes.lazySet(HEAD, head + count);
+		}
+		return count;
+	}
+
+	/**
+	 * Adds the single value, or the values of the given range if the single
+	 * value is null, and publishes them with a single write of the tail index.
+	 *
+	 * @param single
+	 *            single value to be added, or null
+	 * @param values
+	 *            array of values to be added, used if single is null
+	 * @param offset
+	 *            index in the array of the first value
+	 * @param count
+	 *            number of values to be added
+	 * @return number of added values
+	 */
+	private int offerAll(Object single, Object[] values, int offset, int count) {
+		long tail = indexes.get(TAIL);
+		long limit = caches[HEAD_CACHE] + buffer.length();
+		if (tail + count > limit) {
+			caches[HEAD_CACHE] = indexes.get(HEAD);
+			limit = caches[HEAD_CACHE] + buffer.length();
+		}
+		int added = (int) Math.min(count, limit - tail);
+		for (int i = 0; i < added; ++i) {
+			buffer.lazySet((int) (tail + i) & mask, single != null ? single : values[offset + i]);
+		}
+		if (added > 0) {
+			indexes.lazySet(TAIL, tail + added);
+		}
+		return added;
+	}
+
+}
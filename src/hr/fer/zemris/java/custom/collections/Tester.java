@@ -0,0 +1,23 @@
+package hr.fer.zemris.java.custom.collections;
+
+/**
+ * A tester class which should be used to decide whether the given object is
+ * acceptable, by overriding the test method in its instances.
+ * 
+ * @author labramusic
+ *
+ */
+public class Tester {
+
+	/**
+	 * Tests the given object. Accepts no object unless overridden.
+	 * 
+	 * @param value
+	 *            object to be tested
+	 * @return true if the object is accepted, false otherwise
+	 */
+	public boolean test(Object value) {
+		return false;
+	}
+
+}
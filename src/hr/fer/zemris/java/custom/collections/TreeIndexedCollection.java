@@ -0,0 +1,557 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Implementation of a collection of objects backed by a balanced binary tree.
+ * Elements are kept in the in-order sequence of an AVL tree, and every node
+ * stores the size of its subtree, so the node at any index is found by a
+ * single walk from the root. Retrieving, inserting and removing at an index
+ * therefore all take O(log n) time, which suits workloads with many accesses
+ * at arbitrary positions of a large collection. The general contract of this
+ * collection is that it allows duplicate elements and doesn't allow storage of
+ * null references.
+ *
+ * @author labramusic
+ *
+ */
+public class TreeIndexedCollection extends Collection {
+
+	/**
+	 * A node of the tree.
+	 *
+	 * @author labramusic
+	 *
+	 */
+	private static class TreeNode {
+
+		/**
+		 * Root of the subtree of elements before this one.
+		 */
+		TreeNode left;
+
+		/**
+		 * Root of the subtree of elements after this one.
+		 */
+		TreeNode right;
+
+		/**
+		 * Data which the node contains.
+		 */
+		Object data;
+
+		/**
+		 * Height of the subtree rooted at this node, 1 for a leaf.
+		 */
+		int height;
+
+		/**
+		 * Number of nodes in the subtree rooted at this node.
+		 */
+		int size;
+
+		/**
+		 * Constructor which creates a leaf holding the given data.
+		 *
+		 * @param data
+		 *            data of the node
+		 */
+		TreeNode(Object data) {
+			this.data = data;
+			height = 1;
+			size = 1;
+		}
+	}
+
+	/**
+	 * Root of the tree, null if the collection is empty.
+	 */
+	private TreeNode root;
+
+	/**
+	 * Default constructor which creates an empty collection.
+	 */
+	public TreeIndexedCollection() {
+	}
+
+	/**
+	 * Constructor which accepts a reference to some other collection the
+	 * elements of which are copied into this newly constructed collection.
+	 *
+	 * @param other
+	 *            collection to be copied from
+	 */
+	public TreeIndexedCollection(Collection other) {
+		addAll(other);
+	}
+
+	@Override
+	public int size() {
+		return size(root);
+	}
+
+	/**
+	 * Adds the object at the end of the collection in O(log n) time. Throws
+	 * IllegalArgumentException if a null value is attempted to be added.
+	 */
+	@Override
+	public void add(Object value) {
+		insert(value, size());
+	}
+
+	@Override
+	public boolean contains(Object value) {
+		return indexOf(value) != -1;
+	}
+
+	@Override
+	public boolean remove(Object value) {
+		int index = indexOf(value);
+		if (index == -1) {
+			return false;
+		}
+		remove(index);
+		return true;
+	}
+
+	/**
+	 * Removes the element at the given index in O(log n) time. Throws
+	 * IndexOutOfBoundsException if the given index is not between 0 and size -
+	 * 1.
+	 *
+	 * @param index
+	 *            index of element to be removed
+	 */
+	public void remove(int index) {
+		if (index < 0 || index > size() - 1) {
+			throw new IndexOutOfBoundsException();
+		}
+		root = remove(root, index);
+	}
+
+	@Override
+	public Object[] toArray() {
+		Object[] array = new Object[size()];
+		fill(root, array, 0);
+		return array;
+	}
+
+	@Override
+	public void forEach(Processor processor) {
+		forEach(root, processor);
+	}
+
+	/**
+	 * Returns a spliterator which traverses the tree in order, keeping the
+	 * path to the next node on a stack. Splitting copies a batch of elements
+	 * from the front into an array.
+	 */
+	@Override
+	public Spliterator<Object> spliterator() {
+		return new TreeSpliterator();
+	}
+
+	/**
+	 * Adds all elements from the given collection. The elements are first
+	 * copied into an array by the forEach method of the other collection. If
+	 * there are more of them than elements in this tree, the tree is rebuilt
+	 * from the elements of both in linear time. Otherwise the elements are
+	 * appended one by one. Throws IllegalArgumentException if the given
+	 * collection is null.
+	 */
+	@Override
+	public void addAll(Collection other) {
+		if (other == null) {
+			throw new IllegalArgumentException();
+		}
+		Object[] otherArray = copyElements(other);
+		if (otherArray.length > size()) {
+			Object[] array = new Object[size() + otherArray.length];
+			int start = fill(root, array, 0);
+			System.arraycopy(otherArray, 0, array, start, otherArray.length);
+			root = build(array, 0, array.length);
+		} else {
+			for (Object value : otherArray) {
+				add(value);
+			}
+		}
+	}
+
+	/**
+	 * Removes all elements accepted by the given tester. The remaining
+	 * elements are rebuilt into a perfectly balanced tree in linear time.
+	 */
+	@Override
+	public boolean removeIf(Tester tester) {
+		Object[] array = toArray();
+		int kept = 0;
+		for (Object value : array) {
+			if (!tester.test(value)) {
+				array[kept++] = value;
+			}
+		}
+		if (kept == array.length) {
+			return false;
+		}
+		root = build(array, 0, kept);
+		return true;
+	}
+
+	/**
+	 * Returns the object that is stored at the given index in O(log n) time.
+	 * Valid indexes are 0 to size-1. Throws IndexOutOfBoundsException if index
+	 * is invalid.
+	 *
+	 * @param index
+	 *            index of desired element
+	 * @return element at given index
+	 */
+	public Object get(int index) {
+		if (index < 0 || index > size() - 1) {
+			throw new IndexOutOfBoundsException();
+		}
+		TreeNode node = root;
+		while (true) {
+			int leftSize = size(node.left);
+			if (index < leftSize) {
+				node = node.left;
+			} else if (index > leftSize) {
+				index -= leftSize + 1;
+				node = node.right;
+			} else {
+				return node.data;
+			}
+		}
+	}
+
+	@Override
+	public void clear() {
+		root = null;
+	}
+
+	/**
+	 * Inserts (does not overwrite) the given value at the given position in
+	 * O(log n) time. Elements at position and at greater positions get their
+	 * index increased by one. The legal positions are 0 to size.
+	 * IndexOutOfBoundsException is thrown if position is invalid. If the given
+	 * value is null, IllegalArgumentException is thrown.
+	 *
+	 * @param value
+	 *            object to be inserted
+	 * @param position
+	 *            position in which value should be inserted
+	 */
+	public void insert(Object value, int position) {
+		if (value == null) {
+			throw new IllegalArgumentException();
+		}
+		if (position < 0 || position > size()) {
+			throw new IndexOutOfBoundsException();
+		}
+		root = insert(root, value, position);
+	}
+
+	/**
+	 * Searches the collection and returns the index of the first occurrence of
+	 * the given value or -1 if the value is not found. The tree is traversed in
+	 * order, so this takes linear time.
+	 *
+	 * @param value
+	 *            object the index of which is being looked for
+	 * @return index of the object being searched for
+	 */
+	public int indexOf(Object value) {
+		return indexOf(root, value, 0);
+	}
+
+	/**
+	 * Inserts the value at the given position of the given subtree.
+	 *
+	 * @param node
+	 *            root of the subtree, may be null
+	 * @param value
+	 *            value to be inserted
+	 * @param position
+	 *            position within the subtree
+	 * @return new root of the subtree
+	 */
+	private static TreeNode insert(TreeNode node, Object value, int position) {
+		if (node == null) {
+			return new TreeNode(value);
+		}
+		int leftSize = size(node.left);
+		if (position <= leftSize) {
+			node.left = insert(node.left, value, position);
+		} else {
+			node.right = insert(node.right, value, position - leftSize - 1);
+		}
+		return balance(node);
+	}
+
+	/**
+	 * Removes the element at the given index of the given subtree.
+	 *
+	 * @param node
+	 *            root of the subtree
+	 * @param index
+	 *            index within the subtree
+	 * @return new root of the subtree
+	 */
+	private static TreeNode remove(TreeNode node, int index) {
+		int leftSize = size(node.left);
+		if (index < leftSize) {
+			node.left = remove(node.left, index);
+		} else if (index > leftSize) {
+			node.right = remove(node.right, index - leftSize - 1);
+		} else {
+			if (node.left == null) {
+				return node.right;
+			}
+			if (node.right == null) {
+				return node.left;
+			}
+			// replace the data with the first element of the right subtree
+			TreeNode successor = node.right;
+			while (successor.left != null) {
+				successor = successor.left;
+			}
+			node.data = successor.data;
+			node.right = remove(node.right, 0);
+		}
+		return balance(node);
+	}
+
+	/**
+	 * Updates the height and size of the node and restores the AVL property
+	 * with at most two rotations, assuming both subtrees are balanced.
+	 *
+	 * @param node
+	 *            root of the subtree
+	 * @return new root of the subtree
+	 */
+	private static TreeNode balance(TreeNode node) {
+		int difference = height(node.left) - height(node.right);
+		if (difference > 1) {
+			if (height(node.left.left) < height(node.left.right)) {
+				node.left = rotateLeft(node.left);
+			}
+			return rotateRight(node);
+		}
+		if (difference < -1) {
+			if (height(node.right.right) < height(node.right.left)) {
+				node.right = rotateRight(node.right);
+			}
+			return rotateLeft(node);
+		}
+		update(node);
+		return node;
+	}
+
+	/**
+	 * Rotates the subtree to the left, making the right child its root.
+	 *
+	 * @param node
+	 *            root of the subtree
+	 * @return new root of the subtree
+	 */
+	private static TreeNode rotateLeft(TreeNode node) {
+		TreeNode right = node.right;
+		node.right = right.left;
+		right.left = node;
+		update(node);
+		update(right);
+		return right;
+	}
+
+	/**
+	 * Rotates the subtree to the right, making the left child its root.
+	 *
+	 * @param node
+	 *            root of the subtree
+	 * @return new root of the subtree
+	 */
+	private static TreeNode rotateRight(TreeNode node) {
+		TreeNode left = node.left;
+		node.left = left.right;
+		left.right = node;
+		update(node);
+		update(left);
+		return left;
+	}
+
+	/**
+	 * Recomputes the height and size of the node from its children.
+	 *
+	 * @param node
+	 *            node to be updated
+	 */
+	private static void update(TreeNode node) {
+		node.height = Math.max(height(node.left), height(node.right)) + 1;
+		node.size = size(node.left) + size(node.right) + 1;
+	}
+
+	/**
+	 * Returns the height of the subtree, 0 for an empty one.
+	 *
+	 * @param node
+	 *            root of the subtree or null
+	 * @return height of the subtree
+	 */
+	private static int height(TreeNode node) {
+		return node == null ? 0 : node.height;
+	}
+
+	/**
+	 * Returns the number of nodes in the subtree.
+	 *
+	 * @param node
+	 *            root of the subtree or null
+	 * @return size of the subtree
+	 */
+	private static int size(TreeNode node) {
+		return node == null ? 0 : node.size;
+	}
+
+	/**
+	 * Builds a perfectly balanced subtree of the elements in the given range of
+	 * the array.
+	 *
+	 * @param array
+	 *            array of elements
+	 * @param from
+	 *            index of the first element, inclusive
+	 * @param to
+	 *            index of the last element, exclusive
+	 * @return root of the built subtree, null if the range is empty
+	 */
+	private static TreeNode build(Object[] array, int from, int to) {
+		if (from >= to) {
+			return null;
+		}
+		int middle = (from + to) >>> 1;
+		TreeNode node = new TreeNode(array[middle]);
+		node.left = build(array, from, middle);
+		node.right = build(array, middle + 1, to);
+		update(node);
+		return node;
+	}
+
+	/**
+	 * Stores the elements of the subtree in order into the array.
+	 *
+	 * @param node
+	 *            root of the subtree or null
+	 * @param array
+	 *            destination array
+	 * @param start
+	 *            index at which the first element is stored
+	 * @return index after the last stored element
+	 */
+	private static int fill(TreeNode node, Object[] array, int start) {
+		while (node != null) {
+			start = fill(node.left, array, start);
+			array[start++] = node.data;
+			node = node.right;
+		}
+		return start;
+	}
+
+	/**
+	 * Calls the processor for the elements of the subtree in order.
+	 *
+	 * @param node
+	 *            root of the subtree or null
+	 * @param processor
+	 *            processor to be called
+	 */
+	private static void forEach(TreeNode node, Processor processor) {
+		while (node != null) {
+			forEach(node.left, processor);
+			processor.process(node.data);
+			node = node.right;
+		}
+	}
+
+	/**
+	 * Returns the index of the first occurrence of the value in the subtree.
+	 *
+	 * @param node
+	 *            root of the subtree or null
+	 * @param value
+	 *            value being looked for
+	 * @param start
+	 *            index of the first element of the subtree
+	 * @return index of the value or -1
+	 */
+	private static int indexOf(TreeNode node, Object value, int start) {
+		while (node != null) {
+			int index = indexOf(node.left, value, start);
+			if (index != -1) {
+				return index;
+			}
+			start += size(node.left);
+			if (node.data.equals(value)) {
+				return start;
+			}
+			++start;
+			node = node.right;
+		}
+		return -1;
+	}
+
+	/**
+	 * Spliterator which traverses the tree in order. The stack holds the nodes
+	 * whose left subtree is being traversed, and the tree is balanced, so its
+	 * height is enough for the stack. Splitting is inherited from
+	 * AbstractSpliterator, which copies batches of growing size into arrays.
+	 *
+	 * @author labramusic
+	 *
+	 */
+	private class TreeSpliterator extends Spliterators.AbstractSpliterator<Object> {
+
+		/**
+		 * Nodes whose element and right subtree are yet to be traversed.
+		 */
+		private final TreeNode[] stack = new TreeNode[height(root)];
+
+		/**
+		 * Number of nodes on the stack.
+		 */
+		private int depth;
+
+		/**
+		 * Constructor.
+		 */
+		TreeSpliterator() {
+			super(size(), SPLITERATOR_CHARACTERISTICS);
+			pushLeft(root);
+		}
+
+		/**
+		 * Pushes the given node and all nodes on the path to its leftmost
+		 * descendant onto the stack.
+		 *
+		 * @param node
+		 *            root of a subtree or null
+		 */
+		private void pushLeft(TreeNode node) {
+			for (; node != null; node = node.left) {
+				stack[depth++] = node;
+			}
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Object> action) {
+			if (depth == 0) {
+				return false;
+			}
+			TreeNode node = stack[--depth];
+			pushLeft(node.right);
+			action.accept(node.data);
+			return true;
+		}
+	}
+}
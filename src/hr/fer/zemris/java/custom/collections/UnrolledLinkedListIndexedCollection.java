@@ -0,0 +1,555 @@
+package hr.fer.zemris.java.custom.collections;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Implementation of an unrolled linked list-backed collection of objects. Every
+ * node of the list holds a small array of elements instead of a single one, so
+ * the per-element overhead of node headers and links is shared by many
+ * elements and traversal walks consecutive array slots instead of chasing a
+ * reference per element. A full node is split in two when an element is
+ * inserted into it, and a node which falls below a quarter of its capacity is
+ * merged with a neighbour. The general contract of this collection is that it
+ * allows duplicate elements and doesn't allow storage of null references.
+ *
+ * @author labramusic
+ *
+ */
+public class UnrolledLinkedListIndexedCollection extends Collection {
+
+	/**
+	 * A node of the list holding up to nodeCapacity elements.
+	 *
+	 * @author labramusic
+	 *
+	 */
+	private static class ListNode {
+
+		/**
+		 * Reference to the previous node in the list.
+		 */
+		ListNode prev;
+
+		/**
+		 * Reference to the next node in the list.
+		 */
+		ListNode next;
+
+		/**
+		 * Elements stored in the node, in slots 0 to count - 1.
+		 */
+		final Object[] data;
+
+		/**
+		 * Number of elements stored in the node.
+		 */
+		int count;
+
+		/**
+		 * Constructor which creates an empty node.
+		 *
+		 * @param capacity
+		 *            maximum number of elements in the node
+		 */
+		ListNode(int capacity) {
+			data = new Object[capacity];
+		}
+	}
+
+	/**
+	 * The default number of elements a node can hold.
+	 */
+	private static final int DEFAULT_NODE_CAPACITY = 32;
+
+	/**
+	 * Number of elements a node can hold.
+	 */
+	private final int nodeCapacity;
+
+	/**
+	 * Number of elements stored in the collection.
+	 */
+	private int size;
+
+	/**
+	 * Reference to the first node in the list.
+	 */
+	private ListNode first;
+
+	/**
+	 * Reference to the last node in the list.
+	 */
+	private ListNode last;
+
+	/**
+	 * Node found by the last call of find.
+	 */
+	private ListNode foundNode;
+
+	/**
+	 * Offset inside foundNode of the element found by the last call of find.
+	 */
+	private int foundOffset;
+
+	/**
+	 * Default constructor which creates an empty list with nodes holding 32
+	 * elements.
+	 */
+	public UnrolledLinkedListIndexedCollection() {
+		this(DEFAULT_NODE_CAPACITY);
+	}
+
+	/**
+	 * Constructor which creates an empty list with nodes holding the given
+	 * number of elements. Throws IllegalArgumentException if the node capacity
+	 * is less than 4.
+	 *
+	 * @param nodeCapacity
+	 *            number of elements a node can hold
+	 */
+	public UnrolledLinkedListIndexedCollection(int nodeCapacity) {
+		if (nodeCapacity < 4) {
+			throw new IllegalArgumentException("Node capacity must be at least 4.");
+		}
+		this.nodeCapacity = nodeCapacity;
+	}
+
+	/**
+	 * Constructor which accepts a reference to some other collection the
+	 * elements of which are copied into this newly constructed collection.
+	 *
+	 * @param other
+	 *            collection to be copied from
+	 */
+	public UnrolledLinkedListIndexedCollection(Collection other) {
+		this();
+		addAll(other);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Adds the object at the end of the list. A new node is appended only if
+	 * the last node is full. Throws IllegalArgumentException if a null value is
+	 * attempted to be added.
+	 */
+	@Override
+	public void add(Object value) {
+		if (value == null) {
+			throw new IllegalArgumentException();
+		}
+		if (last == null || last.count == nodeCapacity) {
+			linkAfter(last, new ListNode(nodeCapacity));
+		}
+		last.data[last.count++] = value;
+		++size;
+	}
+
+	@Override
+	public boolean contains(Object value) {
+		return indexOf(value) != -1;
+	}
+
+	@Override
+	public boolean remove(Object value) {
+		for (ListNode node = first; node != null; node = node.next) {
+			Object[] data = node.data;
+			for (int i = 0, n = node.count; i < n; ++i) {
+				if (data[i].equals(value)) {
+					removeAt(node, i);
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Removes the element in the list at the given index. Only the elements of
+	 * the same node are shifted. Throws IndexOutOfBoundsException if the given
+	 * index is not between 0 and size - 1.
+	 *
+	 * @param index
+	 *            index of element to be removed
+	 */
+	public void remove(int index) {
+		if (index < 0 || index > size - 1) {
+			throw new IndexOutOfBoundsException();
+		}
+		find(index);
+		removeAt(foundNode, foundOffset);
+	}
+
+	@Override
+	public Object[] toArray() {
+		Object[] array = new Object[size];
+		int i = 0;
+		for (ListNode node = first; node != null; node = node.next) {
+			System.arraycopy(node.data, 0, array, i, node.count);
+			i += node.count;
+		}
+		return array;
+	}
+
+	@Override
+	public void forEach(Processor processor) {
+		for (ListNode node = first; node != null; node = node.next) {
+			Object[] data = node.data;
+			for (int i = 0, n = node.count; i < n; ++i) {
+				processor.process(data[i]);
+			}
+		}
+	}
+
+	/**
+	 * Returns a spliterator which walks the nodes of the list. Splitting
+	 * copies a batch of elements from the front into an array.
+	 */
+	@Override
+	public Spliterator<Object> spliterator() {
+		return new ListSpliterator();
+	}
+
+	/**
+	 * Adds all elements from the given collection, passed by its forEach
+	 * method. The elements fill the last node and then completely filled new
+	 * nodes, a node at a time. Throws IllegalArgumentException if the given
+	 * collection is null.
+	 */
+	@Override
+	public void addAll(Collection other) {
+		if (other == null) {
+			throw new IllegalArgumentException();
+		}
+		class AppendingProcessor extends Processor {
+			@Override
+			public void process(Object value) {
+				if (last == null || last.count == nodeCapacity) {
+					linkAfter(last, new ListNode(nodeCapacity));
+				}
+				last.data[last.count++] = value;
+				++size;
+			}
+		}
+		Processor appender = new AppendingProcessor();
+		if (other == this) {
+			// the list would otherwise keep walking into its own new nodes
+			for (Object value : toArray()) {
+				appender.process(value);
+			}
+		} else {
+			other.forEach(appender);
+		}
+	}
+
+	/**
+	 * Removes all elements accepted by the given tester in a single pass. The
+	 * remaining elements are packed toward the front, filling the leading
+	 * nodes completely, so no node is left sparse; the nodes emptied at the
+	 * end are unlinked at once.
+	 */
+	@Override
+	public boolean removeIf(Tester tester) {
+		int oldSize = size;
+		// elements are written at most as far as they are read, so the target
+		// node never overtakes the node being read
+		ListNode target = first;
+		int filled = 0;
+		int kept = 0;
+		for (ListNode node = first; node != null; node = node.next) {
+			Object[] data = node.data;
+			for (int i = 0, n = node.count; i < n; ++i) {
+				Object value = data[i];
+				if (tester.test(value)) {
+					continue;
+				}
+				if (filled == nodeCapacity) {
+					target.count = filled;
+					target = target.next;
+					filled = 0;
+				}
+				target.data[filled++] = value;
+				++kept;
+			}
+		}
+		if (kept == oldSize) {
+			return false;
+		}
+		if (kept == 0) {
+			clear();
+			return true;
+		}
+		Arrays.fill(target.data, filled, nodeCapacity, null);
+		target.count = filled;
+		target.next = null;
+		last = target;
+		size = kept;
+		return true;
+	}
+
+	/**
+	 * Returns the object that is stored in the list at position index. Valid
+	 * indexes are 0 to size-1. IndexOutOfBoundsException is thrown if index is
+	 * invalid. Nodes are walked from the nearer end of the list, skipping a
+	 * whole node at a time.
+	 *
+	 * @param index
+	 *            index of element to be retrieved
+	 * @return element at given index
+	 */
+	public Object get(int index) {
+		if (index < 0 || index > size - 1) {
+			throw new IndexOutOfBoundsException();
+		}
+		find(index);
+		return foundNode.data[foundOffset];
+	}
+
+	@Override
+	public void clear() {
+		first = last = null;
+		foundNode = null;
+		size = 0;
+	}
+
+	/**
+	 * Inserts (does not overwrite) the given value at the given position in the
+	 * list. Only the elements of the same node are shifted; if the node is full
+	 * it is first split in two halves. The legal positions are 0 to size.
+	 * IndexOutOfBoundsException is thrown if position is invalid. If the given
+	 * value is null, IllegalArgumentException is thrown.
+	 *
+	 * @param value
+	 *            value to be inserted in the list
+	 * @param position
+	 *            position where the element should be inserted
+	 */
+	public void insert(Object value, int position) {
+		if (value == null) {
+			throw new IllegalArgumentException();
+		}
+		if (position < 0 || position > size) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (position == size) {
+			add(value);
+			return;
+		}
+		find(position);
+		ListNode node = foundNode;
+		int offset = foundOffset;
+
+		if (node.count == nodeCapacity) {
+			ListNode half = new ListNode(nodeCapacity);
+			int moved = nodeCapacity / 2;
+			int kept = nodeCapacity - moved;
+			System.arraycopy(node.data, kept, half.data, 0, moved);
+			Arrays.fill(node.data, kept, nodeCapacity, null);
+			node.count = kept;
+			half.count = moved;
+			linkAfter(node, half);
+			if (offset > kept) {
+				node = half;
+				offset -= kept;
+			}
+		}
+		System.arraycopy(node.data, offset, node.data, offset + 1, node.count - offset);
+		node.data[offset] = value;
+		++node.count;
+		++size;
+	}
+
+	/**
+	 * Searches the collection and returns the index of the first occurrence of
+	 * the given value or -1 if the value is not found.
+	 *
+	 * @param value
+	 *            object the index of which is being looked for
+	 * @return index of the object being searched for
+	 */
+	public int indexOf(Object value) {
+		int start = 0;
+		for (ListNode node = first; node != null; node = node.next) {
+			Object[] data = node.data;
+			for (int i = 0, n = node.count; i < n; ++i) {
+				if (data[i].equals(value)) {
+					return start + i;
+				}
+			}
+			start += node.count;
+		}
+		return -1;
+	}
+
+	/**
+	 * Finds the node holding the element at the given valid index and stores
+	 * it into foundNode, and the offset of the element inside it into
+	 * foundOffset.
+	 *
+	 * @param index
+	 *            index of an element
+	 */
+	private void find(int index) {
+		if (index < size / 2) {
+			ListNode node = first;
+			while (index >= node.count) {
+				index -= node.count;
+				node = node.next;
+			}
+			foundNode = node;
+			foundOffset = index;
+		} else {
+			ListNode node = last;
+			int start = size - node.count;
+			while (index < start) {
+				node = node.prev;
+				start -= node.count;
+			}
+			foundNode = node;
+			foundOffset = index - start;
+		}
+	}
+
+	/**
+	 * Removes the element at the given offset of the given node. If the node is
+	 * left less than a quarter full, it is merged with a neighbour whose
+	 * elements fit into it, and an empty node is unlinked.
+	 *
+	 * @param node
+	 *            node holding the element
+	 * @param offset
+	 *            offset of the element in the node
+	 */
+	private void removeAt(ListNode node, int offset) {
+		System.arraycopy(node.data, offset + 1, node.data, offset, node.count - offset - 1);
+		node.data[--node.count] = null;
+		--size;
+
+		if (node.count == 0) {
+			unlink(node);
+		} else if (node.count < nodeCapacity / 4) {
+			if (node.next != null && node.count + node.next.count <= nodeCapacity) {
+				merge(node, node.next);
+			} else if (node.prev != null && node.prev.count + node.count <= nodeCapacity) {
+				merge(node.prev, node);
+			}
+		}
+	}
+
+	/**
+	 * Moves all elements of the second node to the end of the first one and
+	 * unlinks the second node.
+	 *
+	 * @param node
+	 *            node receiving the elements
+	 * @param next
+	 *            node following it
+	 */
+	private void merge(ListNode node, ListNode next) {
+		System.arraycopy(next.data, 0, node.data, node.count, next.count);
+		node.count += next.count;
+		unlink(next);
+	}
+
+	/**
+	 * Links the new node into the list after the given node, or as the first
+	 * node if the given node is null.
+	 *
+	 * @param node
+	 *            node after which the new node is linked, or null
+	 * @param newNode
+	 *            node to be linked
+	 */
+	private void linkAfter(ListNode node, ListNode newNode) {
+		newNode.prev = node;
+		newNode.next = node == null ? first : node.next;
+		if (newNode.next == null) {
+			last = newNode;
+		} else {
+			newNode.next.prev = newNode;
+		}
+		if (node == null) {
+			first = newNode;
+		} else {
+			node.next = newNode;
+		}
+	}
+
+	/**
+	 * Removes the given node from the list. The next reference of the node is
+	 * left intact, so a traversal can continue past it.
+	 *
+	 * @param node
+	 *            node to be removed
+	 */
+	private void unlink(ListNode node) {
+		if (first != node) {
+			node.prev.next = node.next;
+		} else {
+			first = node.next;
+		}
+		if (last != node) {
+			node.next.prev = node.prev;
+		} else {
+			last = node.prev;
+		}
+	}
+
+	/**
+	 * Spliterator which walks the nodes of the list. Splitting is inherited
+	 * from AbstractSpliterator, which copies batches of growing size into
+	 * arrays.
+	 *
+	 * @author labramusic
+	 *
+	 */
+	private class ListSpliterator extends Spliterators.AbstractSpliterator<Object> {
+
+		/**
+		 * Node holding the next element, null at the end of the list.
+		 */
+		private ListNode node = first;
+
+		/**
+		 * Offset of the next element in its node.
+		 */
+		private int offset;
+
+		/**
+		 * Constructor.
+		 */
+		ListSpliterator() {
+			super(size, SPLITERATOR_CHARACTERISTICS);
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Object> action) {
+			if (node == null) {
+				return false;
+			}
+			Object value = node.data[offset++];
+			if (offset == node.count) {
+				node = node.next;
+				offset = 0;
+			}
+			action.accept(value);
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super Object> action) {
+			for (; node != null; node = node.next, offset = 0) {
+				Object[] data = node.data;
+				for (int i = offset, n = node.count; i < n; ++i) {
+					action.accept(data[i]);
+				}
+			}
+		}
+	}
+}
@@ -1,11 +1,12 @@
 package hr.fer.zemris.java.custom.collections.demo;
 
-import hr.fer.zemris.java.custom.collections.ObjectStack;
+import hr.fer.zemris.java.custom.collections.IntStack;
 
 /**
- * Demonstrates the usage of the ObjectStack class. Expects a single
- * command-line argument: expression which should be evaluated, in quotation
- * marks. The expression must be in postfix representation.
+ * Demonstrates the usage of a stack by evaluating a postfix expression. Uses
+ * IntStack, so the operands are never boxed. Expects a single command-line
+ * argument: expression which should be evaluated, in quotation marks. The
+ * expression must be in postfix representation.
  * 
  * @author labramusic
  *
@@ -22,7 +23,7 @@ public class StackDemo {
 		String expression = args[0].replace("\"", "");
 		String[] arguments = expression.split(" ");
 
-		ObjectStack stack = new ObjectStack();
+		IntStack stack = new IntStack();
 		for (String arg : arguments) {
 
 			if (arg.matches("-?[0-9]")) {
@@ -31,8 +32,8 @@ public class StackDemo {
 				continue;
 				
 			} else {
-				int num2 = (int) stack.pop();
-				int num1 = (int) stack.pop();
+				int num2 = stack.pop();
+				int num1 = stack.pop();
 				int result = 0;
 				
 				switch (arg) {
@@ -0,0 +1,310 @@
+package hr.fer.zemris.java.tecaj.hw2;
+
+/**
+ * Represents a mutable complex number which is changed in place by arithmetic
+ * operations. Every operation returns the accumulator itself, so an expression
+ * such as a.mul(b).add(c.mul(d)).div(e) can be calculated as
+ * new ComplexAccumulator(a).mul(b).fma(c, d).div(e) without creating an
+ * object per step, and one accumulator can be reused for many expressions.
+ * Every operation accepts either a ComplexNumber or the real and imaginary
+ * parts. An accumulator is not thread-safe.
+ *
+ * @author labramusic
+ *
+ */
+public class ComplexAccumulator {
+
+	/**
+	 * Real part of the current value.
+	 */
+	private double real;
+
+	/**
+	 * Imaginary part of the current value.
+	 */
+	private double imaginary;
+
+	/**
+	 * Default constructor which creates an accumulator holding zero.
+	 */
+	public ComplexAccumulator() {
+	}
+
+	/**
+	 * Constructor which creates an accumulator holding the given parts.
+	 *
+	 * @param real
+	 *            real part
+	 * @param imaginary
+	 *            imaginary part
+	 */
+	public ComplexAccumulator(double real, double imaginary) {
+		this.real = real;
+		this.imaginary = imaginary;
+	}
+
+	/**
+	 * Constructor which creates an accumulator holding the given complex
+	 * number.
+	 *
+	 * @param c
+	 *            initial value
+	 */
+	public ComplexAccumulator(ComplexNumber c) {
+		this(c.getReal(), c.getImaginary());
+	}
+
+	/**
+	 * Returns the real part of the current value.
+	 *
+	 * @return real part
+	 */
+	public double getReal() {
+		return real;
+	}
+
+	/**
+	 * Returns the imaginary part of the current value.
+	 *
+	 * @return imaginary part
+	 */
+	public double getImaginary() {
+		return imaginary;
+	}
+
+	/**
+	 * Sets the current value to the given parts.
+	 *
+	 * @param real
+	 *            real part
+	 * @param imaginary
+	 *            imaginary part
+	 * @return this accumulator
+	 */
+	public ComplexAccumulator set(double real, double imaginary) {
+		this.real = real;
+		this.imaginary = imaginary;
+		return this;
+	}
+
+	/**
+	 * Sets the current value to the given complex number.
+	 *
+	 * @param c
+	 *            new value
+	 * @return this accumulator
+	 */
+	public ComplexAccumulator set(ComplexNumber c) {
+		return set(c.getReal(), c.getImaginary());
+	}
+
+	/**
+	 * Sets the current value to zero.
+	 *
+	 * @return this accumulator
+	 */
+	public ComplexAccumulator clear() {
+		return set(0, 0);
+	}
+
+	/**
+	 * Adds the given parts to the current value.
+	 *
+	 * @param real
+	 *            real part of the addend
+	 * @param imaginary
+	 *            imaginary part of the addend
+	 * @return this accumulator
+	 */
+	public ComplexAccumulator add(double real, double imaginary) {
+		this.real += real;
+		this.imaginary += imaginary;
+		return this;
+	}
+
+	/**
+	 * Adds the given complex number to the current value.
+	 *
+	 * @param c
+	 *            addend
+	 * @return this accumulator
+	 */
+	public ComplexAccumulator add(ComplexNumber c) {
+		return add(c.getReal(), c.getImaginary());
+	}
+
+	/**
+	 * Subtracts the given parts from the current value.
+	 *
+	 * @param real
+	 *            real part of the subtrahend
+	 * @param imaginary
+	 *            imaginary part of the subtrahend
+	 * @return this accumulator
+	 */
+	public ComplexAccumulator sub(double real, double imaginary) {
+		this.real -= real;
+		this.imaginary -= imaginary;
+		return this;
+	}
+
+	/**
+	 * Subtracts the given complex number from the current value.
+	 *
+	 * @param c
+	 *            subtrahend
+	 * @return this accumulator
+	 */
+	public ComplexAccumulator sub(ComplexNumber c) {
+		return sub(c.getReal(), c.getImaginary());
+	}
+
+	/**
+	 * Multiplies the current value with the given parts.
+	 *
+	 * @param real
+	 *            real part of the factor
+	 * @param imaginary
+	 *            imaginary part of the factor
+	 * @return this accumulator
+	 */
+	public ComplexAccumulator mul(double real, double imaginary) {
+		double product = this.real * real - this.imaginary * imaginary;
+		this.imaginary = this.real * imaginary + this.imaginary * real;
+		this.real = product;
+		return this;
+	}
+
+	/**
+	 * Multiplies the current value with the given complex number.
+	 *
+	 * @param c
+	 *            factor
+	 * @return this accumulator
+	 */
+	public ComplexAccumulator mul(ComplexNumber c) {
+		return mul(c.getReal(), c.getImaginary());
+	}
+
+	/**
+	 * Divides the current value with the given parts by Smith's method, like
+	 * {@link ComplexNumber#div(ComplexNumber)}. Throws ArithmeticException in
+	 * case of division by zero.
+	 *
+	 * @param real
+	 *            real part of the divisor
+	 * @param imaginary
+	 *            imaginary part of the divisor
+	 * @return this accumulator
+	 */
+	public ComplexAccumulator div(double real, double imaginary) {
+		if (real == 0 && imaginary == 0) {
+			throw new ArithmeticException("Cannot divide by zero.");
+		}
+		double quotient;
+		if (Math.abs(real) >= Math.abs(imaginary)) {
+			double ratio = imaginary / real;
+			double denominator = real + imaginary * ratio;
+			quotient = (this.real + this.imaginary * ratio) / denominator;
+			this.imaginary = (this.imaginary - this.real * ratio) / denominator;
+		} else {
+			double ratio = real / imaginary;
+			double denominator = real * ratio + imaginary;
+			quotient = (this.real * ratio + this.imaginary) / denominator;
+			this.imaginary = (this.imaginary * ratio - this.real) / denominator;
+		}
+		this.real = quotient;
+		return this;
+	}
+
+	/**
+	 * Divides the current value with the given complex number. Throws
+	 * ArithmeticException in case of division by zero.
+	 *
+	 * @param c
+	 *            divisor
+	 * @return this accumulator
+	 */
+	public ComplexAccumulator div(ComplexNumber c) {
+		return div(c.getReal(), c.getImaginary());
+	}
+
+	/**
+	 * Adds the product of the two given complex numbers, given by their
+	 * parts, to the current value.
+	 *
+	 * @param aReal
+	 *            real part of the first factor
+	 * @param aImaginary
+	 *            imaginary part of the first factor
+	 * @param bReal
+	 *            real part of the second factor
+	 * @param bImaginary
+	 *            imaginary part of the second factor
+	 * @return this accumulator
+	 */
+	public ComplexAccumulator fma(double aReal, double aImaginary, double bReal, double bImaginary) {
+		real += aReal * bReal - aImaginary * bImaginary;
+		imaginary += aReal * bImaginary + aImaginary * bReal;
+		return this;
+	}
+
+	/**
+	 * Adds the product of the two given complex numbers to the current value.
+	 *
+	 * @param a
+	 *            first factor
+	 * @param b
+	 *            second factor
+	 * @return this accumulator
+	 */
+	public ComplexAccumulator fma(ComplexNumber a, ComplexNumber b) {
+		return fma(a.getReal(), a.getImaginary(), b.getReal(), b.getImaginary());
+	}
+
+	/**
+	 * Raises the current value to the nth power by binary exponentiation, like
+	 * {@link ComplexNumber#power(int)}. Throws IllegalArgumentException if n
+	 * is less than zero.
+	 *
+	 * @param n
+	 *            the power to which the value should be raised
+	 * @return this accumulator
+	 */
+	public ComplexAccumulator power(int n) {
+		if (n < 0) {
+			throw new IllegalArgumentException("The exponent n must be a number equal to or higher than zero.");
+		}
+		double baseReal = real;
+		double baseImaginary = imaginary;
+		real = 1;
+		imaginary = 0;
+		while (n > 0) {
+			if ((n & 1) != 0) {
+				mul(baseReal, baseImaginary);
+			}
+			n >>>= 1;
+			if (n > 0) {
+				double square = baseReal * baseReal - baseImaginary * baseImaginary;
+				baseImaginary = 2 * baseReal * baseImaginary;
+				baseReal = square;
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Returns the current value as a new immutable complex number.
+	 *
+	 * @return current value
+	 */
+	public ComplexNumber toComplexNumber() {
+		return new ComplexNumber(real, imaginary);
+	}
+
+	@Override
+	public String toString() {
+		return toComplexNumber().toString();
+	}
+
+}
@@ -0,0 +1,398 @@
+package hr.fer.zemris.java.tecaj.hw2;
+
+/**
+ * Represents a fixed-length array of complex numbers, stored as two double
+ * arrays holding the real and the imaginary parts. A value takes 16 bytes,
+ * instead of a reference and a ComplexNumber object with its header and four
+ * doubles, and consecutive parts are next to each other in memory.
+ * <p>
+ * The bulk operations change this array in place, element by element. Their
+ * loops have no dependencies between iterations and no calls, so the JIT
+ * compiler can unroll them and turn them into SIMD instructions. The
+ * reductions keep several independent partial sums so they are not limited by
+ * the latency of floating-point addition.
+ *
+ * @author labramusic
+ *
+ */
+public class ComplexArray {
+
+	/**
+	 * Real parts of the elements.
+	 */
+	private final double[] re;
+
+	/**
+	 * Imaginary parts of the elements.
+	 */
+	private final double[] im;
+
+	/**
+	 * Constructor which creates an array of the given length with all
+	 * elements set to zero. Throws IllegalArgumentException if the length is
+	 * negative.
+	 *
+	 * @param length
+	 *            number of elements
+	 */
+	public ComplexArray(int length) {
+		if (length < 0) {
+			throw new IllegalArgumentException("Length must not be negative.");
+		}
+		re = new double[length];
+		im = new double[length];
+	}
+
+	/**
+	 * Constructor which copies the given real and imaginary parts. Throws
+	 * IllegalArgumentException if the arrays are null or of different lengths.
+	 *
+	 * @param re
+	 *            real parts of the elements
+	 * @param im
+	 *            imaginary parts of the elements
+	 */
+	public ComplexArray(double[] re, double[] im) {
+		if (re == null || im == null || re.length != im.length) {
+			throw new IllegalArgumentException("Parts must be arrays of the same length.");
+		}
+		this.re = re.clone();
+		this.im = im.clone();
+	}
+
+	/**
+	 * Constructor which accepts a reference to some other array the elements
+	 * of which are copied into this newly constructed array.
+	 *
+	 * @param other
+	 *            array to be copied from
+	 */
+	public ComplexArray(ComplexArray other) {
+		this(other.re, other.im);
+	}
+
+	/**
+	 * Creates an array holding the parts of the given complex numbers. Throws
+	 * IllegalArgumentException if the array or any of its elements is null.
+	 *
+	 * @param numbers
+	 *            complex numbers to be converted
+	 * @return array of the same complex numbers
+	 */
+	public static ComplexArray fromComplexNumbers(ComplexNumber[] numbers) {
+		if (numbers == null) {
+			throw new IllegalArgumentException();
+		}
+		ComplexArray array = new ComplexArray(numbers.length);
+		for (int i = 0; i < numbers.length; ++i) {
+			if (numbers[i] == null) {
+				throw new IllegalArgumentException();
+			}
+			array.re[i] = numbers[i].getReal();
+			array.im[i] = numbers[i].getImaginary();
+		}
+		return array;
+	}
+
+	/**
+	 * Returns the elements of this array as new complex numbers.
+	 *
+	 * @return array of complex numbers
+	 */
+	public ComplexNumber[] toComplexNumbers() {
+		ComplexNumber[] numbers = new ComplexNumber[re.length];
+		for (int i = 0; i < numbers.length; ++i) {
+			numbers[i] = new ComplexNumber(re[i], im[i]);
+		}
+		return numbers;
+	}
+
+	/**
+	 * Returns the number of elements.
+	 *
+	 * @return number of elements
+	 */
+	public int length() {
+		return re.length;
+	}
+
+	/**
+	 * Returns the element at the given index as a new complex number. Throws
+	 * IndexOutOfBoundsException if the index is invalid.
+	 *
+	 * @param index
+	 *            index of desired element
+	 * @return element at given index
+	 */
+	public ComplexNumber get(int index) {
+		return new ComplexNumber(re[index], im[index]);
+	}
+
+	/**
+	 * Returns the real part of the element at the given index.
+	 *
+	 * @param index
+	 *            index of the element
+	 * @return real part
+	 */
+	public double getReal(int index) {
+		return re[index];
+	}
+
+	/**
+	 * Returns the imaginary part of the element at the given index.
+	 *
+	 * @param index
+	 *            index of the element
+	 * @return imaginary part
+	 */
+	public double getImaginary(int index) {
+		return im[index];
+	}
+
+	/**
+	 * Sets the element at the given index to the given complex number. Throws
+	 * IllegalArgumentException if the number is null.
+	 *
+	 * @param index
+	 *            index of the element
+	 * @param value
+	 *            new value of the element
+	 */
+	public void set(int index, ComplexNumber value) {
+		if (value == null) {
+			throw new IllegalArgumentException();
+		}
+		set(index, value.getReal(), value.getImaginary());
+	}
+
+	/**
+	 * Sets the element at the given index to the given parts.
+	 *
+	 * @param index
+	 *            index of the element
+	 * @param real
+	 *            new real part
+	 * @param imaginary
+	 *            new imaginary part
+	 */
+	public void set(int index, double real, double imaginary) {
+		re[index] = real;
+		im[index] = imaginary;
+	}
+
+	/**
+	 * Adds the elements of the given array to the elements of this array.
+	 *
+	 * @param other
+	 *            array of the same length
+	 * @return this array
+	 */
+	public ComplexArray add(ComplexArray other) {
+		checkLength(other);
+		double[] re = this.re;
+		double[] im = this.im;
+		double[] otherRe = other.re;
+		double[] otherIm = other.im;
+		for (int i = 0; i < re.length; ++i) {
+			re[i] += otherRe[i];
+			im[i] += otherIm[i];
+		}
+		return this;
+	}
+
+	/**
+	 * Subtracts the elements of the given array from the elements of this
+	 * array.
+	 *
+	 * @param other
+	 *            array of the same length
+	 * @return this array
+	 */
+	public ComplexArray sub(ComplexArray other) {
+		checkLength(other);
+		double[] re = this.re;
+		double[] im = this.im;
+		double[] otherRe = other.re;
+		double[] otherIm = other.im;
+		for (int i = 0; i < re.length; ++i) {
+			re[i] -= otherRe[i];
+			im[i] -= otherIm[i];
+		}
+		return this;
+	}
+
+	/**
+	 * Multiplies the elements of this array with the elements of the given
+	 * array.
+	 *
+	 * @param other
+	 *            array of the same length
+	 * @return this array
+	 */
+	public ComplexArray mul(ComplexArray other) {
+		checkLength(other);
+		double[] re = this.re;
+		double[] im = this.im;
+		double[] otherRe = other.re;
+		double[] otherIm = other.im;
+		for (int i = 0; i < re.length; ++i) {
+			double a = re[i];
+			double b = im[i];
+			double c = otherRe[i];
+			double d = otherIm[i];
+			re[i] = a * c - b * d;
+			im[i] = a * d + b * c;
+		}
+		return this;
+	}
+
+	/**
+	 * Multiplies every element of this array with the given real factor.
+	 *
+	 * @param factor
+	 *            real factor
+	 * @return this array
+	 */
+	public ComplexArray scale(double factor) {
+		double[] re = this.re;
+		double[] im = this.im;
+		for (int i = 0; i < re.length; ++i) {
+			re[i] *= factor;
+			im[i] *= factor;
+		}
+		return this;
+	}
+
+	/**
+	 * Multiplies every element of this array with the given complex factor.
+	 * Throws IllegalArgumentException if the factor is null.
+	 *
+	 * @param factor
+	 *            complex factor
+	 * @return this array
+	 */
+	public ComplexArray scale(ComplexNumber factor) {
+		if (factor == null) {
+			throw new IllegalArgumentException();
+		}
+		double c = factor.getReal();
+		double d = factor.getImaginary();
+		double[] re = this.re;
+		double[] im = this.im;
+		for (int i = 0; i < re.length; ++i) {
+			double a = re[i];
+			double b = im[i];
+			re[i] = a * c - b * d;
+			im[i] = a * d + b * c;
+		}
+		return this;
+	}
+
+	/**
+	 * Replaces every element of this array with its complex conjugate.
+	 *
+	 * @return this array
+	 */
+	public ComplexArray conjugate() {
+		double[] im = this.im;
+		for (int i = 0; i < im.length; ++i) {
+			im[i] = -im[i];
+		}
+		return this;
+	}
+
+	/**
+	 * Calculates the magnitudes of the elements into a new array.
+	 *
+	 * @return magnitudes of the elements
+	 */
+	public double[] magnitude() {
+		return magnitude(new double[re.length]);
+	}
+
+	/**
+	 * Calculates the magnitudes of the elements into the given array and
+	 * returns it. Throws IllegalArgumentException if the array is null or
+	 * shorter than this array.
+	 *
+	 * @param target
+	 *            array receiving the magnitudes
+	 * @return given array
+	 */
+	public double[] magnitude(double[] target) {
+		if (target == null || target.length < re.length) {
+			throw new IllegalArgumentException("Target must hold all magnitudes.");
+		}
+		double[] re = this.re;
+		double[] im = this.im;
+		for (int i = 0; i < re.length; ++i) {
+			target[i] = Math.sqrt(re[i] * re[i] + im[i] * im[i]);
+		}
+		return target;
+	}
+
+	/**
+	 * Calculates the inner product of this array with the given array, the
+	 * sum of the products of the elements of this array with the conjugated
+	 * elements of the given array. Each part of the sum is kept in two
+	 * partial sums, so it can differ from a strictly sequential sum in the
+	 * last bits.
+	 *
+	 * @param other
+	 *            array of the same length
+	 * @return inner product as a new complex number
+	 */
+	public ComplexNumber dot(ComplexArray other) {
+		checkLength(other);
+		double[] re = this.re;
+		double[] im = this.im;
+		double[] otherRe = other.re;
+		double[] otherIm = other.im;
+		double re0 = 0, re1 = 0, im0 = 0, im1 = 0;
+		int i = 0;
+		for (int end = re.length & ~1; i < end; i += 2) {
+			re0 += re[i] * otherRe[i] + im[i] * otherIm[i];
+			im0 += im[i] * otherRe[i] - re[i] * otherIm[i];
+			re1 += re[i + 1] * otherRe[i + 1] + im[i + 1] * otherIm[i + 1];
+			im1 += im[i + 1] * otherRe[i + 1] - re[i + 1] * otherIm[i + 1];
+		}
+		if (i < re.length) {
+			re0 += re[i] * otherRe[i] + im[i] * otherIm[i];
+			im0 += im[i] * otherRe[i] - re[i] * otherIm[i];
+		}
+		return new ComplexNumber(re0 + re1, im0 + im1);
+	}
+
+	/**
+	 * Returns the array of real parts, shared with this array.
+	 *
+	 * @return real parts
+	 */
+	double[] real() {
+		return re;
+	}
+
+	/**
+	 * Returns the array of imaginary parts, shared with this array.
+	 *
+	 * @return imaginary parts
+	 */
+	double[] imaginary() {
+		return im;
+	}
+
+	/**
+	 * Throws IllegalArgumentException if the given array is null or its
+	 * length differs from the length of this array.
+	 *
+	 * @param other
+	 *            array to be checked
+	 */
+	private void checkLength(ComplexArray other) {
+		if (other == null || other.re.length != re.length) {
+			throw new IllegalArgumentException("Arrays must be of the same length.");
+		}
+	}
+
+}
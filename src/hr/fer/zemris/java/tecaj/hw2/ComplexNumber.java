@@ -1,8 +1,6 @@
 package hr.fer.zemris.java.tecaj.hw2;
 
 import java.text.DecimalFormat;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Represents an immutable complex number.
@@ -12,29 +10,45 @@ import java.util.regex.Pattern;
  */
 public class ComplexNumber {
 
+	/**
+	 * Largest integer up to which all integers are exact doubles, 2^53.
+	 */
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+	/**
+	 * Powers of ten which are exact doubles, from 10^0 to 10^22.
+	 */
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
 	/**
 	 * Real part of the complex number.
 	 */
-	private double real;
+	private final double real;
 
 	/**
 	 * Imaginary part of the complex number.
 	 */
-	private double imaginary;
+	private final double imaginary;
 
 	/**
-	 * Magnitude of the complex number.
+	 * Magnitude of the complex number, calculated when first asked for. Zero
+	 * means it has not been calculated yet, and calculating it again for a
+	 * number whose magnitude is zero costs nothing worth caching.
 	 */
-	private double magnitude;
+	private volatile double magnitude;
 
 	/**
-	 * Angle in radians, from 0 to 2 Pi.
+	 * Angle in radians, from 0 to 2 Pi, calculated when first asked for. Zero
+	 * means it has not been calculated yet.
 	 */
-	private double angle;
+	private volatile double angle;
 
 	/**
 	 * Constructor which creates a new complex number out of its real and
-	 * imaginary parts. The magnitude and angle are automatically calculated.
+	 * imaginary parts. The magnitude and angle are calculated only when they
+	 * are first asked for, so arithmetic in rectangular form doesn't pay for
+	 * them.
 	 * 
 	 * @param real
 	 *            real part of complex number
@@ -44,9 +58,6 @@ public class ComplexNumber {
 	public ComplexNumber(double real, double imaginary) {
 		this.real = real;
 		this.imaginary = imaginary;
-		magnitude = Math.sqrt(Math.pow(real, 2) + Math.pow(imaginary, 2));
-		// PI is added so the angle is between 0 and 2 PI
-		angle = Math.atan2(imaginary, real) + Math.PI;
 	}
 
 	/**
@@ -90,62 +101,194 @@ public class ComplexNumber {
 
 	/**
 	 * Parses the given string for a complex number. Accepts strings such as:
-	 * "3.51", "-3.17", "-2.71i", "i", "1", "-2.71-3.15i", "2+i".
+	 * "3.51", "-3.17", "-2.71i", "i", "1", "-2.71-3.15i", "2+i". A single space
+	 * may stand before and after the sign of the imaginary part. Throws
+	 * IllegalArgumentException if the string is not a complex number.
 	 * 
 	 * @param s
 	 *            string representation of the complex number
 	 * @return complex number parsed from the given string
 	 */
-	public static ComplexNumber parse(String s) {
-		Pattern pattern = Pattern
-				.compile("(-?\\d*\\.?\\d+) ?(([+-] ?(\\d*\\.?\\d+)?)i)|"
-						+ "(-?\\d*\\.?\\d+)|((-?(\\d*\\.?\\d+)?)i)");
-		Matcher matcher = pattern.matcher(s);
-		if (!matcher.matches()) {
+	public static ComplexNumber parse(CharSequence s) {
+		if (s == null) {
 			throw new IllegalArgumentException();
+		}
+		return parse(s, 0, s.length());
+	}
 
-		} else {
-			double real = 0;
-			double imaginary = 0;
-
-			if (matcher.group(1) != null) {
-				// real and imaginary part are not zero
-				real = Double.parseDouble(matcher.group(1));
+	/**
+	 * Parses the characters of the given sequence from start to end for a
+	 * complex number, in the same way as {@link #parse(CharSequence)}.
+	 * 
+	 * @param s
+	 *            sequence holding the complex number
+	 * @param start
+	 *            index of the first character, inclusive
+	 * @param end
+	 *            index of the last character, exclusive
+	 * @return complex number parsed from the given characters
+	 */
+	public static ComplexNumber parse(CharSequence s, int start, int end) {
+		ComplexAccumulator sink = parse(s, start, end, new ComplexAccumulator());
+		return new ComplexNumber(sink.getReal(), sink.getImaginary());
+	}
 
-			} else if (matcher.group(5) != null) {
-				// real part is not zero, imaginary is
-				real = Double.parseDouble(matcher.group(5));
+	/**
+	 * Parses the characters of the given sequence from start to end for a
+	 * complex number and stores it into the given accumulator, in the same
+	 * way as {@link #parse(CharSequence)}. The characters are scanned once,
+	 * without creating any objects, unless a number has more significant
+	 * digits or decimal places than can be converted exactly, in which case it
+	 * is converted by Double.parseDouble. Throws IllegalArgumentException if
+	 * the characters are not a complex number, in which case the accumulator
+	 * is unchanged, and IndexOutOfBoundsException if start and end are not a
+	 * valid range of the sequence.
+	 * 
+	 * @param s
+	 *            sequence holding the complex number
+	 * @param start
+	 *            index of the first character, inclusive
+	 * @param end
+	 *            index of the last character, exclusive
+	 * @param sink
+	 *            accumulator receiving the complex number
+	 * @return the given accumulator
+	 */
+	public static ComplexAccumulator parse(CharSequence s, int start, int end, ComplexAccumulator sink) {
+		if (s == null || sink == null) {
+			throw new IllegalArgumentException();
+		}
+		if (start < 0 || start > end || end > s.length()) {
+			throw new IndexOutOfBoundsException();
+		}
+		int position = start;
+		boolean negative = position < end && s.charAt(position) == '-';
+		if (negative) {
+			++position;
+		}
+		int numberEnd = scanNumber(s, position, end);
+		if (numberEnd < 0) {
+			// "i" or "-i"
+			if (position != end - 1 || s.charAt(position) != 'i') {
+				throw new IllegalArgumentException();
 			}
+			return sink.set(0, negative ? -1 : 1);
+		}
+		double first = toDouble(s, position, numberEnd, negative);
+		position = numberEnd;
+		if (position == end) {
+			return sink.set(first, 0);
+		}
+		if (position == end - 1 && s.charAt(position) == 'i') {
+			return sink.set(0, first);
+		}
 
-			if (matcher.group(2) != null) {
-				// real and imaginary part are not zero
-				String expression = matcher.group(3).replaceAll(" ", "");
-				if (expression.equals("+")) {
-					// i
-					imaginary = 1;
-				} else if (expression.equals("-")) {
-					// -i
-					imaginary = -1;
-				} else {
-					imaginary = Double.parseDouble(expression);
-				}
-
-			} else if (matcher.group(6) != null) {
-				// imaginary part is not zero, real is
-				String expression = matcher.group(7);
-				if (expression.isEmpty()) {
-					// i
-					imaginary = 1;
-				} else if (expression.equals("-")) {
-					// -i
-					imaginary = -1;
-				} else {
-					imaginary = Double.parseDouble(expression);
-				}
+		// real part followed by the imaginary part
+		if (s.charAt(position) == ' ') {
+			++position;
+		}
+		if (position == end || (s.charAt(position) != '+' && s.charAt(position) != '-')) {
+			throw new IllegalArgumentException();
+		}
+		boolean negativeImaginary = s.charAt(position) == '-';
+		++position;
+		if (position < end && s.charAt(position) == ' ') {
+			++position;
+		}
+		double imaginary = 1;
+		numberEnd = scanNumber(s, position, end);
+		if (numberEnd >= 0) {
+			imaginary = toDouble(s, position, numberEnd, false);
+			position = numberEnd;
+		}
+		if (position != end - 1 || s.charAt(position) != 'i') {
+			throw new IllegalArgumentException();
+		}
+		return sink.set(first, negativeImaginary ? -imaginary : imaginary);
+	}
+
+	/**
+	 * Finds the end of the unsigned number starting at the given position,
+	 * made of digits, or of optional digits, a dot and digits.
+	 * 
+	 * @param s
+	 *            scanned sequence
+	 * @param position
+	 *            index where the number should start
+	 * @param end
+	 *            index after the last character which may be scanned
+	 * @return index after the number, or -1 if there is no number
+	 */
+	private static int scanNumber(CharSequence s, int position, int end) {
+		int i = position;
+		while (i < end && isDigit(s.charAt(i))) {
+			++i;
+		}
+		if (i < end && s.charAt(i) == '.') {
+			int j = i + 1;
+			while (j < end && isDigit(s.charAt(j))) {
+				++j;
+			}
+			if (j > i + 1) {
+				return j;
 			}
+		}
+		return i > position ? i : -1;
+	}
 
-			return new ComplexNumber(real, imaginary);
+	/**
+	 * Converts the scanned number to the nearest double, as Double.parseDouble
+	 * would. If the digits form an integer of at most 2^53 and there are at
+	 * most 22 decimal places, both the integer and the power of ten are
+	 * exact doubles, so their quotient is correctly rounded.
+	 * 
+	 * @param s
+	 *            scanned sequence
+	 * @param from
+	 *            index of the first character of the number, inclusive
+	 * @param to
+	 *            index of the last character of the number, exclusive
+	 * @param negative
+	 *            true if the number should be negated
+	 * @return value of the number
+	 */
+	private static double toDouble(CharSequence s, int from, int to, boolean negative) {
+		long mantissa = 0;
+		int decimals = 0;
+		boolean fraction = false;
+		for (int i = from; i < to; ++i) {
+			char c = s.charAt(i);
+			if (c == '.') {
+				fraction = true;
+				continue;
+			}
+			int digit = c - '0';
+			if (mantissa > (MAX_EXACT_MANTISSA - digit) / 10) {
+				double value = Double.parseDouble(s.subSequence(from, to).toString());
+				return negative ? -value : value;
+			}
+			mantissa = 10 * mantissa + digit;
+			if (fraction) {
+				++decimals;
+			}
+		}
+		if (decimals >= POWERS_OF_TEN.length) {
+			double value = Double.parseDouble(s.subSequence(from, to).toString());
+			return negative ? -value : value;
 		}
+		double value = mantissa / POWERS_OF_TEN[decimals];
+		return negative ? -value : value;
+	}
+
+	/**
+	 * Checks if the character is a decimal digit from 0 to 9.
+	 * 
+	 * @param c
+	 *            checked character
+	 * @return true if the character is a digit
+	 */
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
 	}
 
 	/**
@@ -172,6 +315,11 @@ public class ComplexNumber {
 	 * @return magnitude
 	 */
 	public double getMagnitude() {
+		double magnitude = this.magnitude;
+		if (magnitude == 0) {
+			magnitude = Math.sqrt(real * real + imaginary * imaginary);
+			this.magnitude = magnitude;
+		}
 		return magnitude;
 	}
 
@@ -181,6 +329,12 @@ public class ComplexNumber {
 	 * @return angle
 	 */
 	public double getAngle() {
+		double angle = this.angle;
+		if (angle == 0) {
+			// PI is added so the angle is between 0 and 2 PI
+			angle = Math.atan2(imaginary, real) + Math.PI;
+			this.angle = angle;
+		}
 		return angle;
 	}
 
@@ -218,31 +372,44 @@ public class ComplexNumber {
 	 * @return result of multiplication as a new complex number
 	 */
 	public ComplexNumber mul(ComplexNumber c) {
-		double magnitude = this.magnitude * c.magnitude;
-		double angle = this.angle + c.angle;
-		return fromMagnitudeAndAngle(magnitude, angle);
+		double real = this.real * c.real - this.imaginary * c.imaginary;
+		double imaginary = this.real * c.imaginary + this.imaginary * c.real;
+		return new ComplexNumber(real, imaginary);
 	}
 
 	/**
 	 * Divides the first complex number with the given complex number. Throws
-	 * ArithmeticException in case of division by zero.
+	 * ArithmeticException in case of division by zero. The quotient is
+	 * calculated by Smith's method, which scales by the larger part of the
+	 * divisor so the intermediate results don't overflow.
 	 * 
 	 * @param c
 	 *            complex number which divides the first
 	 * @return result of division as a new complex number
 	 */
 	public ComplexNumber div(ComplexNumber c) {
-		if (c.magnitude == 0) {
-			//undefined ?
+		if (c.real == 0 && c.imaginary == 0) {
 			throw new ArithmeticException("Cannot divide by zero.");
 		}
-		double magnitude = this.magnitude / c.magnitude;
-		double angle = this.angle - c.angle;
-		return fromMagnitudeAndAngle(magnitude, angle);
+		double real;
+		double imaginary;
+		if (Math.abs(c.real) >= Math.abs(c.imaginary)) {
+			double ratio = c.imaginary / c.real;
+			double denominator = c.real + c.imaginary * ratio;
+			real = (this.real + this.imaginary * ratio) / denominator;
+			imaginary = (this.imaginary - this.real * ratio) / denominator;
+		} else {
+			double ratio = c.real / c.imaginary;
+			double denominator = c.real * ratio + c.imaginary;
+			real = (this.real * ratio + this.imaginary) / denominator;
+			imaginary = (this.imaginary * ratio - this.real) / denominator;
+		}
+		return new ComplexNumber(real, imaginary);
 	}
 
 	/**
-	 * Calculates the nth power of a complex number. Throws
+	 * Calculates the nth power of a complex number by binary exponentiation,
+	 * which needs at most 2 log2 n multiplications. Throws
 	 * IllegalArgumentException if n is less than zero.
 	 * 
 	 * @param n
@@ -253,13 +420,30 @@ public class ComplexNumber {
 		if (n < 0) {
 			throw new IllegalArgumentException("The exponent n must be a number equal to or higher than zero.");
 		}
-		double magnitude = Math.pow(this.magnitude, n);
-		double angle = this.angle * n;
-		return fromMagnitudeAndAngle(magnitude, angle);
+		double real = 1;
+		double imaginary = 0;
+		double baseReal = this.real;
+		double baseImaginary = this.imaginary;
+		while (n > 0) {
+			if ((n & 1) != 0) {
+				double product = real * baseReal - imaginary * baseImaginary;
+				imaginary = real * baseImaginary + imaginary * baseReal;
+				real = product;
+			}
+			n >>>= 1;
+			if (n > 0) {
+				double square = baseReal * baseReal - baseImaginary * baseImaginary;
+				baseImaginary = 2 * baseReal * baseImaginary;
+				baseReal = square;
+			}
+		}
+		return new ComplexNumber(real, imaginary);
 	}
 
 	/**
-	 * Calculates the nth roots of a complex number. Throws
+	 * Calculates the nth roots of a complex number. The kth root has the
+	 * angle (phi + 2 k Pi) / n, where phi is the angle between -Pi and Pi, so
+	 * the roots of 1 start with 1 and go counterclockwise. Throws
 	 * IllegalArgumentException if n is less than zero.
 	 * 
 	 * @param n
@@ -271,9 +455,11 @@ public class ComplexNumber {
 			throw new IllegalArgumentException("The exponent n must be a number equal to or higher than zero.");
 		}
 		ComplexNumber[] roots = new ComplexNumber[n];
-		double magnitude = Math.pow(this.magnitude, 1.0 / n);
+		double magnitude = Math.pow(getMagnitude(), 1.0 / n);
+		// the true angle, since getAngle has PI added
+		double baseAngle = Math.atan2(imaginary, real);
 		for (int k = 0; k < n; ++k) {
-			double angle = (this.angle + 2.0 * k * Math.PI) / n;
+			double angle = (baseAngle + 2.0 * k * Math.PI) / n;
 			roots[k] = fromMagnitudeAndAngle(magnitude, angle);
 		}
 		return roots;
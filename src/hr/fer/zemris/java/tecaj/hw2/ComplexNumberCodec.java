@@ -0,0 +1,43 @@
+package hr.fer.zemris.java.tecaj.hw2;
+
+import java.nio.ByteBuffer;
+
+import hr.fer.zemris.java.custom.collections.ElementCodec;
+
+/**
+ * Codec which encodes a complex number as two doubles, the real part followed
+ * by the imaginary part, 16 bytes in total. The magnitude and angle are not
+ * written, since they are calculated again when the number is decoded.
+ *
+ * @author labramusic
+ *
+ */
+public class ComplexNumberCodec extends ElementCodec {
+
+	/**
+	 * The only instance of the codec.
+	 */
+	public static final ComplexNumberCodec INSTANCE = new ComplexNumberCodec();
+
+	/**
+	 * Private constructor, the codec is used through INSTANCE.
+	 */
+	private ComplexNumberCodec() {
+		super(2 * Double.BYTES);
+	}
+
+	@Override
+	public void encode(ByteBuffer buffer, Object value) {
+		ComplexNumber number = (ComplexNumber) value;
+		buffer.putDouble(number.getReal());
+		buffer.putDouble(number.getImaginary());
+	}
+
+	@Override
+	public Object decode(ByteBuffer buffer) {
+		double real = buffer.getDouble();
+		double imaginary = buffer.getDouble();
+		return new ComplexNumber(real, imaginary);
+	}
+
+}
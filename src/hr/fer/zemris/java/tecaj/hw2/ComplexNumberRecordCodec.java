@@ -0,0 +1,59 @@
+package hr.fer.zemris.java.tecaj.hw2;
+
+import java.nio.ByteBuffer;
+
+import hr.fer.zemris.java.custom.collections.RecordCodec;
+
+/**
+ * Codec which stores a complex number as a fixed-width record of two doubles,
+ * the real part followed by the imaginary part, 16 bytes in total. The parts
+ * are stored as the bits returned by Double.doubleToLongBits, so that equality
+ * of records matches ComplexNumber.equals. Records can be decoded either into
+ * new ComplexNumber objects or into a reused ComplexAccumulator, which lets
+ * the flyweight variants of get and forEach of the off-heap and mapped
+ * collections traverse elements without allocating.
+ *
+ * @author labramusic
+ *
+ */
+public class ComplexNumberRecordCodec extends RecordCodec {
+
+	/**
+	 * The only instance of the codec.
+	 */
+	public static final ComplexNumberRecordCodec INSTANCE = new ComplexNumberRecordCodec();
+
+	/**
+	 * Private constructor, the codec is used through INSTANCE.
+	 */
+	private ComplexNumberRecordCodec() {
+		super(2 * Double.BYTES);
+	}
+
+	@Override
+	public void write(ByteBuffer buffer, int offset, Object value) {
+		ComplexNumber number = (ComplexNumber) value;
+		buffer.putLong(offset, Double.doubleToLongBits(number.getReal()));
+		buffer.putLong(offset + Double.BYTES, Double.doubleToLongBits(number.getImaginary()));
+	}
+
+	@Override
+	public Object read(ByteBuffer buffer, int offset) {
+		return new ComplexNumber(Double.longBitsToDouble(buffer.getLong(offset)),
+				Double.longBitsToDouble(buffer.getLong(offset + Double.BYTES)));
+	}
+
+	/**
+	 * Decodes the record into the given ComplexAccumulator. Throws
+	 * IllegalArgumentException if the target is not a ComplexAccumulator.
+	 */
+	@Override
+	public void readInto(ByteBuffer buffer, int offset, Object target) {
+		if (!(target instanceof ComplexAccumulator)) {
+			throw new IllegalArgumentException("Target must be a ComplexAccumulator.");
+		}
+		((ComplexAccumulator) target).set(Double.longBitsToDouble(buffer.getLong(offset)),
+				Double.longBitsToDouble(buffer.getLong(offset + Double.BYTES)));
+	}
+
+}
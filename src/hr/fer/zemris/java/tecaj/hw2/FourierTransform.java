@@ -0,0 +1,637 @@
+package hr.fer.zemris.java.tecaj.hw2;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Calculates the discrete Fourier transform and its inverse in place, in
+ * O(n log n) time. The forward transform of x is X[k] = sum of x[j] e^(-2 Pi
+ * i j k / n), and the inverse transform divides by n, so it restores the
+ * original values. The values are given either as two arrays of real and
+ * imaginary parts, as a single array of interleaved parts, or as a
+ * ComplexArray. All layouts are transformed in place: the butterflies index
+ * the given arrays directly, with the real part of the kth value at k step
+ * and the imaginary part at k step + offset, so interleaved parts are not
+ * copied into separate arrays. Only Bluestein's algorithm needs scratch
+ * arrays, for its convolution.
+ * <p>
+ * Lengths which are powers of two are transformed by the iterative radix-2
+ * algorithm. Other lengths are transformed by Bluestein's algorithm, which
+ * expresses the transform as a convolution and calculates it with radix-2
+ * transforms of a power-of-two length at least 2n - 1. The twiddle factors
+ * are the nth roots of 1 from {@link ComplexNumber#root(int)}. Only the table
+ * of the longest power-of-two length up to MAX_CACHED_LENGTH is cached, since
+ * the roots of every shorter power-of-two length are among its elements, so
+ * the cache never holds more than one table of at most 4 MB. The roots of
+ * longer transforms are calculated on every call. Bluestein's chirp and the
+ * transform of the conjugated chirp are cached for the last length whose
+ * convolution is at most MAX_CACHED_LENGTH long, so repeated transforms of the
+ * same length only calculate two radix-2 transforms. The butterflies of a
+ * stage are independent, so
+ * stages of large transforms are split among the threads of the common
+ * ForkJoinPool.
+ *
+ * @author labramusic
+ *
+ */
+public final class FourierTransform {
+
+	/**
+	 * Minimum number of butterflies a single parallel task performs.
+	 */
+	private static final int MIN_PARALLEL_GRAIN = 8192;
+
+	/**
+	 * Maximum length transformed by Bluestein's algorithm, so the length of
+	 * its radix-2 transforms fits in an int.
+	 */
+	private static final int MAX_BLUESTEIN_LENGTH = 1 << 29;
+
+	/**
+	 * Longest power-of-two length whose roots of 1 are cached.
+	 */
+	private static final int MAX_CACHED_LENGTH = 1 << 18;
+
+	/**
+	 * Cached real and imaginary parts of the roots of 1 of the longest
+	 * power-of-two length transformed so far, null before the first transform.
+	 */
+	private static volatile double[][] cachedTwiddles;
+
+	/**
+	 * Cached real and imaginary parts of Bluestein's chirp of the last cached
+	 * length, followed by the real and imaginary parts of the transform of the
+	 * conjugated chirp, null before the first such transform.
+	 */
+	private static volatile double[][] cachedChirp;
+
+	/**
+	 * Private constructor, the class only has static methods.
+	 */
+	private FourierTransform() {
+	}
+
+	/**
+	 * Replaces the given values with their forward transform. Throws
+	 * IllegalArgumentException if the arrays are null or of different
+	 * lengths.
+	 *
+	 * @param re
+	 *            real parts
+	 * @param im
+	 *            imaginary parts
+	 */
+	public static void forward(double[] re, double[] im) {
+		checkParts(re, im);
+		transform(re, im, re.length, 1, 0);
+	}
+
+	/**
+	 * Replaces the given values with their inverse transform. Throws
+	 * IllegalArgumentException if the arrays are null or of different
+	 * lengths.
+	 *
+	 * @param re
+	 *            real parts
+	 * @param im
+	 *            imaginary parts
+	 */
+	public static void inverse(double[] re, double[] im) {
+		checkParts(re, im);
+		inverseTransform(re, im, re.length, 1, 0);
+	}
+
+	/**
+	 * Replaces the given values with their forward transform. The values are
+	 * interleaved, with the real part of the kth value at index 2k and the
+	 * imaginary part at 2k + 1. Throws IllegalArgumentException if the array
+	 * is null or of odd length.
+	 *
+	 * @param data
+	 *            interleaved parts
+	 */
+	public static void forward(double[] data) {
+		checkInterleaved(data);
+		transform(data, data, data.length >>> 1, 2, 1);
+	}
+
+	/**
+	 * Replaces the given interleaved values with their inverse transform.
+	 * Throws IllegalArgumentException if the array is null or of odd length.
+	 *
+	 * @param data
+	 *            interleaved parts
+	 */
+	public static void inverse(double[] data) {
+		checkInterleaved(data);
+		inverseTransform(data, data, data.length >>> 1, 2, 1);
+	}
+
+	/**
+	 * Replaces the values of the given array with their forward transform.
+	 * Throws IllegalArgumentException if the array is null.
+	 *
+	 * @param array
+	 *            transformed values
+	 */
+	public static void forward(ComplexArray array) {
+		if (array == null) {
+			throw new IllegalArgumentException();
+		}
+		transform(array.real(), array.imaginary(), array.length(), 1, 0);
+	}
+
+	/**
+	 * Replaces the values of the given array with their inverse transform.
+	 * Throws IllegalArgumentException if the array is null.
+	 *
+	 * @param array
+	 *            transformed values
+	 */
+	public static void inverse(ComplexArray array) {
+		if (array == null) {
+			throw new IllegalArgumentException();
+		}
+		inverseTransform(array.real(), array.imaginary(), array.length(), 1, 0);
+	}
+
+	/**
+	 * Calculates the forward transform with the algorithm suited for the
+	 * length.
+	 *
+	 * @param re
+	 *            array holding the real parts
+	 * @param im
+	 *            array holding the imaginary parts
+	 * @param n
+	 *            number of values
+	 * @param step
+	 *            distance between the parts of neighbouring values
+	 * @param offset
+	 *            index of the imaginary part of the first value
+	 */
+	private static void transform(double[] re, double[] im, int n, int step, int offset) {
+		if (n <= 1) {
+			return;
+		}
+		if ((n & (n - 1)) == 0) {
+			radix2(re, im, n, step, offset);
+		} else {
+			bluestein(re, im, n, step, offset);
+		}
+	}
+
+	/**
+	 * Calculates the inverse transform as the conjugate of the forward
+	 * transform of the conjugated values, divided by n.
+	 *
+	 * @param re
+	 *            array holding the real parts
+	 * @param im
+	 *            array holding the imaginary parts
+	 * @param n
+	 *            number of values
+	 * @param step
+	 *            distance between the parts of neighbouring values
+	 * @param offset
+	 *            index of the imaginary part of the first value
+	 */
+	private static void inverseTransform(double[] re, double[] im, int n, int step, int offset) {
+		for (int k = 0; k < n; ++k) {
+			im[k * step + offset] = -im[k * step + offset];
+		}
+		transform(re, im, n, step, offset);
+		double scale = 1.0 / n;
+		for (int k = 0; k < n; ++k) {
+			re[k * step] *= scale;
+			im[k * step + offset] *= -scale;
+		}
+	}
+
+	/**
+	 * Returns the real and imaginary parts of the nth roots of 1, the kth
+	 * being e^(2 Pi i k / n).
+	 *
+	 * @param n
+	 *            number of roots
+	 * @return array holding the real parts and the imaginary parts
+	 */
+	private static double[][] roots(int n) {
+		ComplexNumber[] roots = new ComplexNumber(1, 0).root(n);
+		double[][] table = new double[2][n];
+		for (int k = 0; k < n; ++k) {
+			table[0][k] = roots[k].getReal();
+			table[1][k] = roots[k].getImaginary();
+		}
+		return table;
+	}
+
+	/**
+	 * Returns the roots of 1 of a power-of-two length which is a multiple of
+	 * the given power-of-two length, so the roots of the given length are
+	 * every (length / n)th element. The cached table is returned if it is long
+	 * enough, otherwise the roots of the given length are calculated and
+	 * cached if the length is at most MAX_CACHED_LENGTH.
+	 *
+	 * @param n
+	 *            power-of-two number of roots
+	 * @return array holding the real parts and the imaginary parts
+	 */
+	private static double[][] twiddles(int n) {
+		double[][] table = cachedTwiddles;
+		if (table != null && table[0].length >= n) {
+			return table;
+		}
+		table = roots(n);
+		if (n <= MAX_CACHED_LENGTH) {
+			// a concurrent call may replace a longer table, which only costs
+			// calculating it again later
+			cachedTwiddles = table;
+		}
+		return table;
+	}
+
+	/**
+	 * Calculates the forward transform of a power-of-two length by reordering
+	 * the values by bit-reversed indexes and combining transforms of doubling
+	 * lengths, one stage per bit of the length.
+	 *
+	 * @param re
+	 *            array holding the real parts
+	 * @param im
+	 *            array holding the imaginary parts
+	 * @param n
+	 *            number of values
+	 * @param step
+	 *            distance between the parts of neighbouring values
+	 * @param offset
+	 *            index of the imaginary part of the first value
+	 */
+	private static void radix2(double[] re, double[] im, int n, int step, int offset) {
+		bitReverse(re, im, n, step, offset);
+		double[][] table = twiddles(n);
+		int butterflies = n >>> 1;
+		int grain = parallelGrain(butterflies);
+		int levels = Integer.numberOfTrailingZeros(n);
+		int tableLevels = Integer.numberOfTrailingZeros(table[0].length);
+		for (int level = 0; level < levels; ++level) {
+			Stage stage = new Stage(re, im, step, offset, table, 1 << level, tableLevels - 1 - level);
+			if (butterflies <= grain) {
+				stage.butterflies(0, butterflies);
+			} else {
+				ForkJoinPool.commonPool().invoke(new StageTask(stage, 0, butterflies, grain));
+			}
+		}
+	}
+
+	/**
+	 * Swaps every value with the value at the bit-reversed index.
+	 *
+	 * @param re
+	 *            array holding the real parts
+	 * @param im
+	 *            array holding the imaginary parts
+	 * @param n
+	 *            number of values
+	 * @param step
+	 *            distance between the parts of neighbouring values
+	 * @param offset
+	 *            index of the imaginary part of the first value
+	 */
+	private static void bitReverse(double[] re, double[] im, int n, int step, int offset) {
+		for (int i = 1, j = 0; i < n; ++i) {
+			int bit = n >>> 1;
+			for (; (j & bit) != 0; bit >>>= 1) {
+				j ^= bit;
+			}
+			j ^= bit;
+			if (i < j) {
+				int a = i * step;
+				int b = j * step;
+				double temp = re[a];
+				re[a] = re[b];
+				re[b] = temp;
+				temp = im[a + offset];
+				im[a + offset] = im[b + offset];
+				im[b + offset] = temp;
+			}
+		}
+	}
+
+	/**
+	 * Calculates the forward transform of any length by Bluestein's
+	 * algorithm. Since j k = (j^2 + k^2 - (k - j)^2) / 2, the transform is the
+	 * convolution of the values multiplied by the chirp w[j] = e^(-Pi i j^2 /
+	 * n) with the conjugated chirp, multiplied by the chirp again. The
+	 * convolution is calculated by radix-2 transforms of scratch arrays.
+	 *
+	 * @param re
+	 *            array holding the real parts
+	 * @param im
+	 *            array holding the imaginary parts
+	 * @param n
+	 *            number of values
+	 * @param step
+	 *            distance between the parts of neighbouring values
+	 * @param offset
+	 *            index of the imaginary part of the first value
+	 */
+	private static void bluestein(double[] re, double[] im, int n, int step, int offset) {
+		if (n > MAX_BLUESTEIN_LENGTH) {
+			throw new IllegalArgumentException("Length " + n + " is too large for a transform.");
+		}
+		int m = Integer.highestOneBit(2 * n - 1) << 1;
+		double[][] chirp = chirp(n, m);
+		double[] chirpRe = chirp[0];
+		double[] chirpIm = chirp[1];
+		double[] bRe = chirp[2];
+		double[] bIm = chirp[3];
+
+		double[] aRe = new double[m];
+		double[] aIm = new double[m];
+		for (int k = 0; k < n; ++k) {
+			double xRe = re[k * step];
+			double xIm = im[k * step + offset];
+			aRe[k] = xRe * chirpRe[k] - xIm * chirpIm[k];
+			aIm[k] = xRe * chirpIm[k] + xIm * chirpRe[k];
+		}
+
+		radix2(aRe, aIm, m, 1, 0);
+		for (int k = 0; k < m; ++k) {
+			double r = aRe[k] * bRe[k] - aIm[k] * bIm[k];
+			// conjugated, so the forward transform below is an inverse one
+			aIm[k] = -(aRe[k] * bIm[k] + aIm[k] * bRe[k]);
+			aRe[k] = r;
+		}
+		radix2(aRe, aIm, m, 1, 0);
+
+		double scale = 1.0 / m;
+		for (int k = 0; k < n; ++k) {
+			double cRe = aRe[k] * scale;
+			double cIm = -aIm[k] * scale;
+			re[k * step] = cRe * chirpRe[k] - cIm * chirpIm[k];
+			im[k * step + offset] = cRe * chirpIm[k] + cIm * chirpRe[k];
+		}
+	}
+
+	/**
+	 * Returns Bluestein's chirp w[k] = e^(-Pi i k^2 / n) and the transform of
+	 * the conjugated chirp wrapped around a convolution of the given length.
+	 * The cached arrays are returned if they belong to the same length,
+	 * otherwise they are calculated and cached if the convolution is at most
+	 * MAX_CACHED_LENGTH long. The returned arrays must not be modified.
+	 *
+	 * @param n
+	 *            number of values
+	 * @param m
+	 *            power-of-two length of the convolution, at least 2n - 1
+	 * @return array holding the real and imaginary parts of the chirp and the
+	 *         real and imaginary parts of the transform
+	 */
+	private static double[][] chirp(int n, int m) {
+		double[][] chirp = cachedChirp;
+		if (chirp != null && chirp[0].length == n) {
+			return chirp;
+		}
+		// j^2 is taken modulo 2n, so the chirp comes from the 2nth roots of 1
+		double[][] table = roots(2 * n);
+		double[] chirpRe = new double[n];
+		double[] chirpIm = new double[n];
+		for (int k = 0; k < n; ++k) {
+			int index = (int) ((long) k * k % (2L * n));
+			chirpRe[k] = table[0][index];
+			chirpIm[k] = -table[1][index];
+		}
+		double[] bRe = new double[m];
+		double[] bIm = new double[m];
+		bRe[0] = chirpRe[0];
+		bIm[0] = -chirpIm[0];
+		for (int k = 1; k < n; ++k) {
+			bRe[k] = bRe[m - k] = chirpRe[k];
+			bIm[k] = bIm[m - k] = -chirpIm[k];
+		}
+		radix2(bRe, bIm, m, 1, 0);
+
+		chirp = new double[][] { chirpRe, chirpIm, bRe, bIm };
+		if (m <= MAX_CACHED_LENGTH) {
+			// the arrays are complete before they are published, and a
+			// concurrent call only replaces them with those of another length
+			cachedChirp = chirp;
+		}
+		return chirp;
+	}
+
+	/**
+	 * Returns the maximum number of butterflies performed by a single task.
+	 * Each thread of the common pool gets about four tasks per stage, but
+	 * never less than MIN_PARALLEL_GRAIN butterflies.
+	 *
+	 * @param butterflies
+	 *            number of butterflies of a stage
+	 * @return maximum number of butterflies performed by a single task
+	 */
+	private static int parallelGrain(int butterflies) {
+		int parallelism = ForkJoinPool.getCommonPoolParallelism();
+		if (parallelism < 2) {
+			return Integer.MAX_VALUE;
+		}
+		return Math.max(MIN_PARALLEL_GRAIN, butterflies / (4 * parallelism));
+	}
+
+	/**
+	 * Throws IllegalArgumentException if the parts are null or of different
+	 * lengths.
+	 *
+	 * @param re
+	 *            real parts
+	 * @param im
+	 *            imaginary parts
+	 */
+	private static void checkParts(double[] re, double[] im) {
+		if (re == null || im == null || re.length != im.length) {
+			throw new IllegalArgumentException("Parts must be arrays of the same length.");
+		}
+	}
+
+	/**
+	 * Throws IllegalArgumentException if the interleaved parts are null or of
+	 * odd length.
+	 *
+	 * @param data
+	 *            interleaved parts
+	 */
+	private static void checkInterleaved(double[] data) {
+		if (data == null || data.length % 2 != 0) {
+			throw new IllegalArgumentException("Interleaved parts must be of even length.");
+		}
+	}
+
+	/**
+	 * A stage of the radix-2 transform, holding everything its butterflies
+	 * need.
+	 *
+	 * @author labramusic
+	 *
+	 */
+	private static class Stage {
+
+		/**
+		 * Array holding the real parts.
+		 */
+		private final double[] re;
+
+		/**
+		 * Array holding the imaginary parts.
+		 */
+		private final double[] im;
+
+		/**
+		 * Distance between the parts of neighbouring values.
+		 */
+		private final int step;
+
+		/**
+		 * Index of the imaginary part of the first value.
+		 */
+		private final int offset;
+
+		/**
+		 * Roots of 1 of the table length.
+		 */
+		private final double[][] table;
+
+		/**
+		 * Half of the length of the transforms of the stage.
+		 */
+		private final int half;
+
+		/**
+		 * Binary logarithm of the step between used roots of the table.
+		 */
+		private final int stride;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param re
+		 *            array holding the real parts
+		 * @param im
+		 *            array holding the imaginary parts
+		 * @param step
+		 *            distance between the parts of neighbouring values
+		 * @param offset
+		 *            index of the imaginary part of the first value
+		 * @param table
+		 *            roots of 1 of the table length
+		 * @param half
+		 *            half of the length of the transforms of the stage
+		 * @param stride
+		 *            binary logarithm of the step between used roots
+		 */
+		Stage(double[] re, double[] im, int step, int offset, double[][] table, int half, int stride) {
+			this.re = re;
+			this.im = im;
+			this.step = step;
+			this.offset = offset;
+			this.table = table;
+			this.half = half;
+			this.stride = stride;
+		}
+
+		/**
+		 * Performs a range of the butterflies of the stage. The pth butterfly
+		 * combines the values at indexes i and i + half with the kth twiddle
+		 * factor of its transform, where k is p modulo half.
+		 *
+		 * @param from
+		 *            index of the first butterfly, inclusive
+		 * @param to
+		 *            index of the last butterfly, exclusive
+		 */
+		void butterflies(int from, int to) {
+			double[] re = this.re;
+			double[] im = this.im;
+			double[] cos = table[0];
+			double[] sin = table[1];
+			int mask = half - 1;
+			for (int p = from; p < to; ++p) {
+				int k = p & mask;
+				int i = (((p - k) << 1) + k) * step;
+				int j = i + half * step;
+				double wr = cos[k << stride];
+				double wi = -sin[k << stride];
+				double tr = re[j] * wr - im[j + offset] * wi;
+				double ti = re[j] * wi + im[j + offset] * wr;
+				re[j] = re[i] - tr;
+				im[j + offset] = im[i + offset] - ti;
+				re[i] += tr;
+				im[i + offset] += ti;
+			}
+		}
+	}
+
+	/**
+	 * Task which performs a range of the butterflies of a stage, splitting the
+	 * range in halves until it is small enough.
+	 *
+	 * @author labramusic
+	 *
+	 */
+	private static class StageTask extends RecursiveAction {
+
+		/**
+		 * Default serial version UID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Stage the butterflies belong to.
+		 */
+		private final Stage stage;
+
+		/**
+		 * Index of the first butterfly of the range, inclusive.
+		 */
+		private final int from;
+
+		/**
+		 * Index of the last butterfly of the range, exclusive.
+		 */
+		private final int to;
+
+		/**
+		 * Maximum number of butterflies performed without splitting.
+		 */
+		private final int grain;
+
+		/**
+		 * Constructor.
+		 *
+		 * @param stage
+		 *            stage the butterflies belong to
+		 * @param from
+		 *            index of the first butterfly, inclusive
+		 * @param to
+		 *            index of the last butterfly, exclusive
+		 * @param grain
+		 *            maximum number of butterflies performed without splitting
+		 */
+		StageTask(Stage stage, int from, int to, int grain) {
+			this.stage = stage;
+			this.from = from;
+			this.to = to;
+			this.grain = grain;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= grain) {
+				stage.butterflies(from, to);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new StageTask(stage, from, middle, grain), new StageTask(stage, middle, to, grain));
+		}
+	}
+
+}
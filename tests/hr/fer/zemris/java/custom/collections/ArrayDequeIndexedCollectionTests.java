@@ -0,0 +1,210 @@
+package hr.fer.zemris.java.custom.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ArrayDequeIndexedCollectionTests {
+
+	private static final int CAPACITY = 8;
+
+	@Test
+	public void insertAtEveryHeadAndPositionTest() {
+		// sizes up to the capacity, so inserting into a full buffer grows it
+		// while it is wrapped
+		for (int head = 0; head < CAPACITY; ++head) {
+			for (int size = 0; size <= CAPACITY; ++size) {
+				for (int position = 0; position <= size; ++position) {
+					ArrayDequeIndexedCollection deque = wrapped(head, size);
+					List<Object> model = model(size);
+					deque.insert(-1, position);
+					model.add(position, -1);
+					assertArrayEquals(message(head, size, position), model.toArray(), deque.toArray());
+					checkGet(deque, model);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void removeAtEveryHeadAndIndexTest() {
+		for (int head = 0; head < CAPACITY; ++head) {
+			for (int size = 1; size <= CAPACITY; ++size) {
+				for (int index = 0; index < size; ++index) {
+					ArrayDequeIndexedCollection deque = wrapped(head, size);
+					List<Object> model = model(size);
+					deque.remove(index);
+					model.remove(index);
+					assertArrayEquals(message(head, size, index), model.toArray(), deque.toArray());
+					checkGet(deque, model);
+					// the freed places must be reusable from both ends
+					deque.addFirst(-1);
+					deque.addLast(-2);
+					model.add(0, -1);
+					model.add(-2);
+					assertArrayEquals(message(head, size, index), model.toArray(), deque.toArray());
+				}
+			}
+		}
+	}
+
+	@Test
+	public void endsWrapAroundTest() {
+		ArrayDequeIndexedCollection deque = new ArrayDequeIndexedCollection(CAPACITY);
+		List<Object> model = new ArrayList<>();
+		// the head walks around the buffer several times without growing it
+		for (int i = 0; i < 5 * CAPACITY; ++i) {
+			deque.addLast(i);
+			model.add(i);
+			if (model.size() == CAPACITY - 1) {
+				for (int j = 0; j < 3; ++j) {
+					assertEquals(model.remove(0), deque.removeFirst());
+				}
+			}
+		}
+		assertArrayEquals(model.toArray(), deque.toArray());
+		for (int i = 0; i < 2 * CAPACITY; ++i) {
+			deque.addFirst(-i);
+			model.add(0, -i);
+			assertEquals(model.remove(model.size() - 1), deque.removeLast());
+		}
+		assertArrayEquals(model.toArray(), deque.toArray());
+		checkGet(deque, model);
+	}
+
+	@Test
+	public void bulkOperationsWhileWrappedTest() {
+		ArrayDequeIndexedCollection deque = wrapped(CAPACITY - 2, CAPACITY - 1);
+		List<Object> model = model(CAPACITY - 1);
+
+		ArrayDequeIndexedCollection copy = new ArrayDequeIndexedCollection(deque);
+		copy.addAll(deque);
+		List<Object> copyModel = new ArrayList<>(model);
+		copyModel.addAll(model);
+		assertArrayEquals(copyModel.toArray(), copy.toArray());
+
+		deque.addAll(copy);
+		model.addAll(copyModel);
+		assertArrayEquals(model.toArray(), deque.toArray());
+
+		class Odd extends Tester {
+			@Override
+			public boolean test(Object value) {
+				return (Integer) value % 2 != 0;
+			}
+		}
+		assertEquals(true, deque.removeIf(new Odd()));
+		model.removeIf(value -> (Integer) value % 2 != 0);
+		assertArrayEquals(model.toArray(), deque.toArray());
+		assertEquals(model.indexOf(4), deque.indexOf(4));
+
+		List<Object> visited = new ArrayList<>();
+		deque.forEach(new Processor() {
+			@Override
+			public void process(Object value) {
+				visited.add(value);
+			}
+		});
+		assertEquals(model, visited);
+	}
+
+	@Test
+	public void matchesArrayListTest() {
+		for (int seed = 0; seed < 50; ++seed) {
+			Random random = new Random(seed);
+			ArrayDequeIndexedCollection deque = new ArrayDequeIndexedCollection(1);
+			List<Object> model = new ArrayList<>();
+			for (int step = 0; step < 2000; ++step) {
+				Integer value = random.nextInt(100);
+				int operation = random.nextInt(8);
+				if (operation == 0) {
+					deque.addFirst(value);
+					model.add(0, value);
+				} else if (operation == 1) {
+					deque.addLast(value);
+					model.add(value);
+				} else if (operation == 2 && !model.isEmpty()) {
+					assertEquals("seed " + seed, model.remove(0), deque.removeFirst());
+				} else if (operation == 3 && !model.isEmpty()) {
+					assertEquals("seed " + seed, model.remove(model.size() - 1), deque.removeLast());
+				} else if (operation == 4) {
+					int position = random.nextInt(model.size() + 1);
+					deque.insert(value, position);
+					model.add(position, value);
+				} else if (operation == 5 && !model.isEmpty()) {
+					int index = random.nextInt(model.size());
+					deque.remove(index);
+					model.remove(index);
+				} else if (operation == 6) {
+					assertEquals("seed " + seed, model.remove(value), deque.remove(value));
+				} else {
+					assertEquals("seed " + seed, model.indexOf(value), deque.indexOf(value));
+				}
+				assertEquals("seed " + seed, model.size(), deque.size());
+			}
+			assertArrayEquals(model.toArray(), deque.toArray());
+			checkGet(deque, model);
+		}
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void removeFirstEmptyTest() {
+		new ArrayDequeIndexedCollection().removeFirst();
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void removeLastEmptyTest() {
+		new ArrayDequeIndexedCollection().removeLast();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void addFirstNullTest() {
+		new ArrayDequeIndexedCollection().addFirst(null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void capacityTooSmallTest() {
+		new ArrayDequeIndexedCollection(0);
+	}
+
+	// a deque with a buffer of CAPACITY places whose first element is stored
+	// at the given place, holding the values 0 to size - 1
+	private static ArrayDequeIndexedCollection wrapped(int head, int size) {
+		ArrayDequeIndexedCollection deque = new ArrayDequeIndexedCollection(CAPACITY);
+		for (int i = 0; i < head; ++i) {
+			deque.addLast(i);
+		}
+		for (int i = 0; i < head; ++i) {
+			deque.removeFirst();
+		}
+		for (int i = 0; i < size; ++i) {
+			deque.addLast(i);
+		}
+		return deque;
+	}
+
+	private static List<Object> model(int size) {
+		List<Object> model = new ArrayList<>();
+		for (int i = 0; i < size; ++i) {
+			model.add(i);
+		}
+		return model;
+	}
+
+	private static void checkGet(ArrayDequeIndexedCollection deque, List<Object> model) {
+		assertEquals(model.size(), deque.size());
+		for (int i = 0; i < model.size(); ++i) {
+			assertEquals(model.get(i), deque.get(i));
+		}
+	}
+
+	private static String message(int head, int size, int index) {
+		return "head " + head + ", size " + size + ", index " + index;
+	}
+
+}
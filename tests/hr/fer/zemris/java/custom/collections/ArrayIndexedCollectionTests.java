@@ -0,0 +1,173 @@
+package hr.fer.zemris.java.custom.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ArrayIndexedCollectionTests {
+
+	@Test
+	public void removeLastKeepsHashIndexTest() {
+		Random random = new Random(11);
+		ArrayIndexedCollection collection = new ArrayIndexedCollection();
+		collection.enableHashIndex();
+		List<Object> model = new ArrayList<>();
+		for (int round = 0; round < 200; ++round) {
+			for (int i = random.nextInt(20); i > 0; --i) {
+				Integer value = random.nextInt(10);
+				collection.add(value);
+				model.add(value);
+			}
+			int count = random.nextInt(model.size() + 1);
+			Object[] target = new Object[count + 1];
+			collection.removeLast(target, 1, count);
+			for (int i = count; i > 0; --i) {
+				assertEquals(model.remove(model.size() - 1), target[i]);
+			}
+			if (!model.isEmpty() && random.nextBoolean()) {
+				assertEquals(model.remove(model.size() - 1), collection.removeLast());
+			}
+			for (int value = 0; value < 10; ++value) {
+				assertEquals(model.indexOf(value), collection.indexOf(value));
+			}
+		}
+		assertArrayEquals(model.toArray(), collection.toArray());
+	}
+
+	@Test
+	public void removeLastRecordsRemovalsWithoutShiftsTest() {
+		ArrayIndexedCollection collection = new ArrayIndexedCollection();
+		collection.enableMetrics();
+		for (int i = 0; i < 10; ++i) {
+			collection.add(i);
+		}
+		collection.removeLast(new Object[4], 0, 4);
+		collection.removeLast();
+		collection.remove(0);
+		CollectionMetrics metrics = collection.getMetrics();
+		assertEquals(6, metrics.getIndexedRemovals());
+		assertEquals(4, metrics.getShiftedElements());
+	}
+
+	private static ArrayIndexedCollection filled(int count) {
+		ArrayIndexedCollection collection = new ArrayIndexedCollection();
+		for (int i = 0; i < count; ++i) {
+			collection.add(i);
+		}
+		return collection;
+	}
+
+	@Test
+	public void shrinkQuarterFullTest() {
+		ArrayIndexedCollection collection = filled(64);
+		assertEquals(64, collection.capacity());
+		collection.enableShrinking(4);
+		while (collection.size() > 16) {
+			collection.remove(collection.size() - 1);
+			assertEquals(64, collection.capacity());
+		}
+		// less than a quarter full, so halved to half full
+		collection.remove(15);
+		assertEquals(32, collection.capacity());
+		while (collection.size() > 3) {
+			collection.remove(0);
+		}
+		assertEquals(8, collection.capacity());
+		collection.clear();
+		assertEquals(8, collection.capacity());
+		assertArrayEquals(new Object[0], collection.toArray());
+	}
+
+	@Test
+	public void shrinkHysteresisTest() {
+		ArrayIndexedCollection collection = filled(64);
+		collection.enableShrinking(4);
+		collection.enableMetrics();
+		collection.removeLast(new Object[49], 0, 49);
+		assertEquals(32, collection.capacity());
+		assertEquals(1, collection.getMetrics().getResizes());
+		// swinging around the boundary neither grows nor shrinks the array
+		for (int i = 0; i < 1000; ++i) {
+			collection.add(i);
+			collection.add(i);
+			collection.remove(collection.size() - 1);
+			collection.removeLast();
+		}
+		assertEquals(32, collection.capacity());
+		assertEquals(1, collection.getMetrics().getResizes());
+		assertEquals(15, collection.size());
+	}
+
+	@Test
+	public void shrinkFloorTest() {
+		ArrayIndexedCollection collection = filled(64);
+		collection.enableShrinking(40);
+		collection.removeIf(new Tester() {
+			@Override
+			public boolean test(Object value) {
+				return true;
+			}
+		});
+		assertEquals(40, collection.capacity());
+		collection.enableShrinking(1);
+		collection.add(1);
+		collection.removeLast();
+		// halved from 40 while empty, until a quarter of the capacity is 0
+		assertEquals(2, collection.capacity());
+	}
+
+	@Test
+	public void shrinkingDisabledTest() {
+		ArrayIndexedCollection collection = filled(64);
+		collection.enableShrinking(4);
+		collection.disableShrinking();
+		collection.remove(Integer.valueOf(0));
+		collection.removeLast(new Object[60], 0, 60);
+		assertEquals(64, collection.capacity());
+		assertArrayEquals(new Object[] { 1, 2, 3 }, collection.toArray());
+	}
+
+	@Test
+	public void shrinkKeepsElementsTest() {
+		Random random = new Random(5);
+		ArrayIndexedCollection collection = new ArrayIndexedCollection(1);
+		collection.enableShrinking(2);
+		collection.enableHashIndex();
+		List<Object> model = new ArrayList<>();
+		for (int i = 0; i < 20_000; ++i) {
+			int action = random.nextInt(model.size() < 100 ? 4 : 5);
+			if (action < 2 || model.isEmpty()) {
+				Integer value = random.nextInt(50);
+				collection.add(value);
+				model.add(value);
+			} else if (action == 2) {
+				int index = random.nextInt(model.size());
+				collection.remove(index);
+				model.remove(index);
+			} else {
+				int count = random.nextInt(model.size() + 1);
+				collection.removeLast(new Object[count], 0, count);
+				model.subList(model.size() - count, model.size()).clear();
+			}
+			assertEquals(model.size(), collection.size());
+			assertTrue(collection.capacity() >= collection.size());
+			assertTrue(collection.capacity() <= 2 || collection.size() >= collection.capacity() / 4);
+		}
+		assertArrayEquals(model.toArray(), collection.toArray());
+		for (int value = 0; value < 50; ++value) {
+			assertEquals(model.indexOf(value), collection.indexOf(value));
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shrinkFloorZeroTest() {
+		new ArrayIndexedCollection().enableShrinking(0);
+	}
+
+}
@@ -0,0 +1,173 @@
+package hr.fer.zemris.java.custom.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CollectionSnapshotTests {
+
+	// more records than fit into one write chunk of 64 KiB
+	private static final int SIZE = 20_000;
+
+	@Test
+	public void integerRoundTripTest() throws IOException {
+		Random random = new Random(1);
+		ArrayIndexedCollection source = new ArrayIndexedCollection();
+		source.add(Integer.MIN_VALUE);
+		source.add(Integer.MAX_VALUE);
+		source.add(-1);
+		while (source.size() < SIZE) {
+			source.add(random.nextInt());
+		}
+		checkRoundTrips(source, RecordCodec.INTEGER);
+	}
+
+	@Test
+	public void longRoundTripTest() throws IOException {
+		Random random = new Random(2);
+		ArrayIndexedCollection source = new ArrayIndexedCollection();
+		source.add(Long.MIN_VALUE);
+		source.add(Long.MAX_VALUE);
+		source.add(-1L);
+		while (source.size() < SIZE) {
+			source.add(random.nextLong());
+		}
+		checkRoundTrips(source, RecordCodec.LONG);
+	}
+
+	@Test
+	public void doubleRoundTripTest() throws IOException {
+		Random random = new Random(3);
+		ArrayIndexedCollection source = new ArrayIndexedCollection();
+		source.add(Double.NaN);
+		source.add(-0.0);
+		source.add(Double.NEGATIVE_INFINITY);
+		source.add(Double.MIN_VALUE);
+		while (source.size() < SIZE) {
+			source.add(random.nextGaussian());
+		}
+		checkRoundTrips(source, RecordCodec.DOUBLE);
+	}
+
+	@Test
+	public void writeFromOffHeapTest() throws IOException {
+		OffHeapIndexedCollection source = new OffHeapIndexedCollection(RecordCodec.LONG);
+		try {
+			for (long i = 0; i < SIZE; ++i) {
+				source.add(i * i - 7);
+			}
+			checkRoundTrips(source, RecordCodec.LONG);
+		} finally {
+			source.free();
+		}
+	}
+
+	@Test
+	public void emptySnapshotTest() throws IOException {
+		checkRoundTrips(new ArrayIndexedCollection(), RecordCodec.INTEGER);
+	}
+
+	@Test
+	public void valuesTheCodecCannotEncodeAreNotFoundTest() throws IOException {
+		ArrayIndexedCollection source = new ArrayIndexedCollection();
+		source.add(1L);
+		source.add(2L);
+		Path file = Files.createTempFile("values", ".snapshot");
+		try {
+			CollectionSnapshot.write(source, RecordCodec.LONG, file);
+			MappedIndexedCollection mapped = CollectionSnapshot.map(file, RecordCodec.LONG);
+			try {
+				assertFalse(mapped.contains("x"));
+				assertEquals(-1, mapped.indexOf(1));
+				assertEquals(1, mapped.indexOf(2L));
+			} finally {
+				mapped.free();
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void truncatedSnapshotTest() throws IOException {
+		ArrayIndexedCollection source = new ArrayIndexedCollection();
+		for (int i = 0; i < 10; ++i) {
+			source.add(i);
+		}
+		Path file = Files.createTempFile("values", ".snapshot");
+		try {
+			CollectionSnapshot.write(source, RecordCodec.INTEGER, file);
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				channel.truncate(channel.size() - 1);
+			}
+			CollectionSnapshot.restore(file, RecordCodec.INTEGER);
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void recordSizeMismatchTest() throws IOException {
+		ArrayIndexedCollection source = new ArrayIndexedCollection();
+		source.add(1);
+		Path file = Files.createTempFile("values", ".snapshot");
+		try {
+			CollectionSnapshot.write(source, RecordCodec.INTEGER, file);
+			CollectionSnapshot.map(file, RecordCodec.LONG);
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	// writes the source, then restores it in every supported way and compares
+	// each result with the source
+	private static void checkRoundTrips(Collection source, RecordCodec codec) throws IOException {
+		Object[] expected = source.toArray();
+		Path file = Files.createTempFile("values", ".snapshot");
+		try {
+			CollectionSnapshot.write(source, codec, file);
+
+			ArrayIndexedCollection restored = CollectionSnapshot.restore(file, codec);
+			assertArrayEquals(expected, restored.toArray());
+
+			OffHeapIndexedCollection offHeap = CollectionSnapshot.restoreOffHeap(file, codec);
+			try {
+				assertArrayEquals(expected, offHeap.toArray());
+				for (int i = 0; i < expected.length; i += 997) {
+					assertEquals(expected[i], offHeap.get(i));
+				}
+			} finally {
+				offHeap.free();
+			}
+
+			MappedIndexedCollection mapped = CollectionSnapshot.map(file, codec);
+			try {
+				assertEquals(expected.length, mapped.size());
+				assertArrayEquals(expected, mapped.toArray());
+				for (int i = 0; i < expected.length; i += 997) {
+					assertEquals(expected[i], mapped.get(i));
+					assertEquals(restored.indexOf(expected[i]), mapped.indexOf(expected[i]));
+				}
+				assertFalse(mapped.contains("x"));
+				if (expected.length > 0) {
+					assertTrue(mapped.contains(expected[expected.length - 1]));
+				}
+			} finally {
+				mapped.free();
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+}
@@ -0,0 +1,292 @@
+package hr.fer.zemris.java.custom.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CollectionStreamTests {
+
+	private static final int[] CHUNK_SIZES = { 1, 3, 7, 64, 1000, 1 << 16 };
+
+	private static final Object[] INTS = { 0, 1, -1, 63, -64, 64, -65, 8191, -8192, 8192, Integer.MAX_VALUE,
+			Integer.MIN_VALUE, Integer.MAX_VALUE - 1, Integer.MIN_VALUE + 1 };
+
+	private static final Object[] LONGS = { 0L, 1L, -1L, 63L, -64L, 64L, -65L, (long) Integer.MAX_VALUE,
+			(long) Integer.MIN_VALUE, 1L << 62, -(1L << 62), Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1,
+			Long.MIN_VALUE + 1 };
+
+	private static final Object[] DOUBLES = { 0.0, -0.0, 1.5, -1e-300, Double.MIN_VALUE, Double.MAX_VALUE,
+			Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN };
+
+	private static Object[] values(Object[] extremes, int count, Random random, ElementCodec codec) {
+		Object[] values = Arrays.copyOf(extremes, extremes.length + count);
+		for (int i = extremes.length; i < values.length; ++i) {
+			if (codec == ElementCodec.DOUBLE) {
+				values[i] = random.nextGaussian() * 1e6;
+			} else if (extremes == INTS) {
+				values[i] = random.nextInt() >> random.nextInt(32);
+			} else {
+				values[i] = random.nextLong() >> random.nextInt(64);
+			}
+		}
+		return values;
+	}
+
+	private static byte[] write(Object[] values, ElementCodec codec, int chunkSize) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (CollectionWriter writer = new CollectionWriter(out, codec, chunkSize)) {
+			for (Object value : values) {
+				writer.write(value);
+			}
+		}
+		return out.toByteArray();
+	}
+
+	private static CollectionReader reader(byte[] bytes, ElementCodec codec) throws IOException {
+		return new CollectionReader(new ByteArrayInputStream(bytes), codec);
+	}
+
+	private static void checkRoundTrip(Object[] values, ElementCodec codec) throws IOException {
+		for (int chunkSize : CHUNK_SIZES) {
+			byte[] bytes = write(values, codec, chunkSize);
+
+			// element by element
+			try (CollectionReader reader = reader(bytes, codec)) {
+				for (Object value : values) {
+					assertTrue(reader.hasNext());
+					assertEquals("chunk size " + chunkSize, value, reader.next());
+				}
+				assertFalse(reader.hasNext());
+				assertFalse(reader.hasNext());
+			}
+
+			// into a collection, after one element was read by next
+			ArrayIndexedCollection collection = new ArrayIndexedCollection();
+			try (CollectionReader reader = reader(bytes, codec)) {
+				collection.add(reader.next());
+				reader.readAll(collection);
+			}
+			assertArrayEquals("chunk size " + chunkSize, values, collection.toArray());
+
+			// through a processor
+			LinkedListIndexedCollection list = new LinkedListIndexedCollection();
+			try (CollectionReader reader = reader(bytes, codec)) {
+				reader.forEach(new Processor() {
+					@Override
+					public void process(Object value) {
+						list.add(value);
+					}
+				});
+			}
+			assertArrayEquals("chunk size " + chunkSize, values, list.toArray());
+
+			// writeAll gives the same stream as writing one by one
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			try (CollectionWriter writer = new CollectionWriter(out, codec, chunkSize)) {
+				writer.writeAll(list);
+			}
+			assertArrayEquals(toObjects(bytes), toObjects(out.toByteArray()));
+		}
+	}
+
+	private static Object[] toObjects(byte[] bytes) {
+		Object[] objects = new Object[bytes.length];
+		for (int i = 0; i < bytes.length; ++i) {
+			objects[i] = bytes[i];
+		}
+		return objects;
+	}
+
+	@Test
+	public void integerRoundTripTest() throws IOException {
+		checkRoundTrip(values(INTS, 5000, new Random(1), ElementCodec.INTEGER), ElementCodec.INTEGER);
+	}
+
+	@Test
+	public void varintRoundTripTest() throws IOException {
+		checkRoundTrip(values(INTS, 5000, new Random(2), ElementCodec.VARINT), ElementCodec.VARINT);
+	}
+
+	@Test
+	public void longRoundTripTest() throws IOException {
+		checkRoundTrip(values(LONGS, 5000, new Random(3), ElementCodec.LONG), ElementCodec.LONG);
+	}
+
+	@Test
+	public void varlongRoundTripTest() throws IOException {
+		checkRoundTrip(values(LONGS, 5000, new Random(4), ElementCodec.VARLONG), ElementCodec.VARLONG);
+	}
+
+	@Test
+	public void doubleRoundTripTest() throws IOException {
+		checkRoundTrip(values(DOUBLES, 5000, new Random(5), ElementCodec.DOUBLE), ElementCodec.DOUBLE);
+	}
+
+	@Test
+	public void emptyStreamTest() throws IOException {
+		byte[] bytes = write(new Object[0], ElementCodec.INTEGER, 64);
+		// the magic number and the end chunk
+		assertEquals(Integer.BYTES + CollectionWriter.CHUNK_HEADER_SIZE, bytes.length);
+		try (CollectionReader reader = reader(bytes, ElementCodec.INTEGER)) {
+			assertFalse(reader.hasNext());
+			try {
+				reader.next();
+				fail();
+			} catch (EOFException expected) {
+			}
+		}
+	}
+
+	@Test
+	public void varintSizesTest() {
+		Object[] values = { 0, -1, 1, 63, -64, 64, -65, 8191, -8192, 8192, Integer.MAX_VALUE, Integer.MIN_VALUE };
+		int[] sizes = { 1, 1, 1, 1, 1, 2, 2, 2, 2, 3, 5, 5 };
+		checkSizes(ElementCodec.VARINT, values, sizes);
+	}
+
+	@Test
+	public void varlongSizesTest() {
+		Object[] values = { 0L, -1L, 1L, 63L, -64L, 64L, -65L, (long) Integer.MAX_VALUE, (long) Integer.MIN_VALUE,
+				(long) Integer.MIN_VALUE - 1, Long.MAX_VALUE, Long.MIN_VALUE };
+		int[] sizes = { 1, 1, 1, 1, 1, 2, 2, 5, 5, 5, 10, 10 };
+		checkSizes(ElementCodec.VARLONG, values, sizes);
+	}
+
+	private static void checkSizes(ElementCodec codec, Object[] values, int[] sizes) {
+		ByteBuffer buffer = ByteBuffer.allocate(codec.maxSize());
+		for (int i = 0; i < values.length; ++i) {
+			buffer.clear();
+			codec.encode(buffer, values[i]);
+			assertEquals("size of " + values[i], sizes[i], buffer.position());
+			assertTrue(buffer.position() <= codec.maxSize());
+			buffer.flip();
+			assertEquals(values[i], codec.decode(buffer));
+			assertFalse(buffer.hasRemaining());
+		}
+	}
+
+	@Test
+	public void compactStreamTest() throws IOException {
+		// small magnitudes take one byte each, in a single chunk
+		Object[] values = new Object[1000];
+		for (int i = 0; i < values.length; ++i) {
+			values[i] = i % 128 - 64;
+		}
+		byte[] bytes = write(values, ElementCodec.VARINT, 1 << 16);
+		assertEquals(Integer.BYTES + 2 * CollectionWriter.CHUNK_HEADER_SIZE + values.length, bytes.length);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void malformedVarintTest() {
+		byte[] bytes = new byte[11];
+		Arrays.fill(bytes, (byte) 0x80);
+		ElementCodec.VARLONG.decode(ByteBuffer.wrap(bytes));
+	}
+
+	@Test
+	public void truncatedStreamTest() throws IOException {
+		Object[] values = values(LONGS, 100, new Random(6), ElementCodec.VARLONG);
+		byte[] bytes = write(values, ElementCodec.VARLONG, 50);
+		// every cut, also between chunks, leaves the stream without its end
+		for (int length = 0; length < bytes.length; ++length) {
+			byte[] truncated = Arrays.copyOf(bytes, length);
+			try (CollectionReader reader = reader(truncated, ElementCodec.VARLONG)) {
+				int read = 0;
+				while (reader.hasNext()) {
+					assertEquals(values[read++], reader.next());
+				}
+				fail("length " + length);
+			} catch (EOFException expected) {
+			}
+		}
+	}
+
+	@Test
+	public void flushedStreamTest() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		CollectionWriter writer = new CollectionWriter(out, ElementCodec.INTEGER, 1000);
+		writer.write(1);
+		writer.write(2);
+		writer.flush();
+		// the flushed elements can be read before the writer is closed
+		try (CollectionReader reader = reader(out.toByteArray(), ElementCodec.INTEGER)) {
+			assertEquals(1, reader.next());
+			assertEquals(2, reader.next());
+			try {
+				reader.hasNext();
+				fail();
+			} catch (EOFException expected) {
+			}
+		}
+		writer.write(3);
+		writer.close();
+		writer.close();
+		ArrayIndexedCollection collection = new ArrayIndexedCollection();
+		try (CollectionReader reader = reader(out.toByteArray(), ElementCodec.INTEGER)) {
+			reader.readAll(collection);
+		}
+		assertArrayEquals(new Object[] { 1, 2, 3 }, collection.toArray());
+	}
+
+	@Test
+	public void wrongMagicTest() throws IOException {
+		byte[] bytes = write(new Object[] { 1 }, ElementCodec.INTEGER, 64);
+		bytes[0] ^= 1;
+		try {
+			reader(bytes, ElementCodec.INTEGER);
+			fail();
+		} catch (EOFException e) {
+			fail();
+		} catch (IOException expected) {
+		}
+	}
+
+	@Test
+	public void malformedChunkHeaderTest() throws IOException {
+		byte[] bytes = write(new Object[] { 1 }, ElementCodec.INTEGER, 64);
+		// the element count of the first chunk
+		bytes[Integer.BYTES] = (byte) 0x80;
+		try (CollectionReader reader = reader(bytes, ElementCodec.INTEGER)) {
+			reader.hasNext();
+			fail();
+		} catch (EOFException e) {
+			fail();
+		} catch (IOException expected) {
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void writeAfterCloseTest() throws IOException {
+		CollectionWriter writer = new CollectionWriter(new ByteArrayOutputStream(), ElementCodec.INTEGER);
+		writer.close();
+		writer.write(1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void writeNullTest() throws IOException {
+		new CollectionWriter(new ByteArrayOutputStream(), ElementCodec.INTEGER).write(null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidChunkSizeTest() throws IOException {
+		new CollectionWriter(new ByteArrayOutputStream(), ElementCodec.INTEGER, 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nullCodecTest() throws IOException {
+		new CollectionReader(new ByteArrayInputStream(new byte[4]), null);
+	}
+
+}
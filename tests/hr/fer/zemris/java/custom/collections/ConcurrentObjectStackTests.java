@@ -0,0 +1,117 @@
+package hr.fer.zemris.java.custom.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+public class ConcurrentObjectStackTests {
+
+	private static final int THREADS = 4;
+
+	private static final int VALUES_PER_THREAD = 50_000;
+
+	@Test
+	public void lastInFirstOutTest() {
+		for (boolean elimination : new boolean[] { false, true }) {
+			ConcurrentObjectStack stack = new ConcurrentObjectStack(elimination);
+			assertTrue(stack.isEmpty());
+			for (int i = 0; i < 10; ++i) {
+				stack.push(i);
+			}
+			assertEquals(10, stack.size());
+			assertEquals(9, stack.peek());
+			for (int i = 9; i >= 0; --i) {
+				assertEquals(i, stack.pop());
+			}
+			assertTrue(stack.isEmpty());
+		}
+	}
+
+	@Test
+	public void conservesValuesTest() throws InterruptedException {
+		checkConservation(new ConcurrentObjectStack(false));
+	}
+
+	@Test
+	public void conservesValuesWithEliminationTest() throws InterruptedException {
+		checkConservation(new ConcurrentObjectStack(true));
+	}
+
+	@Test(expected = EmptyStackException.class)
+	public void popEmptyTest() {
+		new ConcurrentObjectStack().pop();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void pushNullTest() {
+		new ConcurrentObjectStack(true).push(null);
+	}
+
+	// every thread pushes its own values and pops as many values as it pushed,
+	// so each pushed value must be popped by exactly one thread
+	private static void checkConservation(ConcurrentObjectStack stack) throws InterruptedException {
+		CountDownLatch start = new CountDownLatch(1);
+		List<List<Object>> popped = new ArrayList<>();
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < THREADS; ++t) {
+			int first = t * VALUES_PER_THREAD;
+			List<Object> own = new ArrayList<>();
+			popped.add(own);
+			threads.add(new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				int pops = 0;
+				for (int i = 0; i < VALUES_PER_THREAD; ++i) {
+					stack.push(first + i);
+					if (i % 2 == 1) {
+						pops += pop(stack, own, 2);
+					}
+				}
+				pop(stack, own, VALUES_PER_THREAD - pops);
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertTrue(stack.isEmpty());
+		boolean[] seen = new boolean[THREADS * VALUES_PER_THREAD];
+		for (List<Object> own : popped) {
+			for (Object value : own) {
+				int index = (Integer) value;
+				assertTrue("popped twice: " + index, !seen[index]);
+				seen[index] = true;
+			}
+		}
+		for (int i = 0; i < seen.length; ++i) {
+			assertTrue("lost: " + i, seen[i]);
+		}
+	}
+
+	private static int pop(ConcurrentObjectStack stack, List<Object> into, int count) {
+		for (int i = 0; i < count; ++i) {
+			while (true) {
+				try {
+					into.add(stack.pop());
+					break;
+				} catch (EmptyStackException e) {
+					Thread.yield();
+				}
+			}
+		}
+		return count;
+	}
+
+}
@@ -0,0 +1,147 @@
+package hr.fer.zemris.java.custom.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class GrowthStrategyTests {
+
+	private static final int MAX = GrowthStrategy.MAX_CAPACITY;
+
+	@Test
+	public void factorTest() {
+		assertEquals(2, GrowthStrategy.DOUBLING.newCapacity(1, 2));
+		assertEquals(32, GrowthStrategy.DOUBLING.newCapacity(16, 17));
+		GrowthStrategy strategy = GrowthStrategy.factor(1.5);
+		assertEquals(15, strategy.newCapacity(10, 11));
+		// the grown capacity is rounded up, so a capacity of 1 still grows
+		assertEquals(5, strategy.newCapacity(3, 4));
+		assertEquals(2, strategy.newCapacity(1, 2));
+	}
+
+	@Test
+	public void additiveTest() {
+		GrowthStrategy strategy = GrowthStrategy.additive(3);
+		assertEquals(4, strategy.newCapacity(1, 2));
+		assertEquals(1003, strategy.newCapacity(1000, 1001));
+	}
+
+	@Test
+	public void cappedTest() {
+		GrowthStrategy strategy = GrowthStrategy.capped(2, 100);
+		assertEquals(20, strategy.newCapacity(10, 11));
+		assertEquals(200, strategy.newCapacity(100, 101));
+		assertEquals(1100, strategy.newCapacity(1000, 1001));
+	}
+
+	@Test
+	public void requiredCapacityWinsTest() {
+		assertEquals(100, GrowthStrategy.DOUBLING.newCapacity(16, 100));
+		assertEquals(50, GrowthStrategy.additive(1).newCapacity(10, 50));
+		assertEquals(5000, GrowthStrategy.capped(2, 10).newCapacity(1000, 5000));
+	}
+
+	@Test
+	public void maxCapacityTest() {
+		assertEquals(MAX, GrowthStrategy.DOUBLING.newCapacity(1 << 30, (1 << 30) + 1));
+		assertEquals(MAX, GrowthStrategy.DOUBLING.newCapacity(MAX - 1, MAX));
+		assertEquals(MAX, GrowthStrategy.factor(1000).newCapacity(1 << 24, (1 << 24) + 1));
+		assertEquals(MAX, GrowthStrategy.additive(Integer.MAX_VALUE).newCapacity(MAX - 100, MAX - 99));
+		assertEquals(MAX, GrowthStrategy.capped(3, Integer.MAX_VALUE).newCapacity(1 << 30, (1 << 30) + 1));
+	}
+
+	@Test
+	public void overflowTest() {
+		GrowthStrategy[] strategies = { GrowthStrategy.DOUBLING, GrowthStrategy.factor(1.5),
+				GrowthStrategy.additive(10), GrowthStrategy.capped(2, 100) };
+		// negative required capacities are sizes which overflowed
+		int[] required = { MAX + 1, Integer.MAX_VALUE, Integer.MIN_VALUE, -1 };
+		for (GrowthStrategy strategy : strategies) {
+			for (int minCapacity : required) {
+				try {
+					strategy.newCapacity(MAX, minCapacity);
+					fail("required capacity " + minCapacity);
+				} catch (OutOfMemoryError expected) {
+				}
+			}
+		}
+	}
+
+	@Test
+	public void invalidArgumentsTest() {
+		double[] factors = { 1, 0.5, 0, -2, Double.NaN };
+		for (double factor : factors) {
+			try {
+				GrowthStrategy.factor(factor);
+				fail("factor " + factor);
+			} catch (IllegalArgumentException expected) {
+			}
+			try {
+				GrowthStrategy.capped(factor, 10);
+				fail("capped factor " + factor);
+			} catch (IllegalArgumentException expected) {
+			}
+		}
+		for (int increment : new int[] { 0, -1, Integer.MIN_VALUE }) {
+			try {
+				GrowthStrategy.additive(increment);
+				fail("increment " + increment);
+			} catch (IllegalArgumentException expected) {
+			}
+			try {
+				GrowthStrategy.capped(2, increment);
+				fail("capped increment " + increment);
+			} catch (IllegalArgumentException expected) {
+			}
+		}
+	}
+
+	@Test
+	public void collectionGrowthTest() {
+		ArrayIndexedCollection collection = new ArrayIndexedCollection(1);
+		collection.setGrowthStrategy(GrowthStrategy.additive(3));
+		collection.enableMetrics();
+		int[] capacities = { 1, 4, 4, 4, 7, 7, 7, 10, 10, 10 };
+		for (int i = 0; i < capacities.length; ++i) {
+			collection.add(i);
+			assertEquals(capacities[i], collection.capacity());
+		}
+		assertEquals(3, collection.getMetrics().getResizes());
+
+		collection.setGrowthStrategy(GrowthStrategy.capped(2, 5));
+		collection.add(10);
+		assertEquals(15, collection.capacity());
+		collection.setGrowthStrategy(GrowthStrategy.DOUBLING);
+		for (int i = 11; i < 16; ++i) {
+			collection.add(i);
+		}
+		collection.add(16);
+		assertEquals(30, collection.capacity());
+		assertEquals(17, collection.size());
+		assertEquals(0, collection.get(0));
+		assertEquals(16, collection.get(16));
+	}
+
+	@Test
+	public void ensureCapacityTest() {
+		ArrayIndexedCollection collection = new ArrayIndexedCollection();
+		collection.ensureCapacity(10);
+		assertEquals(16, collection.capacity());
+		collection.ensureCapacity(20);
+		assertEquals(32, collection.capacity());
+		collection.ensureCapacity(100);
+		assertEquals(100, collection.capacity());
+	}
+
+	@Test(expected = OutOfMemoryError.class)
+	public void ensureCapacityOverflowTest() {
+		new ArrayIndexedCollection().ensureCapacity(Integer.MAX_VALUE);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nullStrategyTest() {
+		new ArrayIndexedCollection().setGrowthStrategy(null);
+	}
+
+}
@@ -0,0 +1,173 @@
+package hr.fer.zemris.java.custom.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class HashIndexTests {
+
+	@Test
+	public void backwardShiftDeletionWithDuplicatesTest() {
+		// keys of two neighbouring hash codes form one cluster; across the
+		// seeds the cluster starts at different slots, some wrapping around
+		// the end of the table
+		int[] ids = { 0, 1, 0, 2, 1, 0, 3 };
+		for (int seed = 0; seed < 64; ++seed) {
+			for (int first = 0; first < ids.length; ++first) {
+				List<Object> model = new ArrayList<>();
+				for (int id : ids) {
+					model.add(new Key(id, seed + (id & 1)));
+				}
+				Object[] elements = model.toArray();
+				HashIndex index = new HashIndex(elements, elements.length);
+				// remove starting at every position, then keep removing from
+				// the middle until the index is empty
+				int position = first;
+				while (!model.isEmpty()) {
+					index.removed(model.remove(position), position);
+					elements = model.toArray();
+					for (int id = 0; id < 5; ++id) {
+						Key key = new Key(id, seed + (id & 1));
+						assertEquals("seed " + seed, model.indexOf(key), index.indexOf(key, elements));
+					}
+					position = model.size() / 2;
+				}
+			}
+		}
+	}
+
+	@Test
+	public void insertAndRemoveRenumberPositionsTest() {
+		Random random = new Random(3);
+		List<Object> model = new ArrayList<>();
+		HashIndex index = new HashIndex(new Object[0], 0);
+		for (int step = 0; step < 3000; ++step) {
+			int id = random.nextInt(40);
+			Key value = new Key(id, id % 7);
+			int operation = random.nextInt(4);
+			if (operation == 0 || model.isEmpty()) {
+				int position = random.nextInt(model.size() + 1);
+				model.add(position, value);
+				index.inserted(value, position);
+			} else if (operation == 1) {
+				model.add(value);
+				index.added(value, model.size() - 1);
+			} else {
+				int position = random.nextInt(model.size());
+				index.removed(model.remove(position), position);
+			}
+			Object[] elements = model.toArray();
+			int searched = random.nextInt(40);
+			Key key = new Key(searched, searched % 7);
+			assertEquals(model.indexOf(key), index.indexOf(key, elements));
+		}
+		// the table has grown several times on the way
+		Object[] elements = model.toArray();
+		for (int id = 0; id < 40; ++id) {
+			Key key = new Key(id, id % 7);
+			assertEquals(model.indexOf(key), index.indexOf(key, elements));
+		}
+	}
+
+	@Test
+	public void enableAndDisableMidLifeTest() {
+		Random random = new Random(4);
+		ArrayIndexedCollection collection = new ArrayIndexedCollection();
+		List<Object> model = new ArrayList<>();
+		for (int step = 0; step < 4000; ++step) {
+			if (step % 500 == 0) {
+				if (collection.isHashIndexEnabled()) {
+					collection.disableHashIndex();
+				} else {
+					collection.enableHashIndex();
+					collection.enableHashIndex();
+				}
+			}
+			Integer value = random.nextInt(60);
+			int operation = random.nextInt(5);
+			if (operation == 0) {
+				int position = random.nextInt(model.size() + 1);
+				collection.insert(value, position);
+				model.add(position, value);
+			} else if (operation == 1 && !model.isEmpty()) {
+				int index = random.nextInt(model.size());
+				collection.remove(index);
+				model.remove(index);
+			} else if (operation == 2) {
+				assertEquals(model.remove(value), collection.remove(value));
+			} else {
+				collection.add(value);
+				model.add(value);
+			}
+			assertEquals(model.indexOf(value), collection.indexOf(value));
+			assertEquals(model.contains(value), collection.contains(value));
+		}
+		collection.enableHashIndex();
+		collection.clear();
+		assertFalse(collection.contains(1));
+		collection.add(1);
+		assertTrue(collection.contains(1));
+		assertArrayEquals(new Object[] { 1 }, collection.toArray());
+	}
+
+	@Test
+	public void bulkOperationsKeepIndexTest() {
+		ArrayIndexedCollection collection = new ArrayIndexedCollection();
+		collection.enableHashIndex();
+		ArrayIndexedCollection other = new ArrayIndexedCollection();
+		for (int i = 0; i < 100; ++i) {
+			other.add(i % 10);
+		}
+		collection.addAll(other);
+		collection.addAll(other);
+		assertEquals(3, collection.indexOf(3));
+		class Small extends Tester {
+			@Override
+			public boolean test(Object value) {
+				return (Integer) value < 5;
+			}
+		}
+		collection.removeIf(new Small());
+		assertEquals(0, collection.indexOf(5));
+		assertEquals(4, collection.indexOf(9));
+		assertEquals(-1, collection.indexOf(4));
+		assertEquals(100, collection.size());
+	}
+
+	// value whose equality and hash code are chosen independently, so that
+	// unequal values can share a hash code
+	private static class Key {
+
+		private final int id;
+
+		private final int hash;
+
+		Key(int id, int hash) {
+			this.id = id;
+			this.hash = hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key && ((Key) obj).id == id;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public String toString() {
+			return "Key" + id;
+		}
+	}
+
+}
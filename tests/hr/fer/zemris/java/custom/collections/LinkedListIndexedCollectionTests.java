@@ -0,0 +1,87 @@
+package hr.fer.zemris.java.custom.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LinkedListIndexedCollectionTests {
+
+	@Test
+	public void cursorInsertFollowedByGetTest() {
+		LinkedListIndexedCollection list = new LinkedListIndexedCollection();
+		for (int i = 0; i < 10; ++i) {
+			list.add(i);
+		}
+		LinkedListIndexedCollection.Cursor cursor = list.cursor(3);
+		// moves the finger to index 5, behind the cursor
+		assertEquals(5, list.get(5));
+		cursor.insert(100);
+		assertEquals(4, list.get(5));
+		assertEquals(5, list.get(6));
+		assertEquals(3, list.indexOf(100));
+	}
+
+	@Test
+	public void cursorAndIndexedAccessMatchArrayListTest() {
+		for (int seed = 0; seed < 200; ++seed) {
+			Random random = new Random(seed);
+			LinkedListIndexedCollection list = new LinkedListIndexedCollection();
+			List<Object> model = new ArrayList<>();
+			for (int i = 0; i < 20; ++i) {
+				list.add(i);
+				model.add(i);
+			}
+			for (int step = 0; step < 200; ++step) {
+				int position = random.nextInt(model.size() + 1);
+				Integer value = 1000 + step;
+				if (random.nextBoolean()) {
+					list.cursor(position).insert(value);
+				} else {
+					list.insert(value, position);
+				}
+				model.add(position, value);
+				int index = random.nextInt(model.size());
+				assertEquals("seed " + seed, model.get(index), list.get(index));
+				assertEquals("seed " + seed, model.indexOf(value), list.indexOf(value));
+				if (random.nextInt(4) == 0) {
+					int removed = random.nextInt(model.size());
+					list.remove(removed);
+					model.remove(removed);
+				}
+			}
+			assertArrayEquals(model.toArray(), list.toArray());
+		}
+	}
+
+	@Test
+	public void addAllWithoutToArrayTest() {
+		Collection source = new Collection() {
+			@Override
+			public int size() {
+				return 3;
+			}
+
+			@Override
+			public void forEach(Processor processor) {
+				for (int i = 0; i < 3; ++i) {
+					processor.process(i);
+				}
+			}
+		};
+		LinkedListIndexedCollection list = new LinkedListIndexedCollection();
+		list.add("first");
+		list.addAll(source);
+		assertArrayEquals(new Object[] { "first", 0, 1, 2 }, list.toArray());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void addAllNullTest() {
+		new LinkedListIndexedCollection().addAll(null);
+	}
+
+}
@@ -0,0 +1,164 @@
+package hr.fer.zemris.java.custom.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class MpmcObjectQueueTests {
+
+	private static final int PRODUCERS = 3;
+
+	private static final int CONSUMERS = 3;
+
+	private static final int VALUES_PER_PRODUCER = 100_000;
+
+	@Test
+	public void firstInFirstOutTest() {
+		MpmcObjectQueue queue = new MpmcObjectQueue(10);
+		int capacity = queue.capacity();
+		assertTrue(capacity >= 10);
+		for (int i = 0; i < capacity; ++i) {
+			assertTrue(queue.offer(i));
+		}
+		assertFalse(queue.offer(-1));
+		assertEquals(capacity, queue.size());
+		for (int i = 0; i < capacity; ++i) {
+			assertEquals(i, queue.poll());
+		}
+		assertNull(queue.poll());
+		assertTrue(queue.isEmpty());
+	}
+
+	@Test
+	public void batchOperationsTest() {
+		MpmcObjectQueue queue = new MpmcObjectQueue(8);
+		Object[] values = new Object[20];
+		for (int i = 0; i < values.length; ++i) {
+			values[i] = i;
+		}
+		assertEquals(8, queue.offerAll(values, 0, 20));
+		Object[] target = new Object[10];
+		assertEquals(5, queue.drainTo(target, 0, 5));
+		assertEquals(5, queue.offerAll(values, 8, 12));
+		assertEquals(8, queue.drainTo(target, 2, 8));
+		for (int i = 0; i < 10; ++i) {
+			assertEquals(i < 2 ? i : i + 3, target[i]);
+		}
+		assertEquals(0, queue.drainTo(target, 0, 10));
+	}
+
+	@Test
+	public void conservesValuesTest() throws InterruptedException {
+		MpmcObjectQueue queue = new MpmcObjectQueue(128);
+		int total = PRODUCERS * VALUES_PER_PRODUCER;
+		AtomicInteger consumed = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int p = 0; p < PRODUCERS; ++p) {
+			int first = p * VALUES_PER_PRODUCER;
+			threads.add(new Thread(() -> {
+				await(start);
+				Object[] batch = new Object[8];
+				int next = 0;
+				while (next < VALUES_PER_PRODUCER) {
+					int count = Math.min(next % 2 == 0 ? 1 : batch.length, VALUES_PER_PRODUCER - next);
+					for (int i = 0; i < count; ++i) {
+						batch[i] = first + next + i;
+					}
+					int added = count == 1 ? (queue.offer(batch[0]) ? 1 : 0) : queue.offerAll(batch, 0, count);
+					next += added;
+					if (added == 0) {
+						Thread.yield();
+					}
+				}
+			}));
+		}
+		List<List<Object>> received = new ArrayList<>();
+		for (int c = 0; c < CONSUMERS; ++c) {
+			List<Object> own = new ArrayList<>();
+			received.add(own);
+			boolean batched = c % 2 == 0;
+			threads.add(new Thread(() -> {
+				await(start);
+				Object[] batch = new Object[16];
+				while (consumed.get() < total) {
+					if (batched) {
+						int drained = queue.drainTo(batch, 0, batch.length);
+						for (int i = 0; i < drained; ++i) {
+							own.add(batch[i]);
+						}
+						consumed.addAndGet(drained);
+						if (drained == 0) {
+							Thread.yield();
+						}
+					} else {
+						Object value = queue.poll();
+						if (value == null) {
+							Thread.yield();
+						} else {
+							own.add(value);
+							consumed.incrementAndGet();
+						}
+					}
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertTrue(queue.isEmpty());
+		boolean[] seen = new boolean[total];
+		long count = 0;
+		long sum = 0;
+		for (List<Object> own : received) {
+			// a consumer sees the values of each producer in the offered order
+			int[] last = new int[PRODUCERS];
+			Arrays.fill(last, -1);
+			for (Object value : own) {
+				int index = (Integer) value;
+				assertFalse("received twice: " + index, seen[index]);
+				seen[index] = true;
+				int producer = index / VALUES_PER_PRODUCER;
+				assertTrue(index > last[producer]);
+				last[producer] = index;
+				++count;
+				sum += index;
+			}
+		}
+		assertEquals(total, count);
+		assertEquals((long) total * (total - 1) / 2, sum);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void offerAllNullValueTest() {
+		new MpmcObjectQueue(4).offerAll(new Object[] { 1, null }, 0, 2);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void capacityTooSmallTest() {
+		new MpmcObjectQueue(0);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+package hr.fer.zemris.java.custom.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import hr.fer.zemris.java.tecaj.hw2.ComplexAccumulator;
+import hr.fer.zemris.java.tecaj.hw2.ComplexNumber;
+import hr.fer.zemris.java.tecaj.hw2.ComplexNumberRecordCodec;
+
+public class OffHeapIndexedCollectionTests {
+
+	@Test
+	public void matchesArrayListTest() {
+		Random random = new Random(9);
+		OffHeapIndexedCollection collection = new OffHeapIndexedCollection(RecordCodec.INTEGER, 1);
+		List<Object> model = new ArrayList<>();
+		for (int step = 0; step < 20_000; ++step) {
+			Integer value = random.nextInt(100);
+			switch (random.nextInt(6)) {
+			case 0:
+			case 1:
+				collection.add(value);
+				model.add(value);
+				break;
+			case 2:
+				int position = random.nextInt(model.size() + 1);
+				collection.insert(value, position);
+				model.add(position, value);
+				break;
+			case 3:
+				if (!model.isEmpty()) {
+					int index = random.nextInt(model.size());
+					collection.remove(index);
+					model.remove(index);
+				}
+				break;
+			case 4:
+				assertEquals(model.remove(value), collection.remove(value));
+				break;
+			default:
+				assertEquals(model.indexOf(value), collection.indexOf(value));
+				if (!model.isEmpty()) {
+					int index = random.nextInt(model.size());
+					assertEquals(model.get(index), collection.get(index));
+				}
+			}
+			assertEquals(model.size(), collection.size());
+		}
+		assertArrayEquals(model.toArray(), collection.toArray());
+		collection.free();
+	}
+
+	@Test
+	public void flyweightTest() throws IOException {
+		OffHeapIndexedCollection collection = new OffHeapIndexedCollection(ComplexNumberRecordCodec.INSTANCE);
+		for (int i = 0; i < 100; ++i) {
+			collection.add(new ComplexNumber(i, -i));
+		}
+		ComplexAccumulator flyweight = new ComplexAccumulator();
+		assertSame(flyweight, collection.get(42, flyweight));
+		assertEquals(42, flyweight.getReal(), 0);
+		assertEquals(-42, flyweight.getImaginary(), 0);
+		assertEquals(new ComplexNumber(42, -42), collection.get(42));
+
+		final double[] sum = new double[1];
+		final ComplexAccumulator expected = flyweight;
+		class SummingProcessor extends Processor {
+			@Override
+			public void process(Object value) {
+				assertSame(expected, value);
+				sum[0] += expected.getReal();
+			}
+		}
+		collection.forEach(new SummingProcessor(), flyweight);
+		assertEquals(4950, sum[0], 0);
+
+		Path file = Files.createTempFile("complex", ".snapshot");
+		try {
+			CollectionSnapshot.write(collection, ComplexNumberRecordCodec.INSTANCE, file);
+			MappedIndexedCollection mapped = CollectionSnapshot.map(file, ComplexNumberRecordCodec.INSTANCE);
+			mapped.get(7, flyweight);
+			assertEquals(-7, flyweight.getImaginary(), 0);
+			sum[0] = 0;
+			mapped.forEach(new SummingProcessor(), flyweight);
+			assertEquals(4950, sum[0], 0);
+			assertEquals(99, mapped.indexOf(new ComplexNumber(99, -99)));
+			mapped.free();
+		} finally {
+			Files.delete(file);
+		}
+		collection.free();
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void immutableCodecHasNoFlyweightTest() {
+		OffHeapIndexedCollection collection = new OffHeapIndexedCollection(RecordCodec.INTEGER);
+		try {
+			collection.add(1);
+			collection.get(0, new Object());
+		} finally {
+			collection.free();
+		}
+	}
+
+}
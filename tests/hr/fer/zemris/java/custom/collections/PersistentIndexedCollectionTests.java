@@ -0,0 +1,242 @@
+package hr.fer.zemris.java.custom.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+public class PersistentIndexedCollectionTests {
+
+	@Test
+	public void trieGrowsAtLeafAndRootBoundariesTest() {
+		List<PersistentIndexedCollection> versions = new ArrayList<>();
+		PersistentIndexedCollection version = new PersistentIndexedCollection();
+		versions.add(version);
+		for (int i = 0; i < 1057; ++i) {
+			version = version.add(i);
+			versions.add(version);
+		}
+		// up to 32 elements fit into the tail, up to 32 * 32 + 32 into a
+		// root with leaves as children and the tail
+		assertLayout(versions.get(32), 5, 32);
+		assertLayout(versions.get(33), 5, 1);
+		assertLayout(versions.get(1056), 5, 32);
+		assertLayout(versions.get(1057), 10, 1);
+		for (int size : new int[] { 0, 1, 31, 32, 33, 64, 65, 1055, 1056, 1057 }) {
+			checkContents(versions.get(size), size);
+		}
+	}
+
+	@Test
+	public void removeLastShrinksTrieTest() {
+		PersistentIndexedCollection version = new PersistentIndexedCollection();
+		for (int i = 0; i < 1057; ++i) {
+			version = version.add(i);
+		}
+		PersistentIndexedCollection full = version;
+		// the root loses its level together with its second child
+		version = version.remove(1056);
+		assertLayout(version, 5, 32);
+		checkContents(version, 1056);
+		version = version.remove(1055);
+		assertLayout(version, 5, 31);
+		for (int i = 1054; i >= 32; --i) {
+			version = version.remove(i);
+		}
+		assertLayout(version, 5, 32);
+		checkContents(version, 32);
+		version = version.remove(31);
+		assertLayout(version, 5, 31);
+		checkContents(version, 31);
+		checkContents(full, 1057);
+		// the smaller version grows again the same way
+		for (int i = 31; i < 1057; ++i) {
+			version = version.add(i);
+		}
+		assertLayout(version, 10, 1);
+		checkContents(version, 1057);
+	}
+
+	@Test
+	public void setAndRemoveKeepOldVersionsTest() {
+		PersistentIndexedCollection base = new PersistentIndexedCollection();
+		for (int i = 0; i < 1100; ++i) {
+			base = base.add(i);
+		}
+		PersistentIndexedCollection changed = base;
+		for (int index : new int[] { 0, 31, 32, 1055, 1056, 1099 }) {
+			changed = changed.set(index, -index);
+		}
+		changed = changed.insert(-1, 500).remove(40);
+		checkContents(base, 1100);
+		assertEquals(-1055, changed.get(1055));
+		assertEquals(-1, changed.get(499));
+		assertEquals(41, changed.get(40));
+	}
+
+	@Test
+	public void builderKeepsOldVersionsTest() {
+		PersistentIndexedCollection base = new PersistentIndexedCollection();
+		for (int i = 0; i < 1050; ++i) {
+			base = base.add(i);
+		}
+		PersistentIndexedCollection.Builder first = base.builder();
+		PersistentIndexedCollection.Builder second = base.builder();
+		// edits in the trie, in the tail and past the root boundary
+		for (int index : new int[] { 0, 33, 1023, 1024, 1049 }) {
+			first.set(index, -index);
+		}
+		for (int i = 1050; i < 1200; ++i) {
+			first.add(i);
+			second.add(-i);
+		}
+		first.set(1100, -1100);
+		checkContents(base, 1050);
+		assertEquals(1200, first.size());
+		assertEquals(33, second.get(33));
+		assertEquals(-1050, second.get(1050));
+
+		PersistentIndexedCollection built = first.build();
+		checkContents(base, 1050);
+		assertEquals(-33, built.get(33));
+		assertEquals(-1024, built.get(1024));
+		assertEquals(1099, built.get(1099));
+		assertEquals(-1100, built.get(1100));
+		assertLayout(built, 10, 16);
+
+		// the second builder still owns only its own nodes
+		second.set(0, 100);
+		assertEquals(1, built.get(1));
+		checkContents(base, 1050);
+		PersistentIndexedCollection other = second.build();
+		assertEquals(100, other.get(0));
+		assertEquals(0, built.get(0));
+		assertEquals(-33, built.get(33));
+
+		// versions derived from a built one must not share mutable nodes
+		PersistentIndexedCollection derived = built.set(5, -5).add(-2);
+		assertEquals(5, built.get(5));
+		assertEquals(1200, built.size());
+		assertEquals(-2, derived.get(1200));
+	}
+
+	@Test
+	public void matchesArrayListAndKeepsOldVersionsTest() {
+		for (int seed = 0; seed < 5; ++seed) {
+			Random random = new Random(seed);
+			PersistentIndexedCollection version = new PersistentIndexedCollection();
+			List<Object> model = new ArrayList<>();
+			List<PersistentIndexedCollection> versions = new ArrayList<>();
+			List<Object[]> contents = new ArrayList<>();
+			for (int step = 0; step < 3000; ++step) {
+				Integer value = random.nextInt(100);
+				int operation = random.nextInt(20);
+				if (operation < 12 || model.isEmpty()) {
+					version = version.add(value);
+					model.add(value);
+				} else if (operation < 15) {
+					int index = random.nextInt(model.size());
+					version = version.set(index, value);
+					model.set(index, value);
+				} else if (operation < 18) {
+					version = version.remove(model.size() - 1);
+					model.remove(model.size() - 1);
+				} else if (operation < 19) {
+					int index = random.nextInt(model.size());
+					version = version.remove(index);
+					model.remove(index);
+				} else {
+					int position = random.nextInt(model.size() + 1);
+					version = version.insert(value, position);
+					model.add(position, value);
+				}
+				if (step % 100 == 0) {
+					versions.add(version);
+					contents.add(model.toArray());
+				}
+			}
+			assertArrayEquals(model.toArray(), version.toArray());
+			assertEquals(model.indexOf(7), version.indexOf(7));
+			for (int i = 0; i < versions.size(); ++i) {
+				assertArrayEquals("seed " + seed, contents.get(i), versions.get(i).toArray());
+			}
+		}
+	}
+
+	@Test
+	public void streamsAndForEachTest() {
+		PersistentIndexedCollection version = new PersistentIndexedCollection();
+		List<Object> model = new ArrayList<>();
+		for (int i = 0; i < 2000; ++i) {
+			version = version.add(i);
+			model.add(i);
+		}
+		assertEquals(model, version.stream().collect(Collectors.toList()));
+		assertEquals(model, version.parallelStream().collect(Collectors.toList()));
+
+		List<Object> visited = new ArrayList<>();
+		version.forEach(new Processor() {
+			@Override
+			public void process(Object value) {
+				visited.add(value);
+			}
+		});
+		assertEquals(model, visited);
+
+		ArrayIndexedCollection source = new ArrayIndexedCollection();
+		for (Object value : model) {
+			source.add(value);
+		}
+		assertArrayEquals(model.toArray(), new PersistentIndexedCollection(source).toArray());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void builderUsedAfterBuildTest() {
+		PersistentIndexedCollection.Builder builder = new PersistentIndexedCollection().builder();
+		builder.add(1);
+		builder.build();
+		builder.add(2);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void setOutOfBoundsTest() {
+		new PersistentIndexedCollection().add(1).set(1, 2);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void addNullTest() {
+		new PersistentIndexedCollection().add(null);
+	}
+
+	// the version holds the values 0 to size - 1
+	private static void checkContents(PersistentIndexedCollection version, int size) {
+		assertEquals(size, version.size());
+		Object[] array = version.toArray();
+		for (int i = 0; i < size; ++i) {
+			assertEquals(i, version.get(i));
+			assertEquals(i, array[i]);
+		}
+	}
+
+	// checks the number of index bits below the root and the number of
+	// elements in the tail, read from the private fields of the version
+	private static void assertLayout(PersistentIndexedCollection version, int shift, int tailLength) {
+		try {
+			Field shiftField = PersistentIndexedCollection.class.getDeclaredField("shift");
+			Field tailField = PersistentIndexedCollection.class.getDeclaredField("tail");
+			shiftField.setAccessible(true);
+			tailField.setAccessible(true);
+			assertEquals("shift", shift, shiftField.getInt(version));
+			assertEquals("tail", tailLength, ((Object[]) tailField.get(version)).length);
+		} catch (ReflectiveOperationException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+}
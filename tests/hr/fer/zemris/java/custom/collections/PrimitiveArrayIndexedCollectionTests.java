@@ -0,0 +1,255 @@
+package hr.fer.zemris.java.custom.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class PrimitiveArrayIndexedCollectionTests {
+
+	private static final int STEPS = 20_000;
+
+	private static final int[] INTS = { 0, 1, -1, 2, 7, 42, Integer.MIN_VALUE, Integer.MAX_VALUE };
+
+	private static final long[] LONGS = { 0, 1, -1, 2, 7, 42, Long.MIN_VALUE, Long.MAX_VALUE,
+			(long) Integer.MAX_VALUE + 1 };
+
+	// a NaN with other bits, which Double.equals still treats as NaN
+	private static final double OTHER_NAN = Double.longBitsToDouble(0x7ff8000000000001L);
+
+	private static final double[] DOUBLES = { 0.0, -0.0, Double.NaN, OTHER_NAN, 1, -1, 0.5,
+			Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MIN_VALUE };
+
+	// the boxed collection is the reference, its indexOf compares by equals
+
+	@Test
+	public void intDifferentialTest() {
+		Random random = new Random(1);
+		IntArrayIndexedCollection collection = new IntArrayIndexedCollection(1);
+		ArrayIndexedCollection model = new ArrayIndexedCollection(1);
+		for (int step = 0; step < STEPS; ++step) {
+			int value = INTS[random.nextInt(INTS.length)];
+			int action = random.nextInt(model.size() > 200 ? 6 : 4);
+			if (action == 0) {
+				collection.add(value);
+				model.add(value);
+			} else if (action == 1) {
+				int position = random.nextInt(model.size() + 1);
+				collection.insert(value, position);
+				model.insert(value, position);
+			} else if (action == 2) {
+				assertEquals(model.indexOf(value), collection.indexOf(value));
+				assertEquals(model.contains(value), collection.contains(value));
+			} else if (action == 3 && model.size() > 0) {
+				int index = random.nextInt(model.size());
+				assertEquals(model.get(index), collection.get(index));
+			} else if (action == 4) {
+				assertEquals(model.remove((Object) value), collection.removeValue(value));
+			} else if (model.size() > 0) {
+				int index = random.nextInt(model.size());
+				collection.remove(index);
+				model.remove(index);
+			}
+			assertEquals(model.size(), collection.size());
+		}
+		int[] values = collection.toArray();
+		assertEquals(model.size(), values.length);
+		for (int i = 0; i < values.length; ++i) {
+			assertEquals(model.get(i), values[i]);
+		}
+		for (int value : INTS) {
+			assertEquals(model.indexOf(value), collection.indexOf(value));
+		}
+	}
+
+	@Test
+	public void longDifferentialTest() {
+		Random random = new Random(2);
+		LongArrayIndexedCollection collection = new LongArrayIndexedCollection(1);
+		ArrayIndexedCollection model = new ArrayIndexedCollection(1);
+		for (int step = 0; step < STEPS; ++step) {
+			long value = LONGS[random.nextInt(LONGS.length)];
+			int action = random.nextInt(model.size() > 200 ? 6 : 4);
+			if (action == 0) {
+				collection.add(value);
+				model.add(value);
+			} else if (action == 1) {
+				int position = random.nextInt(model.size() + 1);
+				collection.insert(value, position);
+				model.insert(value, position);
+			} else if (action == 2) {
+				assertEquals(model.indexOf(value), collection.indexOf(value));
+				assertEquals(model.contains(value), collection.contains(value));
+			} else if (action == 3 && model.size() > 0) {
+				int index = random.nextInt(model.size());
+				assertEquals(model.get(index), collection.get(index));
+			} else if (action == 4) {
+				assertEquals(model.remove((Object) value), collection.removeValue(value));
+			} else if (model.size() > 0) {
+				int index = random.nextInt(model.size());
+				collection.remove(index);
+				model.remove(index);
+			}
+			assertEquals(model.size(), collection.size());
+		}
+		long[] values = collection.toArray();
+		assertEquals(model.size(), values.length);
+		for (int i = 0; i < values.length; ++i) {
+			assertEquals(model.get(i), values[i]);
+		}
+		for (long value : LONGS) {
+			assertEquals(model.indexOf(value), collection.indexOf(value));
+		}
+	}
+
+	@Test
+	public void doubleDifferentialTest() {
+		Random random = new Random(3);
+		DoubleArrayIndexedCollection collection = new DoubleArrayIndexedCollection(1);
+		ArrayIndexedCollection model = new ArrayIndexedCollection(1);
+		for (int step = 0; step < STEPS; ++step) {
+			double value = DOUBLES[random.nextInt(DOUBLES.length)];
+			int action = random.nextInt(model.size() > 200 ? 6 : 4);
+			if (action == 0) {
+				collection.add(value);
+				model.add(value);
+			} else if (action == 1) {
+				int position = random.nextInt(model.size() + 1);
+				collection.insert(value, position);
+				model.insert(value, position);
+			} else if (action == 2) {
+				assertEquals(model.indexOf(value), collection.indexOf(value));
+				assertEquals(model.contains(value), collection.contains(value));
+			} else if (action == 3 && model.size() > 0) {
+				int index = random.nextInt(model.size());
+				assertEquals(model.get(index), collection.get(index));
+			} else if (action == 4) {
+				assertEquals(model.remove((Object) value), collection.removeValue(value));
+			} else if (model.size() > 0) {
+				int index = random.nextInt(model.size());
+				collection.remove(index);
+				model.remove(index);
+			}
+			assertEquals(model.size(), collection.size());
+		}
+		double[] values = collection.toArray();
+		assertEquals(model.size(), values.length);
+		for (int i = 0; i < values.length; ++i) {
+			assertEquals(model.get(i), values[i]);
+		}
+		for (double value : DOUBLES) {
+			assertEquals(model.indexOf(value), collection.indexOf(value));
+		}
+	}
+
+	@Test
+	public void doubleNaNTest() {
+		DoubleArrayIndexedCollection collection = new DoubleArrayIndexedCollection();
+		collection.add(1);
+		collection.add(Double.NaN);
+		collection.add(2);
+		collection.add(OTHER_NAN);
+		// NaN is found, although NaN == NaN is false, and all NaNs are equal
+		assertEquals(1, collection.indexOf(Double.NaN));
+		assertEquals(1, collection.indexOf(OTHER_NAN));
+		assertEquals(1, collection.indexOf(0.0 / 0.0));
+		assertTrue(collection.removeValue(OTHER_NAN));
+		assertEquals(2, collection.indexOf(Double.NaN));
+		assertTrue(collection.removeValue(Double.NaN));
+		assertFalse(collection.contains(Double.NaN));
+		assertFalse(collection.removeValue(Double.NaN));
+		assertArrayEquals(new double[] { 1, 2 }, collection.toArray(), 0);
+	}
+
+	@Test
+	public void doubleSignedZeroTest() {
+		DoubleArrayIndexedCollection collection = new DoubleArrayIndexedCollection();
+		collection.add(-0.0);
+		collection.add(1);
+		// 0.0 == -0.0, but the zeros are distinct values
+		assertEquals(-1, collection.indexOf(0.0));
+		assertFalse(collection.contains(0.0));
+		assertFalse(collection.removeValue(0.0));
+		collection.add(0.0);
+		assertEquals(2, collection.indexOf(0.0));
+		assertEquals(0, collection.indexOf(-0.0));
+		assertTrue(collection.removeValue(0.0));
+		assertEquals(2, collection.size());
+		assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(collection.get(0)));
+		assertTrue(collection.removeValue(-0.0));
+		assertEquals(-1, collection.indexOf(-0.0));
+		assertEquals(1, collection.get(0), 0);
+	}
+
+	@Test
+	public void addAllAndCopyTest() {
+		IntArrayIndexedCollection ints = new IntArrayIndexedCollection(1);
+		LongArrayIndexedCollection longs = new LongArrayIndexedCollection(1);
+		DoubleArrayIndexedCollection doubles = new DoubleArrayIndexedCollection(1);
+		for (int i = 0; i < 100; ++i) {
+			ints.add(i);
+			longs.add(i);
+			doubles.add(i);
+		}
+		IntArrayIndexedCollection intCopy = new IntArrayIndexedCollection(ints);
+		intCopy.addAll(ints);
+		intCopy.addAll(intCopy);
+		LongArrayIndexedCollection longCopy = new LongArrayIndexedCollection(longs);
+		longCopy.addAll(longs);
+		longCopy.addAll(longCopy);
+		DoubleArrayIndexedCollection doubleCopy = new DoubleArrayIndexedCollection(doubles);
+		doubleCopy.addAll(doubles);
+		doubleCopy.addAll(doubleCopy);
+		assertEquals(400, intCopy.size());
+		assertEquals(400, longCopy.size());
+		assertEquals(400, doubleCopy.size());
+		for (int i = 0; i < 400; ++i) {
+			assertEquals(i % 100, intCopy.get(i));
+			assertEquals(i % 100, longCopy.get(i));
+			assertEquals(i % 100, doubleCopy.get(i), 0);
+		}
+		assertEquals(100, ints.size());
+		assertEquals(4 * 4950, intCopy.stream().sum());
+		assertEquals(4 * 4950, longCopy.parallelStream().sum());
+		assertEquals(4 * 4950, doubleCopy.stream().sum(), 0);
+
+		long[] sum = new long[1];
+		longCopy.forEach(new LongProcessor() {
+			@Override
+			public void process(long value) {
+				sum[0] += value;
+			}
+		});
+		assertEquals(4 * 4950, sum[0]);
+		longCopy.clear();
+		assertTrue(longCopy.isEmpty());
+		assertEquals(-1, longCopy.indexOf(0));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void intInvalidGetTest() {
+		IntArrayIndexedCollection collection = new IntArrayIndexedCollection();
+		collection.add(1);
+		collection.get(1);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void longInvalidInsertTest() {
+		new LongArrayIndexedCollection().insert(1, 1);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void doubleInvalidRemoveTest() {
+		new DoubleArrayIndexedCollection().remove(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidCapacityTest() {
+		new DoubleArrayIndexedCollection(0);
+	}
+
+}
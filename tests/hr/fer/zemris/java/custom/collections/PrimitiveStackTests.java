@@ -0,0 +1,53 @@
+package hr.fer.zemris.java.custom.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class PrimitiveStackTests {
+
+	@Test
+	public void pushAllPopIntoTest() {
+		IntStack ints = new IntStack();
+		ints.pushAll(new int[] { 1, 2, 3 });
+		assertEquals(3, ints.peek());
+		int[] intTarget = new int[3];
+		ints.popInto(intTarget, 3);
+		assertArrayEquals(new int[] { 1, 2, 3 }, intTarget);
+
+		LongStack longs = new LongStack();
+		longs.pushAll(new long[] { 1, 2, 3 });
+		long[] longTarget = new long[2];
+		longs.popInto(longTarget, 2);
+		assertArrayEquals(new long[] { 2, 3 }, longTarget);
+		assertEquals(1, longs.pop());
+
+		DoubleStack doubles = new DoubleStack();
+		doubles.pushAll(new double[] { 0.5, 1.5 });
+		double[] doubleTarget = new double[2];
+		doubles.popInto(doubleTarget, 2);
+		assertArrayEquals(new double[] { 0.5, 1.5 }, doubleTarget, 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void intPushAllNullTest() {
+		new IntStack().pushAll(null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void longPushAllNullTest() {
+		new LongStack().pushAll(null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void doublePushAllNullTest() {
+		new DoubleStack().pushAll(null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void intPopIntoNullTest() {
+		new IntStack().popInto(null, 0);
+	}
+
+}
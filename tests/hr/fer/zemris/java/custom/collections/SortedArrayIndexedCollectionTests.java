@@ -0,0 +1,173 @@
+package hr.fer.zemris.java.custom.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SortedArrayIndexedCollectionTests {
+
+	// strings of the same length are equal by this comparator, but can still
+	// be told apart
+	private static final Comparator<String> BY_LENGTH = Comparator.comparingInt(String::length);
+
+	@Test
+	public void addKeepsEqualElementsInAddedOrderTest() {
+		SortedArrayIndexedCollection collection = new SortedArrayIndexedCollection(BY_LENGTH, 1);
+		for (String value : new String[] { "bb", "a", "cc", "ddd", "e", "ff", "g" }) {
+			collection.add(value);
+		}
+		assertArrayEquals(new Object[] { "a", "e", "g", "bb", "cc", "ff", "ddd" }, collection.toArray());
+	}
+
+	@Test
+	public void insertionPointFollowsEqualElementsTest() {
+		SortedArrayIndexedCollection collection = new SortedArrayIndexedCollection();
+		for (int value : new int[] { 1, 3, 3, 3, 5 }) {
+			collection.add(value);
+		}
+		assertEquals(0, collection.insertionPoint(0));
+		assertEquals(1, collection.insertionPoint(1));
+		assertEquals(1, collection.insertionPoint(2));
+		assertEquals(4, collection.insertionPoint(3));
+		assertEquals(5, collection.insertionPoint(5));
+		assertEquals(5, collection.insertionPoint(9));
+		// indexOf finds the first of the equal elements
+		assertEquals(1, collection.indexOf(3));
+		assertEquals(-1, collection.indexOf(4));
+	}
+
+	@Test
+	public void addAllMergesAfterEqualElementsTest() {
+		SortedArrayIndexedCollection collection = new SortedArrayIndexedCollection(BY_LENGTH, 2);
+		collection.add("aa");
+		collection.add("b");
+		collection.add("cccc");
+		ArrayIndexedCollection batch = new ArrayIndexedCollection();
+		for (String value : new String[] { "dd", "eeeee", "f", "", "gggg", "hh" }) {
+			batch.add(value);
+		}
+		collection.addAll(batch);
+		assertArrayEquals(new Object[] { "", "b", "f", "aa", "dd", "hh", "cccc", "gggg", "eeeee" },
+				collection.toArray());
+
+		// merging into an empty collection and merging an empty batch
+		SortedArrayIndexedCollection empty = new SortedArrayIndexedCollection(BY_LENGTH);
+		empty.addAll(collection);
+		assertArrayEquals(collection.toArray(), empty.toArray());
+		empty.addAll(new ArrayIndexedCollection());
+		assertArrayEquals(collection.toArray(), empty.toArray());
+	}
+
+	@Test
+	public void addAllWithoutToArrayTest() {
+		// the size understates the number of elements passed by forEach
+		Collection source = new Collection() {
+			@Override
+			public int size() {
+				return 1;
+			}
+
+			@Override
+			public void forEach(Processor processor) {
+				for (int i = 5; i > 0; --i) {
+					processor.process(i);
+				}
+			}
+		};
+		SortedArrayIndexedCollection collection = new SortedArrayIndexedCollection();
+		collection.add(3);
+		collection.addAll(source);
+		assertArrayEquals(new Object[] { 1, 2, 3, 3, 4, 5 }, collection.toArray());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void addAllNullTest() {
+		new SortedArrayIndexedCollection().addAll(null);
+	}
+
+	@Test
+	public void matchesSortedListTest() {
+		Random random = new Random(5);
+		SortedArrayIndexedCollection collection = new SortedArrayIndexedCollection();
+		List<Integer> model = new ArrayList<>();
+		for (int step = 0; step < 300; ++step) {
+			if (step % 10 == 0) {
+				ArrayIndexedCollection batch = new ArrayIndexedCollection();
+				for (int i = random.nextInt(20); i > 0; --i) {
+					int value = random.nextInt(50);
+					batch.add(value);
+					model.add(value);
+				}
+				collection.addAll(batch);
+			} else if (step % 3 == 0) {
+				Integer value = random.nextInt(50);
+				assertEquals(model.remove(value), collection.remove(value));
+			} else {
+				int value = random.nextInt(50);
+				collection.add(value);
+				model.add(value);
+			}
+			model.sort(null);
+			assertArrayEquals(model.toArray(), collection.toArray());
+			int value = random.nextInt(50);
+			assertEquals(model.indexOf(value), collection.indexOf(value));
+		}
+	}
+
+	@Test
+	public void removeIfKeepsOrderTest() {
+		SortedArrayIndexedCollection collection = new SortedArrayIndexedCollection();
+		for (int i = 20; i > 0; --i) {
+			collection.add(i % 7);
+		}
+		class Odd extends Tester {
+			@Override
+			public boolean test(Object value) {
+				return (Integer) value % 2 != 0;
+			}
+		}
+		assertTrue(collection.removeIf(new Odd()));
+		assertArrayEquals(new Object[] { 0, 0, 2, 2, 2, 4, 4, 4, 6, 6, 6 }, collection.toArray());
+		assertFalse(collection.removeIf(new Odd()));
+		collection.add(3);
+		assertEquals(5, collection.indexOf(3));
+	}
+
+	@Test
+	public void valuesOfOtherTypesAreNotContainedTest() {
+		SortedArrayIndexedCollection collection = new SortedArrayIndexedCollection();
+		assertFalse(collection.contains("x"));
+		collection.add(1);
+		collection.add(2);
+		assertFalse(collection.contains("x"));
+		assertEquals(-1, collection.indexOf("x"));
+		assertFalse(collection.remove("x"));
+		assertEquals(2, collection.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void addNullTest() {
+		new SortedArrayIndexedCollection().add(null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void insertionPointOfNullTest() {
+		new SortedArrayIndexedCollection().insertionPoint(null);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void removeOutOfBoundsTest() {
+		SortedArrayIndexedCollection collection = new SortedArrayIndexedCollection();
+		collection.add(1);
+		collection.remove(1);
+	}
+
+}
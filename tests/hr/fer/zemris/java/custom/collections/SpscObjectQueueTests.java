@@ -0,0 +1,120 @@
+package hr.fer.zemris.java.custom.collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SpscObjectQueueTests {
+
+	private static final int VALUES = 300_000;
+
+	@Test
+	public void firstInFirstOutTest() {
+		SpscObjectQueue queue = new SpscObjectQueue(10);
+		int capacity = queue.capacity();
+		assertTrue(capacity >= 10);
+		for (int i = 0; i < capacity; ++i) {
+			assertTrue(queue.offer(i));
+		}
+		assertFalse(queue.offer(-1));
+		assertEquals(capacity, queue.size());
+		for (int i = 0; i < capacity; ++i) {
+			assertEquals(i, queue.poll());
+		}
+		assertNull(queue.poll());
+		assertTrue(queue.isEmpty());
+	}
+
+	@Test
+	public void batchOperationsTest() {
+		SpscObjectQueue queue = new SpscObjectQueue(8);
+		Object[] values = new Object[20];
+		for (int i = 0; i < values.length; ++i) {
+			values[i] = i;
+		}
+		assertEquals(8, queue.offerAll(values, 0, 20));
+		Object[] target = new Object[10];
+		assertEquals(5, queue.drainTo(target, 0, 5));
+		assertEquals(5, queue.offerAll(values, 8, 12));
+		assertEquals(8, queue.drainTo(target, 2, 8));
+		for (int i = 0; i < 10; ++i) {
+			assertEquals(i < 2 ? i : i + 3, target[i]);
+		}
+		assertEquals(0, queue.drainTo(target, 0, 10));
+	}
+
+	@Test
+	public void conservesValuesInOrderTest() throws InterruptedException {
+		SpscObjectQueue queue = new SpscObjectQueue(256);
+		Thread producer = new Thread(() -> {
+			Object[] batch = new Object[16];
+			int next = 0;
+			while (next < VALUES) {
+				if (next % 3 == 0) {
+					if (queue.offer(next)) {
+						++next;
+					} else {
+						Thread.yield();
+					}
+					continue;
+				}
+				int count = Math.min(batch.length, VALUES - next);
+				for (int i = 0; i < count; ++i) {
+					batch[i] = next + i;
+				}
+				int added = queue.offerAll(batch, 0, count);
+				next += added;
+				if (added == 0) {
+					Thread.yield();
+				}
+			}
+		});
+		producer.start();
+
+		Object[] batch = new Object[32];
+		long count = 0;
+		long sum = 0;
+		int expected = 0;
+		while (count < VALUES) {
+			if (count % 2 == 0) {
+				Object value = queue.poll();
+				if (value == null) {
+					Thread.yield();
+					continue;
+				}
+				assertEquals(expected++, value);
+				++count;
+				sum += (Integer) value;
+				continue;
+			}
+			int drained = queue.drainTo(batch, 0, batch.length);
+			if (drained == 0) {
+				Thread.yield();
+			}
+			for (int i = 0; i < drained; ++i) {
+				assertEquals(expected++, batch[i]);
+				sum += (Integer) batch[i];
+			}
+			count += drained;
+		}
+		producer.join();
+
+		assertEquals(VALUES, count);
+		assertEquals((long) VALUES * (VALUES - 1) / 2, sum);
+		assertTrue(queue.isEmpty());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void offerNullTest() {
+		new SpscObjectQueue(4).offer(null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void offerAllRangeTest() {
+		new SpscObjectQueue(4).offerAll(new Object[2], 1, 2);
+	}
+
+}
@@ -0,0 +1,220 @@
+package hr.fer.zemris.java.custom.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TreeIndexedCollectionTests {
+
+	@Test
+	public void ascendingAddsStayBalancedTest() {
+		// every addition at the end rotates the right spine
+		TreeIndexedCollection tree = new TreeIndexedCollection();
+		for (int i = 0; i < 1023; ++i) {
+			tree.add(i);
+			checkInvariants(tree);
+		}
+		assertEquals(10, height(tree));
+	}
+
+	@Test
+	public void frontInsertsStayBalancedTest() {
+		TreeIndexedCollection tree = new TreeIndexedCollection();
+		for (int i = 0; i < 1000; ++i) {
+			tree.insert(i, 0);
+			checkInvariants(tree);
+		}
+		for (int i = 0; i < 1000; ++i) {
+			assertEquals(999 - i, tree.get(i));
+		}
+	}
+
+	@Test
+	public void zigZagInsertsStayBalancedTest() {
+		// inserting into the middle of a run causes double rotations
+		TreeIndexedCollection tree = new TreeIndexedCollection();
+		List<Object> model = new ArrayList<>();
+		for (int i = 0; i < 1000; ++i) {
+			int position = model.size() / 2 + (i % 2);
+			position = Math.min(position, model.size());
+			tree.insert(i, position);
+			model.add(position, i);
+			checkInvariants(tree);
+		}
+		assertArrayEquals(model.toArray(), tree.toArray());
+	}
+
+	@Test
+	public void removalsStayBalancedTest() {
+		TreeIndexedCollection tree = new TreeIndexedCollection();
+		List<Object> model = new ArrayList<>();
+		for (int i = 0; i < 1000; ++i) {
+			tree.add(i);
+			model.add(i);
+		}
+		Random random = new Random(1);
+		while (!model.isEmpty()) {
+			int index = model.size() % 3 == 0 ? 0 : random.nextInt(model.size());
+			tree.remove(index);
+			model.remove(index);
+			checkInvariants(tree);
+		}
+		assertEquals(0, tree.size());
+	}
+
+	@Test
+	public void bulkBuildIsBalancedTest() {
+		TreeIndexedCollection source = new TreeIndexedCollection();
+		for (int i = 0; i < 777; ++i) {
+			source.add(i);
+		}
+		TreeIndexedCollection tree = new TreeIndexedCollection(source);
+		checkInvariants(tree);
+		tree.addAll(source);
+		checkInvariants(tree);
+		assertEquals(2 * 777, tree.size());
+
+		class Even extends Tester {
+			@Override
+			public boolean test(Object value) {
+				return (Integer) value % 2 == 0;
+			}
+		}
+		assertTrue(tree.removeIf(new Even()));
+		checkInvariants(tree);
+		for (int i = 0; i < tree.size(); ++i) {
+			assertEquals(1 + 2 * (i % 388), tree.get(i));
+		}
+	}
+
+	@Test
+	public void addAllWithoutToArrayTest() {
+		Collection source = new Collection() {
+			@Override
+			public int size() {
+				return 50;
+			}
+
+			@Override
+			public void forEach(Processor processor) {
+				for (int i = 0; i < 50; ++i) {
+					processor.process(i);
+				}
+			}
+		};
+		// a larger batch rebuilds the tree, a smaller one is appended
+		TreeIndexedCollection tree = new TreeIndexedCollection();
+		tree.add(-1);
+		tree.addAll(source);
+		checkInvariants(tree);
+		tree.addAll(source);
+		checkInvariants(tree);
+		assertEquals(101, tree.size());
+		assertEquals(-1, tree.get(0));
+		assertEquals(0, tree.get(51));
+		assertEquals(49, tree.get(100));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void addAllNullTest() {
+		new TreeIndexedCollection().addAll(null);
+	}
+
+	@Test
+	public void matchesArrayListTest() {
+		for (int seed = 0; seed < 30; ++seed) {
+			Random random = new Random(seed);
+			TreeIndexedCollection tree = new TreeIndexedCollection();
+			List<Object> model = new ArrayList<>();
+			for (int step = 0; step < 1000; ++step) {
+				Integer value = random.nextInt(100);
+				int operation = random.nextInt(3);
+				if (operation == 0 || model.isEmpty()) {
+					int position = random.nextInt(model.size() + 1);
+					tree.insert(value, position);
+					model.add(position, value);
+				} else if (operation == 1) {
+					int index = random.nextInt(model.size());
+					tree.remove(index);
+					model.remove(index);
+				} else {
+					assertEquals("seed " + seed, model.remove(value), tree.remove(value));
+				}
+				assertEquals("seed " + seed, model.indexOf(value), tree.indexOf(value));
+			}
+			checkInvariants(tree);
+			assertArrayEquals("seed " + seed, model.toArray(), tree.toArray());
+			for (int i = 0; i < model.size(); ++i) {
+				assertEquals("seed " + seed, model.get(i), tree.get(i));
+			}
+		}
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void getOutOfBoundsTest() {
+		TreeIndexedCollection tree = new TreeIndexedCollection();
+		tree.add(1);
+		tree.get(1);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void insertOutOfBoundsTest() {
+		new TreeIndexedCollection().insert(1, 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void insertNullTest() {
+		new TreeIndexedCollection().insert(null, 0);
+	}
+
+	// checks that every node stores the height and size of its subtree, and
+	// that the heights of its subtrees differ by at most one
+	private static void checkInvariants(TreeIndexedCollection tree) {
+		try {
+			Field root = TreeIndexedCollection.class.getDeclaredField("root");
+			root.setAccessible(true);
+			int[] heightAndSize = check(root.get(tree));
+			assertEquals(tree.size(), heightAndSize[1]);
+		} catch (ReflectiveOperationException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	private static int height(TreeIndexedCollection tree) {
+		try {
+			Field root = TreeIndexedCollection.class.getDeclaredField("root");
+			root.setAccessible(true);
+			return check(root.get(tree))[0];
+		} catch (ReflectiveOperationException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	private static int[] check(Object node) throws ReflectiveOperationException {
+		if (node == null) {
+			return new int[] { 0, 0 };
+		}
+		int[] left = check(field(node, "left").get(node));
+		int[] right = check(field(node, "right").get(node));
+		int height = 1 + Math.max(left[0], right[0]);
+		int size = 1 + left[1] + right[1];
+		assertTrue("unbalanced node", Math.abs(left[0] - right[0]) <= 1);
+		assertEquals("stored height", height, field(node, "height").getInt(node));
+		assertEquals("stored size", size, field(node, "size").getInt(node));
+		return new int[] { height, size };
+	}
+
+	private static Field field(Object node, String name) throws ReflectiveOperationException {
+		Field field = node.getClass().getDeclaredField(name);
+		field.setAccessible(true);
+		return field;
+	}
+
+}
@@ -0,0 +1,287 @@
+package hr.fer.zemris.java.custom.collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class UnrolledLinkedListIndexedCollectionTests {
+
+	@Test
+	public void addFillsLastNodeTest() {
+		UnrolledLinkedListIndexedCollection list = filled(4, 9);
+		assertArrayEquals(new int[] { 4, 4, 1 }, nodeCounts(list));
+	}
+
+	@Test
+	public void insertSplitsFullNodeTest() {
+		// the node is split into halves of 2, and the value goes into the half
+		// holding its position
+		UnrolledLinkedListIndexedCollection list = filled(4, 4);
+		list.insert(-1, 1);
+		assertArrayEquals(new int[] { 3, 2 }, nodeCounts(list));
+		assertArrayEquals(new Object[] { 0, -1, 1, 2, 3 }, list.toArray());
+
+		list = filled(4, 4);
+		list.insert(-1, 2);
+		assertArrayEquals(new int[] { 3, 2 }, nodeCounts(list));
+		assertArrayEquals(new Object[] { 0, 1, -1, 2, 3 }, list.toArray());
+
+		list = filled(4, 4);
+		list.insert(-1, 3);
+		assertArrayEquals(new int[] { 2, 3 }, nodeCounts(list));
+		assertArrayEquals(new Object[] { 0, 1, 2, -1, 3 }, list.toArray());
+
+		// inserting at the end appends instead of splitting
+		list = filled(4, 4);
+		list.insert(-1, 4);
+		assertArrayEquals(new int[] { 4, 1 }, nodeCounts(list));
+	}
+
+	@Test
+	public void insertIntoNodeWithRoomDoesNotSplitTest() {
+		UnrolledLinkedListIndexedCollection list = filled(4, 6);
+		list.insert(-1, 4);
+		assertArrayEquals(new int[] { 4, 3 }, nodeCounts(list));
+		assertArrayEquals(new Object[] { 0, 1, 2, 3, -1, 4, 5 }, list.toArray());
+	}
+
+	@Test
+	public void removeMergesWithNextNodeTest() {
+		// a node with capacity 8 is merged once it holds fewer than 2 elements
+		UnrolledLinkedListIndexedCollection list = filled(8, 11);
+		for (int expected = 7; expected >= 2; --expected) {
+			list.remove(0);
+			assertArrayEquals(new int[] { expected, 3 }, nodeCounts(list));
+		}
+		list.remove(0);
+		assertArrayEquals(new int[] { 4 }, nodeCounts(list));
+		assertArrayEquals(new Object[] { 7, 8, 9, 10 }, list.toArray());
+	}
+
+	@Test
+	public void removeMergesWithPreviousNodeTest() {
+		UnrolledLinkedListIndexedCollection list = filled(8, 8);
+		list.insert(-1, 0);
+		assertArrayEquals(new int[] { 5, 4 }, nodeCounts(list));
+		list.remove(8);
+		list.remove(7);
+		assertArrayEquals(new int[] { 5, 2 }, nodeCounts(list));
+		list.remove(5);
+		assertArrayEquals(new int[] { 6 }, nodeCounts(list));
+		assertArrayEquals(new Object[] { -1, 0, 1, 2, 3, 5 }, list.toArray());
+	}
+
+	@Test
+	public void removeKeepsSparseNodeWithoutRoomTest() {
+		// neither neighbour has room for the remaining element, and an emptied
+		// node is unlinked
+		UnrolledLinkedListIndexedCollection list = filled(8, 9);
+		list.remove(8);
+		assertArrayEquals(new int[] { 8 }, nodeCounts(list));
+		list = filled(8, 10);
+		list.remove(9);
+		assertArrayEquals(new int[] { 8, 1 }, nodeCounts(list));
+	}
+
+	@Test
+	public void removeIfPacksRemainingElementsTest() {
+		// removing every third element would leave every node two thirds full
+		UnrolledLinkedListIndexedCollection list = filled(6, 30);
+		class EveryThird extends Tester {
+			@Override
+			public boolean test(Object value) {
+				return (Integer) value % 3 == 0;
+			}
+		}
+		assertTrue(list.removeIf(new EveryThird()));
+		assertArrayEquals(new int[] { 6, 6, 6, 2 }, nodeCounts(list));
+		assertEquals(29, list.get(19));
+		assertFalse(list.removeIf(new EveryThird()));
+
+		// the list stays usable at both ends
+		list.add(-1);
+		list.insert(-2, 0);
+		assertEquals(22, list.size());
+		assertEquals(-1, list.get(21));
+		checkNodes(list, 6);
+	}
+
+	@Test
+	public void removeIfUnlinksEmptiedNodesTest() {
+		UnrolledLinkedListIndexedCollection list = filled(4, 12);
+		class Middle extends Tester {
+			@Override
+			public boolean test(Object value) {
+				int i = (Integer) value;
+				return i >= 2 && i < 9;
+			}
+		}
+		assertTrue(list.removeIf(new Middle()));
+		assertArrayEquals(new Object[] { 0, 1, 9, 10, 11 }, list.toArray());
+		assertArrayEquals(new int[] { 4, 1 }, nodeCounts(list));
+		assertEquals(9, list.get(2));
+
+		class All extends Tester {
+			@Override
+			public boolean test(Object value) {
+				return true;
+			}
+		}
+		assertTrue(list.removeIf(new All()));
+		assertEquals(0, list.size());
+		assertArrayEquals(new int[0], nodeCounts(list));
+		list.add(1);
+		assertArrayEquals(new Object[] { 1 }, list.toArray());
+	}
+
+	@Test
+	public void matchesArrayListTest() {
+		for (int nodeCapacity : new int[] { 4, 5, 32 }) {
+			for (int seed = 0; seed < 30; ++seed) {
+				Random random = new Random(seed);
+				UnrolledLinkedListIndexedCollection list = new UnrolledLinkedListIndexedCollection(nodeCapacity);
+				List<Object> model = new ArrayList<>();
+				String message = "capacity " + nodeCapacity + ", seed " + seed;
+				for (int step = 0; step < 1000; ++step) {
+					Integer value = random.nextInt(50);
+					// removals are as likely as insertions, so nodes keep
+					// being split and merged around a small size
+					int operation = random.nextInt(4);
+					if (operation == 0) {
+						int position = random.nextInt(model.size() + 1);
+						list.insert(value, position);
+						model.add(position, value);
+					} else if (operation == 1) {
+						list.add(value);
+						model.add(value);
+					} else if (operation == 2 && !model.isEmpty()) {
+						int index = random.nextInt(model.size());
+						list.remove(index);
+						model.remove(index);
+					} else {
+						assertEquals(message, model.remove(value), list.remove(value));
+					}
+					checkNodes(list, nodeCapacity);
+					if (!model.isEmpty()) {
+						int index = random.nextInt(model.size());
+						assertEquals(message, model.get(index), list.get(index));
+					}
+					assertEquals(message, model.indexOf(value), list.indexOf(value));
+				}
+				assertArrayEquals(message, model.toArray(), list.toArray());
+			}
+		}
+	}
+
+	@Test
+	public void addAllFillsNodesTest() {
+		UnrolledLinkedListIndexedCollection list = filled(4, 3);
+		list.addAll(filled(8, 7));
+		assertArrayEquals(new int[] { 4, 4, 2 }, nodeCounts(list));
+		assertArrayEquals(new Object[] { 0, 1, 2, 0, 1, 2, 3, 4, 5, 6 }, list.toArray());
+		assertEquals(6, list.get(9));
+	}
+
+	@Test
+	public void addAllWithoutToArrayTest() {
+		Collection source = new Collection() {
+			@Override
+			public void forEach(Processor processor) {
+				for (int i = 0; i < 6; ++i) {
+					processor.process(i);
+				}
+			}
+		};
+		UnrolledLinkedListIndexedCollection list = filled(4, 3);
+		list.addAll(source);
+		assertArrayEquals(new int[] { 4, 4, 1 }, nodeCounts(list));
+		assertArrayEquals(new Object[] { 0, 1, 2, 0, 1, 2, 3, 4, 5 }, list.toArray());
+	}
+
+	@Test
+	public void addAllToItselfTest() {
+		UnrolledLinkedListIndexedCollection list = filled(4, 5);
+		list.addAll(list);
+		assertArrayEquals(new Object[] { 0, 1, 2, 3, 4, 0, 1, 2, 3, 4 }, list.toArray());
+		assertEquals(10, list.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void addAllNullTest() {
+		new UnrolledLinkedListIndexedCollection().addAll(null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nodeCapacityTooSmallTest() {
+		new UnrolledLinkedListIndexedCollection(3);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void removeOutOfBoundsTest() {
+		UnrolledLinkedListIndexedCollection list = new UnrolledLinkedListIndexedCollection();
+		list.add(1);
+		list.remove(1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void addNullTest() {
+		new UnrolledLinkedListIndexedCollection().add(null);
+	}
+
+	private static UnrolledLinkedListIndexedCollection filled(int nodeCapacity, int size) {
+		UnrolledLinkedListIndexedCollection list = new UnrolledLinkedListIndexedCollection(nodeCapacity);
+		for (int i = 0; i < size; ++i) {
+			list.add(i);
+		}
+		return list;
+	}
+
+	// no node may be empty or over capacity, and the counts must add up to the
+	// size of the list
+	private static void checkNodes(UnrolledLinkedListIndexedCollection list, int nodeCapacity) {
+		int total = 0;
+		for (int count : nodeCounts(list)) {
+			assertTrue("empty node", count > 0);
+			assertTrue("overfull node", count <= nodeCapacity);
+			total += count;
+		}
+		assertEquals(list.size(), total);
+	}
+
+	// numbers of elements in the nodes, read from the private fields of the
+	// list
+	private static int[] nodeCounts(UnrolledLinkedListIndexedCollection list) {
+		try {
+			Field first = UnrolledLinkedListIndexedCollection.class.getDeclaredField("first");
+			first.setAccessible(true);
+			Object node = first.get(list);
+			if (node == null) {
+				return new int[0];
+			}
+			Field next = node.getClass().getDeclaredField("next");
+			Field count = node.getClass().getDeclaredField("count");
+			next.setAccessible(true);
+			count.setAccessible(true);
+			List<Integer> counts = new ArrayList<>();
+			for (; node != null; node = next.get(node)) {
+				counts.add(count.getInt(node));
+			}
+			int[] result = new int[counts.size()];
+			for (int i = 0; i < result.length; ++i) {
+				result[i] = counts.get(i);
+			}
+			return result;
+		} catch (ReflectiveOperationException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+}
@@ -0,0 +1,231 @@
+package hr.fer.zemris.java.tecaj.hw2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ComplexAccumulatorTests {
+
+	private static final double[] SPECIAL = { 0.0, -0.0, 1, -1, 1e-310, -1e300, Double.MAX_VALUE,
+			Double.MIN_VALUE, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NaN };
+
+	private static ComplexNumber random(Random random) {
+		double scale = Math.pow(10, random.nextInt(9) - 4);
+		return new ComplexNumber(scale * (2 * random.nextDouble() - 1), scale * (2 * random.nextDouble() - 1));
+	}
+
+	private static ComplexNumber special(Random random) {
+		return new ComplexNumber(SPECIAL[random.nextInt(SPECIAL.length)], SPECIAL[random.nextInt(SPECIAL.length)]);
+	}
+
+	// equals of ComplexNumber compares the bits of the parts, so results must be bitwise equal
+	private static void assertSameValue(String step, ComplexNumber expected, ComplexAccumulator actual) {
+		assertEquals(step, expected, actual.toComplexNumber());
+		assertEquals(step, Double.doubleToLongBits(expected.getReal()), Double.doubleToLongBits(actual.getReal()));
+		assertEquals(step, Double.doubleToLongBits(expected.getImaginary()),
+				Double.doubleToLongBits(actual.getImaginary()));
+	}
+
+	// applies a random operation to both and returns the new immutable value
+	private static ComplexNumber step(Random random, ComplexNumber value, ComplexAccumulator accumulator,
+			boolean specials, StringBuilder trace) {
+		ComplexNumber a = specials && random.nextInt(4) == 0 ? special(random) : random(random);
+		ComplexNumber b = random(random);
+		boolean parts = random.nextBoolean();
+		int operation = random.nextInt(6);
+		trace.append(operation).append(parts ? "p " : " ");
+		switch (operation) {
+		case 0:
+			if (parts) {
+				accumulator.add(a.getReal(), a.getImaginary());
+			} else {
+				accumulator.add(a);
+			}
+			return value.add(a);
+		case 1:
+			if (parts) {
+				accumulator.sub(a.getReal(), a.getImaginary());
+			} else {
+				accumulator.sub(a);
+			}
+			return value.sub(a);
+		case 2:
+			if (parts) {
+				accumulator.mul(a.getReal(), a.getImaginary());
+			} else {
+				accumulator.mul(a);
+			}
+			return value.mul(a);
+		case 3:
+			if (a.getReal() == 0 && a.getImaginary() == 0) {
+				a = b;
+			}
+			if (parts) {
+				accumulator.div(a.getReal(), a.getImaginary());
+			} else {
+				accumulator.div(a);
+			}
+			return value.div(a);
+		case 4:
+			if (parts) {
+				accumulator.fma(a.getReal(), a.getImaginary(), b.getReal(), b.getImaginary());
+			} else {
+				accumulator.fma(a, b);
+			}
+			return value.add(a.mul(b));
+		default:
+			int n = random.nextInt(12);
+			accumulator.power(n);
+			return value.power(n);
+		}
+	}
+
+	private static void checkChains(long seed, boolean specials) {
+		Random random = new Random(seed);
+		for (int chain = 0; chain < 2000; ++chain) {
+			ComplexNumber value = random(random);
+			ComplexAccumulator accumulator = new ComplexAccumulator(value);
+			StringBuilder trace = new StringBuilder();
+			for (int i = random.nextInt(30); i > 0; --i) {
+				value = step(random, value, accumulator, specials, trace);
+				assertSameValue("chain " + chain + ": " + trace, value, accumulator);
+			}
+		}
+	}
+
+	@Test
+	public void randomChainsTest() {
+		checkChains(1, false);
+	}
+
+	@Test
+	public void specialValueChainsTest() {
+		checkChains(2, true);
+	}
+
+	@Test
+	public void expressionTest() {
+		// a.mul(b).add(c.mul(d)).div(e), as in the class documentation
+		Random random = new Random(3);
+		for (int i = 0; i < 10_000; ++i) {
+			ComplexNumber a = random(random);
+			ComplexNumber b = random(random);
+			ComplexNumber c = random(random);
+			ComplexNumber d = random(random);
+			ComplexNumber e = random(random);
+			ComplexAccumulator accumulator = new ComplexAccumulator(a).mul(b).fma(c, d).div(e);
+			assertSameValue("expression " + i, a.mul(b).add(c.mul(d)).div(e), accumulator);
+		}
+	}
+
+	@Test
+	public void mulChainTest() {
+		Random random = new Random(4);
+		ComplexNumber value = new ComplexNumber(1, 0);
+		ComplexAccumulator accumulator = new ComplexAccumulator(1, 0);
+		for (int i = 0; i < 1000; ++i) {
+			ComplexNumber factor = ComplexNumber.fromMagnitudeAndAngle(1 + 1e-3 * random.nextGaussian(),
+					random.nextDouble());
+			value = value.mul(factor);
+			accumulator.mul(factor);
+			assertSameValue("factor " + i, value, accumulator);
+		}
+	}
+
+	@Test
+	public void divChainTest() {
+		Random random = new Random(5);
+		ComplexNumber value = new ComplexNumber(1e10, -1e10);
+		ComplexAccumulator accumulator = new ComplexAccumulator(1e10, -1e10);
+		for (int i = 0; i < 1000; ++i) {
+			// both branches of Smith's method
+			double larger = 1 + random.nextDouble();
+			double smaller = random.nextDouble();
+			ComplexNumber divisor = random.nextBoolean() ? new ComplexNumber(larger, smaller)
+					: new ComplexNumber(smaller, larger);
+			value = value.div(divisor);
+			accumulator.div(divisor);
+			assertSameValue("divisor " + i, value, accumulator);
+		}
+	}
+
+	@Test
+	public void powerTest() {
+		Random random = new Random(6);
+		for (int i = 0; i < 2000; ++i) {
+			ComplexNumber base = i < 200 ? special(random) : random(random);
+			int n = i % 3 == 0 ? random.nextInt(1000) : random.nextInt(20);
+			ComplexAccumulator accumulator = new ComplexAccumulator(base);
+			assertSame(accumulator, accumulator.power(n));
+			assertSameValue(base + "^" + n, base.power(n), accumulator);
+		}
+	}
+
+	@Test
+	public void fmaChainTest() {
+		// a dot product accumulated term by term
+		Random random = new Random(7);
+		ComplexNumber value = new ComplexNumber(0, 0);
+		ComplexAccumulator accumulator = new ComplexAccumulator();
+		for (int i = 0; i < 1000; ++i) {
+			ComplexNumber a = random(random);
+			ComplexNumber b = random(random);
+			value = value.add(a.mul(b));
+			accumulator.fma(a, b);
+			assertSameValue("term " + i, value, accumulator);
+		}
+	}
+
+	@Test
+	public void selfOperandTest() {
+		Random random = new Random(8);
+		for (int i = 0; i < 1000; ++i) {
+			ComplexNumber value = random(random);
+			ComplexAccumulator accumulator = new ComplexAccumulator(value);
+			assertSameValue("square", value.mul(value), accumulator.mul(accumulator.toComplexNumber()));
+			value = value.mul(value);
+			assertSameValue("quotient", value.div(value), accumulator.div(accumulator.toComplexNumber()));
+		}
+	}
+
+	@Test
+	public void setAndClearTest() {
+		ComplexAccumulator accumulator = new ComplexAccumulator();
+		assertSameValue("new", new ComplexNumber(0, 0), accumulator);
+		assertSame(accumulator, accumulator.set(new ComplexNumber(2.5, -3)));
+		assertSameValue("set", new ComplexNumber(2.5, -3), accumulator);
+		assertSame(accumulator, accumulator.set(-0.0, 7));
+		assertSameValue("set parts", new ComplexNumber(-0.0, 7), accumulator);
+		assertEquals(new ComplexNumber(-0.0, 7).toString(), accumulator.toString());
+		assertSame(accumulator, accumulator.clear());
+		assertSameValue("clear", new ComplexNumber(0, 0), accumulator);
+	}
+
+	@Test
+	public void divisionByZeroTest() {
+		ComplexAccumulator accumulator = new ComplexAccumulator(1, 2);
+		for (ComplexNumber zero : new ComplexNumber[] { new ComplexNumber(0, 0), new ComplexNumber(-0.0, -0.0) }) {
+			try {
+				new ComplexNumber(1, 2).div(zero);
+				fail();
+			} catch (ArithmeticException expected) {
+			}
+			try {
+				accumulator.div(zero);
+				fail();
+			} catch (ArithmeticException expected) {
+			}
+			assertSameValue("unchanged", new ComplexNumber(1, 2), accumulator);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void negativePowerTest() {
+		new ComplexAccumulator(1, 1).power(-1);
+	}
+
+}
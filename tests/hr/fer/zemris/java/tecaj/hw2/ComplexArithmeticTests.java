@@ -0,0 +1,124 @@
+package hr.fer.zemris.java.tecaj.hw2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ComplexArithmeticTests {
+
+	private static final int SAMPLES = 100_000;
+
+	private static final double TOLERANCE = 1e-12;
+
+	// the polar formulas used before, kept as the reference results
+	private static ComplexNumber polarMul(ComplexNumber a, ComplexNumber b) {
+		return ComplexNumber.fromMagnitudeAndAngle(a.getMagnitude() * b.getMagnitude(), a.getAngle() + b.getAngle());
+	}
+
+	private static ComplexNumber polarDiv(ComplexNumber a, ComplexNumber b) {
+		return ComplexNumber.fromMagnitudeAndAngle(a.getMagnitude() / b.getMagnitude(), a.getAngle() - b.getAngle());
+	}
+
+	private static ComplexNumber polarPower(ComplexNumber a, int n) {
+		// the true angle, without the PI added by getAngle
+		double angle = Math.atan2(a.getImaginary(), a.getReal());
+		return ComplexNumber.fromMagnitudeAndAngle(Math.pow(a.getMagnitude(), n), angle * n);
+	}
+
+	private static ComplexNumber random(Random random) {
+		double scale = Math.pow(10, random.nextInt(9) - 4);
+		return new ComplexNumber(scale * (2 * random.nextDouble() - 1), scale * (2 * random.nextDouble() - 1));
+	}
+
+	private static void assertClose(ComplexNumber expected, ComplexNumber actual, double tolerance) {
+		double error = Math.hypot(expected.getReal() - actual.getReal(),
+				expected.getImaginary() - actual.getImaginary());
+		double scale = Math.hypot(expected.getReal(), expected.getImaginary());
+		assertTrue("expected " + expected.getReal() + "," + expected.getImaginary() + " but was " + actual.getReal()
+				+ "," + actual.getImaginary(), error <= tolerance * scale);
+	}
+
+	@Test
+	public void polarFormTest() {
+		ComplexNumber c = new ComplexNumber(3, 4);
+		assertEquals(5, c.getMagnitude(), 0);
+		assertEquals(Math.atan2(4, 3) + Math.PI, c.getAngle(), 0);
+		assertEquals(0, new ComplexNumber(0, 0).getMagnitude(), 0);
+		assertEquals(Math.PI, new ComplexNumber(0, 0).getAngle(), 0);
+		assertEquals(0, new ComplexNumber(-1, -0.0).getAngle(), 0);
+
+		Random random = new Random(1);
+		for (int i = 0; i < SAMPLES; ++i) {
+			ComplexNumber a = random(random);
+			double re = a.getReal();
+			double im = a.getImaginary();
+			assertEquals(Math.sqrt(Math.pow(re, 2) + Math.pow(im, 2)), a.getMagnitude(), 0);
+			assertEquals(Math.atan2(im, re) + Math.PI, a.getAngle(), 0);
+		}
+	}
+
+	@Test
+	public void exactArithmeticTest() {
+		ComplexNumber a = new ComplexNumber(3, -2);
+		ComplexNumber b = new ComplexNumber(-1, 5);
+		assertEquals(new ComplexNumber(2, 3), a.add(b));
+		assertEquals(new ComplexNumber(4, -7), a.sub(b));
+		assertEquals(new ComplexNumber(7, 17), a.mul(b));
+		assertEquals(a, new ComplexNumber(8, -1).div(new ComplexNumber(2, 1)));
+		assertEquals(new ComplexNumber(16, 0), new ComplexNumber(1, 1).power(8));
+		ComplexNumber cube = new ComplexNumber(0, 1).power(3);
+		assertEquals(0, cube.getReal(), 0);
+		assertEquals(-1, cube.getImaginary(), 0);
+		assertEquals(new ComplexNumber(1, 0), a.power(0));
+		assertEquals(a, a.power(1));
+	}
+
+	@Test
+	public void mulAndDivMatchPolarTest() {
+		Random random = new Random(2);
+		for (int i = 0; i < SAMPLES; ++i) {
+			ComplexNumber a = random(random);
+			ComplexNumber b = random(random);
+			assertClose(polarMul(a, b), a.mul(b), TOLERANCE);
+			assertClose(polarDiv(a, b), a.div(b), TOLERANCE);
+			assertClose(a, a.mul(b).div(b), TOLERANCE);
+		}
+	}
+
+	@Test
+	public void powerTest() {
+		Random random = new Random(3);
+		for (int i = 0; i < SAMPLES / 10; ++i) {
+			ComplexNumber a = random(random);
+			int n = random.nextInt(40);
+			ComplexNumber repeated = new ComplexNumber(1, 0);
+			for (int k = 0; k < n; ++k) {
+				repeated = repeated.mul(a);
+			}
+			assertClose(repeated, a.power(n), 1e-13 * (n + 1));
+			assertClose(polarPower(a, n), a.power(n), 1e-13 * (n + 1));
+		}
+	}
+
+	@Test
+	public void divisionWithoutOverflowTest() {
+		ComplexNumber a = new ComplexNumber(1e300, 1e300);
+		ComplexNumber b = new ComplexNumber(1e300, -1e300);
+		assertEquals(new ComplexNumber(0, 1), a.div(b));
+		assertEquals(new ComplexNumber(1e-300, 0), new ComplexNumber(1e-300, 1e-300).div(new ComplexNumber(1, 1)));
+	}
+
+	@Test(expected = ArithmeticException.class)
+	public void divisionByZeroTest() {
+		new ComplexNumber(1, 1).div(new ComplexNumber(0, 0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void negativePowerTest() {
+		new ComplexNumber(1, 1).power(-1);
+	}
+
+}
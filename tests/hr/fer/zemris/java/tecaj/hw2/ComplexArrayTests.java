@@ -0,0 +1,263 @@
+package hr.fer.zemris.java.tecaj.hw2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ComplexArrayTests {
+
+	private static final int[] LENGTHS = { 0, 1, 2, 3, 16, 101 };
+
+	private static ComplexNumber[] random(int length, Random random) {
+		ComplexNumber[] numbers = new ComplexNumber[length];
+		for (int i = 0; i < length; ++i) {
+			double scale = Math.pow(10, random.nextInt(9) - 4);
+			numbers[i] = new ComplexNumber(scale * (2 * random.nextDouble() - 1),
+					scale * (2 * random.nextDouble() - 1));
+		}
+		return numbers;
+	}
+
+	// equals of ComplexNumber compares the bits of the parts
+	private static void assertElements(ComplexNumber[] expected, ComplexArray actual) {
+		assertEquals(expected.length, actual.length());
+		for (int i = 0; i < expected.length; ++i) {
+			assertEquals("index " + i, expected[i], actual.get(i));
+		}
+	}
+
+	@Test
+	public void conversionTest() {
+		ComplexNumber[] numbers = random(50, new Random(1));
+		ComplexArray array = ComplexArray.fromComplexNumbers(numbers);
+		assertElements(numbers, array);
+		assertArrayEquals(numbers, array.toComplexNumbers());
+		for (int i = 0; i < numbers.length; ++i) {
+			assertEquals(numbers[i].getReal(), array.getReal(i), 0);
+			assertEquals(numbers[i].getImaginary(), array.getImaginary(i), 0);
+		}
+
+		ComplexArray copy = new ComplexArray(array);
+		copy.set(0, new ComplexNumber(7, 8));
+		copy.set(1, 9, 10);
+		assertEquals(new ComplexNumber(7, 8), copy.get(0));
+		assertEquals(new ComplexNumber(9, 10), copy.get(1));
+		assertEquals(numbers[0], array.get(0));
+	}
+
+	@Test
+	public void addAndSubTest() {
+		Random random = new Random(2);
+		for (int length : LENGTHS) {
+			ComplexNumber[] a = random(length, random);
+			ComplexNumber[] b = random(length, random);
+			ComplexNumber[] sums = new ComplexNumber[length];
+			ComplexNumber[] differences = new ComplexNumber[length];
+			for (int i = 0; i < length; ++i) {
+				sums[i] = a[i].add(b[i]);
+				differences[i] = a[i].sub(b[i]);
+			}
+			ComplexArray array = ComplexArray.fromComplexNumbers(a);
+			ComplexArray other = ComplexArray.fromComplexNumbers(b);
+			assertSame(array, array.add(other));
+			assertElements(sums, array);
+			array = ComplexArray.fromComplexNumbers(a);
+			assertSame(array, array.sub(other));
+			assertElements(differences, array);
+			assertElements(b, other);
+		}
+	}
+
+	@Test
+	public void mulTest() {
+		Random random = new Random(3);
+		for (int length : LENGTHS) {
+			ComplexNumber[] a = random(length, random);
+			ComplexNumber[] b = random(length, random);
+			ComplexNumber[] products = new ComplexNumber[length];
+			for (int i = 0; i < length; ++i) {
+				products[i] = a[i].mul(b[i]);
+			}
+			ComplexArray array = ComplexArray.fromComplexNumbers(a);
+			assertSame(array, array.mul(ComplexArray.fromComplexNumbers(b)));
+			assertElements(products, array);
+		}
+	}
+
+	@Test
+	public void mulWithItselfTest() {
+		ComplexNumber[] a = random(20, new Random(4));
+		ComplexNumber[] squares = new ComplexNumber[a.length];
+		for (int i = 0; i < a.length; ++i) {
+			squares[i] = a[i].mul(a[i]);
+		}
+		ComplexArray array = ComplexArray.fromComplexNumbers(a);
+		array.mul(array);
+		assertElements(squares, array);
+	}
+
+	@Test
+	public void scaleTest() {
+		Random random = new Random(5);
+		for (int length : LENGTHS) {
+			ComplexNumber[] a = random(length, random);
+			ComplexNumber factor = random(1, random)[0];
+			double realFactor = factor.getReal();
+			ComplexNumber[] products = new ComplexNumber[length];
+			ComplexNumber[] realProducts = new ComplexNumber[length];
+			for (int i = 0; i < length; ++i) {
+				products[i] = a[i].mul(factor);
+				realProducts[i] = new ComplexNumber(a[i].getReal() * realFactor, a[i].getImaginary() * realFactor);
+				// multiplying by a real number is exact up to the rounding of each part
+				assertEquals(a[i].mul(ComplexNumber.fromReal(realFactor)), realProducts[i]);
+			}
+			ComplexArray array = ComplexArray.fromComplexNumbers(a);
+			assertSame(array, array.scale(factor));
+			assertElements(products, array);
+			array = ComplexArray.fromComplexNumbers(a);
+			assertSame(array, array.scale(realFactor));
+			assertElements(realProducts, array);
+		}
+	}
+
+	@Test
+	public void conjugateTest() {
+		ComplexNumber[] a = random(33, new Random(6));
+		ComplexArray array = ComplexArray.fromComplexNumbers(a);
+		assertSame(array, array.conjugate());
+		for (int i = 0; i < a.length; ++i) {
+			assertEquals(new ComplexNumber(a[i].getReal(), -a[i].getImaginary()), array.get(i));
+			// a number times its conjugate is its squared magnitude
+			ComplexNumber product = a[i].mul(array.get(i));
+			assertEquals(a[i].getMagnitude() * a[i].getMagnitude(), product.getReal(),
+					1e-15 * product.getReal());
+			assertEquals(0, product.getImaginary(), 1e-15 * product.getReal());
+		}
+		array.conjugate();
+		assertElements(a, array);
+	}
+
+	@Test
+	public void magnitudeTest() {
+		Random random = new Random(7);
+		for (int length : LENGTHS) {
+			ComplexNumber[] a = random(length, random);
+			double[] expected = new double[length];
+			for (int i = 0; i < length; ++i) {
+				expected[i] = a[i].getMagnitude();
+			}
+			ComplexArray array = ComplexArray.fromComplexNumbers(a);
+			assertArrayEquals(expected, array.magnitude(), 0);
+
+			double[] target = new double[length + 2];
+			target[length + 1] = 5;
+			assertSame(target, array.magnitude(target));
+			for (int i = 0; i < length; ++i) {
+				assertEquals(expected[i], target[i], 0);
+			}
+			assertEquals(5, target[length + 1], 0);
+		}
+	}
+
+	@Test
+	public void dotTest() {
+		Random random = new Random(8);
+		for (int length : LENGTHS) {
+			ComplexNumber[] a = random(length, random);
+			ComplexNumber[] b = random(length, random);
+			ComplexNumber expected = new ComplexNumber(0, 0);
+			double bound = 0;
+			for (int i = 0; i < length; ++i) {
+				ComplexNumber conjugate = new ComplexNumber(b[i].getReal(), -b[i].getImaginary());
+				expected = expected.add(a[i].mul(conjugate));
+				bound += a[i].getMagnitude() * b[i].getMagnitude();
+			}
+			ComplexArray array = ComplexArray.fromComplexNumbers(a);
+			ComplexNumber actual = array.dot(ComplexArray.fromComplexNumbers(b));
+			// the two partial sums may round differently than a sequential sum
+			double tolerance = 1e-15 * length * bound;
+			assertEquals(expected.getReal(), actual.getReal(), tolerance);
+			assertEquals(expected.getImaginary(), actual.getImaginary(), tolerance);
+			if (length < 2) {
+				assertEquals(expected, actual);
+			}
+		}
+	}
+
+	@Test
+	public void dotWithItselfTest() {
+		ComplexNumber[] a = random(41, new Random(9));
+		ComplexArray array = ComplexArray.fromComplexNumbers(a);
+		ComplexNumber dot = array.dot(array);
+		double expected = 0;
+		double[] magnitudes = array.magnitude();
+		for (double magnitude : magnitudes) {
+			expected += magnitude * magnitude;
+		}
+		assertEquals(expected, dot.getReal(), 1e-14 * expected);
+		assertEquals(0, dot.getImaginary(), 0);
+	}
+
+	@Test
+	public void lengthMismatchTest() {
+		ComplexArray array = new ComplexArray(3);
+		ComplexArray[] others = { null, new ComplexArray(2), new ComplexArray(4) };
+		for (ComplexArray other : others) {
+			int failures = 0;
+			try {
+				array.add(other);
+			} catch (IllegalArgumentException e) {
+				++failures;
+			}
+			try {
+				array.sub(other);
+			} catch (IllegalArgumentException e) {
+				++failures;
+			}
+			try {
+				array.mul(other);
+			} catch (IllegalArgumentException e) {
+				++failures;
+			}
+			try {
+				array.dot(other);
+			} catch (IllegalArgumentException e) {
+				++failures;
+			}
+			assertEquals(4, failures);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void shortMagnitudeTargetTest() {
+		new ComplexArray(3).magnitude(new double[2]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nullElementTest() {
+		ComplexArray.fromComplexNumbers(new ComplexNumber[] { new ComplexNumber(1, 1), null });
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nullFactorTest() {
+		new ComplexArray(1).scale((ComplexNumber) null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void negativeLengthTest() {
+		new ComplexArray(-1);
+	}
+
+	@Test
+	public void emptyArrayTest() {
+		ComplexArray array = new ComplexArray(0);
+		assertEquals(0, array.length());
+		assertEquals(new ComplexNumber(0, 0), array.dot(array));
+		assertEquals(0, array.magnitude().length);
+	}
+
+}
@@ -0,0 +1,155 @@
+package hr.fer.zemris.java.tecaj.hw2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class ComplexParseTests {
+
+	private static final String[] ALPHABET = { "0", "1", "5", "9", ".", "-", "+", " ", "i", "e", "x", "3.51",
+			"2.71", "007", "", "99999999999999999", "0.1", "i" };
+
+	// the regular expression used before the hand-written scanner
+	private static final Pattern PATTERN = Pattern.compile("(-?\\d*\\.?\\d+) ?(([+-] ?(\\d*\\.?\\d+)?)i)|"
+			+ "(-?\\d*\\.?\\d+)|((-?(\\d*\\.?\\d+)?)i)");
+
+	// the parser used before the hand-written scanner, kept as the reference
+	private static ComplexNumber parseWithRegex(String s) {
+		Matcher matcher = PATTERN.matcher(s);
+		if (!matcher.matches()) {
+			throw new IllegalArgumentException();
+		}
+		double real = 0;
+		double imaginary = 0;
+		if (matcher.group(1) != null) {
+			// real and imaginary part are not zero
+			real = Double.parseDouble(matcher.group(1));
+		} else if (matcher.group(5) != null) {
+			// real part is not zero, imaginary is
+			real = Double.parseDouble(matcher.group(5));
+		}
+		if (matcher.group(2) != null) {
+			// real and imaginary part are not zero
+			imaginary = parseImaginary(matcher.group(3).replaceAll(" ", ""), "+");
+		} else if (matcher.group(6) != null) {
+			// imaginary part is not zero, real is
+			imaginary = parseImaginary(matcher.group(7), "");
+		}
+		return new ComplexNumber(real, imaginary);
+	}
+
+	private static double parseImaginary(String expression, String one) {
+		if (expression.equals(one)) {
+			return 1;
+		} else if (expression.equals("-")) {
+			return -1;
+		}
+		return Double.parseDouble(expression);
+	}
+
+	private static String randomNumber(Random random) {
+		StringBuilder sb = new StringBuilder();
+		int digits = random.nextInt(4) == 0 ? random.nextInt(25) : random.nextInt(6);
+		for (int i = 0; i < digits; ++i) {
+			sb.append((char) ('0' + random.nextInt(10)));
+		}
+		if (random.nextBoolean()) {
+			sb.append('.');
+			int decimals = random.nextInt(4) == 0 ? random.nextInt(30) : 1 + random.nextInt(8);
+			for (int i = 0; i < decimals; ++i) {
+				sb.append((char) ('0' + random.nextInt(10)));
+			}
+		}
+		return sb.toString();
+	}
+
+	private static String randomValid(Random random) {
+		String real = (random.nextBoolean() ? "-" : "") + randomNumber(random);
+		String imaginary = random.nextInt(4) == 0 ? "" : randomNumber(random);
+		switch (random.nextInt(3)) {
+		case 0:
+			return real;
+		case 1:
+			return (random.nextBoolean() ? "-" : "") + imaginary + "i";
+		default:
+			return real + (random.nextBoolean() ? " " : "") + (random.nextBoolean() ? "+" : "-")
+					+ (random.nextBoolean() ? " " : "") + imaginary + "i";
+		}
+	}
+
+	private static String randomGarbage(Random random) {
+		StringBuilder sb = new StringBuilder();
+		for (int i = random.nextInt(6); i >= 0; --i) {
+			sb.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+		}
+		return sb.toString();
+	}
+
+	private static void assertSameResult(String s) {
+		ComplexNumber expected;
+		try {
+			expected = parseWithRegex(s);
+		} catch (IllegalArgumentException e) {
+			try {
+				ComplexNumber.parse(s);
+				fail("\"" + s + "\" should not be parsed");
+			} catch (IllegalArgumentException expectedException) {
+			}
+			return;
+		}
+		ComplexNumber actual = ComplexNumber.parse(s);
+		// equals compares the bits of the parts, so -0.0 differs from 0.0
+		assertEquals("\"" + s + "\"", expected, actual);
+	}
+
+	@Test
+	public void examplesTest() {
+		String[] examples = { "3.51", "-3.17", "-2.71i", "i", "1", "-2.71-3.15i", "2+i", "0", "0i", "0+i", "0 - i",
+				"-1 + 0i", "0 - 1i", "-i", "-0", "-0i", "1 -0i", ".5", "-.5i", "1.5 +.25i", "", " ", "1.", "1.i",
+				"+1", "+i", "1 i", "1  + i", "1 +  i", "1e5", "--1", "1+-i", "i1", "1+i ", " 1", "1.2.3",
+				"12345678901234567890.5", "0.00000000000000000000000001", "9007199254740993",
+				"9007199254740992", "0.1000000000000000055511151231257827" };
+		for (String example : examples) {
+			assertSameResult(example);
+		}
+	}
+
+	@Test
+	public void differentialTest() {
+		Random random = new Random(42);
+		for (int i = 0; i < 200_000; ++i) {
+			assertSameResult(randomValid(random));
+			assertSameResult(randomGarbage(random));
+		}
+	}
+
+	@Test
+	public void rangeAndSinkTest() {
+		String line = "x,-2.71-3.15i,y";
+		assertEquals(new ComplexNumber(-2.71, -3.15), ComplexNumber.parse(line, 2, 13));
+		assertEquals(new ComplexNumber(-2.71, -3.15), ComplexNumber.parse(new StringBuilder(line), 2, 13));
+
+		ComplexAccumulator sink = new ComplexAccumulator(7, 7);
+		assertSame(sink, ComplexNumber.parse(line, 2, 7, sink));
+		assertEquals(-2.71, sink.getReal(), 0);
+		assertEquals(0, sink.getImaginary(), 0);
+		try {
+			ComplexNumber.parse(line, 0, 13, sink);
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(-2.71, sink.getReal(), 0);
+		}
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void invalidRangeTest() {
+		ComplexNumber.parse("1+i", 2, 4);
+	}
+
+}
@@ -0,0 +1,229 @@
+package hr.fer.zemris.java.tecaj.hw2;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class FourierTransformTests {
+
+	private static final int[] POWER_OF_TWO_LENGTHS = { 1, 2, 4, 8, 64, 1024 };
+
+	private static final int[] OTHER_LENGTHS = { 3, 5, 6, 12, 100, 127, 1000, 1009 };
+
+	private static final double TOLERANCE = 1e-10;
+
+	// the transform straight from the definition, X[k] = sum x[j] e^(-2 Pi i j k / n)
+	private static double[][] naive(double[] re, double[] im, boolean inverse) {
+		int n = re.length;
+		double[][] result = new double[2][n];
+		double sign = inverse ? 1 : -1;
+		for (int k = 0; k < n; ++k) {
+			double sumRe = 0;
+			double sumIm = 0;
+			for (int j = 0; j < n; ++j) {
+				// j k is reduced modulo n, so the angle stays small and exact
+				double angle = sign * 2 * Math.PI * ((long) j * k % n) / n;
+				double c = Math.cos(angle);
+				double s = Math.sin(angle);
+				sumRe += re[j] * c - im[j] * s;
+				sumIm += re[j] * s + im[j] * c;
+			}
+			result[0][k] = inverse ? sumRe / n : sumRe;
+			result[1][k] = inverse ? sumIm / n : sumIm;
+		}
+		return result;
+	}
+
+	private static double[][] random(int n, long seed) {
+		Random random = new Random(seed);
+		double[][] values = new double[2][n];
+		for (int k = 0; k < n; ++k) {
+			values[0][k] = 2 * random.nextDouble() - 1;
+			values[1][k] = 2 * random.nextDouble() - 1;
+		}
+		return values;
+	}
+
+	private static double[] interleave(double[] re, double[] im) {
+		double[] data = new double[2 * re.length];
+		for (int k = 0; k < re.length; ++k) {
+			data[2 * k] = re[k];
+			data[2 * k + 1] = im[k];
+		}
+		return data;
+	}
+
+	// errors are measured against the largest magnitude, since single bins may be close to zero
+	private static void assertClose(double[] expectedRe, double[] expectedIm, double[] re, double[] im) {
+		assertEquals(expectedRe.length, re.length);
+		double scale = 1;
+		for (int k = 0; k < re.length; ++k) {
+			scale = Math.max(scale, Math.hypot(expectedRe[k], expectedIm[k]));
+		}
+		for (int k = 0; k < re.length; ++k) {
+			double error = Math.hypot(expectedRe[k] - re[k], expectedIm[k] - im[k]);
+			assertTrue("length " + re.length + ", index " + k + ": error " + error, error <= TOLERANCE * scale);
+		}
+	}
+
+	private static void checkForward(int n) {
+		double[][] values = random(n, n);
+		double[][] expected = naive(values[0], values[1], false);
+		double[] re = values[0].clone();
+		double[] im = values[1].clone();
+		FourierTransform.forward(re, im);
+		assertClose(expected[0], expected[1], re, im);
+	}
+
+	private static void checkInverse(int n) {
+		double[][] values = random(n, -n);
+		double[][] expected = naive(values[0], values[1], true);
+		double[] re = values[0].clone();
+		double[] im = values[1].clone();
+		FourierTransform.inverse(re, im);
+		assertClose(expected[0], expected[1], re, im);
+	}
+
+	@Test
+	public void powerOfTwoLengthsTest() {
+		for (int n : POWER_OF_TWO_LENGTHS) {
+			checkForward(n);
+			checkInverse(n);
+		}
+	}
+
+	@Test
+	public void otherLengthsTest() {
+		for (int n : OTHER_LENGTHS) {
+			checkForward(n);
+			checkInverse(n);
+		}
+	}
+
+	@Test
+	public void emptyTest() {
+		double[] re = {};
+		double[] im = {};
+		FourierTransform.forward(re, im);
+		FourierTransform.inverse(re, im);
+		assertEquals(0, re.length);
+	}
+
+	@Test
+	public void impulseTest() {
+		// the transform of an impulse at 1 is the nth roots of 1, conjugated
+		int n = 7;
+		double[] re = new double[n];
+		double[] im = new double[n];
+		re[1] = 1;
+		FourierTransform.forward(re, im);
+		for (int k = 0; k < n; ++k) {
+			assertEquals(Math.cos(2 * Math.PI * k / n), re[k], TOLERANCE);
+			assertEquals(-Math.sin(2 * Math.PI * k / n), im[k], TOLERANCE);
+		}
+	}
+
+	@Test
+	public void interleavedMatchesSplitTest() {
+		for (int[] lengths : new int[][] { POWER_OF_TWO_LENGTHS, OTHER_LENGTHS }) {
+			for (int n : lengths) {
+				double[][] values = random(n, 31 * n);
+				double[] re = values[0].clone();
+				double[] im = values[1].clone();
+				double[] data = interleave(re, im);
+				FourierTransform.forward(re, im);
+				FourierTransform.forward(data);
+				// both layouts perform the same operations, so the results are equal
+				assertArrayEquals(interleave(re, im), data, 0);
+
+				FourierTransform.inverse(re, im);
+				FourierTransform.inverse(data);
+				assertArrayEquals(interleave(re, im), data, 0);
+			}
+		}
+	}
+
+	@Test
+	public void complexArrayMatchesSplitTest() {
+		for (int n : new int[] { 16, 100 }) {
+			double[][] values = random(n, n + 1);
+			ComplexArray array = new ComplexArray(values[0], values[1]);
+			FourierTransform.forward(values[0], values[1]);
+			FourierTransform.forward(array);
+			assertArrayEquals(values[0], array.real(), 0);
+			assertArrayEquals(values[1], array.imaginary(), 0);
+
+			FourierTransform.inverse(values[0], values[1]);
+			FourierTransform.inverse(array);
+			assertArrayEquals(values[0], array.real(), 0);
+			assertArrayEquals(values[1], array.imaginary(), 0);
+		}
+	}
+
+	@Test
+	public void roundTripTest() {
+		// 131073 needs a convolution longer than the cached one
+		for (int n : new int[] { 2, 3, 256, 257, 4096, 4095, 131073 }) {
+			double[][] values = random(n, 7 * n);
+			double[] re = values[0].clone();
+			double[] im = values[1].clone();
+			FourierTransform.forward(re, im);
+			FourierTransform.inverse(re, im);
+			assertClose(values[0], values[1], re, im);
+
+			double[] data = interleave(values[0], values[1]);
+			FourierTransform.forward(data);
+			FourierTransform.inverse(data);
+			double[] dataRe = new double[n];
+			double[] dataIm = new double[n];
+			for (int k = 0; k < n; ++k) {
+				dataRe[k] = data[2 * k];
+				dataIm[k] = data[2 * k + 1];
+			}
+			assertClose(values[0], values[1], dataRe, dataIm);
+		}
+	}
+
+	@Test
+	public void repeatedLengthsTest() {
+		// alternating lengths replace the cached chirp, repeating one reuses it
+		double[][] values = random(100, 5);
+		double[] first = interleave(values[0], values[1]);
+		FourierTransform.forward(first);
+		for (int n : new int[] { 100, 100, 37, 100, 1000, 37, 37 }) {
+			checkForward(n);
+			double[] data = interleave(values[0], values[1]);
+			FourierTransform.forward(data);
+			assertArrayEquals(first, data, 0);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nullPartsTest() {
+		FourierTransform.forward(null, new double[1]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void differentLengthsTest() {
+		FourierTransform.inverse(new double[2], new double[3]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nullInterleavedTest() {
+		FourierTransform.forward((double[]) null);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void oddInterleavedTest() {
+		FourierTransform.inverse(new double[5]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void nullArrayTest() {
+		FourierTransform.forward((ComplexArray) null);
+	}
+}